@@ -56,9 +56,23 @@ public interface EventConstants {
   // journal events
   String POST_JOURNAL_ENTRY = "post-journal-entry";
   String RELEASE_JOURNAL_ENTRY = "release-journal-entry";
+  String REJECT_JOURNAL_ENTRY = "reject-journal-entry";
 
   String SELECTOR_POST_JOURNAL_ENTRY = SELECTOR_NAME + " = '" + POST_JOURNAL_ENTRY + "'";
   String SELECTOR_RELEASE_JOURNAL_ENTRY = SELECTOR_NAME + " = '" + RELEASE_JOURNAL_ENTRY + "'";
+  String SELECTOR_REJECT_JOURNAL_ENTRY = SELECTOR_NAME + " = '" + REJECT_JOURNAL_ENTRY + "'";
+
+  // journal batch events, the payload is the batch identifier; a large batch is posted and released in parts, each
+  // part emits its own events
+  String POST_JOURNAL_ENTRIES = "post-journal-entries";
+  String RELEASE_JOURNAL_ENTRIES = "release-journal-entries";
+
+  String SELECTOR_POST_JOURNAL_ENTRIES = SELECTOR_NAME + " = '" + POST_JOURNAL_ENTRIES + "'";
+  String SELECTOR_RELEASE_JOURNAL_ENTRIES = SELECTOR_NAME + " = '" + RELEASE_JOURNAL_ENTRIES + "'";
+
+  // period closing events, the payload is the end of the closed period
+  String POST_PERIOD_CLOSING = "post-period-closing";
+  String SELECTOR_POST_PERIOD_CLOSING = SELECTOR_NAME + " = '" + POST_PERIOD_CLOSING + "'";
 
   String POST_TX_TYPE = "post-tx-type";
   String SELECTOR_POST_TX_TYPE = SELECTOR_NAME + " = '" + POST_TX_TYPE + "'";
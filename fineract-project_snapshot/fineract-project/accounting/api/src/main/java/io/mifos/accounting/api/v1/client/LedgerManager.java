@@ -16,11 +16,15 @@
 package io.mifos.accounting.api.v1.client;
 
 import io.mifos.accounting.api.v1.domain.Account;
+import io.mifos.accounting.api.v1.domain.AccountBalance;
 import io.mifos.accounting.api.v1.domain.AccountCommand;
 import io.mifos.accounting.api.v1.domain.AccountEntryPage;
 import io.mifos.accounting.api.v1.domain.AccountPage;
 import io.mifos.accounting.api.v1.domain.ChartOfAccountEntry;
 import io.mifos.accounting.api.v1.domain.JournalEntry;
+import io.mifos.accounting.api.v1.domain.JournalEntryBatch;
+import io.mifos.accounting.api.v1.domain.JournalEntryPage;
+import io.mifos.accounting.api.v1.domain.JournalEntryStatus;
 import io.mifos.accounting.api.v1.domain.Ledger;
 import io.mifos.accounting.api.v1.domain.LedgerPage;
 import io.mifos.accounting.api.v1.domain.TransactionType;
@@ -200,6 +204,29 @@ public interface LedgerManager {
                                        @RequestParam(value = "sortColumn", required = false) final String sortColumn,
                                        @RequestParam(value = "sortDirection", required = false) final String sortDirection);
 
+  @RequestMapping(
+      value = "/accounts/{identifier}/entries",
+      method = RequestMethod.GET,
+      produces = {MediaType.ALL_VALUE},
+      consumes = {MediaType.APPLICATION_JSON_VALUE}
+  )
+  @ThrowsException(status = HttpStatus.NOT_FOUND, exception = AccountNotFoundException.class)
+  AccountEntryPage seekAccountEntries(@PathVariable("identifier") final String identifier,
+                                      @RequestParam(value = "dateRange", required = false) final String dateRange,
+                                      @RequestParam(value = "cursor", required = false) final String cursor,
+                                      @RequestParam(value = "size", required = false) final Integer size,
+                                      @RequestParam(value = "includeTotal", required = false) final Boolean includeTotal);
+
+  @RequestMapping(
+      value = "/accounts/{identifier}/balance",
+      method = RequestMethod.GET,
+      produces = {MediaType.ALL_VALUE},
+      consumes = {MediaType.APPLICATION_JSON_VALUE}
+  )
+  @ThrowsException(status = HttpStatus.NOT_FOUND, exception = AccountNotFoundException.class)
+  AccountBalance findAccountBalance(@PathVariable("identifier") final String identifier,
+                                    @RequestParam(value = "dateTime") final String dateTime);
+
   @RequestMapping(
           value = "/accounts/{identifier}/commands",
           method = RequestMethod.GET,
@@ -227,6 +254,15 @@ public interface LedgerManager {
   @ThrowsException(status = HttpStatus.BAD_REQUEST, exception = JournalEntryValidationException.class)
   void createJournalEntry(@RequestBody final JournalEntry journalEntry);
 
+  @RequestMapping(
+      value = "/journal/batch",
+      method = RequestMethod.POST,
+      produces = {MediaType.APPLICATION_JSON_VALUE},
+      consumes = {MediaType.APPLICATION_JSON_VALUE}
+  )
+  @ThrowsException(status = HttpStatus.BAD_REQUEST, exception = JournalEntryValidationException.class)
+  List<JournalEntryStatus> createJournalEntries(@RequestBody final JournalEntryBatch journalEntryBatch);
+
   @RequestMapping(
       value = "/journal",
       method = RequestMethod.GET,
@@ -235,6 +271,28 @@ public interface LedgerManager {
   )
   List<JournalEntry> fetchJournalEntries(@RequestParam(value = "dateRange", required = false) final String dateRange);
 
+  @RequestMapping(
+      value = "/journal/page",
+      method = RequestMethod.GET,
+      produces = {MediaType.ALL_VALUE},
+      consumes = {MediaType.APPLICATION_JSON_VALUE}
+  )
+  @ThrowsException(status = HttpStatus.BAD_REQUEST, exception = JournalEntryValidationException.class)
+  JournalEntryPage fetchJournalEntryPage(@RequestParam(value = "dateRange", required = false) final String dateRange,
+                                         @RequestParam(value = "cursor", required = false) final String cursor,
+                                         @RequestParam(value = "size", required = false) final Integer size);
+
+  /**
+   * Returns the journal entries of the date range as newline delimited JSON, read into memory as a whole.
+   */
+  @RequestMapping(
+      value = "/journal/export",
+      method = RequestMethod.GET,
+      produces = {MediaType.ALL_VALUE},
+      consumes = {MediaType.APPLICATION_JSON_VALUE}
+  )
+  String exportJournalEntries(@RequestParam(value = "dateRange", required = false) final String dateRange);
+
   @RequestMapping(
       value = "/journal/{transactionIdentifier}",
       method = RequestMethod.GET,
@@ -253,6 +311,16 @@ public interface LedgerManager {
   TrialBalance getTrialBalance(
       @RequestParam(value = "includeEmptyEntries", required = false) final boolean includeEmptyEntries);
 
+  @RequestMapping(
+      value = "/trialbalance",
+      method = RequestMethod.GET,
+      produces = {MediaType.ALL_VALUE},
+      consumes = {MediaType.APPLICATION_JSON_VALUE}
+  )
+  TrialBalance getTrialBalance(
+      @RequestParam(value = "includeEmptyEntries", required = false) final boolean includeEmptyEntries,
+      @RequestParam(value = "dateTime", required = false) final String dateTime);
+
   @RequestMapping(
       value = "/chartofaccounts",
       method = RequestMethod.GET,
@@ -261,6 +329,17 @@ public interface LedgerManager {
   )
   List<ChartOfAccountEntry> getChartOfAccounts();
 
+  /**
+   * Returns the chart of accounts as newline delimited JSON, read into memory as a whole.
+   */
+  @RequestMapping(
+      value = "/chartofaccounts/export",
+      method = RequestMethod.GET,
+      produces = {MediaType.ALL_VALUE},
+      consumes = {MediaType.APPLICATION_JSON_VALUE}
+  )
+  String exportChartOfAccounts();
+
   @RequestMapping(
       value = "/transactiontypes",
       method = RequestMethod.POST,
@@ -19,6 +19,8 @@ import io.mifos.core.lang.validation.constraints.ValidIdentifier;
 import org.hibernate.validator.constraints.Length;
 import org.hibernate.validator.constraints.NotEmpty;
 
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import java.util.Set;
 
@@ -43,6 +45,9 @@ public final class Account {
   private String createdBy;
   private String lastModifiedOn;
   private String lastModifiedBy;
+  @Min(0)
+  @Max(64)
+  private Integer balanceStripes;
 
   public Account() {
     super();
@@ -152,6 +157,18 @@ public final class Account {
     this.lastModifiedBy = lastModifiedBy;
   }
 
+  public Integer getBalanceStripes() {
+    return this.balanceStripes;
+  }
+
+  /**
+   * Spreads the balance of a high-volume account across the given number of rows, so that concurrent bookings do
+   * not wait for each other. Zero switches striping off; absent keeps the current setting.
+   */
+  public void setBalanceStripes(final Integer balanceStripes) {
+    this.balanceStripes = balanceStripes;
+  }
+
   @SuppressWarnings("WeakerAccess")
   public enum State {
     OPEN,
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.accounting.api.v1.domain;
+
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class AccountBalance {
+
+  private String accountIdentifier;
+  private String dateTime;
+  private Double balance;
+
+  public String getAccountIdentifier() {
+    return this.accountIdentifier;
+  }
+
+  public void setAccountIdentifier(final String accountIdentifier) {
+    this.accountIdentifier = accountIdentifier;
+  }
+
+  public String getDateTime() {
+    return this.dateTime;
+  }
+
+  public void setDateTime(final String dateTime) {
+    this.dateTime = dateTime;
+  }
+
+  public Double getBalance() {
+    return this.balance;
+  }
+
+  public void setBalance(final Double balance) {
+    this.balance = balance;
+  }
+}
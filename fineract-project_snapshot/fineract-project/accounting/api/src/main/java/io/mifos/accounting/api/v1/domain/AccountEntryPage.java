@@ -21,6 +21,7 @@ public class AccountEntryPage {
   private List<AccountEntry> accountEntries;
   private Integer totalPages;
   private Long totalElements;
+  private String nextCursor;
 
   public AccountEntryPage() {
     super();
@@ -49,4 +50,12 @@ public class AccountEntryPage {
   public void setTotalElements(Long totalElements) {
     this.totalElements = totalElements;
   }
+
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  public void setNextCursor(String nextCursor) {
+    this.nextCursor = nextCursor;
+  }
 }
@@ -123,7 +123,8 @@ public final class JournalEntry {
   @SuppressWarnings("WeakerAccess")
   public enum State {
     PENDING,
-    PROCESSED
+    PROCESSED,
+    REJECTED
   }
 
   @Override
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.accounting.api.v1.domain;
+
+import io.mifos.core.lang.validation.constraints.ValidIdentifier;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+import java.util.Objects;
+
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class JournalEntryBatch {
+
+  public static final int MAX_SIZE = 10000;
+
+  @ValidIdentifier
+  private String identifier;
+  @NotNull
+  @Size(min = 1, max = MAX_SIZE)
+  @Valid
+  private List<JournalEntry> journalEntries;
+
+  public JournalEntryBatch() {
+    super();
+  }
+
+  public String getIdentifier() {
+    return this.identifier;
+  }
+
+  public void setIdentifier(final String identifier) {
+    this.identifier = identifier;
+  }
+
+  public List<JournalEntry> getJournalEntries() {
+    return this.journalEntries;
+  }
+
+  public void setJournalEntries(final List<JournalEntry> journalEntries) {
+    this.journalEntries = journalEntries;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    JournalEntryBatch that = (JournalEntryBatch) o;
+    return Objects.equals(identifier, that.identifier) &&
+            Objects.equals(journalEntries, that.journalEntries);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(identifier, journalEntries);
+  }
+
+  @Override
+  public String toString() {
+    return "JournalEntryBatch{" +
+            "identifier='" + identifier + '\'' +
+            ", journalEntries=" + (journalEntries != null ? journalEntries.size() : 0) +
+            '}';
+  }
+}
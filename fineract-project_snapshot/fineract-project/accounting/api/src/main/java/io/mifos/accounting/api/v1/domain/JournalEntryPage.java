@@ -0,0 +1,43 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.accounting.api.v1.domain;
+
+import java.util.List;
+
+public class JournalEntryPage {
+  private List<JournalEntry> journalEntries;
+  private String nextCursor;
+
+  public JournalEntryPage() {
+    super();
+  }
+
+  public List<JournalEntry> getJournalEntries() {
+    return journalEntries;
+  }
+
+  public void setJournalEntries(List<JournalEntry> journalEntries) {
+    this.journalEntries = journalEntries;
+  }
+
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  public void setNextCursor(String nextCursor) {
+    this.nextCursor = nextCursor;
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.accounting.api.v1.domain;
+
+import java.util.Objects;
+
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class JournalEntryStatus {
+
+  private String transactionIdentifier;
+  private State state;
+  private String message;
+
+  public JournalEntryStatus() {
+    super();
+  }
+
+  public JournalEntryStatus(final String transactionIdentifier, final State state, final String message) {
+    super();
+    this.transactionIdentifier = transactionIdentifier;
+    this.state = state;
+    this.message = message;
+  }
+
+  public String getTransactionIdentifier() {
+    return this.transactionIdentifier;
+  }
+
+  public void setTransactionIdentifier(final String transactionIdentifier) {
+    this.transactionIdentifier = transactionIdentifier;
+  }
+
+  public String getState() {
+    return this.state.name();
+  }
+
+  public void setState(final String state) {
+    this.state = State.valueOf(state);
+  }
+
+  public String getMessage() {
+    return this.message;
+  }
+
+  public void setMessage(final String message) {
+    this.message = message;
+  }
+
+  @SuppressWarnings("WeakerAccess")
+  public enum State {
+    /**
+     * Valid and queued for booking, the journal entry is PROCESSED once booked.
+     */
+    ACCEPTED,
+    REJECTED,
+    /**
+     * The journal already has an entry with this transaction identifier, nothing is booked again.
+     */
+    DUPLICATE
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    JournalEntryStatus that = (JournalEntryStatus) o;
+    return Objects.equals(transactionIdentifier, that.transactionIdentifier) &&
+            state == that.state &&
+            Objects.equals(message, that.message);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(transactionIdentifier, state, message);
+  }
+
+  @Override
+  public String toString() {
+    return "JournalEntryStatus{" +
+            "transactionIdentifier='" + transactionIdentifier + '\'' +
+            ", state=" + state +
+            ", message='" + message + '\'' +
+            '}';
+  }
+}
@@ -41,6 +41,7 @@ public final class Ledger {
   private String lastModifiedBy;
   @NotNull
   private Boolean showAccountsInChart;
+  private Double totalValue;
 
   public Ledger() {
     super();
@@ -133,4 +134,12 @@ public final class Ledger {
   public void setShowAccountsInChart(final Boolean showAccountsInChart) {
     this.showAccountsInChart = showAccountsInChart;
   }
+
+  public Double getTotalValue() {
+    return this.totalValue;
+  }
+
+  public void setTotalValue(final Double totalValue) {
+    this.totalValue = totalValue;
+  }
 }
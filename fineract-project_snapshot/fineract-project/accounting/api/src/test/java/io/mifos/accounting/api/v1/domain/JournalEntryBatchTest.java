@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.accounting.api.v1.domain;
+
+import io.mifos.core.lang.DateConverter;
+import io.mifos.core.test.domain.ValidationTest;
+import io.mifos.core.test.domain.ValidationTestCase;
+import org.apache.commons.lang.RandomStringUtils;
+import org.junit.runners.Parameterized;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+public class JournalEntryBatchTest extends ValidationTest<JournalEntryBatch> {
+  @Parameterized.Parameters
+  public static Collection testCases() {
+    final Collection<ValidationTestCase> ret = new ArrayList<>();
+
+    ret.add(new ValidationTestCase<JournalEntryBatch>("valid"));
+    ret.add(new ValidationTestCase<JournalEntryBatch>("emptyBatch")
+            .adjustment(x -> x.setJournalEntries(new ArrayList<>()))
+            .valid(false));
+    ret.add(new ValidationTestCase<JournalEntryBatch>("missingJournalEntries")
+            .adjustment(x -> x.setJournalEntries(null))
+            .valid(false));
+    ret.add(new ValidationTestCase<JournalEntryBatch>("tooLargeBatch")
+            .adjustment(x -> x.setJournalEntries(
+                Collections.nCopies(JournalEntryBatch.MAX_SIZE + 1, x.getJournalEntries().get(0))))
+            .valid(false));
+    ret.add(new ValidationTestCase<JournalEntryBatch>("invalidJournalEntry")
+            .adjustment(x -> x.getJournalEntries().get(0).setClerk(null))
+            .valid(false));
+    ret.add(new ValidationTestCase<JournalEntryBatch>("tooLongIdentifier")
+            .adjustment(x -> x.setIdentifier(RandomStringUtils.randomAlphanumeric(33)))
+            .valid(false));
+
+    return ret;
+  }
+
+  public JournalEntryBatchTest(ValidationTestCase<JournalEntryBatch> testCase) {
+    super(testCase);
+  }
+
+  @Override
+  protected JournalEntryBatch createValidTestSubject() {
+    final JournalEntry journalEntry = new JournalEntry();
+    final HashSet<Creditor> creditors = new HashSet<>();
+    creditors.add(new Creditor("beevis", "20.00"));
+    journalEntry.setCreditors(creditors);
+    final HashSet<Debtor> debtors = new HashSet<>();
+    debtors.add(new Debtor("butthead", "20.00"));
+    journalEntry.setDebtors(debtors);
+    journalEntry.setClerk("Mike");
+    journalEntry.setTransactionIdentifier("generated");
+    journalEntry.setTransactionType("invented");
+    journalEntry.setTransactionDate(DateConverter.toIsoString(LocalDateTime.now()));
+
+    final List<JournalEntry> journalEntries = new ArrayList<>();
+    journalEntries.add(journalEntry);
+
+    final JournalEntryBatch ret = new JournalEntryBatch();
+    ret.setIdentifier("batch");
+    ret.setJournalEntries(journalEntries);
+    return ret;
+  }
+}
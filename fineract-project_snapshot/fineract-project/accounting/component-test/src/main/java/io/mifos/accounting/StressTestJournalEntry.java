@@ -18,14 +18,18 @@ package io.mifos.accounting;
 import io.mifos.accounting.api.v1.EventConstants;
 import io.mifos.accounting.api.v1.domain.Account;
 import io.mifos.accounting.api.v1.domain.JournalEntry;
+import io.mifos.accounting.api.v1.domain.JournalEntryBatch;
 import io.mifos.accounting.api.v1.domain.Ledger;
 import io.mifos.accounting.util.AccountGenerator;
 import io.mifos.accounting.util.JournalEntryGenerator;
 import io.mifos.accounting.util.LedgerGenerator;
 import org.apache.commons.lang.math.RandomUtils;
+import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -49,6 +53,41 @@ public class StressTestJournalEntry extends AbstractAccountingTest {
     this.writeJournalEntries(32, numberOfJournalEntries, preparedAccountsAsArray);
   }
 
+  @Test
+  public void runBookingStresser() throws Exception {
+    final Account[] preparedAccountsAsArray = this.prepareData(4, 128);
+
+    this.bookJournalEntries(2, 64, 1000, preparedAccountsAsArray);
+    this.bookJournalEntries(50, 8, 1000, preparedAccountsAsArray);
+  }
+
+  private void bookJournalEntries(final int numberOfLegs, final int numberOfBatches, final int batchSize,
+                                  final Account[] preparedAccountsAsArray) throws Exception {
+    long processingTime = 0L;
+    for (int b = 0; b < numberOfBatches; b++) {
+      final ArrayList<JournalEntry> journalEntries = new ArrayList<>(batchSize);
+      for (int i = 0; i < batchSize; i++) {
+        final List<Account> shuffledAccounts = Arrays.asList(preparedAccountsAsArray.clone());
+        Collections.shuffle(shuffledAccounts);
+        journalEntries.add(JournalEntryGenerator.createRandomJournalEntry(
+            shuffledAccounts.subList(0, numberOfLegs / 2),
+            shuffledAccounts.subList(numberOfLegs / 2, numberOfLegs), "10.00"));
+      }
+      final JournalEntryBatch journalEntryBatch = new JournalEntryBatch();
+      journalEntryBatch.setIdentifier(RandomStringUtils.randomAlphanumeric(8));
+      journalEntryBatch.setJournalEntries(journalEntries);
+
+      final long start = System.currentTimeMillis();
+      this.testSubject.createJournalEntries(journalEntryBatch);
+      this.eventRecorder.wait(EventConstants.RELEASE_JOURNAL_ENTRIES, journalEntryBatch.getIdentifier());
+      processingTime += (System.currentTimeMillis() - start);
+    }
+
+    final long numberOfBookedJournalEntries = numberOfBatches * batchSize;
+    this.logger.error("Booked {} journal entries with {} legs in {}s.", numberOfBookedJournalEntries, numberOfLegs, (processingTime / 1000L));
+    this.logger.error("Throughput: {} journal entries per second.", (numberOfBookedJournalEntries * 1000L) / Math.max(processingTime, 1L));
+  }
+
   private void writeJournalEntries(final int numberOfThreads, final int numberOfJournalEntries, final Account[] preparedAccountsAsArray) {
     final List<Future<?>> futures = new ArrayList<>(numberOfThreads);
     final ExecutorService executorService = Executors.newFixedThreadPool(numberOfThreads);
@@ -20,7 +20,9 @@ import io.mifos.accounting.api.v1.client.AccountAlreadyExistsException;
 import io.mifos.accounting.api.v1.client.AccountNotFoundException;
 import io.mifos.accounting.api.v1.client.AccountReferenceException;
 import io.mifos.accounting.api.v1.domain.Account;
+import io.mifos.accounting.api.v1.domain.AccountBalance;
 import io.mifos.accounting.api.v1.domain.AccountCommand;
+import io.mifos.accounting.api.v1.domain.AccountEntryPage;
 import io.mifos.accounting.api.v1.domain.AccountPage;
 import io.mifos.accounting.api.v1.domain.AccountType;
 import io.mifos.accounting.api.v1.domain.JournalEntry;
@@ -32,6 +34,11 @@ import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+
 public class TestAccount extends AbstractAccountingTest {
   @Test
   public void shouldCreateAccount() throws Exception {
@@ -455,6 +462,151 @@ public class TestAccount extends AbstractAccountingTest {
     }
   }
 
+  @Test
+  public void shouldSeekAccountEntries() throws Exception {
+    final Ledger assetLedger = LedgerGenerator.createRandomLedger();
+    assetLedger.setType(AccountType.ASSET.name());
+    this.testSubject.createLedger(assetLedger);
+    this.eventRecorder.wait(EventConstants.POST_LEDGER, assetLedger.getIdentifier());
+
+    final Account debtorAccount = AccountGenerator.createRandomAccount(assetLedger.getIdentifier());
+    debtorAccount.setType(AccountType.ASSET.name());
+    debtorAccount.setBalance(100.00D);
+    this.testSubject.createAccount(debtorAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, debtorAccount.getIdentifier());
+
+    final Ledger liabilityLedger = LedgerGenerator.createRandomLedger();
+    liabilityLedger.setType(AccountType.LIABILITY.name());
+    this.testSubject.createLedger(liabilityLedger);
+    this.eventRecorder.wait(EventConstants.POST_LEDGER, liabilityLedger.getIdentifier());
+
+    final Account creditorAccount = AccountGenerator.createRandomAccount(liabilityLedger.getIdentifier());
+    creditorAccount.setType(AccountType.LIABILITY.name());
+    creditorAccount.setBalance(100.00D);
+    this.testSubject.createAccount(creditorAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, creditorAccount.getIdentifier());
+
+    // equal transaction dates, so the entries are ordered by their id only
+    final OffsetDateTime transactionDate = OffsetDateTime.of(1983, 4, 12, 1, 0, 0, 0, ZoneOffset.UTC);
+    for (int i = 0; i < 3; i++) {
+      final JournalEntry journalEntry = JournalEntryGenerator.createRandomJournalEntry(debtorAccount, "10.00",
+          creditorAccount, "10.00");
+      journalEntry.setTransactionDate(transactionDate.format(DateTimeFormatter.ISO_ZONED_DATE_TIME));
+      this.testSubject.createJournalEntry(journalEntry);
+      this.eventRecorder.wait(EventConstants.POST_JOURNAL_ENTRY, journalEntry.getTransactionIdentifier());
+      this.eventRecorder.wait(EventConstants.RELEASE_JOURNAL_ENTRY, journalEntry.getTransactionIdentifier());
+    }
+
+    final String dateRange = "1983-04-11T00:00:00Z..1983-04-13T00:00:00Z";
+
+    final AccountEntryPage firstPage =
+        this.testSubject.seekAccountEntries(debtorAccount.getIdentifier(), dateRange, null, 2, true);
+    Assert.assertEquals(2, firstPage.getAccountEntries().size());
+    Assert.assertEquals(Long.valueOf(3L), firstPage.getTotalElements());
+    Assert.assertNotNull(firstPage.getNextCursor());
+
+    final AccountEntryPage secondPage = this.testSubject.seekAccountEntries(debtorAccount.getIdentifier(), dateRange,
+        firstPage.getNextCursor(), 2, false);
+    Assert.assertEquals(1, secondPage.getAccountEntries().size());
+    Assert.assertNull(secondPage.getTotalElements());
+    Assert.assertNull(secondPage.getNextCursor());
+  }
+
+  @Test
+  public void shouldFindHistoricalBalance() throws Exception {
+    final Ledger assetLedger = LedgerGenerator.createRandomLedger();
+    assetLedger.setType(AccountType.ASSET.name());
+    this.testSubject.createLedger(assetLedger);
+    this.eventRecorder.wait(EventConstants.POST_LEDGER, assetLedger.getIdentifier());
+
+    final Account debtorAccount = AccountGenerator.createRandomAccount(assetLedger.getIdentifier());
+    debtorAccount.setType(AccountType.ASSET.name());
+    debtorAccount.setBalance(100.00D);
+    this.testSubject.createAccount(debtorAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, debtorAccount.getIdentifier());
+
+    final Ledger liabilityLedger = LedgerGenerator.createRandomLedger();
+    liabilityLedger.setType(AccountType.LIABILITY.name());
+    this.testSubject.createLedger(liabilityLedger);
+    this.eventRecorder.wait(EventConstants.POST_LEDGER, liabilityLedger.getIdentifier());
+
+    final Account creditorAccount = AccountGenerator.createRandomAccount(liabilityLedger.getIdentifier());
+    creditorAccount.setType(AccountType.LIABILITY.name());
+    creditorAccount.setBalance(100.00D);
+    this.testSubject.createAccount(creditorAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, creditorAccount.getIdentifier());
+
+    for (final int month : new int[]{4, 5}) {
+      final JournalEntry journalEntry = JournalEntryGenerator.createRandomJournalEntry(debtorAccount, "10.00",
+          creditorAccount, "10.00");
+      journalEntry.setTransactionDate(OffsetDateTime.of(1983, month, 12, 1, 0, 0, 0, ZoneOffset.UTC)
+          .format(DateTimeFormatter.ISO_ZONED_DATE_TIME));
+      this.testSubject.createJournalEntry(journalEntry);
+      this.eventRecorder.wait(EventConstants.POST_JOURNAL_ENTRY, journalEntry.getTransactionIdentifier());
+      this.eventRecorder.wait(EventConstants.RELEASE_JOURNAL_ENTRY, journalEntry.getTransactionIdentifier());
+    }
+
+    final AccountBalance beforeEntries =
+        this.testSubject.findAccountBalance(debtorAccount.getIdentifier(), "1983-04-01T00:00:00Z");
+    Assert.assertEquals(100.00D, beforeEntries.getBalance(), 0.00001D);
+
+    final AccountBalance betweenEntries =
+        this.testSubject.findAccountBalance(debtorAccount.getIdentifier(), "1983-05-01T00:00:00Z");
+    Assert.assertEquals(debtorAccount.getIdentifier(), betweenEntries.getAccountIdentifier());
+    Assert.assertEquals(110.00D, betweenEntries.getBalance(), 0.00001D);
+
+    final AccountBalance creditorBetweenEntries =
+        this.testSubject.findAccountBalance(creditorAccount.getIdentifier(), "1983-05-01T00:00:00Z");
+    Assert.assertEquals(110.00D, creditorBetweenEntries.getBalance(), 0.00001D);
+
+    final Account account = this.testSubject.findAccount(debtorAccount.getIdentifier());
+    Assert.assertEquals(120.00D, account.getBalance(), 0.00001D);
+  }
+
+  @Test
+  public void shouldBookConcurrentlyOnStripedAccount() throws Exception {
+    final Ledger assetLedger = LedgerGenerator.createRandomLedger();
+    assetLedger.setType(AccountType.ASSET.name());
+    this.testSubject.createLedger(assetLedger);
+    this.eventRecorder.wait(EventConstants.POST_LEDGER, assetLedger.getIdentifier());
+
+    final Account stripedAccount = AccountGenerator.createRandomAccount(assetLedger.getIdentifier());
+    stripedAccount.setType(AccountType.ASSET.name());
+    stripedAccount.setBalance(100.00D);
+    stripedAccount.setBalanceStripes(4);
+    this.testSubject.createAccount(stripedAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, stripedAccount.getIdentifier());
+
+    final Ledger liabilityLedger = LedgerGenerator.createRandomLedger();
+    liabilityLedger.setType(AccountType.LIABILITY.name());
+    this.testSubject.createLedger(liabilityLedger);
+    this.eventRecorder.wait(EventConstants.POST_LEDGER, liabilityLedger.getIdentifier());
+
+    final Account creditorAccount = AccountGenerator.createRandomAccount(liabilityLedger.getIdentifier());
+    creditorAccount.setType(AccountType.LIABILITY.name());
+    creditorAccount.setBalance(0.00D);
+    this.testSubject.createAccount(creditorAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, creditorAccount.getIdentifier());
+
+    // all entries are posted before waiting for any, so they are booked concurrently
+    final ArrayList<JournalEntry> journalEntries = new ArrayList<>();
+    for (int i = 0; i < 16; i++) {
+      final JournalEntry journalEntry = JournalEntryGenerator.createRandomJournalEntry(stripedAccount, "10.00",
+          creditorAccount, "10.00");
+      this.testSubject.createJournalEntry(journalEntry);
+      journalEntries.add(journalEntry);
+    }
+    for (final JournalEntry journalEntry : journalEntries) {
+      this.eventRecorder.wait(EventConstants.RELEASE_JOURNAL_ENTRY, journalEntry.getTransactionIdentifier());
+    }
+
+    final Account fetchedStripedAccount = this.testSubject.findAccount(stripedAccount.getIdentifier());
+    Assert.assertEquals(Integer.valueOf(4), fetchedStripedAccount.getBalanceStripes());
+    Assert.assertEquals(260.00D, fetchedStripedAccount.getBalance(), 0.00D);
+    Assert.assertEquals(160.00D, this.testSubject.findAccount(creditorAccount.getIdentifier()).getBalance(), 0.00D);
+    Assert.assertEquals(260.00D, this.testSubject.findLedger(assetLedger.getIdentifier()).getTotalValue(), 0.00D);
+  }
+
   @Test
   public void shouldNotDeleteAccountIsReferenced() throws Exception {
     final Ledger randomLedger = LedgerGenerator.createRandomLedger();
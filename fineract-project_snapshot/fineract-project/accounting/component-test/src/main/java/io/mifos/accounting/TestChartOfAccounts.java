@@ -79,5 +79,21 @@ public class TestChartOfAccounts extends AbstractAccountingTest {
     Assert.assertEquals(Integer.valueOf(2), chartOfAccounts.get(4).getLevel());
     Assert.assertEquals(Integer.valueOf(0), chartOfAccounts.get(5).getLevel());
     Assert.assertEquals(Integer.valueOf(1), chartOfAccounts.get(6).getLevel());
+
+    final Account commercialInterestRevenueAccount =
+        AccountGenerator.createAccount(interestRevenueLedger.getIdentifier(), "11200", AccountType.REVENUE);
+    this.testSubject.createAccount(commercialInterestRevenueAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, commercialInterestRevenueAccount.getIdentifier());
+
+    final List<ChartOfAccountEntry> changedChartOfAccounts = this.testSubject.getChartOfAccounts();
+    Assert.assertEquals(8, changedChartOfAccounts.size());
+    Assert.assertEquals("11200", changedChartOfAccounts.get(3).getCode());
+    Assert.assertEquals(Integer.valueOf(2), changedChartOfAccounts.get(3).getLevel());
+    Assert.assertEquals("12000", changedChartOfAccounts.get(4).getCode());
+
+    final String[] exportedChartOfAccounts = this.testSubject.exportChartOfAccounts().trim().split("\\n");
+    Assert.assertEquals(changedChartOfAccounts.size(), exportedChartOfAccounts.length);
+    Assert.assertTrue(exportedChartOfAccounts[3].contains("\"11200\""));
+    Assert.assertTrue(exportedChartOfAccounts[4].contains("\"12000\""));
   }
 }
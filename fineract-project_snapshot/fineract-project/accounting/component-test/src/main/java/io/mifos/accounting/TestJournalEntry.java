@@ -19,10 +19,14 @@ import io.mifos.accounting.api.v1.EventConstants;
 import io.mifos.accounting.api.v1.domain.Account;
 import io.mifos.accounting.api.v1.domain.AccountType;
 import io.mifos.accounting.api.v1.domain.JournalEntry;
+import io.mifos.accounting.api.v1.domain.JournalEntryBatch;
+import io.mifos.accounting.api.v1.domain.JournalEntryPage;
+import io.mifos.accounting.api.v1.domain.JournalEntryStatus;
 import io.mifos.accounting.api.v1.domain.Ledger;
 import io.mifos.accounting.util.AccountGenerator;
 import io.mifos.accounting.util.JournalEntryGenerator;
 import io.mifos.accounting.util.LedgerGenerator;
+import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -30,6 +34,9 @@ import java.text.MessageFormat;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 
 public class TestJournalEntry extends AbstractAccountingTest {
@@ -123,5 +130,169 @@ public class TestJournalEntry extends AbstractAccountingTest {
     final List<JournalEntry> journalEntries = this.testSubject.fetchJournalEntries(MessageFormat.format("{0}..{1}", "1982-06-24", "1982-06-26"));
 
     Assert.assertEquals(2, journalEntries.size());
+
+    final HashSet<String> pagedTransactionIdentifiers = new HashSet<>();
+    String cursor = null;
+    do {
+      final JournalEntryPage journalEntryPage = this.testSubject.fetchJournalEntryPage(
+          MessageFormat.format("{0}..{1}", "1982-06-24", "1982-06-26"), cursor, 1);
+      Assert.assertTrue(journalEntryPage.getJournalEntries().size() <= 1);
+      journalEntryPage.getJournalEntries()
+          .forEach(journalEntry -> pagedTransactionIdentifiers.add(journalEntry.getTransactionIdentifier()));
+      cursor = journalEntryPage.getNextCursor();
+    } while (cursor != null);
+
+    Assert.assertEquals(2, pagedTransactionIdentifiers.size());
+    Assert.assertTrue(pagedTransactionIdentifiers.contains(journalEntryOne.getTransactionIdentifier()));
+    Assert.assertTrue(pagedTransactionIdentifiers.contains(journalEntryTwo.getTransactionIdentifier()));
+  }
+
+  @Test
+  public void shouldExportJournalEntries() throws Exception {
+    final Ledger assetLedger = LedgerGenerator.createRandomLedger();
+    assetLedger.setType(AccountType.ASSET.name());
+    this.testSubject.createLedger(assetLedger);
+    this.eventRecorder.wait(EventConstants.POST_LEDGER, assetLedger.getIdentifier());
+
+    final Account debtorAccount = AccountGenerator.createRandomAccount(assetLedger.getIdentifier());
+    debtorAccount.setType(AccountType.ASSET.name());
+    debtorAccount.setBalance(100.00D);
+    this.testSubject.createAccount(debtorAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, debtorAccount.getIdentifier());
+
+    final Ledger liabilityLedger = LedgerGenerator.createRandomLedger();
+    liabilityLedger.setType(AccountType.LIABILITY.name());
+    this.testSubject.createLedger(liabilityLedger);
+    this.eventRecorder.wait(EventConstants.POST_LEDGER, liabilityLedger.getIdentifier());
+
+    final Account creditorAccount = AccountGenerator.createRandomAccount(liabilityLedger.getIdentifier());
+    creditorAccount.setType(AccountType.LIABILITY.name());
+    creditorAccount.setBalance(100.00D);
+    this.testSubject.createAccount(creditorAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, creditorAccount.getIdentifier());
+
+    final JournalEntry journalEntryOne = JournalEntryGenerator.createRandomJournalEntry(debtorAccount, "50.00",
+            creditorAccount, "50.00");
+    journalEntryOne.setTransactionDate(OffsetDateTime.of(1982, 7, 14, 1, 0, 0, 0, ZoneOffset.UTC)
+        .format(DateTimeFormatter.ISO_ZONED_DATE_TIME));
+    this.testSubject.createJournalEntry(journalEntryOne);
+    this.eventRecorder.wait(EventConstants.RELEASE_JOURNAL_ENTRY, journalEntryOne.getTransactionIdentifier());
+
+    final JournalEntry journalEntryTwo = JournalEntryGenerator.createRandomJournalEntry(debtorAccount, "50.00",
+            creditorAccount, "50.00");
+    journalEntryTwo.setTransactionDate(OffsetDateTime.of(1982, 7, 16, 1, 0, 0, 0, ZoneOffset.UTC)
+        .format(DateTimeFormatter.ISO_ZONED_DATE_TIME));
+    this.testSubject.createJournalEntry(journalEntryTwo);
+    this.eventRecorder.wait(EventConstants.RELEASE_JOURNAL_ENTRY, journalEntryTwo.getTransactionIdentifier());
+
+    final String export = this.testSubject.exportJournalEntries(
+        MessageFormat.format("{0}..{1}", "1982-07-14", "1982-07-16"));
+
+    final String[] lines = export.trim().split("\n");
+    Assert.assertEquals(2, lines.length);
+    Assert.assertEquals(1, Arrays.stream(lines)
+        .filter(line -> line.contains(journalEntryOne.getTransactionIdentifier())).count());
+    Assert.assertEquals(1, Arrays.stream(lines)
+        .filter(line -> line.contains(journalEntryTwo.getTransactionIdentifier())).count());
+  }
+
+  @Test
+  public void shouldCreateJournalEntries() throws Exception {
+    final Ledger assetLedger = LedgerGenerator.createRandomLedger();
+    assetLedger.setType(AccountType.ASSET.name());
+    this.testSubject.createLedger(assetLedger);
+    this.eventRecorder.wait(EventConstants.POST_LEDGER, assetLedger.getIdentifier());
+
+    final Account debtorAccount = AccountGenerator.createRandomAccount(assetLedger.getIdentifier());
+    debtorAccount.setType(AccountType.ASSET.name());
+    debtorAccount.setBalance(100.00D);
+    this.testSubject.createAccount(debtorAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, debtorAccount.getIdentifier());
+
+    final Ledger liabilityLedger = LedgerGenerator.createRandomLedger();
+    liabilityLedger.setType(AccountType.LIABILITY.name());
+    this.testSubject.createLedger(liabilityLedger);
+    this.eventRecorder.wait(EventConstants.POST_LEDGER, liabilityLedger.getIdentifier());
+
+    final Account creditorAccount = AccountGenerator.createRandomAccount(liabilityLedger.getIdentifier());
+    creditorAccount.setType(AccountType.LIABILITY.name());
+    creditorAccount.setBalance(100.00D);
+    this.testSubject.createAccount(creditorAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, creditorAccount.getIdentifier());
+
+    final Account unknownAccount = AccountGenerator.createRandomAccount(liabilityLedger.getIdentifier());
+
+    final JournalEntry journalEntryOne = JournalEntryGenerator.createRandomJournalEntry(debtorAccount, "50.00",
+        creditorAccount, "50.00");
+    final JournalEntry journalEntryTwo = JournalEntryGenerator.createRandomJournalEntry(debtorAccount, "25.00",
+        creditorAccount, "25.00");
+    final JournalEntry unbalancedJournalEntry = JournalEntryGenerator.createRandomJournalEntry(debtorAccount, "25.00",
+        creditorAccount, "20.00");
+    final JournalEntry unknownAccountJournalEntry = JournalEntryGenerator.createRandomJournalEntry(debtorAccount, "25.00",
+        unknownAccount, "25.00");
+
+    final JournalEntryBatch journalEntryBatch = new JournalEntryBatch();
+    journalEntryBatch.setIdentifier(RandomStringUtils.randomAlphanumeric(8));
+    journalEntryBatch.setJournalEntries(
+        Arrays.asList(journalEntryOne, journalEntryTwo, unbalancedJournalEntry, unknownAccountJournalEntry));
+
+    final List<JournalEntryStatus> journalEntryStatuses = this.testSubject.createJournalEntries(journalEntryBatch);
+    Assert.assertEquals(4, journalEntryStatuses.size());
+    Assert.assertEquals(JournalEntryStatus.State.ACCEPTED.name(), journalEntryStatuses.get(0).getState());
+    Assert.assertEquals(JournalEntryStatus.State.ACCEPTED.name(), journalEntryStatuses.get(1).getState());
+    Assert.assertEquals(JournalEntryStatus.State.REJECTED.name(), journalEntryStatuses.get(2).getState());
+    Assert.assertEquals(JournalEntryStatus.State.REJECTED.name(), journalEntryStatuses.get(3).getState());
+
+    this.eventRecorder.wait(EventConstants.POST_JOURNAL_ENTRIES, journalEntryBatch.getIdentifier());
+    this.eventRecorder.wait(EventConstants.RELEASE_JOURNAL_ENTRIES, journalEntryBatch.getIdentifier());
+
+    final Account modifiedDebtorAccount = this.testSubject.findAccount(debtorAccount.getIdentifier());
+    Assert.assertEquals(175.0D, modifiedDebtorAccount.getBalance(), 0.0D);
+
+    final Account modifiedCreditorAccount = this.testSubject.findAccount(creditorAccount.getIdentifier());
+    Assert.assertEquals(175.0D, modifiedCreditorAccount.getBalance(), 0.0D);
+  }
+
+  @Test
+  public void shouldNotBookReplayedJournalEntries() throws Exception {
+    final Ledger assetLedger = LedgerGenerator.createRandomLedger();
+    assetLedger.setType(AccountType.ASSET.name());
+    this.testSubject.createLedger(assetLedger);
+    this.eventRecorder.wait(EventConstants.POST_LEDGER, assetLedger.getIdentifier());
+
+    final Account debtorAccount = AccountGenerator.createRandomAccount(assetLedger.getIdentifier());
+    debtorAccount.setType(AccountType.ASSET.name());
+    debtorAccount.setBalance(100.00D);
+    this.testSubject.createAccount(debtorAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, debtorAccount.getIdentifier());
+
+    final Ledger liabilityLedger = LedgerGenerator.createRandomLedger();
+    liabilityLedger.setType(AccountType.LIABILITY.name());
+    this.testSubject.createLedger(liabilityLedger);
+    this.eventRecorder.wait(EventConstants.POST_LEDGER, liabilityLedger.getIdentifier());
+
+    final Account creditorAccount = AccountGenerator.createRandomAccount(liabilityLedger.getIdentifier());
+    creditorAccount.setType(AccountType.LIABILITY.name());
+    creditorAccount.setBalance(100.00D);
+    this.testSubject.createAccount(creditorAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, creditorAccount.getIdentifier());
+
+    final JournalEntry journalEntry = JournalEntryGenerator.createRandomJournalEntry(debtorAccount, "50.00",
+        creditorAccount, "50.00");
+
+    final JournalEntryBatch journalEntryBatch = new JournalEntryBatch();
+    journalEntryBatch.setIdentifier(RandomStringUtils.randomAlphanumeric(8));
+    journalEntryBatch.setJournalEntries(Collections.singletonList(journalEntry));
+    this.testSubject.createJournalEntries(journalEntryBatch);
+    this.eventRecorder.wait(EventConstants.RELEASE_JOURNAL_ENTRIES, journalEntryBatch.getIdentifier());
+
+    final JournalEntryBatch replayedJournalEntryBatch = new JournalEntryBatch();
+    replayedJournalEntryBatch.setIdentifier(RandomStringUtils.randomAlphanumeric(8));
+    replayedJournalEntryBatch.setJournalEntries(Collections.singletonList(journalEntry));
+    final List<JournalEntryStatus> journalEntryStatuses = this.testSubject.createJournalEntries(replayedJournalEntryBatch);
+    Assert.assertEquals(JournalEntryStatus.State.DUPLICATE.name(), journalEntryStatuses.get(0).getState());
+
+    final Account modifiedDebtorAccount = this.testSubject.findAccount(debtorAccount.getIdentifier());
+    Assert.assertEquals(150.0D, modifiedDebtorAccount.getBalance(), 0.0D);
   }
 }
@@ -71,5 +71,13 @@ public class TestTrialBalance extends AbstractAccountingTest {
     Assert.assertEquals(3, trialBalance.getTrialBalanceEntries().size());
     Assert.assertEquals(100.00D, trialBalance.getDebitTotal(), 0.00D);
     Assert.assertEquals(100.00D, trialBalance.getCreditTotal(), 0.00D);
+
+    final Ledger fetchedLedgerOne = this.testSubject.findLedger(ledgerOne.getIdentifier());
+    Assert.assertEquals(100.00D, fetchedLedgerOne.getTotalValue(), 0.00D);
+    Assert.assertEquals(1, fetchedLedgerOne.getSubLedgers().size());
+    Assert.assertEquals(50.00D, fetchedLedgerOne.getSubLedgers().get(0).getTotalValue(), 0.00D);
+
+    final Ledger fetchedLedgerTwo = this.testSubject.findLedger(ledgerTwo.getIdentifier());
+    Assert.assertEquals(100.00D, fetchedLedgerTwo.getTotalValue(), 0.00D);
   }
 }
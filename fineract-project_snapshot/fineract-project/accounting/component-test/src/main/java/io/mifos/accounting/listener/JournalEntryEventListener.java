@@ -62,4 +62,37 @@ public class JournalEntryEventListener {
     this.logger.debug("Journal entry processed");
     this.eventRecorder.event(tenant, EventConstants.RELEASE_JOURNAL_ENTRY, transactionIdentifier, String.class);
   }
+
+  @JmsListener(
+      destination = EventConstants.DESTINATION,
+      selector = EventConstants.SELECTOR_REJECT_JOURNAL_ENTRY,
+      subscription = EventConstants.DESTINATION
+  )
+  public void onJournalEntryRejected(@Header(TenantHeaderFilter.TENANT_HEADER) final String tenant,
+                                     final String transactionIdentifier) {
+    this.logger.debug("Journal entry rejected");
+    this.eventRecorder.event(tenant, EventConstants.REJECT_JOURNAL_ENTRY, transactionIdentifier, String.class);
+  }
+
+  @JmsListener(
+      destination = EventConstants.DESTINATION,
+      selector = EventConstants.SELECTOR_POST_JOURNAL_ENTRIES,
+      subscription = EventConstants.DESTINATION
+  )
+  public void onPostJournalEntries(@Header(TenantHeaderFilter.TENANT_HEADER) final String tenant,
+                                   final String batchIdentifier) {
+    this.logger.debug("Journal entries created");
+    this.eventRecorder.event(tenant, EventConstants.POST_JOURNAL_ENTRIES, batchIdentifier, String.class);
+  }
+
+  @JmsListener(
+      destination = EventConstants.DESTINATION,
+      selector = EventConstants.SELECTOR_RELEASE_JOURNAL_ENTRIES,
+      subscription = EventConstants.DESTINATION
+  )
+  public void onJournalEntriesProcessed(@Header(TenantHeaderFilter.TENANT_HEADER) final String tenant,
+                                        final String batchIdentifier) {
+    this.logger.debug("Journal entries processed");
+    this.eventRecorder.event(tenant, EventConstants.RELEASE_JOURNAL_ENTRIES, batchIdentifier, String.class);
+  }
 }
@@ -26,6 +26,8 @@ import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
 
 public class JournalEntryGenerator {
 
@@ -54,4 +56,23 @@ public class JournalEntryGenerator {
     journalEntry.setMessage(RandomStringUtils.randomAlphanumeric(512));
     return journalEntry;
   }
+
+  public static JournalEntry createRandomJournalEntry(final List<Account> debtorAccounts,
+                                                      final List<Account> creditorAccounts,
+                                                      final String amount) {
+    final JournalEntry journalEntry = new JournalEntry();
+    journalEntry.setTransactionIdentifier(RandomStringUtils.randomAlphanumeric(8));
+    journalEntry.setTransactionDate(ZonedDateTime.now(Clock.systemUTC()).format(DateTimeFormatter.ISO_ZONED_DATE_TIME));
+    journalEntry.setTransactionType(RandomStringUtils.randomAlphabetic(4));
+    journalEntry.setClerk("clark");
+    journalEntry.setDebtors(debtorAccounts.stream()
+        .map(debtorAccount -> new Debtor(debtorAccount.getIdentifier(), amount))
+        .collect(Collectors.toSet()));
+    journalEntry.setCreditors(creditorAccounts.stream()
+        .map(creditorAccount -> new Creditor(creditorAccount.getIdentifier(), amount))
+        .collect(Collectors.toSet()));
+    journalEntry.setNote(RandomStringUtils.randomAlphanumeric(512));
+    journalEntry.setMessage(RandomStringUtils.randomAlphanumeric(512));
+    return journalEntry;
+  }
 }
@@ -18,4 +18,12 @@ package io.mifos.accounting.service;
 public interface ServiceConstants {
 
   String LOGGER_NAME = "accounting-logger";
+
+  String BALANCE_STRIPES_COMPACTION_RATE_PROP = "accounting.balanceStripes.compactionRate";
+  String BALANCE_STRIPES_COMPACTION_RATE_DEFAULT = "60000";
+  String BALANCE_STRIPES_DISCOVERY_RATE_PROP = "accounting.balanceStripes.discoveryRate";
+  String BALANCE_STRIPES_DISCOVERY_RATE_DEFAULT = "3600000";
+
+  // beats with this identifier close the month before the beat
+  String PERIOD_CLOSING_BEAT_IDENTIFIER = "periodclosing";
 }
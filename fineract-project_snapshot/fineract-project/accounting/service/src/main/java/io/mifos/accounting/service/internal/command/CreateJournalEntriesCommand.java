@@ -0,0 +1,48 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.accounting.service.internal.command;
+
+import io.mifos.accounting.api.v1.domain.JournalEntry;
+
+import java.util.List;
+
+public class CreateJournalEntriesCommand {
+
+  private final String batchIdentifier;
+  private final List<JournalEntry> journalEntries;
+
+  public CreateJournalEntriesCommand(final String batchIdentifier, final List<JournalEntry> journalEntries) {
+    super();
+    this.batchIdentifier = batchIdentifier;
+    this.journalEntries = journalEntries;
+  }
+
+  public String batchIdentifier() {
+    return this.batchIdentifier;
+  }
+
+  public List<JournalEntry> journalEntries() {
+    return this.journalEntries;
+  }
+
+  @Override
+  public String toString() {
+    return "CreateJournalEntriesCommand{" +
+            "batchIdentifier='" + batchIdentifier + '\'' +
+            ", journalEntries=" + journalEntries.size() +
+            '}';
+  }
+}
@@ -18,21 +18,20 @@ package io.mifos.accounting.service.internal.command.handler;
 import io.mifos.accounting.api.v1.EventConstants;
 import io.mifos.accounting.api.v1.domain.Account;
 import io.mifos.accounting.api.v1.domain.AccountCommand;
-import io.mifos.accounting.api.v1.domain.AccountEntry;
-import io.mifos.accounting.api.v1.domain.AccountType;
 import io.mifos.accounting.api.v1.domain.JournalEntry;
+import io.mifos.accounting.service.internal.command.BookJournalEntriesCommand;
 import io.mifos.accounting.service.internal.command.BookJournalEntryCommand;
 import io.mifos.accounting.service.internal.command.CloseAccountCommand;
 import io.mifos.accounting.service.internal.command.CreateAccountCommand;
 import io.mifos.accounting.service.internal.command.DeleteAccountCommand;
 import io.mifos.accounting.service.internal.command.LockAccountCommand;
 import io.mifos.accounting.service.internal.command.ModifyAccountCommand;
+import io.mifos.accounting.service.internal.command.RejectJournalEntryCommand;
+import io.mifos.accounting.service.internal.command.ReleaseJournalEntriesCommand;
 import io.mifos.accounting.service.internal.command.ReleaseJournalEntryCommand;
 import io.mifos.accounting.service.internal.command.ReopenAccountCommand;
 import io.mifos.accounting.service.internal.command.UnlockAccountCommand;
 import io.mifos.accounting.service.internal.repository.AccountEntity;
-import io.mifos.accounting.service.internal.repository.AccountEntryEntity;
-import io.mifos.accounting.service.internal.repository.AccountEntryRepository;
 import io.mifos.accounting.service.internal.repository.AccountRepository;
 import io.mifos.accounting.service.internal.repository.CommandEntity;
 import io.mifos.accounting.service.internal.repository.CommandRepository;
@@ -40,6 +39,10 @@ import io.mifos.accounting.service.internal.repository.JournalEntryEntity;
 import io.mifos.accounting.service.internal.repository.JournalEntryRepository;
 import io.mifos.accounting.service.internal.repository.LedgerEntity;
 import io.mifos.accounting.service.internal.repository.LedgerRepository;
+import io.mifos.accounting.service.internal.service.AccountMetadataCache;
+import io.mifos.accounting.service.internal.service.BalanceStripeService;
+import io.mifos.accounting.service.internal.service.ChartOfAccountsCache;
+import io.mifos.accounting.service.internal.util.Money;
 import io.mifos.core.api.util.UserContextHolder;
 import io.mifos.core.command.annotation.Aggregate;
 import io.mifos.core.command.annotation.CommandHandler;
@@ -53,8 +56,10 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Clock;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @SuppressWarnings("unused")
@@ -63,26 +68,35 @@ public class AccountCommandHandler {
 
   private final CommandGateway commandGateway;
   private final AccountRepository accountRepository;
-  private final AccountEntryRepository accountEntryRepository;
   private final LedgerRepository ledgerRepository;
   private final JournalEntryRepository journalEntryRepository;
   private final CommandRepository commandRepository;
+  private final BookingEngine bookingEngine;
+  private final ChartOfAccountsCache chartOfAccountsCache;
+  private final AccountMetadataCache accountMetadataCache;
+  private final BalanceStripeService balanceStripeService;
 
   @Autowired
   public AccountCommandHandler(//@Qualifier(ThothServiceConstants.LOGGER_NAME) final Logger logger,
                                final CommandGateway commandGateway,
                                final AccountRepository accountRepository,
-                               final AccountEntryRepository accountEntryRepository,
                                final LedgerRepository ledgerRepository,
                                final JournalEntryRepository journalEntryRepository,
-                               final CommandRepository commandRepository) {
+                               final CommandRepository commandRepository,
+                               final BookingEngine bookingEngine,
+                               final ChartOfAccountsCache chartOfAccountsCache,
+                               final AccountMetadataCache accountMetadataCache,
+                               final BalanceStripeService balanceStripeService) {
     super();
     this.commandGateway = commandGateway;
     this.accountRepository = accountRepository;
-    this.accountEntryRepository = accountEntryRepository;
     this.ledgerRepository = ledgerRepository;
     this.journalEntryRepository = journalEntryRepository;
     this.commandRepository = commandRepository;
+    this.bookingEngine = bookingEngine;
+    this.chartOfAccountsCache = chartOfAccountsCache;
+    this.accountMetadataCache = accountMetadataCache;
+    this.balanceStripeService = balanceStripeService;
   }
 
   @Transactional
@@ -124,12 +138,17 @@ public class AccountCommandHandler {
       );
     }
 
-    accountEntity.setBalance(account.getBalance());
+    accountEntity.setBalance(Money.of(account.getBalance()));
     accountEntity.setState(Account.State.OPEN.name());
     accountEntity.setCreatedBy(UserContextHolder.checkedGetUser());
     accountEntity.setCreatedOn(LocalDateTime.now(Clock.systemUTC()));
 
     this.accountRepository.save(accountEntity);
+    this.balanceStripeService.configure(accountEntity, account.getBalanceStripes());
+
+    if (!accountEntity.getBalance().isZero()) {
+      this.ledgerRepository.addToTotalValue(ledger.getId(), accountEntity.getBalance().toBigDecimal());
+    }
 
     if (referenceAccount != null) {
       referenceAccount.setLastModifiedBy(UserContextHolder.checkedGetUser());
@@ -139,6 +158,8 @@ public class AccountCommandHandler {
 
     this.ledgerRepository.save(ledger);
 
+    this.chartOfAccountsCache.invalidateAfterCommit();
+
     return account.getIdentifier();
   }
 
@@ -147,7 +168,12 @@ public class AccountCommandHandler {
   @EventEmitter(selectorName = EventConstants.SELECTOR_NAME, selectorValue = EventConstants.PUT_ACCOUNT)
   public String modifyAccount(final ModifyAccountCommand modifyAccountCommand) {
     final Account account = modifyAccountCommand.account();
-    final AccountEntity accountEntity = this.accountRepository.findByIdentifier(account.getIdentifier());
+    final AccountEntity accountEntity = this.accountRepository.findByIdentifierForUpdate(account.getIdentifier());
+    if (accountEntity.getBalanceStripes() != null) {
+      // moving between ledgers and changing stripes needs the full balance
+      this.balanceStripeService.compact(accountEntity);
+    }
+    this.balanceStripeService.configure(accountEntity, account.getBalanceStripes());
 
     if (account.getName() != null) {
       accountEntity.setName(account.getName());
@@ -156,6 +182,14 @@ public class AccountCommandHandler {
     LedgerEntity ledger = null;
     if (!account.getLedger().equals(accountEntity.getLedger().getIdentifier())) {
       ledger = this.ledgerRepository.findByIdentifier(account.getLedger());
+      if (!accountEntity.getBalance().isZero()) {
+        // same lock order as the booking engine, ledgers in the order of their ids
+        final TreeMap<Long, Money> ledgerTotalChanges = new TreeMap<>();
+        ledgerTotalChanges.put(accountEntity.getLedger().getId(), accountEntity.getBalance().negate());
+        ledgerTotalChanges.put(ledger.getId(), accountEntity.getBalance());
+        ledgerTotalChanges.forEach((ledgerId, change) ->
+            this.ledgerRepository.addToTotalValue(ledgerId, change.toBigDecimal()));
+      }
       accountEntity.setLedger(ledger);
     }
 
@@ -204,6 +238,9 @@ public class AccountCommandHandler {
       this.ledgerRepository.save(ledger);
     }
 
+    this.chartOfAccountsCache.invalidateAfterCommit();
+    this.accountMetadataCache.invalidateAfterCommit(account.getIdentifier());
+
     return account.getIdentifier();
   }
 
@@ -229,6 +266,7 @@ public class AccountCommandHandler {
     commandEntity.setCreatedOn(now);
     this.commandRepository.save(commandEntity);
 
+    this.accountMetadataCache.invalidateAfterCommit(identifier);
     return identifier;
   }
 
@@ -254,6 +292,7 @@ public class AccountCommandHandler {
     commandEntity.setCreatedOn(now);
     this.commandRepository.save(commandEntity);
 
+    this.accountMetadataCache.invalidateAfterCommit(identifier);
     return identifier;
   }
 
@@ -279,6 +318,7 @@ public class AccountCommandHandler {
     commandEntity.setCreatedOn(now);
     this.commandRepository.save(commandEntity);
 
+    this.accountMetadataCache.invalidateAfterCommit(identifier);
     return identifier;
   }
 
@@ -304,6 +344,7 @@ public class AccountCommandHandler {
     commandEntity.setCreatedOn(now);
     this.commandRepository.save(commandEntity);
 
+    this.accountMetadataCache.invalidateAfterCommit(identifier);
     return identifier;
   }
 
@@ -319,60 +360,10 @@ public class AccountCommandHandler {
       if (!journalEntryEntity.getState().equals(JournalEntry.State.PENDING.name())) {
         return null;
       }
-      // process all debtors
-      journalEntryEntity.getDebtors()
-          .forEach(debtor -> {
-            final String accountNumber = debtor.getAccountNumber();
-            final AccountEntity accountEntity = this.accountRepository.findByIdentifier(accountNumber);
-            final AccountType accountType = AccountType.valueOf(accountEntity.getType());
-            switch (accountType) {
-              case ASSET:
-              case EXPENSE:
-                accountEntity.setBalance(accountEntity.getBalance() + debtor.getAmount());
-                break;
-              case LIABILITY:
-              case EQUITY:
-              case REVENUE:
-                accountEntity.setBalance(accountEntity.getBalance() - debtor.getAmount());
-                break;
-            }
-            final AccountEntity savedAccountEntity = this.accountRepository.save(accountEntity);
-            final AccountEntryEntity accountEntryEntity = new AccountEntryEntity();
-            accountEntryEntity.setType(AccountEntry.Type.DEBIT.name());
-            accountEntryEntity.setAccount(savedAccountEntity);
-            accountEntryEntity.setBalance(savedAccountEntity.getBalance());
-            accountEntryEntity.setAmount(debtor.getAmount());
-            accountEntryEntity.setMessage(journalEntryEntity.getMessage());
-            accountEntryEntity.setTransactionDate(journalEntryEntity.getTransactionDate());
-            this.accountEntryRepository.save(accountEntryEntity);
-          });
-      // process all creditors
-      journalEntryEntity.getCreditors()
-          .forEach(creditor -> {
-            final String accountNumber = creditor.getAccountNumber();
-            final AccountEntity accountEntity = this.accountRepository.findByIdentifier(accountNumber);
-            final AccountType accountType = AccountType.valueOf(accountEntity.getType());
-            switch (accountType) {
-              case ASSET:
-              case EXPENSE:
-                accountEntity.setBalance(accountEntity.getBalance() - creditor.getAmount());
-                break;
-              case LIABILITY:
-              case EQUITY:
-              case REVENUE:
-                accountEntity.setBalance(accountEntity.getBalance() + creditor.getAmount());
-                break;
-            }
-            final AccountEntity savedAccountEntity = this.accountRepository.save(accountEntity);
-            final AccountEntryEntity accountEntryEntity = new AccountEntryEntity();
-            accountEntryEntity.setType(AccountEntry.Type.CREDIT.name());
-            accountEntryEntity.setAccount(savedAccountEntity);
-            accountEntryEntity.setBalance(savedAccountEntity.getBalance());
-            accountEntryEntity.setAmount(creditor.getAmount());
-            accountEntryEntity.setMessage(journalEntryEntity.getMessage());
-            accountEntryEntity.setTransactionDate(journalEntryEntity.getTransactionDate());
-            this.accountEntryRepository.save(accountEntryEntity);
-          });
+      if (this.bookingEngine.book(Collections.singletonList(journalEntryEntity)).isEmpty()) {
+        this.rejectIfMarked(journalEntryEntity);
+        return null;
+      }
       this.commandGateway.process(new ReleaseJournalEntryCommand(transactionIdentifier));
       return transactionIdentifier;
     } else {
@@ -380,17 +371,53 @@ public class AccountCommandHandler {
     }
   }
 
+  @Transactional
+  @CommandHandler(logStart = CommandLogLevel.INFO, logFinish = CommandLogLevel.INFO)
+  @EventEmitter(selectorName = EventConstants.SELECTOR_NAME, selectorValue = EventConstants.RELEASE_JOURNAL_ENTRIES)
+  public String bookJournalEntries(final BookJournalEntriesCommand bookJournalEntriesCommand) {
+    // entries which are booked already, e.g. by a replayed batch, are skipped
+    final List<JournalEntryEntity> journalEntryEntities = this.journalEntryRepository
+        .findJournalEntries(bookJournalEntriesCommand.transactionIdentifiers())
+        .stream()
+        .filter(journalEntryEntity -> journalEntryEntity.getState().equals(JournalEntry.State.PENDING.name()))
+        .collect(Collectors.toList());
+
+    final List<JournalEntryEntity> bookedJournalEntries = this.bookingEngine.book(journalEntryEntities);
+    journalEntryEntities.forEach(this::rejectIfMarked);
+
+    this.commandGateway.process(new ReleaseJournalEntriesCommand(bookJournalEntriesCommand.batchIdentifier(),
+        bookedJournalEntries.stream().map(JournalEntryEntity::getTransactionIdentifier).collect(Collectors.toList())));
+    return bookJournalEntriesCommand.batchIdentifier();
+  }
+
   @Transactional
   @CommandHandler(logStart = CommandLogLevel.INFO, logFinish = CommandLogLevel.INFO)
   @EventEmitter(selectorName = EventConstants.SELECTOR_NAME, selectorValue = EventConstants.DELETE_ACCOUNT)
   public String deleteAccount(final DeleteAccountCommand deleteAccountCommand) {
     final String accountIdentifier = deleteAccountCommand.identifier();
-    final AccountEntity accountEntity = this.accountRepository.findByIdentifier(accountIdentifier);
+    final AccountEntity accountEntity = this.accountRepository.findByIdentifierForUpdate(accountIdentifier);
+    if (accountEntity.getBalanceStripes() != null) {
+      this.balanceStripeService.compact(accountEntity);
+      this.balanceStripeService.remove(accountEntity);
+    }
+
+    if (!accountEntity.getBalance().isZero()) {
+      this.ledgerRepository.addToTotalValue(accountEntity.getLedger().getId(),
+          accountEntity.getBalance().negate().toBigDecimal());
+    }
 
     final List<CommandEntity> commandEntities = this.commandRepository.findByAccount(accountEntity);
     this.commandRepository.delete(commandEntities);
 
     this.accountRepository.delete(accountEntity);
+    this.chartOfAccountsCache.invalidateAfterCommit();
+    this.accountMetadataCache.invalidateAfterCommit(accountIdentifier);
     return accountIdentifier;
   }
+
+  private void rejectIfMarked(final JournalEntryEntity journalEntryEntity) {
+    if (journalEntryEntity.getState().equals(JournalEntry.State.REJECTED.name())) {
+      this.commandGateway.process(new RejectJournalEntryCommand(journalEntryEntity.getTransactionIdentifier()));
+    }
+  }
 }
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.accounting.service.internal.command.handler;
+
+import io.mifos.accounting.api.v1.domain.AccountEntry;
+import io.mifos.accounting.api.v1.domain.JournalEntry;
+import io.mifos.accounting.service.ServiceConstants;
+import io.mifos.accounting.service.internal.repository.AccountEntity;
+import io.mifos.accounting.service.internal.repository.AccountEntryEntity;
+import io.mifos.accounting.service.internal.repository.AccountEntryRepository;
+import io.mifos.accounting.service.internal.repository.AccountRepository;
+import io.mifos.accounting.service.internal.repository.CreditorType;
+import io.mifos.accounting.service.internal.repository.DebtorType;
+import io.mifos.accounting.service.internal.repository.JournalEntryEntity;
+import io.mifos.accounting.service.internal.repository.LedgerRepository;
+import io.mifos.accounting.service.internal.service.BalanceStripeCompactor;
+import io.mifos.accounting.service.internal.service.BalanceStripeService;
+import io.mifos.accounting.service.internal.service.PeriodClosingService;
+import io.mifos.accounting.service.internal.util.Money;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * Books journal entries against the balances of their accounts. All accounts of all legs, except striped ones, are
+ * loaded and locked with one query, always in the order of their identifiers, so concurrent bookings cannot
+ * deadlock. Balances are changed in memory, and written together with the account entries when the transaction is
+ * flushed, allowing JDBC batching. Afterwards the totals of the affected ledgers are adjusted by their net change, one
+ * update per ledger in the order of their ids.
+ *
+ * Entries with an account which does not exist, e.g. because it was deleted after the entry was validated, are not
+ * booked and stay pending, without keeping the other entries from being booked. Entries dated in a period closed after
+ * they were validated are not booked either, but marked {@link JournalEntry.State#REJECTED}, the caller has to persist
+ * and publish the rejection. The end of the closed period is locked first, so it cannot move until the bookings
+ * committed.
+ *
+ * Striped accounts are loaded without a lock. Their net change is added to one of their stripes, again in the order
+ * of their identifiers and before any ledger is touched, and their entries get a running balance on compaction.
+ *
+ * Must be called within a transaction.
+ */
+@Component
+public class BookingEngine {
+
+  private final Logger logger;
+  private final AccountRepository accountRepository;
+  private final AccountEntryRepository accountEntryRepository;
+  private final LedgerRepository ledgerRepository;
+  private final BalanceStripeService balanceStripeService;
+  private final BalanceStripeCompactor balanceStripeCompactor;
+  private final PeriodClosingService periodClosingService;
+
+  @Autowired
+  public BookingEngine(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
+                       final AccountRepository accountRepository,
+                       final AccountEntryRepository accountEntryRepository,
+                       final LedgerRepository ledgerRepository,
+                       final BalanceStripeService balanceStripeService,
+                       final BalanceStripeCompactor balanceStripeCompactor,
+                       final PeriodClosingService periodClosingService) {
+    super();
+    this.logger = logger;
+    this.accountRepository = accountRepository;
+    this.accountEntryRepository = accountEntryRepository;
+    this.ledgerRepository = ledgerRepository;
+    this.balanceStripeService = balanceStripeService;
+    this.balanceStripeCompactor = balanceStripeCompactor;
+    this.periodClosingService = periodClosingService;
+  }
+
+  /**
+   * Returns the booked journal entries.
+   */
+  public List<JournalEntryEntity> book(final List<JournalEntryEntity> journalEntryEntities) {
+    if (journalEntryEntities.isEmpty()) {
+      return journalEntryEntities;
+    }
+
+    final Optional<LocalDateTime> closedUntil = this.periodClosingService.lockClosedUntil();
+
+    final TreeSet<String> accountNumbers = new TreeSet<>();
+    journalEntryEntities.forEach(journalEntryEntity -> {
+      journalEntryEntity.getDebtors().forEach(debtor -> accountNumbers.add(debtor.getAccountNumber()));
+      journalEntryEntity.getCreditors().forEach(creditor -> accountNumbers.add(creditor.getAccountNumber()));
+    });
+
+    final HashMap<String, AccountEntity> accountEntities = new HashMap<>();
+    this.accountRepository.findStripedByIdentifierIn(accountNumbers)
+        .forEach(accountEntity -> accountEntities.put(accountEntity.getIdentifier(), accountEntity));
+    this.accountRepository.findUnstripedByIdentifierInForUpdate(accountNumbers)
+        .forEach(accountEntity -> accountEntities.put(accountEntity.getIdentifier(), accountEntity));
+
+    final ArrayList<JournalEntryEntity> bookedJournalEntries = new ArrayList<>(journalEntryEntities.size());
+    final ArrayList<AccountEntryEntity> accountEntryEntities = new ArrayList<>();
+    final TreeMap<String, Money> stripedBalanceChanges = new TreeMap<>();
+    final TreeMap<Long, Money> ledgerTotalChanges = new TreeMap<>();
+    journalEntryEntities.forEach(journalEntryEntity -> {
+      if (closedUntil.isPresent() && journalEntryEntity.getTransactionDate().isBefore(closedUntil.get())) {
+        this.logger.warn("Journal entry {} rejected, period until {} is closed.",
+            journalEntryEntity.getTransactionIdentifier(), closedUntil.get());
+        journalEntryEntity.setState(JournalEntry.State.REJECTED.name());
+        return;
+      }
+      final Optional<String> missingAccountNumber = Stream.concat(
+          journalEntryEntity.getDebtors().stream().map(DebtorType::getAccountNumber),
+          journalEntryEntity.getCreditors().stream().map(CreditorType::getAccountNumber))
+          .filter(accountNumber -> !accountEntities.containsKey(accountNumber))
+          .findFirst();
+      if (missingAccountNumber.isPresent()) {
+        this.logger.warn("Journal entry {} not booked, account {} not found.",
+            journalEntryEntity.getTransactionIdentifier(), missingAccountNumber.get());
+        return;
+      }
+      journalEntryEntity.getDebtors().forEach(debtor -> accountEntryEntities.add(
+          this.book(accountEntities.get(debtor.getAccountNumber()), AccountEntry.Type.DEBIT,
+              Money.of(debtor.getAmount()), journalEntryEntity, stripedBalanceChanges, ledgerTotalChanges)));
+      journalEntryEntity.getCreditors().forEach(creditor -> accountEntryEntities.add(
+          this.book(accountEntities.get(creditor.getAccountNumber()), AccountEntry.Type.CREDIT,
+              Money.of(creditor.getAmount()), journalEntryEntity, stripedBalanceChanges, ledgerTotalChanges)));
+      bookedJournalEntries.add(journalEntryEntity);
+    });
+
+    // changed accounts are managed, their balances are written on flush
+    this.accountEntryRepository.save(accountEntryEntities);
+
+    stripedBalanceChanges.forEach((accountNumber, change) -> {
+      if (!change.isZero()) {
+        this.balanceStripeService.add(accountEntities.get(accountNumber), change);
+      }
+    });
+    if (!stripedBalanceChanges.isEmpty()) {
+      this.balanceStripeCompactor.markForCompaction();
+    }
+
+    ledgerTotalChanges.forEach((ledgerId, change) -> {
+      if (!change.isZero()) {
+        this.ledgerRepository.addToTotalValue(ledgerId, change.toBigDecimal());
+      }
+    });
+
+    return bookedJournalEntries;
+  }
+
+  private AccountEntryEntity book(final AccountEntity accountEntity, final AccountEntry.Type entryType,
+                                  final Money amount, final JournalEntryEntity journalEntryEntity,
+                                  final TreeMap<String, Money> stripedBalanceChanges,
+                                  final TreeMap<Long, Money> ledgerTotalChanges) {
+    final Money change = BalanceStripeService.change(accountEntity.getType(), entryType, amount);
+
+    final AccountEntryEntity accountEntryEntity = new AccountEntryEntity();
+    if (accountEntity.isStriped()) {
+      stripedBalanceChanges.merge(accountEntity.getIdentifier(), change, Money::add);
+    } else {
+      accountEntity.setBalance(accountEntity.getBalance().add(change));
+      ledgerTotalChanges.merge(accountEntity.getLedger().getId(), change, Money::add);
+      accountEntryEntity.setBalance(accountEntity.getBalance());
+    }
+    accountEntryEntity.setType(entryType.name());
+    accountEntryEntity.setAccount(accountEntity);
+    accountEntryEntity.setAmount(amount);
+    accountEntryEntity.setMessage(journalEntryEntity.getMessage());
+    accountEntryEntity.setTransactionDate(journalEntryEntity.getTransactionDate());
+    return accountEntryEntity;
+  }
+}
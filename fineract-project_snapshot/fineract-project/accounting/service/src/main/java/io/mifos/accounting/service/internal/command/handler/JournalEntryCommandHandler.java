@@ -16,14 +16,15 @@
 package io.mifos.accounting.service.internal.command.handler;
 
 import io.mifos.accounting.api.v1.EventConstants;
-import io.mifos.accounting.api.v1.domain.Creditor;
-import io.mifos.accounting.api.v1.domain.Debtor;
 import io.mifos.accounting.api.v1.domain.JournalEntry;
+import io.mifos.accounting.service.internal.command.BookJournalEntriesCommand;
 import io.mifos.accounting.service.internal.command.BookJournalEntryCommand;
+import io.mifos.accounting.service.internal.command.CreateJournalEntriesCommand;
 import io.mifos.accounting.service.internal.command.CreateJournalEntryCommand;
+import io.mifos.accounting.service.internal.command.RejectJournalEntryCommand;
+import io.mifos.accounting.service.internal.command.ReleaseJournalEntriesCommand;
 import io.mifos.accounting.service.internal.command.ReleaseJournalEntryCommand;
-import io.mifos.accounting.service.internal.repository.CreditorType;
-import io.mifos.accounting.service.internal.repository.DebtorType;
+import io.mifos.accounting.service.internal.mapper.JournalEntryMapper;
 import io.mifos.accounting.service.internal.repository.JournalEntryEntity;
 import io.mifos.accounting.service.internal.repository.JournalEntryRepository;
 import io.mifos.core.command.annotation.Aggregate;
@@ -31,11 +32,10 @@ import io.mifos.core.command.annotation.CommandHandler;
 import io.mifos.core.command.annotation.CommandLogLevel;
 import io.mifos.core.command.annotation.EventEmitter;
 import io.mifos.core.command.gateway.CommandGateway;
-import io.mifos.core.lang.DateConverter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -59,43 +59,33 @@ public class JournalEntryCommandHandler {
   @EventEmitter(selectorName = EventConstants.SELECTOR_NAME, selectorValue = EventConstants.POST_JOURNAL_ENTRY)
   public String createJournalEntry(final CreateJournalEntryCommand createJournalEntryCommand) {
     final JournalEntry journalEntry = createJournalEntryCommand.journalEntry();
-    final Set<Debtor> debtors = journalEntry.getDebtors();
-    final Set<DebtorType> debtorTypes = debtors
-        .stream()
-        .map(debtor -> {
-          final DebtorType debtorType = new DebtorType();
-          debtorType.setAccountNumber(debtor.getAccountNumber());
-          debtorType.setAmount(Double.valueOf(debtor.getAmount()));
-          return debtorType;
-        })
-        .collect(Collectors.toSet());
-    final Set<Creditor> creditors = journalEntry.getCreditors();
-    final Set<CreditorType> creditorTypes = creditors
-        .stream()
-        .map(creditor -> {
-          final CreditorType creditorType = new CreditorType();
-          creditorType.setAccountNumber(creditor.getAccountNumber());
-          creditorType.setAmount(Double.valueOf(creditor.getAmount()));
-          return creditorType;
-        })
-        .collect(Collectors.toSet());
-    final JournalEntryEntity journalEntryEntity = new JournalEntryEntity();
-    journalEntryEntity.setTransactionIdentifier(journalEntry.getTransactionIdentifier());
-    final LocalDateTime transactionDate = DateConverter.fromIsoString(journalEntry.getTransactionDate());
-    journalEntryEntity.setDateBucket(DateConverter.toIsoString(DateConverter.toLocalDate(transactionDate)));
-    journalEntryEntity.setTransactionDate(transactionDate);
-    journalEntryEntity.setTransactionType(journalEntry.getTransactionType());
-    journalEntryEntity.setClerk(journalEntry.getClerk());
-    journalEntryEntity.setNote(journalEntry.getNote());
-    journalEntryEntity.setDebtors(debtorTypes);
-    journalEntryEntity.setCreditors(creditorTypes);
-    journalEntryEntity.setMessage(journalEntry.getMessage());
-    journalEntryEntity.setState(JournalEntry.State.PENDING.name());
+    final JournalEntryEntity journalEntryEntity = JournalEntryMapper.map(journalEntry);
     journalEntryRepository.saveJournalEntry(journalEntryEntity);
     this.commandGateway.process(new BookJournalEntryCommand(journalEntry.getTransactionIdentifier()));
     return journalEntry.getTransactionIdentifier();
   }
 
+  @Transactional
+  @CommandHandler(logStart = CommandLogLevel.INFO, logFinish = CommandLogLevel.INFO)
+  @EventEmitter(selectorName = EventConstants.SELECTOR_NAME, selectorValue = EventConstants.POST_JOURNAL_ENTRIES)
+  public String createJournalEntries(final CreateJournalEntriesCommand createJournalEntriesCommand) {
+    // a replayed batch must not reset entries which are booked already
+    final Set<String> existingTransactionIdentifiers = this.journalEntryRepository.findExistingTransactionIdentifiers(
+        createJournalEntriesCommand.journalEntries()
+            .stream()
+            .map(JournalEntry::getTransactionIdentifier)
+            .collect(Collectors.toList()));
+    final List<JournalEntryEntity> journalEntryEntities = createJournalEntriesCommand.journalEntries()
+        .stream()
+        .filter(journalEntry -> !existingTransactionIdentifiers.contains(journalEntry.getTransactionIdentifier()))
+        .map(JournalEntryMapper::map)
+        .collect(Collectors.toList());
+    this.journalEntryRepository.saveJournalEntries(journalEntryEntities);
+    this.commandGateway.process(new BookJournalEntriesCommand(createJournalEntriesCommand.batchIdentifier(),
+        journalEntryEntities.stream().map(JournalEntryEntity::getTransactionIdentifier).collect(Collectors.toList())));
+    return createJournalEntriesCommand.batchIdentifier();
+  }
+
   @Transactional
   @CommandHandler(logStart = CommandLogLevel.NONE, logFinish = CommandLogLevel.NONE)
   public void releaseJournalEntry(final ReleaseJournalEntryCommand releaseJournalEntryCommand) {
@@ -107,4 +97,30 @@ public class JournalEntryCommandHandler {
       this.journalEntryRepository.saveJournalEntry(journalEntryEntity);
     }
   }
+
+  @Transactional
+  @CommandHandler(logStart = CommandLogLevel.INFO, logFinish = CommandLogLevel.INFO)
+  @EventEmitter(selectorName = EventConstants.SELECTOR_NAME, selectorValue = EventConstants.REJECT_JOURNAL_ENTRY)
+  public String rejectJournalEntry(final RejectJournalEntryCommand rejectJournalEntryCommand) {
+    final String transactionIdentifier = rejectJournalEntryCommand.transactionIdentifier();
+    final Optional<JournalEntryEntity> optionalJournalEntry = this.journalEntryRepository.findJournalEntry(transactionIdentifier);
+    if (optionalJournalEntry.isPresent()
+        && optionalJournalEntry.get().getState().equals(JournalEntry.State.PENDING.name())) {
+      final JournalEntryEntity journalEntryEntity = optionalJournalEntry.get();
+      journalEntryEntity.setState(JournalEntry.State.REJECTED.name());
+      this.journalEntryRepository.saveJournalEntry(journalEntryEntity);
+      return transactionIdentifier;
+    } else {
+      return null;
+    }
+  }
+
+  @Transactional
+  @CommandHandler(logStart = CommandLogLevel.INFO, logFinish = CommandLogLevel.INFO)
+  public void releaseJournalEntries(final ReleaseJournalEntriesCommand releaseJournalEntriesCommand) {
+    final List<JournalEntryEntity> journalEntryEntities =
+        this.journalEntryRepository.findJournalEntries(releaseJournalEntriesCommand.transactionIdentifiers());
+    journalEntryEntities.forEach(journalEntryEntity -> journalEntryEntity.setState(JournalEntry.State.PROCESSED.name()));
+    this.journalEntryRepository.saveJournalEntries(journalEntryEntities);
+  }
 }
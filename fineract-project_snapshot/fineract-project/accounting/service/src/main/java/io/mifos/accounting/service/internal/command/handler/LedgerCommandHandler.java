@@ -24,6 +24,8 @@ import io.mifos.accounting.service.internal.command.DeleteLedgerCommand;
 import io.mifos.accounting.service.internal.command.ModifyLedgerCommand;
 import io.mifos.accounting.service.internal.repository.LedgerEntity;
 import io.mifos.accounting.service.internal.repository.LedgerRepository;
+import io.mifos.accounting.service.internal.service.ChartOfAccountsCache;
+import io.mifos.accounting.service.internal.util.Money;
 import io.mifos.core.api.util.UserContextHolder;
 import io.mifos.core.command.annotation.Aggregate;
 import io.mifos.core.command.annotation.CommandHandler;
@@ -46,13 +48,16 @@ public class LedgerCommandHandler {
 
   private final Logger logger;
   private final LedgerRepository ledgerRepository;
+  private final ChartOfAccountsCache chartOfAccountsCache;
 
   @Autowired
   public LedgerCommandHandler(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
-                              final LedgerRepository ledgerRepository) {
+                              final LedgerRepository ledgerRepository,
+                              final ChartOfAccountsCache chartOfAccountsCache) {
     super();
     this.logger = logger;
     this.ledgerRepository = ledgerRepository;
+    this.chartOfAccountsCache = chartOfAccountsCache;
   }
 
   @Transactional
@@ -71,8 +76,10 @@ public class LedgerCommandHandler {
     parentLedgerEntity.setCreatedBy(UserContextHolder.checkedGetUser());
     parentLedgerEntity.setCreatedOn(LocalDateTime.now(Clock.systemUTC()));
     parentLedgerEntity.setShowAccountsInChart(ledger.getShowAccountsInChart());
+    parentLedgerEntity.setTotalValue(Money.ZERO);
     final LedgerEntity savedParentLedger = this.ledgerRepository.save(parentLedgerEntity);
     this.addSubLedgersInternal(ledger.getSubLedgers(), savedParentLedger);
+    this.chartOfAccountsCache.invalidateAfterCommit();
 
     this.logger.debug("Ledger {} created.", ledger.getIdentifier());
 
@@ -98,6 +105,7 @@ public class LedgerCommandHandler {
     parentLedger.setLastModifiedBy(UserContextHolder.checkedGetUser());
     parentLedger.setLastModifiedOn(LocalDateTime.now(Clock.systemUTC()));
     this.ledgerRepository.save(parentLedger);
+    this.chartOfAccountsCache.invalidateAfterCommit();
     return subLedger.getIdentifier();
   }
 
@@ -114,6 +122,7 @@ public class LedgerCommandHandler {
     ledgerEntity.setLastModifiedOn(LocalDateTime.now(Clock.systemUTC()));
     ledgerEntity.setShowAccountsInChart(ledger2modify.getShowAccountsInChart());
     this.ledgerRepository.save(ledgerEntity);
+    this.chartOfAccountsCache.invalidateAfterCommit();
     return ledger2modify.getIdentifier();
   }
 
@@ -122,6 +131,7 @@ public class LedgerCommandHandler {
   @EventEmitter(selectorName = EventConstants.SELECTOR_NAME, selectorValue = EventConstants.DELETE_LEDGER)
   public String deleteLedger(final DeleteLedgerCommand deleteLedgerCommand) {
     this.ledgerRepository.delete(this.ledgerRepository.findByIdentifier(deleteLedgerCommand.identifier()));
+    this.chartOfAccountsCache.invalidateAfterCommit();
     return deleteLedgerCommand.identifier();
   }
 
@@ -156,6 +166,7 @@ public class LedgerCommandHandler {
         subLedgerEntity.setCreatedBy(UserContextHolder.checkedGetUser());
         subLedgerEntity.setCreatedOn(LocalDateTime.now(Clock.systemUTC()));
         subLedgerEntity.setShowAccountsInChart(subLedger.getShowAccountsInChart());
+        subLedgerEntity.setTotalValue(Money.ZERO);
         subLedgerEntity.setParentLedger(parentLedgerEntity);
         final LedgerEntity savedSubLedger = this.ledgerRepository.save(subLedgerEntity);
         this.addSubLedgersInternal(subLedger.getSubLedgers(), savedSubLedger);
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.accounting.service.internal.command.handler;
+
+import io.mifos.accounting.api.v1.EventConstants;
+import io.mifos.accounting.service.internal.command.ClosePeriodCommand;
+import io.mifos.accounting.service.internal.service.PeriodClosingService;
+import io.mifos.core.command.annotation.Aggregate;
+import io.mifos.core.command.annotation.CommandHandler;
+import io.mifos.core.command.annotation.CommandLogLevel;
+import io.mifos.core.command.annotation.EventEmitter;
+import io.mifos.core.lang.DateConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+
+@SuppressWarnings("unused")
+@Aggregate
+public class PeriodClosingCommandHandler {
+
+  private final PeriodClosingService periodClosingService;
+
+  @Autowired
+  public PeriodClosingCommandHandler(final PeriodClosingService periodClosingService) {
+    super();
+    this.periodClosingService = periodClosingService;
+  }
+
+  @CommandHandler(logStart = CommandLogLevel.INFO, logFinish = CommandLogLevel.INFO)
+  @EventEmitter(selectorName = EventConstants.SELECTOR_NAME, selectorValue = EventConstants.POST_PERIOD_CLOSING)
+  public String closePeriod(final ClosePeriodCommand closePeriodCommand) {
+    // beats are published daily, all of a month close the same period and only the first one writes it
+    this.periodClosingService.close(closePeriodCommand.closedUntil());
+    return DateConverter.toIsoString(closePeriodCommand.closedUntil());
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.accounting.service.internal.listener;
+
+import com.google.gson.Gson;
+import io.mifos.accounting.api.v1.EventConstants;
+import io.mifos.accounting.service.internal.service.AccountMetadataCache;
+import io.mifos.core.command.util.CommandConstants;
+import io.mifos.core.lang.config.TenantHeaderFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jms.annotation.JmsListener;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops cached account metadata when accounts were changed by any instance of this service.
+ */
+@SuppressWarnings("unused")
+@Component
+public class AccountMetadataEventListener {
+
+  private static final String SELECTOR_ACCOUNT_CHANGED =
+      EventConstants.SELECTOR_PUT_ACCOUNT
+          + " OR " + EventConstants.SELECTOR_DELETE_ACCOUNT
+          + " OR " + EventConstants.SELECTOR_LOCK_ACCOUNT
+          + " OR " + EventConstants.SELECTOR_UNLOCK_ACCOUNT
+          + " OR " + EventConstants.SELECTOR_CLOSE_ACCOUNT
+          + " OR " + EventConstants.SELECTOR_REOPEN_ACCOUNT;
+
+  private final AccountMetadataCache accountMetadataCache;
+  private final Gson gson;
+
+  @Autowired
+  public AccountMetadataEventListener(final AccountMetadataCache accountMetadataCache,
+                                      @Qualifier(CommandConstants.SERIALIZER) final Gson gson) {
+    super();
+    this.accountMetadataCache = accountMetadataCache;
+    this.gson = gson;
+  }
+
+  @JmsListener(
+      destination = EventConstants.DESTINATION,
+      selector = SELECTOR_ACCOUNT_CHANGED,
+      subscription = EventConstants.DESTINATION
+  )
+  public void onAccountChanged(@Header(TenantHeaderFilter.TENANT_HEADER) final String tenant,
+                               final String payload) {
+    this.accountMetadataCache.invalidate(tenant, this.gson.fromJson(payload, String.class));
+  }
+}
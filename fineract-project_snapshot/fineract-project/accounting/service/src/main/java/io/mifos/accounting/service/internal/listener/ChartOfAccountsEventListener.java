@@ -0,0 +1,58 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.accounting.service.internal.listener;
+
+import io.mifos.accounting.api.v1.EventConstants;
+import io.mifos.accounting.service.internal.service.ChartOfAccountsCache;
+import io.mifos.core.lang.config.TenantHeaderFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jms.annotation.JmsListener;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops cached charts of accounts when ledgers or accounts were changed by any instance of this service.
+ */
+@SuppressWarnings("unused")
+@Component
+public class ChartOfAccountsEventListener {
+
+  private static final String SELECTOR_CHART_CHANGED =
+      EventConstants.SELECTOR_POST_LEDGER
+          + " OR " + EventConstants.SELECTOR_PUT_LEDGER
+          + " OR " + EventConstants.SELECTOR_DELETE_LEDGER
+          + " OR " + EventConstants.SELECTOR_POST_ACCOUNT
+          + " OR " + EventConstants.SELECTOR_PUT_ACCOUNT
+          + " OR " + EventConstants.SELECTOR_DELETE_ACCOUNT;
+
+  private final ChartOfAccountsCache chartOfAccountsCache;
+
+  @Autowired
+  public ChartOfAccountsEventListener(final ChartOfAccountsCache chartOfAccountsCache) {
+    super();
+    this.chartOfAccountsCache = chartOfAccountsCache;
+  }
+
+  @JmsListener(
+      destination = EventConstants.DESTINATION,
+      selector = SELECTOR_CHART_CHANGED,
+      subscription = EventConstants.DESTINATION
+  )
+  public void onChartChanged(@Header(TenantHeaderFilter.TENANT_HEADER) final String tenant,
+                             final String payload) {
+    this.chartOfAccountsCache.invalidate(tenant);
+  }
+}
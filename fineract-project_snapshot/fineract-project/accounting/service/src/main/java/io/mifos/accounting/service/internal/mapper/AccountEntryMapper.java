@@ -29,8 +29,11 @@ public class AccountEntryMapper {
     final AccountEntry entry = new AccountEntry();
 
     entry.setType(accountEntity.getType());
-    entry.setBalance(accountEntity.getBalance());
-    entry.setAmount(accountEntity.getAmount());
+    // entries of striped accounts get their running balance on compaction
+    if (accountEntity.getBalance() != null) {
+      entry.setBalance(accountEntity.getBalance().toDouble());
+    }
+    entry.setAmount(accountEntity.getAmount().toDouble());
     entry.setMessage(accountEntity.getMessage());
     entry.setTransactionDate(DateConverter.toIsoString(accountEntity.getTransactionDate()));
 
@@ -17,6 +17,7 @@ package io.mifos.accounting.service.internal.mapper;
 
 import io.mifos.accounting.api.v1.domain.Account;
 import io.mifos.accounting.service.internal.repository.AccountEntity;
+import io.mifos.accounting.service.internal.util.Money;
 import io.mifos.core.lang.DateConverter;
 import org.apache.commons.lang.StringUtils;
 
@@ -30,6 +31,10 @@ public class AccountMapper {
   }
 
   public static Account map(final AccountEntity accountEntity) {
+    return AccountMapper.map(accountEntity, accountEntity.getBalance());
+  }
+
+  public static Account map(final AccountEntity accountEntity, final Money balance) {
     final Account account = new Account();
     account.setIdentifier(accountEntity.getIdentifier());
     account.setName(accountEntity.getName());
@@ -50,7 +55,8 @@ public class AccountMapper {
     if (accountEntity.getReferenceAccount() != null) {
       account.setReferenceAccount(accountEntity.getReferenceAccount().getIdentifier());
     }
-    account.setBalance(accountEntity.getBalance());
+    account.setBalance(balance.toDouble());
+    account.setBalanceStripes(accountEntity.getBalanceStripes());
     account.setCreatedBy(accountEntity.getCreatedBy());
     account.setCreatedOn(DateConverter.toIsoString(accountEntity.getCreatedOn()));
     if (accountEntity.getLastModifiedBy() != null) {
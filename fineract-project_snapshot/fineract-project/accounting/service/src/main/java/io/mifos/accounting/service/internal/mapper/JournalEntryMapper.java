@@ -18,9 +18,12 @@ package io.mifos.accounting.service.internal.mapper;
 import io.mifos.accounting.api.v1.domain.Creditor;
 import io.mifos.accounting.api.v1.domain.Debtor;
 import io.mifos.accounting.api.v1.domain.JournalEntry;
+import io.mifos.accounting.service.internal.repository.CreditorType;
+import io.mifos.accounting.service.internal.repository.DebtorType;
 import io.mifos.accounting.service.internal.repository.JournalEntryEntity;
 import io.mifos.core.lang.DateConverter;
 
+import java.time.LocalDateTime;
 import java.util.stream.Collectors;
 
 public class JournalEntryMapper {
@@ -29,6 +32,42 @@ public class JournalEntryMapper {
     super();
   }
 
+  public static JournalEntryEntity map(final JournalEntry journalEntry) {
+    final JournalEntryEntity journalEntryEntity = new JournalEntryEntity();
+    journalEntryEntity.setTransactionIdentifier(journalEntry.getTransactionIdentifier());
+    final LocalDateTime transactionDate = DateConverter.fromIsoString(journalEntry.getTransactionDate());
+    journalEntryEntity.setDateBucket(DateConverter.toIsoString(DateConverter.toLocalDate(transactionDate)));
+    journalEntryEntity.setTransactionDate(transactionDate);
+    journalEntryEntity.setTransactionType(journalEntry.getTransactionType());
+    journalEntryEntity.setClerk(journalEntry.getClerk());
+    journalEntryEntity.setNote(journalEntry.getNote());
+    journalEntryEntity.setDebtors(
+        journalEntry.getDebtors()
+            .stream()
+            .map(debtor -> {
+              final DebtorType debtorType = new DebtorType();
+              debtorType.setAccountNumber(debtor.getAccountNumber());
+              debtorType.setAmount(Double.valueOf(debtor.getAmount()));
+              return debtorType;
+            })
+            .collect(Collectors.toSet())
+    );
+    journalEntryEntity.setCreditors(
+        journalEntry.getCreditors()
+            .stream()
+            .map(creditor -> {
+              final CreditorType creditorType = new CreditorType();
+              creditorType.setAccountNumber(creditor.getAccountNumber());
+              creditorType.setAmount(Double.valueOf(creditor.getAmount()));
+              return creditorType;
+            })
+            .collect(Collectors.toSet())
+    );
+    journalEntryEntity.setMessage(journalEntry.getMessage());
+    journalEntryEntity.setState(JournalEntry.State.PENDING.name());
+    return journalEntryEntity;
+  }
+
   public static JournalEntry map(final JournalEntryEntity journalEntryEntity) {
     final JournalEntry journalEntry = new JournalEntry();
     journalEntry.setTransactionIdentifier(journalEntryEntity.getTransactionIdentifier());
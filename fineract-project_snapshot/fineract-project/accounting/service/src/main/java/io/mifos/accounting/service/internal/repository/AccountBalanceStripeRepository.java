@@ -0,0 +1,53 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.accounting.service.internal.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AccountBalanceStripeRepository extends JpaRepository<AccountBalanceStripeEntity, Long> {
+
+  List<AccountBalanceStripeEntity> findByAccountId(final Long accountId);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT s FROM AccountBalanceStripeEntity s WHERE s.accountId = :accountId ORDER BY s.stripe")
+  List<AccountBalanceStripeEntity> findByAccountIdForUpdate(@Param("accountId") final Long accountId);
+
+  @Modifying
+  @Query(value = "UPDATE thoth_account_balance_stripes SET balance = balance + :amount " +
+      "WHERE account_id = :accountId AND stripe = :stripe", nativeQuery = true)
+  int addToBalance(@Param("accountId") final Long accountId, @Param("stripe") final Integer stripe,
+                   @Param("amount") final BigDecimal amount);
+
+  @Query(value = "SELECT COALESCE(SUM(balance), 0) FROM thoth_account_balance_stripes WHERE account_id = :accountId",
+      nativeQuery = true)
+  BigDecimal sumBalance(@Param("accountId") final Long accountId);
+
+  @Query(value = "SELECT a.ledger_id, SUM(s.balance) FROM thoth_account_balance_stripes s " +
+      "JOIN thoth_accounts a ON a.id = s.account_id WHERE a.ledger_id IN :ledgerIds GROUP BY a.ledger_id",
+      nativeQuery = true)
+  List<Object[]> sumBalancesByLedgerIn(@Param("ledgerIds") final Collection<Long> ledgerIds);
+}
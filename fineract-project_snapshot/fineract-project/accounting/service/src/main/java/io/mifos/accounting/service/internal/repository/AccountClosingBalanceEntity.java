@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.accounting.service.internal.repository;
+
+import io.mifos.accounting.service.internal.util.Money;
+import io.mifos.accounting.service.internal.util.MoneyConverter;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+@SuppressWarnings({"unused"})
+@Entity
+@Table(name = "thoth_account_closing_balances")
+public class AccountClosingBalanceEntity {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "id")
+  private Long id;
+  @Column(name = "period_closing_id")
+  private Long periodClosingId;
+  @Column(name = "account_id")
+  private Long accountId;
+  @Column(name = "balance")
+  @Convert(converter = MoneyConverter.class)
+  private Money balance;
+
+  public AccountClosingBalanceEntity() {
+    super();
+  }
+
+  public Long getId() {
+    return this.id;
+  }
+
+  public void setId(final Long id) {
+    this.id = id;
+  }
+
+  public Long getPeriodClosingId() {
+    return this.periodClosingId;
+  }
+
+  public void setPeriodClosingId(final Long periodClosingId) {
+    this.periodClosingId = periodClosingId;
+  }
+
+  public Long getAccountId() {
+    return this.accountId;
+  }
+
+  public void setAccountId(final Long accountId) {
+    this.accountId = accountId;
+  }
+
+  public Money getBalance() {
+    return this.balance;
+  }
+
+  public void setBalance(final Money balance) {
+    this.balance = balance;
+  }
+}
@@ -15,6 +15,8 @@
  */
 package io.mifos.accounting.service.internal.repository;
 
+import io.mifos.accounting.service.internal.util.Money;
+import io.mifos.accounting.service.internal.util.MoneyConverter;
 import io.mifos.core.mariadb.util.LocalDateTimeConverter;
 
 import javax.persistence.Column;
@@ -49,7 +51,8 @@ public class AccountEntity {
   @Column(name = "signature_authorities")
   private String signatureAuthorities;
   @Column(name = "balance")
-  private Double balance;
+  @Convert(converter = MoneyConverter.class)
+  private Money balance;
   @OneToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "reference_account_id")
   private AccountEntity referenceAccount;
@@ -58,6 +61,8 @@ public class AccountEntity {
   private LedgerEntity ledger;
   @Column(name = "a_state")
   private String state;
+  @Column(name = "balance_stripes")
+  private Integer balanceStripes;
   @Column(name = "created_on")
   @Convert(converter = LocalDateTimeConverter.class)
   private LocalDateTime createdOn;
@@ -121,11 +126,11 @@ public class AccountEntity {
     this.signatureAuthorities = signatureAuthorities;
   }
 
-  public Double getBalance() {
+  public Money getBalance() {
     return this.balance;
   }
 
-  public void setBalance(final Double balance) {
+  public void setBalance(final Money balance) {
     this.balance = balance;
   }
 
@@ -153,6 +158,18 @@ public class AccountEntity {
     this.state = state;
   }
 
+  public Integer getBalanceStripes() {
+    return this.balanceStripes;
+  }
+
+  public void setBalanceStripes(final Integer balanceStripes) {
+    this.balanceStripes = balanceStripes;
+  }
+
+  public boolean isStriped() {
+    return this.balanceStripes != null && this.balanceStripes > 0;
+  }
+
   public LocalDateTime getCreatedOn() {
     return this.createdOn;
   }
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.accounting.service.internal.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position after the last account entry of a page, the transaction date and id of that entry. Handed to clients as an
+ * opaque string.
+ */
+public final class AccountEntryCursor {
+
+  private static final String SEPARATOR = "|";
+
+  private final LocalDateTime transactionDate;
+  private final Long id;
+
+  public AccountEntryCursor(final LocalDateTime transactionDate, final Long id) {
+    super();
+    this.transactionDate = transactionDate;
+    this.id = id;
+  }
+
+  public LocalDateTime getTransactionDate() {
+    return this.transactionDate;
+  }
+
+  public Long getId() {
+    return this.id;
+  }
+
+  /**
+   * @throws IllegalArgumentException if the given string is not a cursor
+   */
+  public static AccountEntryCursor decode(final String encodedCursor) {
+    final String cursor = new String(Base64.getUrlDecoder().decode(encodedCursor), StandardCharsets.UTF_8);
+    final int separatorIndex = cursor.indexOf(SEPARATOR);
+    if (separatorIndex <= 0) {
+      throw new IllegalArgumentException("Not an account entry cursor.");
+    }
+    try {
+      return new AccountEntryCursor(LocalDateTime.parse(cursor.substring(0, separatorIndex)),
+          Long.valueOf(cursor.substring(separatorIndex + 1)));
+    } catch (final DateTimeParseException ex) {
+      throw new IllegalArgumentException("Not an account entry cursor.", ex);
+    }
+  }
+
+  public String encode() {
+    final String cursor = this.transactionDate.toString() + SEPARATOR + this.id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+  }
+}
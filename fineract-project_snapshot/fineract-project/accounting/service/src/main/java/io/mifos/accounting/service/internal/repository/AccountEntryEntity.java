@@ -15,6 +15,8 @@
  */
 package io.mifos.accounting.service.internal.repository;
 
+import io.mifos.accounting.service.internal.util.Money;
+import io.mifos.accounting.service.internal.util.MoneyConverter;
 import io.mifos.core.mariadb.util.LocalDateTimeConverter;
 
 import javax.persistence.Column;
@@ -27,6 +29,7 @@ import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
+import javax.persistence.TableGenerator;
 import java.time.LocalDateTime;
 
 @SuppressWarnings({"unused"})
@@ -35,7 +38,15 @@ import java.time.LocalDateTime;
 public class AccountEntryEntity {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.TABLE, generator = "thoth_account_entries_id")
+  @TableGenerator(
+      name = "thoth_account_entries_id",
+      table = "thoth_id_generators",
+      pkColumnName = "generator_name",
+      valueColumnName = "next_val",
+      pkColumnValue = "thoth_account_entries",
+      allocationSize = 100
+  )
   @Column(name = "id")
   private Long id;
   @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -49,9 +60,11 @@ public class AccountEntryEntity {
   @Column(name = "message")
   private String message;
   @Column(name = "amount")
-  private Double amount;
+  @Convert(converter = MoneyConverter.class)
+  private Money amount;
   @Column(name = "balance")
-  private Double balance;
+  @Convert(converter = MoneyConverter.class)
+  private Money balance;
 
   public AccountEntryEntity() {
     super();
@@ -97,19 +110,19 @@ public class AccountEntryEntity {
     this.message = message;
   }
 
-  public Double getAmount() {
+  public Money getAmount() {
     return this.amount;
   }
 
-  public void setAmount(final Double amount) {
+  public void setAmount(final Money amount) {
     this.amount = amount;
   }
 
-  public Double getBalance() {
+  public Money getBalance() {
     return this.balance;
   }
 
-  public void setBalance(final Double balance) {
+  public void setBalance(final Money balance) {
     this.balance = balance;
   }
 }
@@ -24,7 +24,9 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.Convert;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Repository
 public interface AccountEntryRepository extends JpaRepository<AccountEntryEntity, Long> {
@@ -34,6 +36,56 @@ public interface AccountEntryRepository extends JpaRepository<AccountEntryEntity
                                                                   final LocalDateTime dateFrom,
                                                                   final LocalDateTime dateTo, final Pageable pageable);
 
+  List<AccountEntryEntity> findByAccountAndTransactionDateBetweenOrderByTransactionDateAscIdAsc(
+      final AccountEntity accountEntity, final LocalDateTime dateFrom, final LocalDateTime dateTo,
+      final Pageable pageable);
+
+  @Query("SELECT e FROM AccountEntryEntity e WHERE e.account = :accountEntity " +
+      "AND e.transactionDate BETWEEN :dateFrom AND :dateTo " +
+      "AND (e.transactionDate > :afterDate OR (e.transactionDate = :afterDate AND e.id > :afterId)) " +
+      "ORDER BY e.transactionDate ASC, e.id ASC")
+  List<AccountEntryEntity> findByAccountAndTransactionDateBetweenAfter(
+      @Param("accountEntity") final AccountEntity accountEntity, @Param("dateFrom") final LocalDateTime dateFrom,
+      @Param("dateTo") final LocalDateTime dateTo, @Param("afterDate") final LocalDateTime afterDate,
+      @Param("afterId") final Long afterId, final Pageable pageable);
+
+  long countByAccountAndTransactionDateBetween(final AccountEntity accountEntity, final LocalDateTime dateFrom,
+                                               final LocalDateTime dateTo);
+
+  List<AccountEntryEntity> findByAccountAndBalanceIsNullOrderByIdAsc(final AccountEntity accountEntity);
+
+  @Query(value = "SELECT account_id, a_type, SUM(amount) FROM thoth_account_entries " +
+      "WHERE transaction_date >= :dateFrom GROUP BY account_id, a_type", nativeQuery = true)
+  List<Object[]> sumAmountsByAccountSince(@Param("dateFrom") final Timestamp dateFrom);
+
+  @Query(value = "SELECT a_type, SUM(amount) FROM thoth_account_entries " +
+      "WHERE account_id = :accountId AND transaction_date >= :dateFrom GROUP BY a_type", nativeQuery = true)
+  List<Object[]> sumAmountsOfAccountSince(@Param("accountId") final Long accountId,
+                                          @Param("dateFrom") final Timestamp dateFrom);
+
+  @Query(value = "SELECT a_type, SUM(amount) FROM thoth_account_entries " +
+      "WHERE account_id = :accountId AND transaction_date >= :dateFrom AND transaction_date < :dateTo " +
+      "GROUP BY a_type", nativeQuery = true)
+  List<Object[]> sumAmountsOfAccountBetween(@Param("accountId") final Long accountId,
+                                            @Param("dateFrom") final Timestamp dateFrom,
+                                            @Param("dateTo") final Timestamp dateTo);
+
+  @Query(value = "SELECT a.ledger_id, a.a_type, e.a_type, SUM(e.amount) FROM thoth_account_entries e " +
+      "JOIN thoth_accounts a ON a.id = e.account_id WHERE e.transaction_date >= :dateFrom " +
+      "GROUP BY a.ledger_id, a.a_type, e.a_type", nativeQuery = true)
+  List<Object[]> sumAmountsByLedgerSince(@Param("dateFrom") final Timestamp dateFrom);
+
+  @Query(value = "SELECT a.ledger_id, a.a_type, e.a_type, SUM(e.amount) FROM thoth_account_entries e " +
+      "JOIN thoth_accounts a ON a.id = e.account_id " +
+      "WHERE e.transaction_date >= :dateFrom AND e.transaction_date < :dateTo " +
+      "GROUP BY a.ledger_id, a.a_type, e.a_type", nativeQuery = true)
+  List<Object[]> sumAmountsByLedgerBetween(@Param("dateFrom") final Timestamp dateFrom,
+                                           @Param("dateTo") final Timestamp dateTo);
+
+  @Query(value = "SELECT a.ledger_id, a.a_type, e.a_type, SUM(e.amount) FROM thoth_account_entries e " +
+      "JOIN thoth_accounts a ON a.id = e.account_id WHERE a.created_on > :createdOn " +
+      "GROUP BY a.ledger_id, a.a_type, e.a_type", nativeQuery = true)
+  List<Object[]> sumAmountsByLedgerOfAccountsCreatedAfter(@Param("createdOn") final Timestamp createdOn);
 
   @Query("SELECT CASE WHEN count(a) > 0 THEN true ELSE false END FROM AccountEntryEntity a where a.account = :accountEntity")
   Boolean existsByAccount(@Param("accountEntity") final AccountEntity accountEntity);
@@ -19,10 +19,14 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -34,6 +38,36 @@ public interface AccountRepository extends JpaRepository<AccountEntity, Long>, J
 
   AccountEntity findByIdentifier(final String identifier);
 
+  List<AccountEntity> findByIdentifierIn(final Collection<String> identifiers);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT a FROM AccountEntity a WHERE a.identifier = :identifier")
+  AccountEntity findByIdentifierForUpdate(@Param("identifier") final String identifier);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT a FROM AccountEntity a WHERE a.identifier IN :identifiers " +
+      "AND (a.balanceStripes IS NULL OR a.balanceStripes = 0) ORDER BY a.identifier")
+  List<AccountEntity> findUnstripedByIdentifierInForUpdate(@Param("identifiers") final Collection<String> identifiers);
+
+  @Query(value = "SELECT DISTINCT a.identifier FROM thoth_account_balance_stripes s " +
+      "JOIN thoth_accounts a ON a.id = s.account_id WHERE s.balance <> 0", nativeQuery = true)
+  List<String> findIdentifiersWithPendingStripes();
+
+  @Query("SELECT a FROM AccountEntity a WHERE a.identifier IN :identifiers AND a.balanceStripes > 0")
+  List<AccountEntity> findStripedByIdentifierIn(@Param("identifiers") final Collection<String> identifiers);
+
+  @Query("SELECT a.identifier, a.name, a.type, a.ledger.id FROM AccountEntity a " +
+      "WHERE a.ledger.showAccountsInChart = true ORDER BY a.identifier")
+  List<Object[]> findChartOfAccountsEntries();
+
+  @Query(value = "SELECT ledger_id, SUM(balance) FROM thoth_accounts GROUP BY ledger_id", nativeQuery = true)
+  List<Object[]> sumBalancesByLedger();
+
+  @Query(value = "SELECT a.ledger_id, SUM(a.balance + COALESCE((SELECT SUM(s.balance) " +
+      "FROM thoth_account_balance_stripes s WHERE s.account_id = a.id), 0)) FROM thoth_accounts a " +
+      "WHERE a.created_on > :createdOn GROUP BY a.ledger_id", nativeQuery = true)
+  List<Object[]> sumBalancesByLedgerCreatedAfter(@Param("createdOn") final Timestamp createdOn);
+
   @Query("SELECT CASE WHEN count(a) > 0 THEN true ELSE false END FROM AccountEntity a where a.referenceAccount = :accountEntity")
   Boolean existsByReference(@Param("accountEntity") final AccountEntity accountEntity);
 }
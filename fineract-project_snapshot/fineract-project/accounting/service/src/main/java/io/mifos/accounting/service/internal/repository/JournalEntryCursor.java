@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.accounting.service.internal.repository;
+
+import com.datastax.driver.core.PagingState;
+import com.datastax.driver.core.exceptions.PagingStateException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position within the journal entries of a date range, the date bucket to continue with and the Cassandra paging
+ * state within that bucket. Handed to clients as an opaque string.
+ */
+public final class JournalEntryCursor {
+
+  private static final String SEPARATOR = "|";
+
+  private final String dateBucket;
+  private final PagingState pagingState;
+
+  JournalEntryCursor(final String dateBucket, final PagingState pagingState) {
+    super();
+    this.dateBucket = dateBucket;
+    this.pagingState = pagingState;
+  }
+
+  public String getDateBucket() {
+    return this.dateBucket;
+  }
+
+  PagingState getPagingState() {
+    return this.pagingState;
+  }
+
+  /**
+   * @throws IllegalArgumentException if the given string is not a cursor
+   */
+  public static JournalEntryCursor decode(final String encodedCursor) {
+    final String cursor = new String(Base64.getUrlDecoder().decode(encodedCursor), StandardCharsets.UTF_8);
+    final int separatorIndex = cursor.indexOf(SEPARATOR);
+    if (separatorIndex <= 0) {
+      throw new IllegalArgumentException("Not a journal entry cursor.");
+    }
+    final String pagingState = cursor.substring(separatorIndex + 1);
+    try {
+      return new JournalEntryCursor(cursor.substring(0, separatorIndex),
+          pagingState.isEmpty() ? null : PagingState.fromString(pagingState));
+    } catch (final PagingStateException ex) {
+      throw new IllegalArgumentException("Not a journal entry cursor.", ex);
+    }
+  }
+
+  public String encode() {
+    final String cursor = this.dateBucket + SEPARATOR + (this.pagingState != null ? this.pagingState.toString() : "");
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+  }
+}
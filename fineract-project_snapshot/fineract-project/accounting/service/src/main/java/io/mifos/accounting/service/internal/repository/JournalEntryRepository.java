@@ -15,74 +15,186 @@
  */
 package io.mifos.accounting.service.internal.repository;
 
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.PagingState;
+import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Session;
-import com.datastax.driver.core.querybuilder.QueryBuilder;
 import com.datastax.driver.mapping.Mapper;
 import com.datastax.driver.mapping.Result;
 import io.mifos.core.cassandra.core.CassandraSessionProvider;
 import io.mifos.core.cassandra.core.TenantAwareCassandraMapperProvider;
 import io.mifos.core.cassandra.core.TenantAwareEntityTemplate;
+import io.mifos.core.cassandra.core.TenantAwarePreparedStatementProvider;
 import io.mifos.core.lang.DateConverter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @SuppressWarnings({"unused"})
 @Repository
 public class JournalEntryRepository {
 
+  private static final int SAVE_CHUNK_SIZE = 500;
+  private static final int FETCH_SIZE = 500;
+  private static final int FETCH_CONCURRENCY = 8;
+  private static final String FETCH_BY_DATE_BUCKET = "SELECT * FROM thoth_journal_entries WHERE date_bucket = ?";
+
   private final CassandraSessionProvider cassandraSessionProvider;
   private final TenantAwareCassandraMapperProvider tenantAwareCassandraMapperProvider;
   private final TenantAwareEntityTemplate tenantAwareEntityTemplate;
+  private final TenantAwarePreparedStatementProvider tenantAwarePreparedStatementProvider;
 
   @Autowired
   public JournalEntryRepository(final CassandraSessionProvider cassandraSessionProvider,
                                 final TenantAwareCassandraMapperProvider tenantAwareCassandraMapperProvider,
-                                final TenantAwareEntityTemplate tenantAwareEntityTemplate) {
+                                final TenantAwareEntityTemplate tenantAwareEntityTemplate,
+                                final TenantAwarePreparedStatementProvider tenantAwarePreparedStatementProvider) {
     super();
     this.cassandraSessionProvider = cassandraSessionProvider;
     this.tenantAwareCassandraMapperProvider = tenantAwareCassandraMapperProvider;
     this.tenantAwareEntityTemplate = tenantAwareEntityTemplate;
+    this.tenantAwarePreparedStatementProvider = tenantAwarePreparedStatementProvider;
   }
 
   public void saveJournalEntry(final JournalEntryEntity journalEntryEntity) {
-    this.tenantAwareEntityTemplate.save(journalEntryEntity);
+    final CompletableFuture<Void> savedJournalEntry = this.tenantAwareEntityTemplate.saveAsync(journalEntryEntity);
 
     final JournalEntryLookup journalEntryLookup = new JournalEntryLookup();
     journalEntryLookup.setTransactionIdentifier(journalEntryEntity.getTransactionIdentifier());
     journalEntryLookup.setDateBucket(journalEntryEntity.getDateBucket());
-    this.tenantAwareEntityTemplate.save(journalEntryLookup);
+    final CompletableFuture<Void> savedJournalEntryLookup = this.tenantAwareEntityTemplate.saveAsync(journalEntryLookup);
+
+    CompletableFuture.allOf(savedJournalEntry, savedJournalEntryLookup).join();
+  }
+
+  public void saveJournalEntries(final List<JournalEntryEntity> journalEntryEntities) {
+    // chunked, so a large batch does not exhaust the in flight requests of the connection pool
+    for (int i = 0; i < journalEntryEntities.size(); i += SAVE_CHUNK_SIZE) {
+      final List<JournalEntryEntity> chunk =
+          journalEntryEntities.subList(i, Math.min(i + SAVE_CHUNK_SIZE, journalEntryEntities.size()));
+      final CompletableFuture<Void> savedJournalEntries = this.tenantAwareEntityTemplate.saveAll(chunk);
+
+      final List<JournalEntryLookup> journalEntryLookups = chunk.stream()
+          .map(journalEntryEntity -> {
+            final JournalEntryLookup journalEntryLookup = new JournalEntryLookup();
+            journalEntryLookup.setTransactionIdentifier(journalEntryEntity.getTransactionIdentifier());
+            journalEntryLookup.setDateBucket(journalEntryEntity.getDateBucket());
+            return journalEntryLookup;
+          })
+          .collect(Collectors.toList());
+      final CompletableFuture<Void> savedJournalEntryLookups = this.tenantAwareEntityTemplate.saveAll(journalEntryLookups);
+
+      CompletableFuture.allOf(savedJournalEntries, savedJournalEntryLookups).join();
+    }
   }
 
   public List<JournalEntryEntity> fetchJournalEntries(final String dateBucketFrom, final String dateBucketTo) {
+    final ArrayList<JournalEntryEntity> journalEntryEntities = new ArrayList<>();
+    this.streamJournalEntries(dateBucketFrom, dateBucketTo, null, Integer.MAX_VALUE, journalEntryEntities::add);
+    return journalEntryEntities;
+  }
+
+  /**
+   * Passes the journal entries of the given date range to the consumer, bucket by bucket in date order. Each bucket
+   * is a query of its own; the following buckets are queried ahead with bounded concurrency, so empty days cost no
+   * round trip of their own. At most one page per bucket in flight is held in memory, independent of the range.
+   *
+   * Stops at a page boundary before exceeding the given limit, and returns the cursor to continue with, or null if
+   * the range is exhausted.
+   */
+  public JournalEntryCursor streamJournalEntries(final String dateBucketFrom, final String dateBucketTo,
+                                                 final JournalEntryCursor startCursor, final int limit,
+                                                 final Consumer<JournalEntryEntity> journalEntryConsumer) {
     final Session tenantSession = this.cassandraSessionProvider.getTenantSession();
+    final PreparedStatement fetchByDateBucket =
+        this.tenantAwarePreparedStatementProvider.getPreparedStatement(FETCH_BY_DATE_BUCKET);
+    final Mapper<JournalEntryEntity> mapper = this.tenantAwareCassandraMapperProvider.getMapper(JournalEntryEntity.class);
+    final int fetchSize = Math.min(FETCH_SIZE, limit);
 
-    LocalDate start = LocalDate.parse(dateBucketFrom);
     final LocalDate end = LocalDate.parse(dateBucketTo);
-    final List<String> datesInBetweenRange = new ArrayList<>(Math.toIntExact(ChronoUnit.DAYS.between(start, end)));
+    LocalDate nextDateBucket =
+        startCursor != null ? LocalDate.parse(startCursor.getDateBucket()) : LocalDate.parse(dateBucketFrom);
 
-    while (!start.isAfter(end)) {
-      datesInBetweenRange.add(DateConverter.toIsoString(start));
-      start = start.plusDays(1);
-    }
+    final ArrayDeque<String> pendingDateBuckets = new ArrayDeque<>();
+    final ArrayDeque<ResultSetFuture> pendingResultSets = new ArrayDeque<>();
+    try {
+      long consumed = 0L;
+      while (true) {
+        while (pendingResultSets.size() < FETCH_CONCURRENCY && !nextDateBucket.isAfter(end)) {
+          final String dateBucket = DateConverter.toIsoString(nextDateBucket);
+          final BoundStatement statement = fetchByDateBucket.bind(dateBucket);
+          statement.setFetchSize(fetchSize);
+          final PagingState startPagingState = JournalEntryRepository.startPagingState(startCursor, dateBucket);
+          if (startPagingState != null) {
+            statement.setPagingState(startPagingState);
+          }
+          pendingDateBuckets.add(dateBucket);
+          pendingResultSets.add(tenantSession.executeAsync(statement));
+          nextDateBucket = nextDateBucket.plusDays(1);
+        }
 
-    final ResultSet resultSet = tenantSession.execute(QueryBuilder
-            .select()
-            .all()
-            .from("thoth_journal_entries")
-            .where(QueryBuilder.in("date_bucket", datesInBetweenRange))
-            .getQueryString(), datesInBetweenRange.toArray()
-    );
+        if (pendingResultSets.isEmpty()) {
+          return null;
+        }
 
-    final Mapper<JournalEntryEntity> mapper = this.tenantAwareCassandraMapperProvider.getMapper(JournalEntryEntity.class);
-    final Result<JournalEntryEntity> journalEntryEntities = mapper.map(resultSet);
-    return journalEntryEntities.all();
+        final String dateBucket = pendingDateBuckets.poll();
+        final ResultSet resultSet = pendingResultSets.poll().getUninterruptibly();
+        final Result<JournalEntryEntity> journalEntryEntities = mapper.map(resultSet);
+        // paging state to fetch the page available next, null while on the first page of the bucket
+        PagingState pagingState = JournalEntryRepository.startPagingState(startCursor, dateBucket);
+        while (true) {
+          final int available = resultSet.getAvailableWithoutFetching();
+          if (available == 0 && resultSet.isFullyFetched()) {
+            break;
+          }
+          if (consumed > 0L && consumed + available > limit) {
+            return new JournalEntryCursor(dateBucket, pagingState);
+          }
+          for (int i = 0; i < available; i++) {
+            journalEntryConsumer.accept(journalEntryEntities.one());
+          }
+          consumed += available;
+          if (resultSet.isFullyFetched()) {
+            break;
+          }
+          pagingState = resultSet.getExecutionInfo().getPagingState();
+          if (consumed >= limit) {
+            return new JournalEntryCursor(dateBucket, pagingState);
+          }
+          resultSet.fetchMoreResults().getUninterruptibly();
+        }
+
+        if (consumed >= limit) {
+          if (!pendingDateBuckets.isEmpty()) {
+            return new JournalEntryCursor(pendingDateBuckets.peek(), null);
+          }
+          return nextDateBucket.isAfter(end) ? null : new JournalEntryCursor(DateConverter.toIsoString(nextDateBucket), null);
+        }
+      }
+    } finally {
+      pendingResultSets.forEach(resultSetFuture -> resultSetFuture.cancel(true));
+    }
+  }
+
+  private static PagingState startPagingState(final JournalEntryCursor startCursor, final String dateBucket) {
+    if (startCursor != null && startCursor.getDateBucket().equals(dateBucket)) {
+      return startCursor.getPagingState();
+    } else {
+      return null;
+    }
   }
 
   public Optional<JournalEntryEntity> findJournalEntry(final String transactionIdentifier) {
@@ -96,4 +208,49 @@ public class JournalEntryRepository {
       return Optional.empty();
     }
   }
+
+  /**
+   * Returns those of the given transaction identifiers the journal already has, looked up in chunks of concurrent
+   * queries.
+   */
+  public Set<String> findExistingTransactionIdentifiers(final Collection<String> transactionIdentifiers) {
+    final HashSet<String> existingTransactionIdentifiers = new HashSet<>();
+    final List<String> identifiers = new ArrayList<>(transactionIdentifiers);
+    for (int i = 0; i < identifiers.size(); i += SAVE_CHUNK_SIZE) {
+      identifiers.subList(i, Math.min(i + SAVE_CHUNK_SIZE, identifiers.size()))
+          .stream()
+          .map(transactionIdentifier -> this.tenantAwareEntityTemplate.findByIdAsync(JournalEntryLookup.class, transactionIdentifier))
+          .collect(Collectors.toList())
+          .forEach(journalEntryLookup -> journalEntryLookup.join()
+              .ifPresent(lookup -> existingTransactionIdentifiers.add(lookup.getTransactionIdentifier())));
+    }
+    return existingTransactionIdentifiers;
+  }
+
+  /**
+   * Finds the journal entries of the given transaction identifiers, skipping unknown ones, in chunks of concurrent
+   * queries. The lookups of a chunk are joined before its entries are queried, since the tenant session is only known
+   * on the calling thread.
+   */
+  public List<JournalEntryEntity> findJournalEntries(final Collection<String> transactionIdentifiers) {
+    final ArrayList<JournalEntryEntity> journalEntryEntities = new ArrayList<>(transactionIdentifiers.size());
+    final List<String> identifiers = new ArrayList<>(transactionIdentifiers);
+    for (int i = 0; i < identifiers.size(); i += SAVE_CHUNK_SIZE) {
+      final List<JournalEntryLookup> journalEntryLookups = identifiers.subList(i, Math.min(i + SAVE_CHUNK_SIZE, identifiers.size()))
+          .stream()
+          .map(transactionIdentifier -> this.tenantAwareEntityTemplate.findByIdAsync(JournalEntryLookup.class, transactionIdentifier))
+          .collect(Collectors.toList())
+          .stream()
+          .map(CompletableFuture::join)
+          .filter(Optional::isPresent)
+          .map(Optional::get)
+          .collect(Collectors.toList());
+      journalEntryLookups.stream()
+          .map(lookup -> this.tenantAwareEntityTemplate.fetchByKeysAsync(JournalEntryEntity.class,
+              lookup.getDateBucket(), lookup.getTransactionIdentifier()))
+          .collect(Collectors.toList())
+          .forEach(journalEntries -> journalEntryEntities.addAll(journalEntries.join()));
+    }
+    return journalEntryEntities;
+  }
 }
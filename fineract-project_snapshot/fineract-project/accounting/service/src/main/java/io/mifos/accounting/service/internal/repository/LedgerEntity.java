@@ -15,6 +15,8 @@
  */
 package io.mifos.accounting.service.internal.repository;
 
+import io.mifos.accounting.service.internal.util.Money;
+import io.mifos.accounting.service.internal.util.MoneyConverter;
 import io.mifos.core.mariadb.util.LocalDateTimeConverter;
 
 import javax.persistence.Column;
@@ -61,6 +63,10 @@ public class LedgerEntity {
   private String lastModifiedBy;
   @Column(name = "show_accounts_in_chart")
   private Boolean showAccountsInChart;
+  // only changed through LedgerRepository.addToTotalValue, so concurrent bookings are never overwritten
+  @Column(name = "total_value", updatable = false)
+  @Convert(converter = MoneyConverter.class)
+  private Money totalValue;
 
   public LedgerEntity() {
     super();
@@ -154,6 +160,14 @@ public class LedgerEntity {
     this.showAccountsInChart = showAccountsInChart;
   }
 
+  public Money getTotalValue() {
+    return this.totalValue;
+  }
+
+  public void setTotalValue(final Money totalValue) {
+    this.totalValue = totalValue;
+  }
+
   @Override
   public boolean equals(final Object o) {
     if (this == o) return true;
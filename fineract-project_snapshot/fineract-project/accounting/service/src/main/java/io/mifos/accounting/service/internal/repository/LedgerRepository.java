@@ -20,8 +20,12 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @Repository
@@ -32,4 +36,21 @@ public interface LedgerRepository extends JpaRepository<LedgerEntity, Long>, Jpa
   List<LedgerEntity> findByParentLedgerOrderByIdentifier(final LedgerEntity parentLedger);
 
   LedgerEntity findByIdentifier(final String identifier);
+
+  @Query("SELECT CASE WHEN count(l) > 0 THEN true ELSE false END FROM LedgerEntity l WHERE l.identifier = :identifier")
+  Boolean existsByIdentifier(@Param("identifier") final String identifier);
+
+  @Query("SELECT l.type FROM LedgerEntity l WHERE l.identifier = :identifier")
+  String findTypeByIdentifier(@Param("identifier") final String identifier);
+
+  @Query("SELECT CASE WHEN count(l) > 0 THEN true ELSE false END FROM LedgerEntity l " +
+      "WHERE l.parentLedger.identifier = :identifier")
+  Boolean existsByParentLedgerIdentifier(@Param("identifier") final String identifier);
+
+  @Query("SELECT l.id, p.id FROM LedgerEntity l LEFT JOIN l.parentLedger p")
+  List<Object[]> findIdsAndParentIds();
+
+  @Modifying
+  @Query(value = "UPDATE thoth_ledgers SET total_value = total_value + :amount WHERE id = :id", nativeQuery = true)
+  int addToTotalValue(@Param("id") final Long id, @Param("amount") final BigDecimal amount);
 }
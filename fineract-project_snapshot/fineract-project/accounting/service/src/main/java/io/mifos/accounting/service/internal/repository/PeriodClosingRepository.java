@@ -0,0 +1,46 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.accounting.service.internal.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+@Repository
+public interface PeriodClosingRepository extends JpaRepository<PeriodClosingEntity, Long> {
+
+  PeriodClosingEntity findByClosedUntil(final LocalDateTime closedUntil);
+
+  PeriodClosingEntity findFirstByOrderByClosedUntilDesc();
+
+  PeriodClosingEntity findFirstByClosedUntilLessThanEqualOrderByClosedUntilDesc(final LocalDateTime dateTime);
+
+  @Query(value = "SELECT closed_until FROM thoth_period_lock WHERE id = 1 LOCK IN SHARE MODE", nativeQuery = true)
+  Timestamp findClosedUntilForBooking();
+
+  @Query(value = "SELECT closed_until FROM thoth_period_lock WHERE id = 1 FOR UPDATE", nativeQuery = true)
+  Timestamp findClosedUntilForClosing();
+
+  @Modifying
+  @Query(value = "UPDATE thoth_period_lock SET closed_until = :closedUntil " +
+      "WHERE id = 1 AND (closed_until IS NULL OR closed_until < :closedUntil)", nativeQuery = true)
+  int advanceClosedUntil(@Param("closedUntil") final Timestamp closedUntil);
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.accounting.service.internal.service;
+
+import io.mifos.accounting.service.internal.repository.AccountEntity;
+
+/**
+ * The parts of an account which only change by account commands, as opposed to its balance.
+ */
+public final class AccountMetadata {
+
+  private final String identifier;
+  private final String type;
+  private final String state;
+  private final String ledgerIdentifier;
+
+  private AccountMetadata(final String identifier, final String type, final String state,
+                          final String ledgerIdentifier) {
+    super();
+    this.identifier = identifier;
+    this.type = type;
+    this.state = state;
+    this.ledgerIdentifier = ledgerIdentifier;
+  }
+
+  public static AccountMetadata of(final AccountEntity accountEntity) {
+    return new AccountMetadata(accountEntity.getIdentifier(), accountEntity.getType(), accountEntity.getState(),
+        accountEntity.getLedger().getIdentifier());
+  }
+
+  public String getIdentifier() {
+    return this.identifier;
+  }
+
+  public String getType() {
+    return this.type;
+  }
+
+  public String getState() {
+    return this.state;
+  }
+
+  public String getLedgerIdentifier() {
+    return this.ledgerIdentifier;
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.accounting.service.internal.service;
+
+import io.mifos.core.lang.TenantContextHolder;
+import io.mifos.core.lang.TenantGenerations;
+import io.mifos.core.mariadb.util.TransactionCallbacks;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through cache of account metadata per tenant. Entries are dropped once a transaction changing the account
+ * committed on this instance, or when a change event of another instance arrives. Unknown accounts are not cached,
+ * so newly created accounts are visible at once.
+ */
+@Component
+@ManagedResource(objectName = "io.mifos.accounting:name=AccountMetadataCache")
+public class AccountMetadataCache {
+
+  private static final int MAX_ACCOUNTS_PER_TENANT = 100000;
+
+  private final ConcurrentHashMap<String, ConcurrentHashMap<String, AccountMetadata>> accountsByTenant =
+      new ConcurrentHashMap<>();
+  private final TenantGenerations generations = new TenantGenerations();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder invalidations = new LongAdder();
+
+  public AccountMetadataCache() {
+    super();
+  }
+
+  public Optional<AccountMetadata> get(final String identifier,
+                                       final Function<String, Optional<AccountMetadata>> loader) {
+    final String tenantIdentifier = TenantContextHolder.checkedGetIdentifier();
+    final ConcurrentHashMap<String, AccountMetadata> accounts = this.accounts(tenantIdentifier);
+    final AccountMetadata cachedAccount = accounts.get(identifier);
+    if (cachedAccount != null) {
+      this.hits.increment();
+      return Optional.of(cachedAccount);
+    }
+
+    this.misses.increment();
+    final long generationBeforeLoad = this.generations.current(tenantIdentifier);
+    final Optional<AccountMetadata> account = loader.apply(identifier);
+    account.ifPresent(metadata -> this.keep(tenantIdentifier, accounts, generationBeforeLoad, metadata));
+    return account;
+  }
+
+  /**
+   * Returns the metadata of all given accounts which exist, loading all missing ones at once.
+   */
+  public Map<String, AccountMetadata> getAll(final Collection<String> identifiers,
+                                             final Function<Collection<String>, Collection<AccountMetadata>> loader) {
+    final String tenantIdentifier = TenantContextHolder.checkedGetIdentifier();
+    final ConcurrentHashMap<String, AccountMetadata> accounts = this.accounts(tenantIdentifier);
+    final HashMap<String, AccountMetadata> found = new HashMap<>(identifiers.size());
+    identifiers.forEach(identifier -> {
+      final AccountMetadata cachedAccount = accounts.get(identifier);
+      if (cachedAccount != null) {
+        found.put(identifier, cachedAccount);
+      }
+    });
+    this.hits.add(found.size());
+    if (found.size() == identifiers.size()) {
+      return found;
+    }
+
+    final List<String> missing = identifiers.stream()
+        .filter(identifier -> !found.containsKey(identifier))
+        .collect(Collectors.toList());
+    this.misses.add(missing.size());
+    final long generationBeforeLoad = this.generations.current(tenantIdentifier);
+    loader.apply(missing).forEach(metadata -> {
+      found.put(metadata.getIdentifier(), metadata);
+      this.keep(tenantIdentifier, accounts, generationBeforeLoad, metadata);
+    });
+    return found;
+  }
+
+  /**
+   * Invalidates the given account of the current tenant after the current transaction committed, or at once if there
+   * is none.
+   */
+  public void invalidateAfterCommit(final String identifier) {
+    final String tenantIdentifier = TenantContextHolder.checkedGetIdentifier();
+    TransactionCallbacks.afterCommit(() -> this.invalidate(tenantIdentifier, identifier));
+  }
+
+  public void invalidate(final String tenantIdentifier, final String identifier) {
+    this.invalidations.increment();
+    this.generations.advance(tenantIdentifier);
+    this.accounts(tenantIdentifier).remove(identifier);
+  }
+
+  @ManagedAttribute
+  public long getHits() {
+    return this.hits.sum();
+  }
+
+  @ManagedAttribute
+  public long getMisses() {
+    return this.misses.sum();
+  }
+
+  @ManagedAttribute
+  public long getInvalidations() {
+    return this.invalidations.sum();
+  }
+
+  @ManagedAttribute
+  public double getHitRatio() {
+    final long hits = this.hits.sum();
+    final long lookups = hits + this.misses.sum();
+    return lookups == 0L ? 0.0D : (double) hits / lookups;
+  }
+
+  @ManagedAttribute
+  public long getSize() {
+    return this.accountsByTenant.values().stream().mapToLong(ConcurrentHashMap::size).sum();
+  }
+
+  @ManagedOperation
+  public void clear() {
+    this.generations.advanceAll();
+    this.accountsByTenant.clear();
+  }
+
+  private void keep(final String tenantIdentifier, final ConcurrentHashMap<String, AccountMetadata> accounts,
+                    final long generationBeforeLoad, final AccountMetadata metadata) {
+    if (accounts.size() >= MAX_ACCOUNTS_PER_TENANT) {
+      return;
+    }
+    accounts.compute(metadata.getIdentifier(), (key, currentAccount) ->
+        this.generations.isCurrent(tenantIdentifier, generationBeforeLoad) ? metadata : currentAccount);
+  }
+
+  private ConcurrentHashMap<String, AccountMetadata> accounts(final String tenantIdentifier) {
+    return this.accountsByTenant.computeIfAbsent(tenantIdentifier, key -> new ConcurrentHashMap<>());
+  }
+}
@@ -16,6 +16,7 @@
 package io.mifos.accounting.service.internal.service;
 
 import io.mifos.accounting.api.v1.domain.Account;
+import io.mifos.accounting.api.v1.domain.AccountBalance;
 import io.mifos.accounting.api.v1.domain.AccountCommand;
 import io.mifos.accounting.api.v1.domain.AccountEntry;
 import io.mifos.accounting.api.v1.domain.AccountEntryPage;
@@ -25,23 +26,30 @@ import io.mifos.accounting.service.internal.mapper.AccountCommandMapper;
 import io.mifos.accounting.service.internal.mapper.AccountEntryMapper;
 import io.mifos.accounting.service.internal.mapper.AccountMapper;
 import io.mifos.accounting.service.internal.repository.AccountEntity;
+import io.mifos.accounting.service.internal.repository.AccountEntryCursor;
 import io.mifos.accounting.service.internal.repository.AccountEntryEntity;
 import io.mifos.accounting.service.internal.repository.AccountEntryRepository;
 import io.mifos.accounting.service.internal.repository.AccountRepository;
 import io.mifos.accounting.service.internal.repository.CommandEntity;
 import io.mifos.accounting.service.internal.repository.CommandRepository;
 import io.mifos.accounting.service.internal.repository.specification.AccountSpecification;
+import io.mifos.core.lang.DateConverter;
+import io.mifos.core.lang.ServiceException;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -52,17 +60,26 @@ public class AccountService {
   private final AccountRepository accountRepository;
   private final AccountEntryRepository accountEntryRepository;
   private final CommandRepository commandRepository;
+  private final AccountMetadataCache accountMetadataCache;
+  private final BalanceStripeService balanceStripeService;
+  private final PeriodClosingService periodClosingService;
 
   @Autowired
   public AccountService(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
                         final AccountRepository accountRepository,
                         final AccountEntryRepository accountEntryRepository,
-                        final CommandRepository commandRepository) {
+                        final CommandRepository commandRepository,
+                        final AccountMetadataCache accountMetadataCache,
+                        final BalanceStripeService balanceStripeService,
+                        final PeriodClosingService periodClosingService) {
     super();
     this.logger = logger;
     this.accountRepository = accountRepository;
     this.accountEntryRepository = accountEntryRepository;
     this.commandRepository = commandRepository;
+    this.accountMetadataCache = accountMetadataCache;
+    this.balanceStripeService = balanceStripeService;
+    this.periodClosingService = periodClosingService;
   }
 
   public Optional<Account> findAccount(final String identifier) {
@@ -70,10 +87,38 @@ public class AccountService {
     if (accountEntity == null) {
       return Optional.empty();
     } else {
-      return Optional.of(AccountMapper.map(accountEntity));
+      return Optional.of(AccountMapper.map(accountEntity, this.balanceStripeService.findBalance(accountEntity)));
     }
   }
 
+  public Optional<AccountBalance> findAccountBalance(final String identifier, final LocalDateTime dateTime) {
+    final AccountEntity accountEntity = this.accountRepository.findByIdentifier(identifier);
+    if (accountEntity == null) {
+      return Optional.empty();
+    }
+    final AccountBalance accountBalance = new AccountBalance();
+    accountBalance.setAccountIdentifier(identifier);
+    accountBalance.setDateTime(DateConverter.toIsoString(dateTime));
+    accountBalance.setBalance(this.periodClosingService.findBalance(accountEntity, dateTime).toDouble());
+    return Optional.of(accountBalance);
+  }
+
+  public Optional<AccountMetadata> findAccountMetadata(final String identifier) {
+    return this.accountMetadataCache.get(identifier,
+        key -> Optional.ofNullable(this.accountRepository.findByIdentifier(key)).map(AccountMetadata::of));
+  }
+
+  public Map<String, String> findAccountStates(final Collection<String> identifiers) {
+    return this.accountMetadataCache.getAll(identifiers,
+        keys -> this.accountRepository.findByIdentifierIn(keys)
+            .stream()
+            .map(AccountMetadata::of)
+            .collect(Collectors.toList()))
+        .values()
+        .stream()
+        .collect(Collectors.toMap(AccountMetadata::getIdentifier, AccountMetadata::getState));
+  }
+
   public AccountPage fetchAccounts(
       final boolean includeClosed, final String term, final String type, final Pageable pageable) {
 
@@ -87,7 +132,7 @@ public class AccountService {
 
     if(accountEntities.getSize() > 0){
       final List<Account> accounts = new ArrayList<>(accountEntities.getSize());
-      accountEntities.forEach(accountEntity -> accounts.add(AccountMapper.map(accountEntity)));
+      accountEntities.forEach(accountEntity -> accounts.add(AccountMapper.map(accountEntity, this.balanceStripeService.findBalance(accountEntity))));
       accountPage.setAccounts(accounts);
     }
 
@@ -100,7 +145,11 @@ public class AccountService {
 
     final AccountEntity accountEntity = this.accountRepository.findByIdentifier(identifier);
 
-    final Page<AccountEntryEntity> accountEntryEntities = this.accountEntryRepository.findByAccountAndTransactionDateBetween(accountEntity, dateFrom, dateTo, pageable);
+    // entries sharing a transaction date keep their order across pages, as they do when sought by cursor
+    final Sort byId = new Sort(Sort.Direction.ASC, "id");
+    final Pageable pageableWithId = new PageRequest(pageable.getPageNumber(), pageable.getPageSize(),
+        pageable.getSort() != null ? pageable.getSort().and(byId) : byId);
+    final Page<AccountEntryEntity> accountEntryEntities = this.accountEntryRepository.findByAccountAndTransactionDateBetween(accountEntity, dateFrom, dateTo, pageableWithId);
 
     final AccountEntryPage accountEntryPage = new AccountEntryPage();
     accountEntryPage.setTotalPages(accountEntryEntities.getTotalPages());
@@ -115,6 +164,52 @@ public class AccountService {
     return accountEntryPage;
   }
 
+  /**
+   * Seeks the page following the given cursor in order of transaction date, without an offset. The total is counted
+   * only if requested.
+   */
+  public AccountEntryPage fetchAccountEntries(final String identifier, final LocalDateTime dateFrom,
+                                              final LocalDateTime dateTo, final String cursor, final int size,
+                                              final boolean includeTotal) {
+    final AccountEntity accountEntity = this.accountRepository.findByIdentifier(identifier);
+
+    // one more than requested tells whether there is a next page
+    final Pageable limit = new PageRequest(0, size + 1);
+    final List<AccountEntryEntity> accountEntryEntities;
+    if (cursor == null) {
+      accountEntryEntities = this.accountEntryRepository
+          .findByAccountAndTransactionDateBetweenOrderByTransactionDateAscIdAsc(accountEntity, dateFrom, dateTo, limit);
+    } else {
+      final AccountEntryCursor accountEntryCursor;
+      try {
+        accountEntryCursor = AccountEntryCursor.decode(cursor);
+      } catch (final IllegalArgumentException ex) {
+        throw ServiceException.badRequest("Cursor {0} is not valid.", cursor);
+      }
+      accountEntryEntities = this.accountEntryRepository.findByAccountAndTransactionDateBetweenAfter(accountEntity,
+          dateFrom, dateTo, accountEntryCursor.getTransactionDate(), accountEntryCursor.getId(), limit);
+    }
+
+    final AccountEntryPage accountEntryPage = new AccountEntryPage();
+    final List<AccountEntryEntity> pageEntities = accountEntryEntities.subList(0, Math.min(size, accountEntryEntities.size()));
+    accountEntryPage.setAccountEntries(
+        pageEntities.stream().map(AccountEntryMapper::map).collect(Collectors.toList()));
+    if (accountEntryEntities.size() > size) {
+      final AccountEntryEntity lastEntity = pageEntities.get(pageEntities.size() - 1);
+      accountEntryPage.setNextCursor(
+          new AccountEntryCursor(lastEntity.getTransactionDate(), lastEntity.getId()).encode());
+    }
+
+    if (includeTotal) {
+      final long totalElements =
+          this.accountEntryRepository.countByAccountAndTransactionDateBetween(accountEntity, dateFrom, dateTo);
+      accountEntryPage.setTotalElements(totalElements);
+      accountEntryPage.setTotalPages(Math.toIntExact((totalElements + size - 1) / size));
+    }
+
+    return accountEntryPage;
+  }
+
   public final List<AccountCommand> fetchCommandsByAccount(final String identifier) {
     final AccountEntity accountEntity = this.accountRepository.findByIdentifier(identifier);
     final List<CommandEntity> commands = this.commandRepository.findByAccount(accountEntity);
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.accounting.service.internal.service;
+
+import com.datastax.driver.core.Row;
+import io.mifos.accounting.service.ServiceConstants;
+import io.mifos.accounting.service.internal.repository.AccountRepository;
+import io.mifos.core.cassandra.core.CassandraSessionProvider;
+import io.mifos.core.lang.TenantContextHolder;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Periodically folds the stripes of all accounts with pending changes. Tenants booked on this instance are compacted
+ * with every run. All provisioned tenants are searched for pending changes on the first run and then at the discovery
+ * rate, so changes left by an instance which stopped, or booked by another instance, are compacted without waiting
+ * for this instance to book for their tenant. Until then their balances are correct nevertheless. Entries whose
+ * changes cancel each other out get their running balances with the next compaction of their account.
+ */
+@Component
+public class BalanceStripeCompactor {
+
+  private final Logger logger;
+  private final AccountRepository accountRepository;
+  private final BalanceStripeService balanceStripeService;
+  private final CassandraSessionProvider cassandraSessionProvider;
+  private final long discoveryRate;
+  private final Set<String> tenants = ConcurrentHashMap.newKeySet();
+  private long nextDiscovery = 0L;
+
+  @Autowired
+  public BalanceStripeCompactor(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
+                                final Environment environment,
+                                final AccountRepository accountRepository,
+                                final BalanceStripeService balanceStripeService,
+                                final CassandraSessionProvider cassandraSessionProvider) {
+    super();
+    this.logger = logger;
+    this.accountRepository = accountRepository;
+    this.balanceStripeService = balanceStripeService;
+    this.cassandraSessionProvider = cassandraSessionProvider;
+    this.discoveryRate = Long.valueOf(environment.getProperty(ServiceConstants.BALANCE_STRIPES_DISCOVERY_RATE_PROP,
+        ServiceConstants.BALANCE_STRIPES_DISCOVERY_RATE_DEFAULT));
+  }
+
+  /**
+   * Includes the current tenant in the compaction runs of this instance.
+   */
+  public void markForCompaction() {
+    this.tenants.add(TenantContextHolder.checkedGetIdentifier());
+  }
+
+  @Scheduled(
+      initialDelayString = "${" + ServiceConstants.BALANCE_STRIPES_COMPACTION_RATE_PROP + ":"
+          + ServiceConstants.BALANCE_STRIPES_COMPACTION_RATE_DEFAULT + "}",
+      fixedDelayString = "${" + ServiceConstants.BALANCE_STRIPES_COMPACTION_RATE_PROP + ":"
+          + ServiceConstants.BALANCE_STRIPES_COMPACTION_RATE_DEFAULT + "}"
+  )
+  public void compactMarkedAccounts() {
+    // runs never overlap, the schedule has a fixed delay
+    final long now = System.currentTimeMillis();
+    if (now >= this.nextDiscovery) {
+      this.nextDiscovery = now + this.discoveryRate;
+      this.discoverTenants();
+    }
+
+    this.tenants.forEach(tenantIdentifier -> {
+      TenantContextHolder.setIdentifier(tenantIdentifier);
+      try {
+        // accounts failing to compact still have pending changes, and are found again with the next run
+        for (final String accountIdentifier : this.accountRepository.findIdentifiersWithPendingStripes()) {
+          try {
+            this.balanceStripeService.compact(accountIdentifier);
+          } catch (final RuntimeException ex) {
+            this.logger.warn("Could not compact balance stripes of account {}.", accountIdentifier, ex);
+          }
+        }
+      } catch (final RuntimeException ex) {
+        this.logger.warn("Could not find accounts to compact of tenant {}.", tenantIdentifier, ex);
+      } finally {
+        TenantContextHolder.clear();
+      }
+    });
+  }
+
+  private void discoverTenants() {
+    final List<Row> rows;
+    try {
+      rows = this.cassandraSessionProvider.getAdminSession().execute("SELECT identifier FROM tenants").all();
+    } catch (final RuntimeException ex) {
+      this.logger.warn("Could not find provisioned tenants.", ex);
+      return;
+    }
+
+    rows.stream()
+        .map(row -> row.getString("identifier"))
+        .filter(tenantIdentifier -> !this.tenants.contains(tenantIdentifier))
+        .forEach(tenantIdentifier -> {
+          TenantContextHolder.setIdentifier(tenantIdentifier);
+          try {
+            if (!this.accountRepository.findIdentifiersWithPendingStripes().isEmpty()) {
+              this.tenants.add(tenantIdentifier);
+            }
+          } catch (final RuntimeException ex) {
+            // e.g. accounting is not provisioned for this tenant
+            this.logger.debug("Could not search tenant {} for pending balance stripes.", tenantIdentifier, ex);
+          } finally {
+            TenantContextHolder.clear();
+          }
+        });
+  }
+}
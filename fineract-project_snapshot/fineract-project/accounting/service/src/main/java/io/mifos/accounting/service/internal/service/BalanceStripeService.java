@@ -0,0 +1,205 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.accounting.service.internal.service;
+
+import io.mifos.accounting.api.v1.domain.AccountEntry;
+import io.mifos.accounting.api.v1.domain.AccountType;
+import io.mifos.accounting.service.ServiceConstants;
+import io.mifos.accounting.service.internal.repository.AccountBalanceStripeEntity;
+import io.mifos.accounting.service.internal.repository.AccountBalanceStripeRepository;
+import io.mifos.accounting.service.internal.repository.AccountEntity;
+import io.mifos.accounting.service.internal.repository.AccountEntryEntity;
+import io.mifos.accounting.service.internal.repository.AccountEntryRepository;
+import io.mifos.accounting.service.internal.repository.AccountRepository;
+import io.mifos.accounting.service.internal.repository.LedgerRepository;
+import io.mifos.accounting.service.internal.util.Money;
+import io.mifos.core.lang.ServiceException;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Splits the balance of high-volume accounts across stripe rows, so concurrent bookings lock one of several rows
+ * instead of the account row. A stripe holds the changes booked since the last compaction, the balance of a striped
+ * account is its own balance plus the sum of its stripes. The same holds for the totals of its ledger.
+ *
+ * Compaction locks the account and all of its stripes, assigns running balances to the account entries booked
+ * since, in the order of their ids, and folds the stripes into the balances of the account and its ledger.
+ */
+@Service
+public class BalanceStripeService {
+
+  public static final int MAX_STRIPES = 64;
+
+  private final Logger logger;
+  private final AccountRepository accountRepository;
+  private final AccountEntryRepository accountEntryRepository;
+  private final AccountBalanceStripeRepository accountBalanceStripeRepository;
+  private final LedgerRepository ledgerRepository;
+
+  @Autowired
+  public BalanceStripeService(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
+                              final AccountRepository accountRepository,
+                              final AccountEntryRepository accountEntryRepository,
+                              final AccountBalanceStripeRepository accountBalanceStripeRepository,
+                              final LedgerRepository ledgerRepository) {
+    super();
+    this.logger = logger;
+    this.accountRepository = accountRepository;
+    this.accountEntryRepository = accountEntryRepository;
+    this.accountBalanceStripeRepository = accountBalanceStripeRepository;
+    this.ledgerRepository = ledgerRepository;
+  }
+
+  /**
+   * Returns the change of an account balance booking the given amount.
+   */
+  public static Money change(final String accountType, final AccountEntry.Type entryType, final Money amount) {
+    final boolean increasesOnDebit;
+    switch (AccountType.valueOf(accountType)) {
+      case ASSET:
+      case EXPENSE:
+        increasesOnDebit = true;
+        break;
+      default:
+        increasesOnDebit = false;
+    }
+    return increasesOnDebit == (entryType == AccountEntry.Type.DEBIT) ? amount : amount.negate();
+  }
+
+  /**
+   * Changes the number of stripes of a saved account, which the caller locked and compacted. Zero switches striping
+   * off; stripes are kept, so bookings still using the former number of stripes are not lost.
+   */
+  public void configure(final AccountEntity accountEntity, final Integer balanceStripes) {
+    if (balanceStripes == null
+        || balanceStripes.equals(accountEntity.getBalanceStripes())
+        || (balanceStripes == 0 && accountEntity.getBalanceStripes() == null)) {
+      return;
+    }
+    if (balanceStripes < 0 || balanceStripes > MAX_STRIPES) {
+      throw ServiceException.badRequest("Balance stripes must be between 0 and {0}.", MAX_STRIPES);
+    }
+
+    final Set<Integer> existingStripes = new HashSet<>();
+    this.accountBalanceStripeRepository.findByAccountId(accountEntity.getId())
+        .forEach(accountBalanceStripeEntity -> existingStripes.add(accountBalanceStripeEntity.getStripe()));
+    for (int stripe = 0; stripe < balanceStripes; stripe++) {
+      if (!existingStripes.contains(stripe)) {
+        final AccountBalanceStripeEntity accountBalanceStripeEntity = new AccountBalanceStripeEntity();
+        accountBalanceStripeEntity.setAccountId(accountEntity.getId());
+        accountBalanceStripeEntity.setStripe(stripe);
+        accountBalanceStripeEntity.setBalance(Money.ZERO);
+        this.accountBalanceStripeRepository.save(accountBalanceStripeEntity);
+      }
+    }
+    accountEntity.setBalanceStripes(balanceStripes);
+  }
+
+  /**
+   * Adds a change to a randomly picked stripe of a striped account, locking only that stripe.
+   */
+  public void add(final AccountEntity accountEntity, final Money change) {
+    final int stripe = ThreadLocalRandom.current().nextInt(accountEntity.getBalanceStripes());
+    if (this.accountBalanceStripeRepository.addToBalance(accountEntity.getId(), stripe, change.toBigDecimal()) == 0) {
+      throw new IllegalStateException("Stripe " + stripe + " of account " + accountEntity.getIdentifier() + " missing.");
+    }
+  }
+
+  /**
+   * Returns the balance of an account including the changes not yet folded into it.
+   */
+  public Money findBalance(final AccountEntity accountEntity) {
+    if (accountEntity.getBalanceStripes() == null) {
+      return accountEntity.getBalance();
+    }
+    return accountEntity.getBalance().add(
+        Money.of(this.accountBalanceStripeRepository.sumBalance(accountEntity.getId())));
+  }
+
+  /**
+   * Returns the changes of striped accounts not yet folded into the totals of the given ledgers, keyed by ledger id.
+   */
+  public Map<Long, Money> findPendingTotals(final Collection<Long> ledgerIds) {
+    final HashMap<Long, Money> pendingTotals = new HashMap<>();
+    if (ledgerIds.isEmpty()) {
+      return pendingTotals;
+    }
+    this.accountBalanceStripeRepository.sumBalancesByLedgerIn(ledgerIds).forEach(row ->
+        pendingTotals.put(((Number) row[0]).longValue(), Money.of((BigDecimal) row[1])));
+    return pendingTotals;
+  }
+
+  /**
+   * Removes the stripes of an account about to be deleted, which the caller locked and compacted.
+   */
+  public void remove(final AccountEntity accountEntity) {
+    this.accountBalanceStripeRepository.delete(
+        this.accountBalanceStripeRepository.findByAccountId(accountEntity.getId()));
+  }
+
+  @Transactional
+  public void compact(final String identifier) {
+    final AccountEntity accountEntity = this.accountRepository.findByIdentifierForUpdate(identifier);
+    if (accountEntity != null && accountEntity.getBalanceStripes() != null) {
+      this.compact(accountEntity);
+    }
+  }
+
+  /**
+   * Folds the stripes of an account locked by the caller into its balance.
+   */
+  public void compact(final AccountEntity accountEntity) {
+    // waits for bookings in flight, the entries read afterwards include all of them
+    final List<AccountBalanceStripeEntity> stripes =
+        this.accountBalanceStripeRepository.findByAccountIdForUpdate(accountEntity.getId());
+    final Money pendingBalance = stripes.stream()
+        .map(AccountBalanceStripeEntity::getBalance)
+        .reduce(Money.ZERO, Money::add);
+
+    Money runningBalance = accountEntity.getBalance();
+    for (final AccountEntryEntity accountEntryEntity
+        : this.accountEntryRepository.findByAccountAndBalanceIsNullOrderByIdAsc(accountEntity)) {
+      runningBalance = runningBalance.add(BalanceStripeService.change(accountEntity.getType(),
+          AccountEntry.Type.valueOf(accountEntryEntity.getType()), accountEntryEntity.getAmount()));
+      accountEntryEntity.setBalance(runningBalance);
+    }
+
+    final Money balance = accountEntity.getBalance().add(pendingBalance);
+    if (!runningBalance.equals(balance)) {
+      this.logger.warn("Entries of account {} add up to {}, its stripes to {}.", accountEntity.getIdentifier(),
+          runningBalance, balance);
+    }
+    if (pendingBalance.isZero()) {
+      return;
+    }
+
+    accountEntity.setBalance(balance);
+    stripes.forEach(stripe -> stripe.setBalance(Money.ZERO));
+    this.ledgerRepository.addToTotalValue(accountEntity.getLedger().getId(), pendingBalance.toBigDecimal());
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.accounting.service.internal.service;
+
+import io.mifos.accounting.api.v1.domain.ChartOfAccountEntry;
+import io.mifos.core.lang.TenantContextHolder;
+import io.mifos.core.lang.TenantGenerations;
+import io.mifos.core.mariadb.util.TransactionCallbacks;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Holds the chart of accounts per tenant. A tenant's chart is dropped once a transaction changing ledgers or accounts
+ * committed on this instance, or when a change event of another instance arrives.
+ */
+@Component
+public class ChartOfAccountsCache {
+
+  private final ConcurrentHashMap<String, List<ChartOfAccountEntry>> chartsByTenant = new ConcurrentHashMap<>();
+  private final TenantGenerations generations = new TenantGenerations();
+
+  public ChartOfAccountsCache() {
+    super();
+  }
+
+  public List<ChartOfAccountEntry> get(final Supplier<List<ChartOfAccountEntry>> chartBuilder) {
+    final String tenantIdentifier = TenantContextHolder.checkedGetIdentifier();
+    final List<ChartOfAccountEntry> cachedChart = this.chartsByTenant.get(tenantIdentifier);
+    if (cachedChart != null) {
+      return cachedChart;
+    }
+
+    final long generationBeforeBuild = this.generations.current(tenantIdentifier);
+    final List<ChartOfAccountEntry> chart = chartBuilder.get();
+    this.chartsByTenant.compute(tenantIdentifier, (key, currentChart) ->
+        this.generations.isCurrent(tenantIdentifier, generationBeforeBuild) ? chart : currentChart);
+    return chart;
+  }
+
+  /**
+   * Invalidates the chart of the current tenant after the current transaction committed, or at once if there is none.
+   */
+  public void invalidateAfterCommit() {
+    final String tenantIdentifier = TenantContextHolder.checkedGetIdentifier();
+    TransactionCallbacks.afterCommit(() -> this.invalidate(tenantIdentifier));
+  }
+
+  public void invalidate(final String tenantIdentifier) {
+    this.generations.advance(tenantIdentifier);
+    this.chartsByTenant.remove(tenantIdentifier);
+  }
+}
@@ -16,7 +16,6 @@
 package io.mifos.accounting.service.internal.service;
 
 import io.mifos.accounting.api.v1.domain.ChartOfAccountEntry;
-import io.mifos.accounting.service.internal.repository.AccountEntity;
 import io.mifos.accounting.service.internal.repository.AccountRepository;
 import io.mifos.accounting.service.internal.repository.LedgerEntity;
 import io.mifos.accounting.service.internal.repository.LedgerRepository;
@@ -24,73 +23,108 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 public class ChartOfAccountsService {
 
   private final LedgerRepository ledgerRepository;
   private final AccountRepository accountRepository;
+  private final ChartOfAccountsCache chartOfAccountsCache;
 
   @Autowired
-  public ChartOfAccountsService(final LedgerRepository ledgerRepository, final AccountRepository accountRepository) {
+  public ChartOfAccountsService(final LedgerRepository ledgerRepository, final AccountRepository accountRepository,
+                                final ChartOfAccountsCache chartOfAccountsCache) {
     super();
     this.ledgerRepository = ledgerRepository;
     this.accountRepository = accountRepository;
+    this.chartOfAccountsCache = chartOfAccountsCache;
   }
 
   @Transactional(readOnly = true)
   public List<ChartOfAccountEntry> getChartOfAccounts() {
-    final ArrayList<ChartOfAccountEntry> chartOfAccountEntries = new ArrayList<>();
-
-    final List<LedgerEntity> parentLedgers = this.ledgerRepository.findByParentLedgerIsNull();
-    parentLedgers.sort(Comparator.comparing(LedgerEntity::getIdentifier));
+    return this.chartOfAccountsCache.get(() -> {
+      final ArrayList<ChartOfAccountEntry> chartOfAccountEntries = new ArrayList<>();
+      this.buildChartOfAccounts(chartOfAccountEntries::add);
+      return Collections.unmodifiableList(chartOfAccountEntries);
+    });
+  }
 
-    final int level = 0;
-    parentLedgers.forEach(ledgerEntity -> {
-      final ChartOfAccountEntry chartOfAccountEntry = new ChartOfAccountEntry();
-      chartOfAccountEntries.add(chartOfAccountEntry);
-      chartOfAccountEntry.setCode(ledgerEntity.getIdentifier());
-      chartOfAccountEntry.setName(ledgerEntity.getName());
-      chartOfAccountEntry.setDescription(ledgerEntity.getDescription());
-      chartOfAccountEntry.setType(ledgerEntity.getType());
-      chartOfAccountEntry.setLevel(Integer.valueOf(level));
-      final int nextLevel = level + 1;
-      this.traverseHierarchy(chartOfAccountEntries, nextLevel, ledgerEntity);
+  /**
+   * Passes the entries of the chart of accounts to the given consumer in chart order, as the chart is built. All
+   * ledgers and all shown accounts are read with one query each, the hierarchy is walked depth first without recursion.
+   */
+  @Transactional(readOnly = true)
+  public void buildChartOfAccounts(final Consumer<ChartOfAccountEntry> chartOfAccountEntryConsumer) {
+    final List<LedgerEntity> parentLedgers = new ArrayList<>();
+    final HashMap<Long, List<LedgerEntity>> subLedgersByParent = new HashMap<>();
+    this.ledgerRepository.findAll().forEach(ledgerEntity -> {
+      if (ledgerEntity.getParentLedger() == null) {
+        parentLedgers.add(ledgerEntity);
+      } else {
+        subLedgersByParent.computeIfAbsent(ledgerEntity.getParentLedger().getId(), key -> new ArrayList<>())
+            .add(ledgerEntity);
+      }
     });
 
-    return chartOfAccountEntries;
-  }
+    // rows are identifier, name, type, ledger id; ordered by identifier
+    final HashMap<Long, List<Object[]>> accountsByLedger = new HashMap<>();
+    this.accountRepository.findChartOfAccountsEntries().forEach(account ->
+        accountsByLedger.computeIfAbsent(((Number) account[3]).longValue(), key -> new ArrayList<>()).add(account));
+
+    final ArrayDeque<LedgerNode> pendingLedgers = new ArrayDeque<>();
+    ChartOfAccountsService.pushInReverseOrder(pendingLedgers, parentLedgers, 0);
+    while (!pendingLedgers.isEmpty()) {
+      final LedgerNode ledgerNode = pendingLedgers.pop();
+      final LedgerEntity ledgerEntity = ledgerNode.ledgerEntity;
 
-  void traverseHierarchy(final List<ChartOfAccountEntry> chartOfAccountEntries, final int level, final LedgerEntity ledgerEntity) {
-    if (ledgerEntity.getShowAccountsInChart()) {
-      final List<AccountEntity> accountEntities = this.accountRepository.findByLedger(ledgerEntity);
-      accountEntities.sort(Comparator.comparing(AccountEntity::getIdentifier));
-      accountEntities.forEach(accountEntity -> {
-        final ChartOfAccountEntry chartOfAccountEntry = new ChartOfAccountEntry();
-        chartOfAccountEntries.add(chartOfAccountEntry);
-        chartOfAccountEntry.setCode(accountEntity.getIdentifier());
-        chartOfAccountEntry.setName(accountEntity.getName());
-        chartOfAccountEntry.setType(accountEntity.getType());
-        chartOfAccountEntry.setLevel(level);
-      });
+      final ChartOfAccountEntry ledgerEntry = new ChartOfAccountEntry();
+      ledgerEntry.setCode(ledgerEntity.getIdentifier());
+      ledgerEntry.setName(ledgerEntity.getName());
+      if (ledgerNode.level == 0) {
+        ledgerEntry.setDescription(ledgerEntity.getDescription());
+      }
+      ledgerEntry.setType(ledgerEntity.getType());
+      ledgerEntry.setLevel(ledgerNode.level);
+      chartOfAccountEntryConsumer.accept(ledgerEntry);
+
+      final int nextLevel = ledgerNode.level + 1;
+      if (ledgerEntity.getShowAccountsInChart()) {
+        accountsByLedger.getOrDefault(ledgerEntity.getId(), Collections.emptyList()).forEach(account -> {
+          final ChartOfAccountEntry accountEntry = new ChartOfAccountEntry();
+          accountEntry.setCode((String) account[0]);
+          accountEntry.setName((String) account[1]);
+          accountEntry.setType((String) account[2]);
+          accountEntry.setLevel(nextLevel);
+          chartOfAccountEntryConsumer.accept(accountEntry);
+        });
+      }
+
+      ChartOfAccountsService.pushInReverseOrder(pendingLedgers,
+          subLedgersByParent.getOrDefault(ledgerEntity.getId(), Collections.emptyList()), nextLevel);
     }
+  }
+
+  private static void pushInReverseOrder(final ArrayDeque<LedgerNode> pendingLedgers,
+                                         final List<LedgerEntity> ledgerEntities, final int level) {
+    ledgerEntities.sort(Comparator.comparing(LedgerEntity::getIdentifier).reversed());
+    ledgerEntities.forEach(ledgerEntity -> pendingLedgers.push(new LedgerNode(ledgerEntity, level)));
+  }
+
+  private static final class LedgerNode {
+    private final LedgerEntity ledgerEntity;
+    private final int level;
 
-    final List<LedgerEntity> subLedgers = this.ledgerRepository.findByParentLedgerOrderByIdentifier(ledgerEntity);
-    if (subLedgers != null && subLedgers.size() > 0) {
-      subLedgers.sort(Comparator.comparing(LedgerEntity::getIdentifier));
-      subLedgers.forEach(subLedger -> {
-        final ChartOfAccountEntry chartOfAccountEntry = new ChartOfAccountEntry();
-        chartOfAccountEntries.add(chartOfAccountEntry);
-        chartOfAccountEntry.setCode(subLedger.getIdentifier());
-        chartOfAccountEntry.setName(subLedger.getName());
-        chartOfAccountEntry.setType(subLedger.getType());
-        chartOfAccountEntry.setLevel(level);
-        final int nextLevel = level + 1;
-        this.traverseHierarchy(chartOfAccountEntries, nextLevel, subLedger);
-      });
+    private LedgerNode(final LedgerEntity ledgerEntity, final int level) {
+      super();
+      this.ledgerEntity = ledgerEntity;
+      this.level = level;
     }
   }
 }
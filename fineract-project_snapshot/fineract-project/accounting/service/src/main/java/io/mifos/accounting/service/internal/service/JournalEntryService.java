@@ -15,17 +15,25 @@
  */
 package io.mifos.accounting.service.internal.service;
 
+import com.datastax.driver.core.exceptions.PagingStateException;
 import io.mifos.accounting.api.v1.domain.JournalEntry;
+import io.mifos.accounting.api.v1.domain.JournalEntryPage;
 import io.mifos.accounting.service.helper.DateRangeHelper;
 import io.mifos.accounting.service.internal.mapper.JournalEntryMapper;
+import io.mifos.accounting.service.internal.repository.JournalEntryCursor;
 import io.mifos.accounting.service.internal.repository.JournalEntryEntity;
 import io.mifos.accounting.service.internal.repository.JournalEntryRepository;
+import io.mifos.core.lang.ServiceException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -55,6 +63,38 @@ public class JournalEntryService {
     }
   }
 
+  public JournalEntryPage fetchJournalEntryPage(final String dateRange, final String cursor, final int size) {
+    final String[] dates = DateRangeHelper.split(dateRange);
+    final JournalEntryCursor startCursor = cursor != null ? JournalEntryService.decode(cursor, dates) : null;
+
+    final ArrayList<JournalEntry> journalEntries = new ArrayList<>(size);
+    final JournalEntryCursor nextCursor;
+    try {
+      nextCursor = this.journalEntryRepository.streamJournalEntries(dates[0], dates[1],
+          startCursor, size, journalEntryEntity -> journalEntries.add(JournalEntryMapper.map(journalEntryEntity)));
+    } catch (final PagingStateException ex) {
+      // the paging state was altered, or does not belong to the query of its date bucket
+      throw ServiceException.badRequest("Cursor {0} is not valid.", cursor);
+    }
+
+    final JournalEntryPage journalEntryPage = new JournalEntryPage();
+    journalEntryPage.setJournalEntries(journalEntries);
+    if (nextCursor != null) {
+      journalEntryPage.setNextCursor(nextCursor.encode());
+    }
+    return journalEntryPage;
+  }
+
+  public void exportJournalEntries(final String dateRange, final Consumer<JournalEntry> journalEntryConsumer) {
+    final String[] dates = DateRangeHelper.split(dateRange);
+    this.journalEntryRepository.streamJournalEntries(dates[0], dates[1], null, Integer.MAX_VALUE,
+        journalEntryEntity -> journalEntryConsumer.accept(JournalEntryMapper.map(journalEntryEntity)));
+  }
+
+  public Set<String> findExistingTransactionIdentifiers(final Collection<String> transactionIdentifiers) {
+    return this.journalEntryRepository.findExistingTransactionIdentifiers(transactionIdentifiers);
+  }
+
   public Optional<JournalEntry> findJournalEntry(final String transactionIdentifier) {
     final Optional<JournalEntryEntity> optionalJournalEntryEntity = this.journalEntryRepository.findJournalEntry(transactionIdentifier);
 
@@ -64,4 +104,18 @@ public class JournalEntryService {
       return Optional.empty();
     }
   }
+
+  private static JournalEntryCursor decode(final String cursor, final String[] dates) {
+    final JournalEntryCursor journalEntryCursor;
+    try {
+      journalEntryCursor = JournalEntryCursor.decode(cursor);
+    } catch (final IllegalArgumentException ex) {
+      throw ServiceException.badRequest("Cursor {0} is not valid.", cursor);
+    }
+    final String dateBucket = journalEntryCursor.getDateBucket();
+    if (dateBucket.compareTo(dates[0]) < 0 || dateBucket.compareTo(dates[1]) > 0) {
+      throw ServiceException.badRequest("Cursor {0} does not belong to date range {1}..{2}.", cursor, dates[0], dates[1]);
+    }
+    return journalEntryCursor;
+  }
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.accounting.service.internal.service;
+
+import io.mifos.accounting.service.internal.repository.AccountRepository;
+import io.mifos.accounting.service.internal.repository.LedgerEntity;
+import io.mifos.accounting.service.internal.repository.LedgerRepository;
+import io.mifos.accounting.service.internal.util.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Provides ledger totals from the rollup maintained by the booking engine, so no accounts need to be loaded. Totals of
+ * sub ledgers are aggregated when read, keeping bookings from contending on the rows of parent ledgers.
+ */
+@Service
+public class LedgerRollupService {
+
+  private final LedgerRepository ledgerRepository;
+  private final AccountRepository accountRepository;
+  private final BalanceStripeService balanceStripeService;
+
+  @Autowired
+  public LedgerRollupService(final LedgerRepository ledgerRepository,
+                             final AccountRepository accountRepository,
+                             final BalanceStripeService balanceStripeService) {
+    super();
+    this.ledgerRepository = ledgerRepository;
+    this.accountRepository = accountRepository;
+    this.balanceStripeService = balanceStripeService;
+  }
+
+  /**
+   * Returns the balance sums of the accounts directly assigned to the given ledgers, keyed by ledger id. If a ledger
+   * carries no total, all sums are calculated with one grouped aggregate over the accounts instead. Changes of striped
+   * accounts not yet compacted are included.
+   */
+  public Map<Long, Money> findTotals(final List<LedgerEntity> ledgerEntities) {
+    final Map<Long, Money> totals = this.findCompactedTotals(ledgerEntities);
+    this.balanceStripeService.findPendingTotals(totals.keySet()).forEach((ledgerId, pendingTotal) -> {
+      if (totals.containsKey(ledgerId)) {
+        totals.merge(ledgerId, pendingTotal, Money::add);
+      }
+    });
+    return totals;
+  }
+
+  /**
+   * Returns the totals including all sub ledgers of any depth of the given ledgers and of all ledgers below them,
+   * keyed by ledger id. Only the totals of these ledgers are read, the tree is resolved from ids.
+   */
+  public Map<Long, Money> findRolledUpTotals(final List<LedgerEntity> ledgerEntities) {
+    final HashMap<Long, Long> parentIds = new HashMap<>();
+    final HashMap<Long, List<Long>> subLedgerIds = new HashMap<>();
+    this.ledgerRepository.findIdsAndParentIds().forEach(row -> {
+      if (row[1] != null) {
+        final Long ledgerId = ((Number) row[0]).longValue();
+        final Long parentId = ((Number) row[1]).longValue();
+        parentIds.put(ledgerId, parentId);
+        subLedgerIds.computeIfAbsent(parentId, key -> new ArrayList<>()).add(ledgerId);
+      }
+    });
+
+    final HashSet<Long> treeIds = new HashSet<>();
+    final ArrayList<Long> pendingIds =
+        ledgerEntities.stream().map(LedgerEntity::getId).collect(Collectors.toCollection(ArrayList::new));
+    while (!pendingIds.isEmpty()) {
+      final Long ledgerId = pendingIds.remove(pendingIds.size() - 1);
+      if (treeIds.add(ledgerId)) {
+        pendingIds.addAll(subLedgerIds.getOrDefault(ledgerId, new ArrayList<>()));
+      }
+    }
+
+    final Map<Long, Money> totals = this.findTotals(this.ledgerRepository.findAll(treeIds));
+    final HashMap<Long, Money> rolledUpTotals = new HashMap<>(totals);
+    totals.forEach((ledgerId, total) -> {
+      for (Long parentId = parentIds.get(ledgerId);
+           parentId != null && treeIds.contains(parentId);
+           parentId = parentIds.get(parentId)) {
+        rolledUpTotals.merge(parentId, total, Money::add);
+      }
+    });
+    return rolledUpTotals;
+  }
+
+  private Map<Long, Money> findCompactedTotals(final List<LedgerEntity> ledgerEntities) {
+    final HashMap<Long, Money> totals = new HashMap<>(ledgerEntities.size());
+    for (final LedgerEntity ledgerEntity : ledgerEntities) {
+      if (ledgerEntity.getTotalValue() == null) {
+        return this.aggregateTotals(ledgerEntities);
+      }
+      totals.put(ledgerEntity.getId(), ledgerEntity.getTotalValue());
+    }
+    return totals;
+  }
+
+  private Map<Long, Money> aggregateTotals(final List<LedgerEntity> ledgerEntities) {
+    final HashMap<Long, Money> totals = new HashMap<>(ledgerEntities.size());
+    ledgerEntities.forEach(ledgerEntity -> totals.put(ledgerEntity.getId(), Money.ZERO));
+    this.accountRepository.sumBalancesByLedger().forEach(row -> {
+      final Long ledgerId = ((Number) row[0]).longValue();
+      if (totals.containsKey(ledgerId)) {
+        totals.put(ledgerId, Money.of((BigDecimal) row[1]));
+      }
+    });
+    return totals;
+  }
+}
@@ -27,6 +27,7 @@ import io.mifos.accounting.service.internal.repository.AccountRepository;
 import io.mifos.accounting.service.internal.repository.LedgerEntity;
 import io.mifos.accounting.service.internal.repository.LedgerRepository;
 import io.mifos.accounting.service.internal.repository.specification.LedgerSpecification;
+import io.mifos.accounting.service.internal.util.Money;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -35,7 +36,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -44,15 +47,21 @@ public class LedgerService {
   private final Logger logger;
   private final LedgerRepository ledgerRepository;
   private final AccountRepository accountRepository;
+  private final LedgerRollupService ledgerRollupService;
+  private final BalanceStripeService balanceStripeService;
 
   @Autowired
   public LedgerService(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
                        final LedgerRepository ledgerRepository,
-                       final AccountRepository accountRepository) {
+                       final AccountRepository accountRepository,
+                       final LedgerRollupService ledgerRollupService,
+                       final BalanceStripeService balanceStripeService) {
     super();
     this.logger = logger;
     this.ledgerRepository = ledgerRepository;
     this.accountRepository = accountRepository;
+    this.ledgerRollupService = ledgerRollupService;
+    this.balanceStripeService = balanceStripeService;
   }
 
   public LedgerPage fetchLedgers(final boolean includeSubLedgers,
@@ -77,9 +86,10 @@ public class LedgerService {
     final List<Ledger> result = new ArrayList<>(ledgerEntities.size());
 
     if(!ledgerEntities.isEmpty()) {
+      final Map<Long, Money> totals = this.ledgerRollupService.findRolledUpTotals(ledgerEntities);
       ledgerEntities.forEach(ledgerEntity -> {
-        final Ledger ledger = LedgerMapper.map(ledgerEntity);
-        this.addSubLedgers(ledger, this.ledgerRepository.findByParentLedgerOrderByIdentifier(ledgerEntity));
+        final Ledger ledger = LedgerService.map(ledgerEntity, totals);
+        this.addSubLedgers(ledger, this.ledgerRepository.findByParentLedgerOrderByIdentifier(ledgerEntity), totals);
         result.add(ledger);
       });
     }
@@ -90,14 +100,28 @@ public class LedgerService {
   public Optional<Ledger> findLedger(final String identifier) {
     final LedgerEntity ledgerEntity = this.ledgerRepository.findByIdentifier(identifier);
     if (ledgerEntity != null) {
-      final Ledger ledger = LedgerMapper.map(ledgerEntity);
-      this.addSubLedgers(ledger, this.ledgerRepository.findByParentLedgerOrderByIdentifier(ledgerEntity));
+      final Map<Long, Money> totals =
+          this.ledgerRollupService.findRolledUpTotals(Collections.singletonList(ledgerEntity));
+      final Ledger ledger = LedgerService.map(ledgerEntity, totals);
+      this.addSubLedgers(ledger, this.ledgerRepository.findByParentLedgerOrderByIdentifier(ledgerEntity), totals);
       return Optional.of(ledger);
     } else {
       return Optional.empty();
     }
   }
 
+  public boolean ledgerExists(final String identifier) {
+    return this.ledgerRepository.existsByIdentifier(identifier);
+  }
+
+  public Optional<String> findLedgerType(final String identifier) {
+    return Optional.ofNullable(this.ledgerRepository.findTypeByIdentifier(identifier));
+  }
+
+  public boolean hasSubLedgers(final String identifier) {
+    return this.ledgerRepository.existsByParentLedgerIdentifier(identifier);
+  }
+
   public AccountPage fetchAccounts(final String ledgerIdentifier, final Pageable pageable) {
     final LedgerEntity ledgerEntity = this.ledgerRepository.findByIdentifier(ledgerIdentifier);
     final Page<AccountEntity> accountEntities = this.accountRepository.findByLedger(ledgerEntity, pageable);
@@ -108,7 +132,8 @@ public class LedgerService {
 
     if(accountEntities.getSize() > 0){
       final List<Account> accounts = new ArrayList<>(accountEntities.getSize());
-      accountEntities.forEach(accountEntity -> accounts.add(AccountMapper.map(accountEntity)));
+      accountEntities.forEach(accountEntity -> accounts.add(
+          AccountMapper.map(accountEntity, this.balanceStripeService.findBalance(accountEntity))));
       accountPage.setAccounts(accounts);
     }
 
@@ -122,11 +147,21 @@ public class LedgerService {
   }
 
   private void addSubLedgers(final Ledger parentLedger,
-                             final List<LedgerEntity> subLedgerEntities) {
+                             final List<LedgerEntity> subLedgerEntities,
+                             final Map<Long, Money> totals) {
     if (subLedgerEntities != null) {
       final List<Ledger> subLedgers = new ArrayList<>(subLedgerEntities.size());
-      subLedgerEntities.forEach(subLedgerEntity -> subLedgers.add(LedgerMapper.map(subLedgerEntity)));
+      subLedgerEntities.forEach(subLedgerEntity -> subLedgers.add(LedgerService.map(subLedgerEntity, totals)));
       parentLedger.setSubLedgers(subLedgers);
     }
   }
+
+  private static Ledger map(final LedgerEntity ledgerEntity, final Map<Long, Money> totals) {
+    final Ledger ledger = LedgerMapper.map(ledgerEntity);
+    final Money total = totals.get(ledgerEntity.getId());
+    if (total != null) {
+      ledger.setTotalValue(total.toDouble());
+    }
+    return ledger;
+  }
 }
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.accounting.service.internal.service;
+
+import io.mifos.accounting.api.v1.domain.AccountEntry;
+import io.mifos.accounting.service.ServiceConstants;
+import io.mifos.accounting.service.internal.repository.AccountClosingBalanceEntity;
+import io.mifos.accounting.service.internal.repository.AccountClosingBalanceRepository;
+import io.mifos.accounting.service.internal.repository.AccountEntity;
+import io.mifos.accounting.service.internal.repository.AccountEntryRepository;
+import io.mifos.accounting.service.internal.repository.AccountRepository;
+import io.mifos.accounting.service.internal.repository.LedgerClosingBalanceEntity;
+import io.mifos.accounting.service.internal.repository.LedgerClosingBalanceRepository;
+import io.mifos.accounting.service.internal.repository.LedgerEntity;
+import io.mifos.accounting.service.internal.repository.LedgerRepository;
+import io.mifos.accounting.service.internal.repository.PeriodClosingEntity;
+import io.mifos.accounting.service.internal.repository.PeriodClosingRepository;
+import io.mifos.accounting.service.internal.util.Money;
+import io.mifos.core.api.util.UserContextHolder;
+import io.mifos.core.mariadb.util.LocalDateTimeConverter;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Closes periods by writing the balances of all accounts and ledgers at the end of the period, so historical
+ * balances are calculated from the nearest closing before, summing up only the entries booked in between. Balances
+ * at a time before the first closing are calculated backwards from the current balances.
+ *
+ * Opening balances of accounts count as if they were booked before any entry.
+ *
+ * The end of the latest closed period is kept in a single lock row. Bookings read it in share mode and skip entries
+ * dated before, closings lock it exclusively, so no booking into a period can commit while it is being closed.
+ */
+@Service
+public class PeriodClosingService {
+
+  private static final LocalDateTimeConverter DATE_TIME_CONVERTER = new LocalDateTimeConverter();
+
+  private final Logger logger;
+  private final PeriodClosingRepository periodClosingRepository;
+  private final AccountClosingBalanceRepository accountClosingBalanceRepository;
+  private final LedgerClosingBalanceRepository ledgerClosingBalanceRepository;
+  private final AccountRepository accountRepository;
+  private final AccountEntryRepository accountEntryRepository;
+  private final LedgerRepository ledgerRepository;
+  private final LedgerRollupService ledgerRollupService;
+  private final BalanceStripeService balanceStripeService;
+
+  @Autowired
+  public PeriodClosingService(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
+                              final PeriodClosingRepository periodClosingRepository,
+                              final AccountClosingBalanceRepository accountClosingBalanceRepository,
+                              final LedgerClosingBalanceRepository ledgerClosingBalanceRepository,
+                              final AccountRepository accountRepository,
+                              final AccountEntryRepository accountEntryRepository,
+                              final LedgerRepository ledgerRepository,
+                              final LedgerRollupService ledgerRollupService,
+                              final BalanceStripeService balanceStripeService) {
+    super();
+    this.logger = logger;
+    this.periodClosingRepository = periodClosingRepository;
+    this.accountClosingBalanceRepository = accountClosingBalanceRepository;
+    this.ledgerClosingBalanceRepository = ledgerClosingBalanceRepository;
+    this.accountRepository = accountRepository;
+    this.accountEntryRepository = accountEntryRepository;
+    this.ledgerRepository = ledgerRepository;
+    this.ledgerRollupService = ledgerRollupService;
+    this.balanceStripeService = balanceStripeService;
+  }
+
+  /**
+   * Returns the end of the latest closed period, if any.
+   */
+  public Optional<LocalDateTime> findClosedUntil() {
+    return Optional.ofNullable(this.periodClosingRepository.findFirstByOrderByClosedUntilDesc())
+        .map(PeriodClosingEntity::getClosedUntil);
+  }
+
+  /**
+   * Returns the end of the latest closed period, if any, and keeps it from being closed further until the calling
+   * transaction ends. Must be called within a transaction, before anything is read.
+   */
+  public Optional<LocalDateTime> lockClosedUntil() {
+    return Optional.ofNullable(this.periodClosingRepository.findClosedUntilForBooking())
+        .map(DATE_TIME_CONVERTER::convertToEntityAttribute);
+  }
+
+  /**
+   * Closes the period ending at the given time, unless already closed. The balances are the current ones less the
+   * entries dated since, all read from the same snapshot of the transaction, after bookings in flight committed.
+   */
+  @Transactional
+  public boolean close(final LocalDateTime closedUntil) {
+    this.periodClosingRepository.findClosedUntilForClosing();
+    if (this.periodClosingRepository.findByClosedUntil(closedUntil) != null) {
+      return false;
+    }
+
+    final PeriodClosingEntity periodClosingEntity = new PeriodClosingEntity();
+    periodClosingEntity.setClosedUntil(closedUntil);
+    periodClosingEntity.setCreatedBy(UserContextHolder.checkedGetUser());
+    periodClosingEntity.setCreatedOn(LocalDateTime.now(Clock.systemUTC()));
+    final Long periodClosingId = this.periodClosingRepository.save(periodClosingEntity).getId();
+
+    final List<AccountEntity> accountEntities = this.accountRepository.findAll();
+    final HashMap<Long, String> accountTypes = new HashMap<>(accountEntities.size());
+    accountEntities.forEach(accountEntity -> accountTypes.put(accountEntity.getId(), accountEntity.getType()));
+    final HashMap<Long, Money> changesSince = new HashMap<>();
+    this.accountEntryRepository.sumAmountsByAccountSince(DATE_TIME_CONVERTER.convertToDatabaseColumn(closedUntil))
+        .forEach(row -> {
+          final Long accountId = ((Number) row[0]).longValue();
+          changesSince.merge(accountId,
+              BalanceStripeService.change(accountTypes.get(accountId), AccountEntry.Type.valueOf((String) row[1]),
+                  Money.of((BigDecimal) row[2])),
+              Money::add);
+        });
+
+    final HashMap<Long, Money> ledgerTotals = new HashMap<>();
+    this.ledgerRepository.findAll().forEach(ledgerEntity -> ledgerTotals.put(ledgerEntity.getId(), Money.ZERO));
+    final ArrayList<AccountClosingBalanceEntity> accountClosingBalances = new ArrayList<>(accountEntities.size());
+    accountEntities.forEach(accountEntity -> {
+      final Money balance = this.balanceStripeService.findBalance(accountEntity)
+          .subtract(changesSince.getOrDefault(accountEntity.getId(), Money.ZERO));
+      final AccountClosingBalanceEntity accountClosingBalanceEntity = new AccountClosingBalanceEntity();
+      accountClosingBalanceEntity.setPeriodClosingId(periodClosingId);
+      accountClosingBalanceEntity.setAccountId(accountEntity.getId());
+      accountClosingBalanceEntity.setBalance(balance);
+      accountClosingBalances.add(accountClosingBalanceEntity);
+      ledgerTotals.merge(accountEntity.getLedger().getId(), balance, Money::add);
+    });
+    this.accountClosingBalanceRepository.save(accountClosingBalances);
+
+    final ArrayList<LedgerClosingBalanceEntity> ledgerClosingBalances = new ArrayList<>(ledgerTotals.size());
+    ledgerTotals.forEach((ledgerId, totalValue) -> {
+      final LedgerClosingBalanceEntity ledgerClosingBalanceEntity = new LedgerClosingBalanceEntity();
+      ledgerClosingBalanceEntity.setPeriodClosingId(periodClosingId);
+      ledgerClosingBalanceEntity.setLedgerId(ledgerId);
+      ledgerClosingBalanceEntity.setTotalValue(totalValue);
+      ledgerClosingBalances.add(ledgerClosingBalanceEntity);
+    });
+    this.ledgerClosingBalanceRepository.save(ledgerClosingBalances);
+    this.periodClosingRepository.advanceClosedUntil(DATE_TIME_CONVERTER.convertToDatabaseColumn(closedUntil));
+
+    this.logger.info("Closed period until {} for {} accounts.", closedUntil, accountEntities.size());
+    return true;
+  }
+
+  /**
+   * Returns the balance of an account at the given time, including all entries dated before.
+   */
+  public Money findBalance(final AccountEntity accountEntity, final LocalDateTime dateTime) {
+    final Timestamp timestamp = DATE_TIME_CONVERTER.convertToDatabaseColumn(dateTime);
+    final PeriodClosingEntity periodClosingEntity =
+        this.periodClosingRepository.findFirstByClosedUntilLessThanEqualOrderByClosedUntilDesc(dateTime);
+    if (periodClosingEntity != null) {
+      final AccountClosingBalanceEntity accountClosingBalanceEntity = this.accountClosingBalanceRepository
+          .findByPeriodClosingIdAndAccountId(periodClosingEntity.getId(), accountEntity.getId());
+      if (accountClosingBalanceEntity != null) {
+        return accountClosingBalanceEntity.getBalance().add(this.sumChanges(accountEntity.getType(),
+            this.accountEntryRepository.sumAmountsOfAccountBetween(accountEntity.getId(),
+                DATE_TIME_CONVERTER.convertToDatabaseColumn(periodClosingEntity.getClosedUntil()), timestamp)));
+      }
+    }
+    // created after the closing
+    return this.balanceStripeService.findBalance(accountEntity).subtract(this.sumChanges(accountEntity.getType(),
+        this.accountEntryRepository.sumAmountsOfAccountSince(accountEntity.getId(), timestamp)));
+  }
+
+  /**
+   * Returns the balance sums of the accounts directly assigned to the given ledgers at the given time, keyed by
+   * ledger id. Expects all ledgers.
+   */
+  public Map<Long, Money> findTotals(final List<LedgerEntity> ledgerEntities, final LocalDateTime dateTime) {
+    final Timestamp timestamp = DATE_TIME_CONVERTER.convertToDatabaseColumn(dateTime);
+    final PeriodClosingEntity periodClosingEntity =
+        this.periodClosingRepository.findFirstByClosedUntilLessThanEqualOrderByClosedUntilDesc(dateTime);
+    if (periodClosingEntity == null) {
+      final Map<Long, Money> totals = this.ledgerRollupService.findTotals(ledgerEntities);
+      this.sumChangesByLedger(this.accountEntryRepository.sumAmountsByLedgerSince(timestamp))
+          .forEach((ledgerId, change) -> totals.computeIfPresent(ledgerId, (key, total) -> total.subtract(change)));
+      return totals;
+    }
+
+    final HashMap<Long, Money> totals = new HashMap<>(ledgerEntities.size());
+    ledgerEntities.forEach(ledgerEntity -> totals.put(ledgerEntity.getId(), Money.ZERO));
+    this.ledgerClosingBalanceRepository.findByPeriodClosingId(periodClosingEntity.getId())
+        .forEach(ledgerClosingBalanceEntity ->
+            totals.computeIfPresent(ledgerClosingBalanceEntity.getLedgerId(),
+                (key, total) -> total.add(ledgerClosingBalanceEntity.getTotalValue())));
+    this.sumChangesByLedger(this.accountEntryRepository.sumAmountsByLedgerBetween(
+        DATE_TIME_CONVERTER.convertToDatabaseColumn(periodClosingEntity.getClosedUntil()), timestamp))
+        .forEach((ledgerId, change) -> totals.computeIfPresent(ledgerId, (key, total) -> total.add(change)));
+    // opening balances of accounts created after the closing are not part of it, they are their balances less all
+    // of their entries
+    final Timestamp createdAfter = DATE_TIME_CONVERTER.convertToDatabaseColumn(periodClosingEntity.getCreatedOn());
+    this.accountRepository.sumBalancesByLedgerCreatedAfter(createdAfter).forEach(row ->
+        totals.computeIfPresent(((Number) row[0]).longValue(),
+            (key, total) -> total.add(Money.of((BigDecimal) row[1]))));
+    this.sumChangesByLedger(this.accountEntryRepository.sumAmountsByLedgerOfAccountsCreatedAfter(createdAfter))
+        .forEach((ledgerId, change) -> totals.computeIfPresent(ledgerId, (key, total) -> total.subtract(change)));
+    return totals;
+  }
+
+  private Money sumChanges(final String accountType, final List<Object[]> amountsByType) {
+    return amountsByType.stream()
+        .map(row -> BalanceStripeService.change(accountType, AccountEntry.Type.valueOf((String) row[0]),
+            Money.of((BigDecimal) row[1])))
+        .reduce(Money.ZERO, Money::add);
+  }
+
+  private Map<Long, Money> sumChangesByLedger(final List<Object[]> amountsByLedgerAndType) {
+    final HashMap<Long, Money> changes = new HashMap<>();
+    amountsByLedgerAndType.forEach(row -> changes.merge(((Number) row[0]).longValue(),
+        BalanceStripeService.change((String) row[1], AccountEntry.Type.valueOf((String) row[2]),
+            Money.of((BigDecimal) row[3])),
+        Money::add));
+    return changes;
+  }
+}
@@ -19,58 +19,71 @@ import io.mifos.accounting.api.v1.domain.AccountType;
 import io.mifos.accounting.api.v1.domain.TrialBalance;
 import io.mifos.accounting.api.v1.domain.TrialBalanceEntry;
 import io.mifos.accounting.service.internal.mapper.LedgerMapper;
-import io.mifos.accounting.service.internal.repository.AccountEntity;
-import io.mifos.accounting.service.internal.repository.AccountRepository;
 import io.mifos.accounting.service.internal.repository.LedgerEntity;
 import io.mifos.accounting.service.internal.repository.LedgerRepository;
+import io.mifos.accounting.service.internal.util.Money;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class TrialBalanceService {
 
   private final LedgerRepository ledgerRepository;
-  private final AccountRepository accountRepository;
+  private final LedgerRollupService ledgerRollupService;
+  private final PeriodClosingService periodClosingService;
 
   @Autowired
   public TrialBalanceService(final LedgerRepository ledgerRepository,
-                             final AccountRepository accountRepository) {
+                             final LedgerRollupService ledgerRollupService,
+                             final PeriodClosingService periodClosingService) {
     super();
     this.ledgerRepository = ledgerRepository;
-    this.accountRepository = accountRepository;
+    this.ledgerRollupService = ledgerRollupService;
+    this.periodClosingService = periodClosingService;
   }
 
   public TrialBalance getTrialBalance(final boolean includeEmptyEntries) {
-    final TrialBalance trialBalance = new TrialBalance();
     final List<LedgerEntity> ledgers = this.ledgerRepository.findAll();
-    if (ledgers != null) ledgers.forEach(ledgerEntity -> {
-      final List<AccountEntity> accountEntities = this.accountRepository.findByLedger(ledgerEntity);
-      if (accountEntities != null) {
-        final TrialBalanceEntry trialBalanceEntry = new TrialBalanceEntry();
-        trialBalanceEntry.setLedger(LedgerMapper.map(ledgerEntity));
-        switch (AccountType.valueOf(ledgerEntity.getType())) {
-          case ASSET:
-          case EXPENSE:
-            trialBalanceEntry.setType(TrialBalanceEntry.Type.DEBIT.name());
-            break;
-          case LIABILITY:
-          case EQUITY:
-          case REVENUE:
-            trialBalanceEntry.setType(TrialBalanceEntry.Type.CREDIT.name());
-            break;
-        }
-        trialBalanceEntry.setAmount(0.00D);
-        accountEntities.forEach(accountEntity ->
-                trialBalanceEntry.setAmount(trialBalanceEntry.getAmount() + accountEntity.getBalance()));
-        if (!includeEmptyEntries && trialBalanceEntry.getAmount() == 0.00D) {
-          //noinspection UnnecessaryReturnStatement
-          return;
-        } else {
-          trialBalance.getTrialBalanceEntries().add(trialBalanceEntry);
-        }
+    return this.getTrialBalance(includeEmptyEntries, ledgers, this.ledgerRollupService.findTotals(ledgers));
+  }
+
+  /**
+   * Returns the trial balance at the given time, including all entries dated before.
+   */
+  public TrialBalance getTrialBalance(final boolean includeEmptyEntries, final LocalDateTime dateTime) {
+    final List<LedgerEntity> ledgers = this.ledgerRepository.findAll();
+    return this.getTrialBalance(includeEmptyEntries, ledgers, this.periodClosingService.findTotals(ledgers, dateTime));
+  }
+
+  private TrialBalance getTrialBalance(final boolean includeEmptyEntries, final List<LedgerEntity> ledgers,
+                                       final Map<Long, Money> ledgerTotals) {
+    final TrialBalance trialBalance = new TrialBalance();
+    ledgers.forEach(ledgerEntity -> {
+      final TrialBalanceEntry trialBalanceEntry = new TrialBalanceEntry();
+      trialBalanceEntry.setLedger(LedgerMapper.map(ledgerEntity));
+      switch (AccountType.valueOf(ledgerEntity.getType())) {
+        case ASSET:
+        case EXPENSE:
+          trialBalanceEntry.setType(TrialBalanceEntry.Type.DEBIT.name());
+          break;
+        case LIABILITY:
+        case EQUITY:
+        case REVENUE:
+          trialBalanceEntry.setType(TrialBalanceEntry.Type.CREDIT.name());
+          break;
+      }
+      final Money ledgerBalance = ledgerTotals.get(ledgerEntity.getId());
+      trialBalanceEntry.setAmount(ledgerBalance.toDouble());
+      if (!includeEmptyEntries && ledgerBalance.isZero()) {
+        //noinspection UnnecessaryReturnStatement
+        return;
+      } else {
+        trialBalance.getTrialBalanceEntries().add(trialBalanceEntry);
       }
     });
 
@@ -78,16 +91,18 @@ public class TrialBalanceService {
         trialBalance.getTrialBalanceEntries()
             .stream()
             .filter(trialBalanceEntry -> trialBalanceEntry.getType().equals(TrialBalanceEntry.Type.DEBIT.name()))
-            .mapToDouble(TrialBalanceEntry::getAmount)
-            .sum()
+            .map(trialBalanceEntry -> Money.of(trialBalanceEntry.getAmount()))
+            .reduce(Money.ZERO, Money::add)
+            .toDouble()
     );
 
     trialBalance.setCreditTotal(
         trialBalance.getTrialBalanceEntries()
             .stream()
             .filter(trialBalanceEntry -> trialBalanceEntry.getType().equals(TrialBalanceEntry.Type.CREDIT.name()))
-            .mapToDouble(TrialBalanceEntry::getAmount)
-            .sum()
+            .map(trialBalanceEntry -> Money.of(trialBalanceEntry.getAmount()))
+            .reduce(Money.ZERO, Money::add)
+            .toDouble()
     );
 
     // Sort by ledger identifier ASC
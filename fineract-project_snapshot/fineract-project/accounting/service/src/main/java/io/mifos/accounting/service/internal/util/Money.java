@@ -0,0 +1,154 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.accounting.service.internal.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An exact amount of money, held as a count of minor units in a long. The scale matches the NUMERIC(15, 5) columns
+ * all amounts and balances are stored in, so values read from or written to the database never need rounding.
+ * Arithmetic fails with an {@link ArithmeticException} instead of overflowing.
+ */
+public final class Money implements Comparable<Money> {
+
+  public static final int SCALE = 5;
+  public static final Money ZERO = new Money(0L);
+
+  private static final long FACTOR = 100000L;
+
+  private final long minorUnits;
+
+  private Money(final long minorUnits) {
+    super();
+    this.minorUnits = minorUnits;
+  }
+
+  public static Money ofMinorUnits(final long minorUnits) {
+    return minorUnits == 0L ? ZERO : new Money(minorUnits);
+  }
+
+  /**
+   * Parses plain decimal notation directly, only other notations or more than {@link #SCALE} fraction digits take
+   * the detour via {@link BigDecimal}, rounding half even.
+   */
+  public static Money of(final String value) {
+    final int length = value.length();
+    int index = 0;
+    boolean negative = false;
+    if (length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+      negative = value.charAt(0) == '-';
+      index++;
+    }
+
+    long units = 0L;
+    int fractionDigits = -1;
+    int digits = 0;
+    for (; index < length; index++) {
+      final char c = value.charAt(index);
+      if (c >= '0' && c <= '9') {
+        if (fractionDigits == SCALE || digits == 18) {
+          return Money.of(new BigDecimal(value));
+        }
+        units = units * 10L + (c - '0');
+        digits++;
+        if (fractionDigits >= 0) {
+          fractionDigits++;
+        }
+      } else if (c == '.' && fractionDigits < 0) {
+        fractionDigits = 0;
+      } else {
+        return Money.of(new BigDecimal(value));
+      }
+    }
+    if (digits == 0) {
+      throw new NumberFormatException("Not a valid amount: '" + value + "'.");
+    }
+
+    for (int i = Math.max(fractionDigits, 0); i < SCALE; i++) {
+      units = Math.multiplyExact(units, 10L);
+    }
+    return Money.ofMinorUnits(negative ? -units : units);
+  }
+
+  public static Money of(final BigDecimal value) {
+    return Money.ofMinorUnits(value.setScale(SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact());
+  }
+
+  /**
+   * Rounds to the nearest minor unit, which is exact for all values a NUMERIC(15, 5) column can hold.
+   */
+  public static Money of(final double value) {
+    if (Math.abs(value) >= Long.MAX_VALUE / FACTOR) {
+      throw new ArithmeticException("Amount out of range: " + value + ".");
+    }
+    return Money.ofMinorUnits(Math.round(value * FACTOR));
+  }
+
+  public long minorUnits() {
+    return this.minorUnits;
+  }
+
+  public Money add(final Money other) {
+    return Money.ofMinorUnits(Math.addExact(this.minorUnits, other.minorUnits));
+  }
+
+  public Money subtract(final Money other) {
+    return Money.ofMinorUnits(Math.subtractExact(this.minorUnits, other.minorUnits));
+  }
+
+  public Money negate() {
+    return Money.ofMinorUnits(Math.negateExact(this.minorUnits));
+  }
+
+  public int signum() {
+    return Long.signum(this.minorUnits);
+  }
+
+  public boolean isZero() {
+    return this.minorUnits == 0L;
+  }
+
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(this.minorUnits, SCALE);
+  }
+
+  public double toDouble() {
+    return (double) this.minorUnits / FACTOR;
+  }
+
+  @Override
+  public int compareTo(final Money other) {
+    return Long.compare(this.minorUnits, other.minorUnits);
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    return this.minorUnits == ((Money) o).minorUnits;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(this.minorUnits);
+  }
+
+  @Override
+  public String toString() {
+    return this.toBigDecimal().toPlainString();
+  }
+}
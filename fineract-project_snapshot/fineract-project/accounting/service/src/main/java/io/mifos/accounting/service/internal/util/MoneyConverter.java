@@ -0,0 +1,46 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.accounting.service.internal.util;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.math.BigDecimal;
+
+@Converter
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+  public MoneyConverter() {
+    super();
+  }
+
+  @Override
+  public BigDecimal convertToDatabaseColumn(final Money attribute) {
+    if (attribute == null) {
+      return null;
+    } else {
+      return attribute.toBigDecimal();
+    }
+  }
+
+  @Override
+  public Money convertToEntityAttribute(final BigDecimal dbData) {
+    if (dbData == null) {
+      return null;
+    } else {
+      return Money.of(dbData);
+    }
+  }
+}
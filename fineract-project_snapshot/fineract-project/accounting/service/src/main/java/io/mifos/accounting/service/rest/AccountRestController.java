@@ -18,10 +18,10 @@ package io.mifos.accounting.service.rest;
 import io.mifos.accounting.api.v1.PermittableGroupIds;
 import io.mifos.accounting.api.v1.client.AccountNotFoundException;
 import io.mifos.accounting.api.v1.domain.Account;
+import io.mifos.accounting.api.v1.domain.AccountBalance;
 import io.mifos.accounting.api.v1.domain.AccountCommand;
 import io.mifos.accounting.api.v1.domain.AccountEntryPage;
 import io.mifos.accounting.api.v1.domain.AccountPage;
-import io.mifos.accounting.api.v1.domain.Ledger;
 import io.mifos.accounting.service.helper.DateRangeHelper;
 import io.mifos.accounting.service.internal.command.CloseAccountCommand;
 import io.mifos.accounting.service.internal.command.CreateAccountCommand;
@@ -62,6 +62,8 @@ import java.util.Optional;
 @RequestMapping("/accounts")
 public class AccountRestController {
 
+  private static final int MAX_ENTRY_PAGE_SIZE = 1000;
+
   private final CommandGateway commandGateway;
   private final AccountService accountService;
   private final LedgerService ledgerService;
@@ -184,14 +186,40 @@ public class AccountRestController {
       @PathVariable("identifier") final String identifier,
       @RequestParam(value = "dateRange", required = false) final String dateRange,
       @RequestParam(value = "pageIndex", required = false) final Integer pageIndex,
-      @RequestParam(value = "size", required = false) final Integer size
+      @RequestParam(value = "size", required = false) final Integer size,
+      @RequestParam(value = "cursor", required = false) final String cursor,
+      @RequestParam(value = "includeTotal", required = false) final Boolean includeTotal
   ) {
     final String[] dates = DateRangeHelper.split(dateRange);
 
     final LocalDateTime dateFrom = this.parseDateTime(dates[0]);
     final LocalDateTime dateTo = this.parseDateTime(dates[1]);
 
-    return ResponseEntity.ok(this.accountService.fetchAccountEntries(identifier, dateFrom, dateTo, PageableBuilder.create(pageIndex, size, "transactionDate", null)));
+    // deeper offset pages stay supported, the first page and all pages following a cursor are sought by key
+    if (cursor == null && pageIndex != null && pageIndex > 0) {
+      return ResponseEntity.ok(this.accountService.fetchAccountEntries(identifier, dateFrom, dateTo, PageableBuilder.create(pageIndex, size, "transactionDate", null)));
+    }
+    final int sizeToUse = size != null ? size : 20;
+    if (sizeToUse < 1 || sizeToUse > MAX_ENTRY_PAGE_SIZE) {
+      throw ServiceException.badRequest("Size must be between 1 and {0}.", MAX_ENTRY_PAGE_SIZE);
+    }
+    return ResponseEntity.ok(this.accountService.fetchAccountEntries(identifier, dateFrom, dateTo, cursor, sizeToUse,
+        includeTotal == null || includeTotal));
+  }
+
+  @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.THOTH_ACCOUNT)
+  @RequestMapping(
+      value = "/{identifier}/balance",
+      method = RequestMethod.GET,
+      produces = {MediaType.APPLICATION_JSON_VALUE},
+      consumes = {MediaType.ALL_VALUE}
+  )
+  @ResponseBody
+  ResponseEntity<AccountBalance> findAccountBalance(@PathVariable("identifier") final String identifier,
+                                                    @RequestParam(value = "dateTime") final String dateTime) {
+    return this.accountService.findAccountBalance(identifier, this.parseDateTime(dateTime))
+        .map(ResponseEntity::ok)
+        .orElseThrow(() -> ServiceException.notFound("Account {0} not found.", identifier));
   }
 
   @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.THOTH_ACCOUNT)
@@ -277,14 +305,13 @@ public class AccountRestController {
   }
 
   private void validateLedger(final @RequestBody @Valid Account account) {
-    final Optional<Ledger> optionalLedger = this.ledgerService.findLedger(account.getLedger());
-    if (!optionalLedger.isPresent()) {
+    final Optional<String> optionalLedgerType = this.ledgerService.findLedgerType(account.getLedger());
+    if (!optionalLedgerType.isPresent()) {
       throw ServiceException.badRequest("Ledger {0} not available.", account.getLedger());
     } else {
-      final Ledger ledger = optionalLedger.get();
-      if (!ledger.getType().equals(account.getType())) {
+      if (!optionalLedgerType.get().equals(account.getType())) {
         throw ServiceException.badRequest("Account type {0} must match ledger type {1}.",
-            account.getType(), ledger.getIdentifier());
+            account.getType(), account.getLedger());
       }
     }
   }
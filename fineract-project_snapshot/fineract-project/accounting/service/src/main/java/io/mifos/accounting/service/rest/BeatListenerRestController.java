@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.accounting.service.rest;
+
+import io.mifos.accounting.service.ServiceConstants;
+import io.mifos.accounting.service.internal.command.ClosePeriodCommand;
+import io.mifos.anubis.annotation.AcceptedTokenType;
+import io.mifos.anubis.annotation.Permittable;
+import io.mifos.core.command.gateway.CommandGateway;
+import io.mifos.core.lang.DateConverter;
+import io.mifos.core.lang.ServiceException;
+import io.mifos.rhythm.spi.v1.client.BeatListener;
+import io.mifos.rhythm.spi.v1.domain.BeatPublish;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+@SuppressWarnings("unused")
+@RestController
+@RequestMapping(BeatListener.PUBLISH_BEAT_PATH)
+public class BeatListenerRestController {
+
+  private static final String BEAT_PUBLISH = "accounting__v1__khepri";
+
+  private final CommandGateway commandGateway;
+
+  @Autowired
+  public BeatListenerRestController(final CommandGateway commandGateway) {
+    super();
+    this.commandGateway = commandGateway;
+  }
+
+  @Permittable(value = AcceptedTokenType.TENANT, groupId = BEAT_PUBLISH)
+  @RequestMapping(
+      method = RequestMethod.POST,
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE
+  )
+  @ResponseBody
+  ResponseEntity<Void> publishBeat(@RequestBody @Valid final BeatPublish beatPublish) {
+    if (ServiceConstants.PERIOD_CLOSING_BEAT_IDENTIFIER.equals(beatPublish.getIdentifier())) {
+      final LocalDateTime forTime;
+      try {
+        forTime = DateConverter.fromIsoString(beatPublish.getForTime());
+      } catch (final DateTimeParseException ex) {
+        throw ServiceException.badRequest("Date {0} must use ISO format", beatPublish.getForTime());
+      }
+      this.commandGateway.process(
+          new ClosePeriodCommand(forTime.toLocalDate().withDayOfMonth(1).atStartOfDay()));
+    }
+    return ResponseEntity.accepted().build();
+  }
+}
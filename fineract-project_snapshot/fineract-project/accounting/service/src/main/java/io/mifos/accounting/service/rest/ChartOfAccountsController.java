@@ -15,6 +15,9 @@
  */
 package io.mifos.accounting.service.rest;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.mifos.accounting.api.v1.PermittableGroupIds;
 import io.mifos.accounting.api.v1.domain.ChartOfAccountEntry;
 import io.mifos.accounting.service.internal.service.ChartOfAccountsService;
@@ -28,6 +31,11 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @SuppressWarnings("unused")
@@ -35,12 +43,17 @@ import java.util.List;
 @RequestMapping("/chartofaccounts")
 public class ChartOfAccountsController {
 
+  private static final String NDJSON_VALUE = "application/x-ndjson";
+
   private final ChartOfAccountsService chartOfAccountsService;
+  private final ObjectMapper objectMapper;
 
   @Autowired
-  public ChartOfAccountsController(final ChartOfAccountsService chartOfAccountsService) {
+  public ChartOfAccountsController(final ChartOfAccountsService chartOfAccountsService,
+                                   final ObjectMapper objectMapper) {
     super();
     this.chartOfAccountsService = chartOfAccountsService;
+    this.objectMapper = objectMapper;
   }
 
   @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.THOTH_LEDGER)
@@ -53,4 +66,36 @@ public class ChartOfAccountsController {
   public ResponseEntity<List<ChartOfAccountEntry>> getChartOfAccounts() {
     return ResponseEntity.ok(this.chartOfAccountsService.getChartOfAccounts());
   }
+
+  /**
+   * Writes the entries of the chart of accounts as newline delimited JSON while the chart is built, bypassing the
+   * cached chart, so the first entries reach the client before the whole chart is held in memory.
+   */
+  @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.THOTH_LEDGER)
+  @RequestMapping(
+      value = "/export",
+      method = RequestMethod.GET,
+      produces = {NDJSON_VALUE},
+      consumes = {MediaType.ALL_VALUE}
+  )
+  public void exportChartOfAccounts(final HttpServletResponse response) throws IOException {
+    response.setContentType(NDJSON_VALUE);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    final ObjectWriter objectWriter =
+        this.objectMapper.writerFor(ChartOfAccountEntry.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    final OutputStream outputStream = response.getOutputStream();
+    try {
+      this.chartOfAccountsService.buildChartOfAccounts(chartOfAccountEntry -> {
+        try {
+          objectWriter.writeValue(outputStream, chartOfAccountEntry);
+          outputStream.write('\n');
+        } catch (final IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+      });
+    } catch (final UncheckedIOException ex) {
+      throw ex.getCause();
+    }
+    outputStream.flush();
+  }
 }
@@ -15,16 +15,30 @@
  */
 package io.mifos.accounting.service.rest;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.mifos.accounting.api.v1.PermittableGroupIds;
 import io.mifos.accounting.api.v1.domain.Account;
+import io.mifos.accounting.api.v1.domain.Creditor;
+import io.mifos.accounting.api.v1.domain.Debtor;
 import io.mifos.accounting.api.v1.domain.JournalEntry;
+import io.mifos.accounting.api.v1.domain.JournalEntryBatch;
+import io.mifos.accounting.api.v1.domain.JournalEntryPage;
+import io.mifos.accounting.api.v1.domain.JournalEntryStatus;
 import io.mifos.accounting.service.ServiceConstants;
+import io.mifos.accounting.service.internal.command.CreateJournalEntriesCommand;
 import io.mifos.accounting.service.internal.command.CreateJournalEntryCommand;
+import io.mifos.accounting.service.internal.service.AccountMetadata;
 import io.mifos.accounting.service.internal.service.AccountService;
 import io.mifos.accounting.service.internal.service.JournalEntryService;
+import io.mifos.accounting.service.internal.service.PeriodClosingService;
+import io.mifos.accounting.service.internal.util.Money;
 import io.mifos.anubis.annotation.AcceptedTokenType;
 import io.mifos.anubis.annotation.Permittable;
 import io.mifos.core.command.gateway.CommandGateway;
+import io.mifos.core.lang.DateConverter;
 import io.mifos.core.lang.ServiceException;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -39,30 +53,55 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @SuppressWarnings({"unused"})
 @RestController
 @RequestMapping("/journal")
 public class JournalRestController {
 
+  private static final String NDJSON_VALUE = "application/x-ndjson";
+  private static final int DEFAULT_PAGE_SIZE = 100;
+  private static final int MAX_PAGE_SIZE = 1000;
+  // every command is stored as one row, parts of a batch stay far below the mutation size limit of Cassandra
+  private static final int MAX_COMMAND_BYTES = 1024 * 1024;
+
   private final Logger logger;
   private final CommandGateway commandGateway;
   private final JournalEntryService journalEntryService;
   private final AccountService accountService;
+  private final PeriodClosingService periodClosingService;
+  private final ObjectMapper objectMapper;
 
   @Autowired
   public JournalRestController(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
                                final CommandGateway commandGateway,
                                final JournalEntryService journalEntryService,
-                               final AccountService accountService) {
+                               final AccountService accountService,
+                               final PeriodClosingService periodClosingService,
+                               final ObjectMapper objectMapper) {
     super();
     this.logger = logger;
     this.commandGateway = commandGateway;
     this.journalEntryService = journalEntryService;
     this.accountService = accountService;
+    this.periodClosingService = periodClosingService;
+    this.objectMapper = objectMapper;
   }
 
   @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.THOTH_JOURNAL)
@@ -73,10 +112,14 @@ public class JournalRestController {
   )
   @ResponseBody
   ResponseEntity<Void> createJournalEntry(@RequestBody @Valid final JournalEntry journalEntry) {
-    final Double debtorAmountSum = journalEntry.getDebtors()
+    if (this.journalEntryService.findJournalEntry(journalEntry.getTransactionIdentifier()).isPresent()) {
+      throw ServiceException.conflict("Journal entry {0} already exists.", journalEntry.getTransactionIdentifier());
+    }
+
+    final Money debtorAmountSum = journalEntry.getDebtors()
         .stream()
         .peek(debtor -> {
-          final Optional<Account> accountOptional = this.accountService.findAccount(debtor.getAccountNumber());
+          final Optional<AccountMetadata> accountOptional = this.accountService.findAccountMetadata(debtor.getAccountNumber());
           if (!accountOptional.isPresent()) {
             throw ServiceException.badRequest("Unknown debtor account{0}.", debtor.getAccountNumber());
           }
@@ -84,13 +127,13 @@ public class JournalRestController {
             throw ServiceException.conflict("Debtor account{0} must be in state open.", debtor.getAccountNumber());
           }
         })
-        .map(debtor -> Double.valueOf(debtor.getAmount()))
-        .reduce(0.0D, (x, y) -> x + y);
+        .map(debtor -> Money.of(debtor.getAmount()))
+        .reduce(Money.ZERO, Money::add);
 
-    final Double creditorAmountSum = journalEntry.getCreditors()
+    final Money creditorAmountSum = journalEntry.getCreditors()
         .stream()
         .peek(creditor -> {
-          final Optional<Account> accountOptional = this.accountService.findAccount(creditor.getAccountNumber());
+          final Optional<AccountMetadata> accountOptional = this.accountService.findAccountMetadata(creditor.getAccountNumber());
           if (!accountOptional.isPresent()) {
             throw ServiceException.badRequest("Unknown creditor account{0}.", creditor.getAccountNumber());
           }
@@ -98,18 +141,126 @@ public class JournalRestController {
             throw ServiceException.conflict("Creditor account{0} must be in state open.", creditor.getAccountNumber());
           }
         })
-        .map(creditor -> Double.valueOf(creditor.getAmount()))
-        .reduce(0.0D, (x, y) -> x + y);
+        .map(creditor -> Money.of(creditor.getAmount()))
+        .reduce(Money.ZERO, Money::add);
 
     if (!debtorAmountSum.equals(creditorAmountSum)) {
       throw ServiceException.conflict(
           "Sum of debtor and sum of creditor amounts must be equals.");
     }
 
+    final String periodRejection =
+        this.checkPeriod(journalEntry.getTransactionDate(), this.periodClosingService.findClosedUntil());
+    if (periodRejection != null) {
+      throw ServiceException.conflict(periodRejection);
+    }
+
     this.commandGateway.process(new CreateJournalEntryCommand(journalEntry));
     return ResponseEntity.accepted().build();
   }
 
+  @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.THOTH_JOURNAL)
+  @RequestMapping(
+      value = "/batch",
+      method = RequestMethod.POST,
+      produces = {MediaType.APPLICATION_JSON_VALUE},
+      consumes = {MediaType.APPLICATION_JSON_VALUE}
+  )
+  @ResponseBody
+  ResponseEntity<List<JournalEntryStatus>> createJournalEntries(
+      @RequestBody @Valid final JournalEntryBatch journalEntryBatch) {
+    final List<JournalEntry> journalEntries = journalEntryBatch.getJournalEntries();
+
+    final HashSet<String> accountNumbers = new HashSet<>();
+    journalEntries.forEach(journalEntry -> {
+      journalEntry.getDebtors().forEach(debtor -> accountNumbers.add(debtor.getAccountNumber()));
+      journalEntry.getCreditors().forEach(creditor -> accountNumbers.add(creditor.getAccountNumber()));
+    });
+    final Map<String, String> accountStates = this.accountService.findAccountStates(accountNumbers);
+    final Optional<LocalDateTime> closedUntil = this.periodClosingService.findClosedUntil();
+    final Set<String> existingTransactionIdentifiers = this.journalEntryService.findExistingTransactionIdentifiers(
+        journalEntries.stream().map(JournalEntry::getTransactionIdentifier).collect(Collectors.toList()));
+
+    final HashSet<String> transactionIdentifiers = new HashSet<>();
+    final ArrayList<JournalEntry> acceptedJournalEntries = new ArrayList<>(journalEntries.size());
+    final ArrayList<JournalEntryStatus> journalEntryStatuses = new ArrayList<>(journalEntries.size());
+    journalEntries.forEach(journalEntry -> {
+      final String transactionIdentifier = journalEntry.getTransactionIdentifier();
+      if (existingTransactionIdentifiers.contains(transactionIdentifier)) {
+        journalEntryStatuses.add(new JournalEntryStatus(transactionIdentifier, JournalEntryStatus.State.DUPLICATE,
+            MessageFormat.format("Journal entry {0} already exists.", transactionIdentifier)));
+        return;
+      }
+      String rejection = null;
+      if (!transactionIdentifiers.add(transactionIdentifier)) {
+        rejection = "Duplicate transaction identifier.";
+      }
+      for (final Debtor debtor : journalEntry.getDebtors()) {
+        if (rejection == null) {
+          rejection = this.checkAccount("Debtor", debtor.getAccountNumber(), accountStates);
+        }
+      }
+      for (final Creditor creditor : journalEntry.getCreditors()) {
+        if (rejection == null) {
+          rejection = this.checkAccount("Creditor", creditor.getAccountNumber(), accountStates);
+        }
+      }
+      if (rejection == null) {
+        final Money debtorAmountSum = journalEntry.getDebtors()
+            .stream()
+            .map(debtor -> Money.of(debtor.getAmount()))
+            .reduce(Money.ZERO, Money::add);
+        final Money creditorAmountSum = journalEntry.getCreditors()
+            .stream()
+            .map(creditor -> Money.of(creditor.getAmount()))
+            .reduce(Money.ZERO, Money::add);
+        if (!debtorAmountSum.equals(creditorAmountSum)) {
+          rejection = "Sum of debtor and sum of creditor amounts must be equals.";
+        }
+      }
+      if (rejection == null) {
+        rejection = this.checkPeriod(journalEntry.getTransactionDate(), closedUntil);
+      }
+
+      if (rejection == null) {
+        acceptedJournalEntries.add(journalEntry);
+        journalEntryStatuses.add(
+            new JournalEntryStatus(transactionIdentifier, JournalEntryStatus.State.ACCEPTED, null));
+      } else {
+        journalEntryStatuses.add(
+            new JournalEntryStatus(transactionIdentifier, JournalEntryStatus.State.REJECTED, rejection));
+      }
+    });
+
+    if (!acceptedJournalEntries.isEmpty()) {
+      this.split(acceptedJournalEntries).forEach(part -> this.commandGateway.process(
+          new CreateJournalEntriesCommand(journalEntryBatch.getIdentifier(), part)));
+    }
+    return ResponseEntity.accepted().body(journalEntryStatuses);
+  }
+
+  private List<List<JournalEntry>> split(final List<JournalEntry> journalEntries) {
+    final ArrayList<List<JournalEntry>> parts = new ArrayList<>();
+    int start = 0;
+    long partBytes = 0L;
+    for (int i = 0; i < journalEntries.size(); i++) {
+      final int entryBytes;
+      try {
+        entryBytes = this.objectMapper.writeValueAsBytes(journalEntries.get(i)).length;
+      } catch (final JsonProcessingException ex) {
+        throw new UncheckedIOException(ex);
+      }
+      if (i > start && partBytes + entryBytes > MAX_COMMAND_BYTES) {
+        parts.add(new ArrayList<>(journalEntries.subList(start, i)));
+        start = i;
+        partBytes = 0L;
+      }
+      partBytes += entryBytes;
+    }
+    parts.add(new ArrayList<>(journalEntries.subList(start, journalEntries.size())));
+    return parts;
+  }
+
   @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.THOTH_JOURNAL)
   @RequestMapping(
       method = RequestMethod.GET,
@@ -123,6 +274,59 @@ public class JournalRestController {
     return ResponseEntity.ok(this.journalEntryService.fetchJournalEntries(dateRange));
   }
 
+  @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.THOTH_JOURNAL)
+  @RequestMapping(
+      value = "/page",
+      method = RequestMethod.GET,
+      produces = {MediaType.APPLICATION_JSON_VALUE},
+      consumes = {MediaType.ALL_VALUE}
+  )
+  @ResponseBody
+  ResponseEntity<JournalEntryPage> fetchJournalEntryPage(
+      @RequestParam(value = "dateRange", required = false) final String dateRange,
+      @RequestParam(value = "cursor", required = false) final String cursor,
+      @RequestParam(value = "size", required = false) final Integer size
+  ) {
+    final int pageSize = size != null ? size : DEFAULT_PAGE_SIZE;
+    if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+      throw ServiceException.badRequest("Page size must be between 1 and {0}.", MAX_PAGE_SIZE);
+    }
+    return ResponseEntity.ok(this.journalEntryService.fetchJournalEntryPage(dateRange, cursor, pageSize));
+  }
+
+  /**
+   * Writes all journal entries of the date range as newline delimited JSON while they are read, so the response can
+   * be of any size without being held in memory.
+   */
+  @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.THOTH_JOURNAL)
+  @RequestMapping(
+      value = "/export",
+      method = RequestMethod.GET,
+      produces = {NDJSON_VALUE},
+      consumes = {MediaType.ALL_VALUE}
+  )
+  void exportJournalEntries(@RequestParam(value = "dateRange", required = false) final String dateRange,
+                            final HttpServletResponse response) throws IOException {
+    response.setContentType(NDJSON_VALUE);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    final ObjectWriter objectWriter =
+        this.objectMapper.writerFor(JournalEntry.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    final OutputStream outputStream = response.getOutputStream();
+    try {
+      this.journalEntryService.exportJournalEntries(dateRange, journalEntry -> {
+        try {
+          objectWriter.writeValue(outputStream, journalEntry);
+          outputStream.write('\n');
+        } catch (final IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+      });
+    } catch (final UncheckedIOException ex) {
+      throw ex.getCause();
+    }
+    outputStream.flush();
+  }
+
   @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.THOTH_JOURNAL)
   @RequestMapping(
       value = "/{transactionIdentifier}",
@@ -143,4 +347,29 @@ public class JournalRestController {
       throw ServiceException.notFound("Journal entry {0} not found.", transactionIdentifier);
     }
   }
+
+  private String checkAccount(final String role, final String accountNumber, final Map<String, String> accountStates) {
+    final String state = accountStates.get(accountNumber);
+    if (state == null) {
+      return MessageFormat.format("Unknown {0} account {1}.", role.toLowerCase(), accountNumber);
+    }
+    if (!state.equals(Account.State.OPEN.name())) {
+      return MessageFormat.format("{0} account {1} must be in state open.", role, accountNumber);
+    }
+    return null;
+  }
+
+  private String checkPeriod(final String transactionDate, final Optional<LocalDateTime> closedUntil) {
+    if (!closedUntil.isPresent()) {
+      return null;
+    }
+    try {
+      if (DateConverter.fromIsoString(transactionDate).isBefore(closedUntil.get())) {
+        return MessageFormat.format("Period until {0} is closed.", DateConverter.toIsoString(closedUntil.get()));
+      }
+    } catch (final DateTimeParseException ex) {
+      return MessageFormat.format("Transaction date {0} must use ISO format.", transactionDate);
+    }
+    return null;
+  }
 }
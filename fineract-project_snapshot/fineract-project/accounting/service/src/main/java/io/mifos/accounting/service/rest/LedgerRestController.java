@@ -72,7 +72,7 @@ public class LedgerRestController {
       throw ServiceException.badRequest("Ledger {0} is not a root.", ledger.getIdentifier());
     }
 
-    if (this.ledgerService.findLedger(ledger.getIdentifier()).isPresent()) {
+    if (this.ledgerService.ledgerExists(ledger.getIdentifier())) {
       throw ServiceException.conflict("Ledger {0} already exists.", ledger.getIdentifier());
     }
 
@@ -129,17 +129,16 @@ public class LedgerRestController {
   @ResponseBody
   ResponseEntity<Void> addSubLedger(@PathVariable("identifier") final String identifier,
                                     @RequestBody @Valid final Ledger subLedger) {
-    final Optional<Ledger> optionalParentLedger = this.ledgerService.findLedger(identifier);
-    if (optionalParentLedger.isPresent()) {
-      final Ledger parentLedger = optionalParentLedger.get();
-      if (!parentLedger.getType().equals(subLedger.getType())) {
+    final Optional<String> optionalParentLedgerType = this.ledgerService.findLedgerType(identifier);
+    if (optionalParentLedgerType.isPresent()) {
+      if (!optionalParentLedgerType.get().equals(subLedger.getType())) {
         throw ServiceException.badRequest("Ledger type must be the same.");
       }
     } else {
       throw ServiceException.notFound("Parent ledger {0} not found.", identifier);
     }
 
-    if (this.ledgerService.findLedger(subLedger.getIdentifier()).isPresent()) {
+    if (this.ledgerService.ledgerExists(subLedger.getIdentifier())) {
       throw ServiceException.conflict("Ledger {0} already exists.", subLedger.getIdentifier());
     }
 
@@ -163,7 +162,7 @@ public class LedgerRestController {
           identifier, ledger.getIdentifier());
     }
 
-    if (!this.ledgerService.findLedger(identifier).isPresent()) {
+    if (!this.ledgerService.ledgerExists(identifier)) {
       throw ServiceException.notFound("Ledger {0} not found.", identifier);
     }
 
@@ -181,16 +180,14 @@ public class LedgerRestController {
   )
   @ResponseBody
   ResponseEntity<Void> deleteLedger(@PathVariable("identifier") final String identifier) {
-    final Optional<Ledger> optionalLedger = this.ledgerService.findLedger(identifier);
-    if (optionalLedger.isPresent()) {
-      final Ledger ledger = optionalLedger.get();
-      if (!ledger.getSubLedgers().isEmpty()) {
-        throw ServiceException.conflict("Ledger {0} holds sub ledgers.", identifier);
-      }
-    } else {
+    if (!this.ledgerService.ledgerExists(identifier)) {
       throw ServiceException.notFound("Ledger {0} not found.", identifier);
     }
 
+    if (this.ledgerService.hasSubLedgers(identifier)) {
+      throw ServiceException.conflict("Ledger {0} holds sub ledgers.", identifier);
+    }
+
     if (this.ledgerService.hasAccounts(identifier)) {
       throw ServiceException.conflict("Ledger {0} has assigned accounts.", identifier);
     }
@@ -213,7 +210,7 @@ public class LedgerRestController {
                                                     @RequestParam(value = "size", required = false) final Integer size,
                                                     @RequestParam(value = "sortColumn", required = false) final String sortColumn,
                                                     @RequestParam(value = "sortDirection", required = false) final String sortDirection) {
-    if (!this.ledgerService.findLedger(identifier).isPresent()) {
+    if (!this.ledgerService.ledgerExists(identifier)) {
       throw ServiceException.notFound("Ledger {0} not found.", identifier);
     }
     return ResponseEntity.ok(this.ledgerService.fetchAccounts(identifier, PageableBuilder.create(pageIndex, size, sortColumn, sortDirection)));
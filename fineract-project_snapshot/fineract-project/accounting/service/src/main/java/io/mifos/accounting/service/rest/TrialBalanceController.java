@@ -20,6 +20,8 @@ import io.mifos.accounting.api.v1.domain.TrialBalance;
 import io.mifos.accounting.service.internal.service.TrialBalanceService;
 import io.mifos.anubis.annotation.AcceptedTokenType;
 import io.mifos.anubis.annotation.Permittable;
+import io.mifos.core.lang.DateConverter;
+import io.mifos.core.lang.ServiceException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -29,6 +31,8 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.format.DateTimeParseException;
+
 @SuppressWarnings("unused")
 @RestController
 @RequestMapping("/trialbalance")
@@ -50,7 +54,16 @@ public class TrialBalanceController {
   )
   @ResponseBody
   public ResponseEntity<TrialBalance> getTrialBalance(
-      @RequestParam(value = "includeEmptyEntries", required = false) final boolean includeEmptyEntries) {
-    return ResponseEntity.ok(this.trialBalanceService.getTrialBalance(includeEmptyEntries));
+      @RequestParam(value = "includeEmptyEntries", required = false) final boolean includeEmptyEntries,
+      @RequestParam(value = "dateTime", required = false) final String dateTime) {
+    if (dateTime == null) {
+      return ResponseEntity.ok(this.trialBalanceService.getTrialBalance(includeEmptyEntries));
+    }
+    try {
+      return ResponseEntity.ok(
+          this.trialBalanceService.getTrialBalance(includeEmptyEntries, DateConverter.fromIsoString(dateTime)));
+    } catch (final DateTimeParseException ex) {
+      throw ServiceException.badRequest("Date {0} must use ISO format", dateTime);
+    }
   }
 }
@@ -0,0 +1,24 @@
+--
+-- Copyright 2017 The Mifos Initiative.
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+--    http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+-- end of the latest closed period, bookings lock the row in share mode and closings exclusively
+CREATE TABLE thoth_period_lock (
+  id           BIGINT       NOT NULL,
+  closed_until TIMESTAMP(3) NULL,
+  CONSTRAINT thoth_period_lock_pk PRIMARY KEY (id)
+);
+
+INSERT INTO thoth_period_lock (id, closed_until) SELECT 1, MAX(closed_until) FROM thoth_period_closings;
@@ -0,0 +1,25 @@
+--
+-- Copyright 2017 The Mifos Initiative.
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+--    http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+CREATE TABLE thoth_id_generators (
+  generator_name  VARCHAR(64) NOT NULL,
+  next_val        BIGINT      NOT NULL,
+  CONSTRAINT thoth_id_generators_pk PRIMARY KEY (generator_name)
+);
+
+-- start above the largest identity value including one allocation block of 100, ids are assigned per block
+INSERT INTO thoth_id_generators (generator_name, next_val)
+  SELECT 'thoth_account_entries', COALESCE(MAX(id), 0) + 101 FROM thoth_account_entries;
@@ -0,0 +1,21 @@
+--
+-- Copyright 2017 The Mifos Initiative.
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+--    http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+-- balance sum of the accounts directly assigned to a ledger, sub ledgers are aggregated when read
+ALTER TABLE thoth_ledgers ADD COLUMN total_value NUMERIC(15, 5) NULL;
+
+UPDATE thoth_ledgers l SET l.total_value =
+  (SELECT COALESCE(SUM(a.balance), 0) FROM thoth_accounts a WHERE a.ledger_id = l.id);
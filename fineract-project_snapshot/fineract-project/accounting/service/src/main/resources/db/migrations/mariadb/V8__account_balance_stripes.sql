@@ -0,0 +1,34 @@
+--
+-- Copyright 2017 The Mifos Initiative.
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+--    http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+-- number of balance stripes of high-volume accounts, zero once striping was switched off
+ALTER TABLE thoth_accounts ADD COLUMN balance_stripes INT NULL;
+
+-- balance changes of striped accounts not yet folded into the account balance
+CREATE TABLE thoth_account_balance_stripes (
+  id         BIGINT         NOT NULL AUTO_INCREMENT,
+  account_id BIGINT         NOT NULL,
+  stripe     INT            NOT NULL,
+  balance    NUMERIC(15, 5) NOT NULL,
+  CONSTRAINT thoth_account_balance_stripes_pk PRIMARY KEY (id),
+  CONSTRAINT thoth_account_balance_stripes_uq UNIQUE (account_id, stripe),
+  CONSTRAINT thoth_account_balance_stripes_accounts_fk FOREIGN KEY (account_id) REFERENCES thoth_accounts (id)
+);
+
+-- entries of striped accounts get their running balance once folded
+ALTER TABLE thoth_account_entries MODIFY balance NUMERIC(15, 5) NULL;
+
+CREATE INDEX thoth_account_entries_account_balance_ix ON thoth_account_entries (account_id, balance);
@@ -0,0 +1,52 @@
+--
+-- Copyright 2017 The Mifos Initiative.
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+--    http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+-- periods closed so far, entries dated before closed_until are no longer accepted
+CREATE TABLE thoth_period_closings (
+  id            BIGINT       NOT NULL AUTO_INCREMENT,
+  closed_until  TIMESTAMP(3) NOT NULL,
+  created_on    TIMESTAMP(3) NOT NULL,
+  created_by    VARCHAR(32)  NOT NULL,
+  CONSTRAINT thoth_period_closings_pk PRIMARY KEY (id),
+  CONSTRAINT thoth_period_closings_uq UNIQUE (closed_until)
+);
+
+-- balances of all accounts at the end of a closed period
+CREATE TABLE thoth_account_closing_balances (
+  id                BIGINT         NOT NULL AUTO_INCREMENT,
+  period_closing_id BIGINT         NOT NULL,
+  account_id        BIGINT         NOT NULL,
+  balance           NUMERIC(15, 5) NOT NULL,
+  CONSTRAINT thoth_account_closing_balances_pk PRIMARY KEY (id),
+  CONSTRAINT thoth_account_closing_balances_uq UNIQUE (account_id, period_closing_id),
+  CONSTRAINT thoth_account_closing_balances_closings_fk FOREIGN KEY (period_closing_id) REFERENCES thoth_period_closings (id),
+  CONSTRAINT thoth_account_closing_balances_accounts_fk FOREIGN KEY (account_id) REFERENCES thoth_accounts (id) ON DELETE CASCADE
+);
+
+-- balance sums of the accounts directly assigned to a ledger at the end of a closed period
+CREATE TABLE thoth_ledger_closing_balances (
+  id                BIGINT         NOT NULL AUTO_INCREMENT,
+  period_closing_id BIGINT         NOT NULL,
+  ledger_id         BIGINT         NOT NULL,
+  total_value       NUMERIC(15, 5) NOT NULL,
+  CONSTRAINT thoth_ledger_closing_balances_pk PRIMARY KEY (id),
+  CONSTRAINT thoth_ledger_closing_balances_uq UNIQUE (ledger_id, period_closing_id),
+  CONSTRAINT thoth_ledger_closing_balances_closings_fk FOREIGN KEY (period_closing_id) REFERENCES thoth_period_closings (id),
+  CONSTRAINT thoth_ledger_closing_balances_ledgers_fk FOREIGN KEY (ledger_id) REFERENCES thoth_ledgers (id) ON DELETE CASCADE
+);
+
+-- the entries booked since a period closing are summed up by date across all accounts
+CREATE INDEX thoth_account_entries_date_ix ON thoth_account_entries (transaction_date);
@@ -16,12 +16,18 @@
 package io.mifos.core.async.config;
 
 import io.mifos.core.async.core.DelegatingContextExecutor;
+import io.mifos.core.async.core.TenantFairExecutor;
 import io.mifos.core.async.util.AsyncConstants;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
 import org.springframework.aop.interceptor.SimpleAsyncUncaughtExceptionHandler;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotatedTypeMetadata;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
@@ -42,8 +48,24 @@ public class AsyncProcessingJavaConfiguration
     this.env = env;
   }
 
+  @Bean(destroyMethod = "shutdown")
+  @Conditional(TenantFairModeCondition.class)
+  public TenantFairExecutor tenantFairExecutor() {
+    return new TenantFairExecutor(
+        Integer.valueOf(this.env.getProperty(AsyncConstants.MAX_CONCURRENCY_PROP, AsyncConstants.MAX_CONCURRENCY_DEFAULT)),
+        Integer.valueOf(this.env.getProperty(AsyncConstants.TENANT_MAX_CONCURRENCY_PROP, AsyncConstants.TENANT_MAX_CONCURRENCY_DEFAULT)),
+        Integer.valueOf(this.env.getProperty(AsyncConstants.TENANT_QUEUE_CAPACITY_PROP, AsyncConstants.TENANT_QUEUE_CAPACITY_DEFAULT)),
+        this.env.getProperty(AsyncConstants.THREAD_NAME_PROP, AsyncConstants.THREAD_NAME_DEFAULT),
+        Boolean.valueOf(this.env.getProperty(AsyncConstants.VIRTUAL_THREADS_PROP, AsyncConstants.VIRTUAL_THREADS_DEFAULT)));
+  }
+
   @Override
   public Executor getAsyncExecutor() {
+    if (isTenantFairMode(this.env)) {
+      // the bean, so it is shut down with the context and exported over JMX
+      return new DelegatingContextExecutor(new DelegatingSecurityContextAsyncTaskExecutor(this.tenantFairExecutor()));
+    }
+
     ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
     executor.setCorePoolSize(
         Integer.valueOf(this.env.getProperty(AsyncConstants.CORE_POOL_SIZE_PROP, AsyncConstants.CORE_POOL_SIZE_DEFAULT)));
@@ -62,4 +84,17 @@ public class AsyncProcessingJavaConfiguration
   public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
     return new SimpleAsyncUncaughtExceptionHandler();
   }
+
+  private static boolean isTenantFairMode(final Environment environment) {
+    return AsyncConstants.MODE_TENANT_FAIR.equalsIgnoreCase(
+        environment.getProperty(AsyncConstants.MODE_PROP, AsyncConstants.MODE_DEFAULT));
+  }
+
+  static class TenantFairModeCondition implements Condition {
+
+    @Override
+    public boolean matches(final ConditionContext context, final AnnotatedTypeMetadata metadata) {
+      return isTenantFairMode(context.getEnvironment());
+    }
+  }
 }
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.core.async.core;
+
+import io.mifos.core.lang.TenantContextHolder;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Executes tasks out of one bounded queue per tenant. Queues are served round robin, so a tenant submitting many
+ * tasks cannot delay the tasks of others. The number of tasks running concurrently is limited overall and per tenant,
+ * and tasks submitted to a tenant's full queue are rejected.
+ *
+ * Tasks run on virtual threads if the JVM supports them and they are enabled, otherwise on a pool of platform
+ * threads. The tenant a task belongs to is taken from the submitting thread, the context itself is propagated by
+ * {@link DelegatingContextExecutor}.
+ *
+ * A task which cannot be started is cancelled and counted as rejected for its tenant. Only the submitter of that very
+ * task gets a {@link TaskRejectedException}, never the submitter or worker whose dispatch happened to pick it.
+ */
+@ManagedResource(objectName = "io.mifos.core.async:name=TenantFairExecutor")
+public class TenantFairExecutor implements AsyncTaskExecutor {
+
+  private static final String NO_TENANT = "";
+
+  private final int maxConcurrency;
+  private final int tenantMaxConcurrency;
+  private final int tenantQueueCapacity;
+  private final Executor carrier;
+  private final boolean virtual;
+  private final ConcurrentHashMap<String, TenantLane> lanes;
+  private final ArrayDeque<TenantLane> readyLanes;
+  private int running;
+  private boolean shutdown;
+
+  public TenantFairExecutor(final int maxConcurrency,
+                            final int tenantMaxConcurrency,
+                            final int tenantQueueCapacity,
+                            final String threadNamePrefix,
+                            final boolean useVirtualThreads) {
+    this(maxConcurrency, tenantMaxConcurrency, tenantQueueCapacity,
+        useVirtualThreads ? virtualThreadFactory(threadNamePrefix) : null, threadNamePrefix);
+  }
+
+  private TenantFairExecutor(final int maxConcurrency,
+                             final int tenantMaxConcurrency,
+                             final int tenantQueueCapacity,
+                             final ThreadFactory virtualThreadFactory,
+                             final String threadNamePrefix) {
+    this(maxConcurrency, tenantMaxConcurrency, tenantQueueCapacity,
+        virtualThreadFactory != null
+            ? runnable -> virtualThreadFactory.newThread(runnable).start()
+            : Executors.newCachedThreadPool(new CustomizableThreadFactory(threadNamePrefix)),
+        virtualThreadFactory != null);
+  }
+
+  TenantFairExecutor(final int maxConcurrency,
+                     final int tenantMaxConcurrency,
+                     final int tenantQueueCapacity,
+                     final Executor carrier,
+                     final boolean virtual) {
+    super();
+    this.maxConcurrency = maxConcurrency;
+    this.tenantMaxConcurrency = tenantMaxConcurrency;
+    this.tenantQueueCapacity = tenantQueueCapacity;
+    this.lanes = new ConcurrentHashMap<>();
+    this.readyLanes = new ArrayDeque<>();
+    this.carrier = carrier;
+    this.virtual = virtual;
+  }
+
+  @Override
+  public void execute(final Runnable task) {
+    this.enqueue(task);
+  }
+
+  @Override
+  public void execute(final Runnable task, final long startTimeout) {
+    this.execute(task);
+  }
+
+  @Override
+  public Future<?> submit(final Runnable task) {
+    final FutureTask<Object> futureTask = new FutureTask<>(task, null);
+    this.enqueue(futureTask);
+    return futureTask;
+  }
+
+  @Override
+  public <T> Future<T> submit(final Callable<T> task) {
+    final FutureTask<T> futureTask = new FutureTask<>(task);
+    this.enqueue(futureTask);
+    return futureTask;
+  }
+
+  /**
+   * Rejects all further tasks and cancels the queued ones. Running tasks are completed.
+   */
+  public void shutdown() {
+    synchronized (this) {
+      this.shutdown = true;
+      this.readyLanes.clear();
+      this.lanes.values().forEach(lane -> {
+        lane.ready = false;
+        lane.tasks.forEach(task -> {
+          if (task instanceof Future) {
+            ((Future<?>) task).cancel(false);
+          }
+        });
+        lane.tasks.clear();
+      });
+    }
+    if (this.carrier instanceof ExecutorService) {
+      ((ExecutorService) this.carrier).shutdown();
+    }
+  }
+
+  @ManagedAttribute
+  public boolean isVirtual() {
+    return this.virtual;
+  }
+
+  @ManagedAttribute
+  public synchronized int getRunning() {
+    return this.running;
+  }
+
+  @ManagedAttribute
+  public long getRejected() {
+    return this.lanes.values().stream().mapToLong(lane -> lane.rejected.sum()).sum();
+  }
+
+  @ManagedOperation
+  public String report() {
+    return this.getMetrics().toString();
+  }
+
+  public Map<String, Map<String, Long>> getMetrics() {
+    final LinkedHashMap<String, Map<String, Long>> metrics = new LinkedHashMap<>();
+    this.lanes.forEach((tenant, lane) -> {
+      final LinkedHashMap<String, Long> laneMetrics = new LinkedHashMap<>();
+      synchronized (this) {
+        laneMetrics.put("queued", (long) lane.tasks.size());
+        laneMetrics.put("running", (long) lane.running);
+      }
+      laneMetrics.put("submitted", lane.submitted.sum());
+      laneMetrics.put("rejected", lane.rejected.sum());
+      metrics.put(tenant, laneMetrics);
+    });
+    return metrics;
+  }
+
+  private void enqueue(final Runnable task) {
+    final String tenant = TenantContextHolder.identifier().orElse(NO_TENANT);
+    final TenantLane lane = this.lanes.computeIfAbsent(tenant, key -> new TenantLane());
+    synchronized (this) {
+      if (this.shutdown) {
+        lane.rejected.increment();
+        throw new TaskRejectedException("Executor is shut down, rejecting task of tenant '" + tenant + "'.");
+      }
+      if (lane.tasks.size() >= this.tenantQueueCapacity) {
+        lane.rejected.increment();
+        throw new TaskRejectedException("Queue of tenant '" + tenant + "' is full, rejecting task.");
+      }
+      lane.submitted.increment();
+      lane.tasks.add(task);
+      this.markReady(lane);
+      final RuntimeException failure = this.dispatch(task);
+      if (failure != null) {
+        throw new TaskRejectedException("Could not start task of tenant '" + tenant + "'.", failure);
+      }
+    }
+  }
+
+  // must hold the monitor
+  private void markReady(final TenantLane lane) {
+    if (!lane.ready && !lane.tasks.isEmpty() && lane.running < this.tenantMaxConcurrency) {
+      lane.ready = true;
+      this.readyLanes.add(lane);
+    }
+  }
+
+  // must hold the monitor, returns why the given task could not be started, if it could not
+  private RuntimeException dispatch(final Runnable submittedTask) {
+    RuntimeException submittedTaskFailure = null;
+    while (this.running < this.maxConcurrency && !this.readyLanes.isEmpty()) {
+      final TenantLane lane = this.readyLanes.poll();
+      lane.ready = false;
+      final Runnable task = lane.tasks.poll();
+      lane.running++;
+      this.running++;
+      // re-queue behind all other lanes, which makes the dispatch round robin
+      this.markReady(lane);
+      try {
+        this.carrier.execute(() -> this.run(lane, task));
+      } catch (final RuntimeException ex) {
+        lane.running--;
+        this.running--;
+        lane.rejected.increment();
+        if (task instanceof Future) {
+          ((Future<?>) task).cancel(false);
+        }
+        if (task == submittedTask) {
+          submittedTaskFailure = ex;
+        }
+        // the carrier refuses to start tasks, the remaining ones wait for the next dispatch
+        break;
+      }
+    }
+    return submittedTaskFailure;
+  }
+
+  private void run(final TenantLane lane, final Runnable task) {
+    try {
+      task.run();
+    } finally {
+      synchronized (this) {
+        lane.running--;
+        this.running--;
+        this.markReady(lane);
+        this.dispatch(null);
+      }
+    }
+  }
+
+  private static ThreadFactory virtualThreadFactory(final String threadNamePrefix) {
+    try {
+      final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      final Method name = builderClass.getMethod("name", String.class, long.class);
+      final Object namedBuilder = name.invoke(builder, threadNamePrefix, 0L);
+      return (ThreadFactory) builderClass.getMethod("factory").invoke(namedBuilder);
+    } catch (final ReflectiveOperationException | LinkageError ex) {
+      return null;
+    }
+  }
+
+  private static final class TenantLane {
+
+    private final ArrayDeque<Runnable> tasks;
+    private final LongAdder submitted;
+    private final LongAdder rejected;
+    private int running;
+    private boolean ready;
+
+    private TenantLane() {
+      super();
+      this.tasks = new ArrayDeque<>();
+      this.submitted = new LongAdder();
+      this.rejected = new LongAdder();
+    }
+  }
+}
@@ -25,4 +25,17 @@ public interface AsyncConstants {
   String QUEUE_CAPACITY_DEFAULT = "0";
   String THREAD_NAME_PROP = "async.threadName";
   String THREAD_NAME_DEFAULT = "async-processor-";
+
+  String MODE_PROP = "async.mode";
+  String MODE_POOL = "pool";
+  String MODE_TENANT_FAIR = "tenantFair";
+  String MODE_DEFAULT = MODE_POOL;
+  String MAX_CONCURRENCY_PROP = "async.maxConcurrency";
+  String MAX_CONCURRENCY_DEFAULT = "1024";
+  String TENANT_MAX_CONCURRENCY_PROP = "async.tenant.maxConcurrency";
+  String TENANT_MAX_CONCURRENCY_DEFAULT = "128";
+  String TENANT_QUEUE_CAPACITY_PROP = "async.tenant.queueCapacity";
+  String TENANT_QUEUE_CAPACITY_DEFAULT = "4096";
+  String VIRTUAL_THREADS_PROP = "async.virtualThreads";
+  String VIRTUAL_THREADS_DEFAULT = "true";
 }
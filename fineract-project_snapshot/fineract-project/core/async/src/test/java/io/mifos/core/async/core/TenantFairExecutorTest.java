@@ -0,0 +1,178 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.core.async.core;
+
+import io.mifos.core.lang.TenantContextHolder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TenantFairExecutorTest {
+
+  private ExecutorService threads;
+  private AtomicBoolean carrierRefuses;
+
+  public TenantFairExecutorTest() {
+    super();
+  }
+
+  @Before
+  public void createCarrier() {
+    this.threads = Executors.newCachedThreadPool();
+    this.carrierRefuses = new AtomicBoolean(false);
+  }
+
+  @After
+  public void shutdownCarrier() {
+    this.threads.shutdownNow();
+    TenantContextHolder.clear();
+  }
+
+  @Test
+  public void shouldServeTenantsRoundRobin() throws Exception {
+    final TenantFairExecutor executor = this.createExecutor(1, 2, 16);
+    final List<String> order = Collections.synchronizedList(new ArrayList<>());
+    final CountDownLatch release = new CountDownLatch(1);
+
+    final List<Future<?>> futures = new ArrayList<>();
+    futures.add(this.submit(executor, "busy", () -> {
+      await(release);
+      order.add("busy-0");
+    }));
+    for (int i = 1; i <= 4; i++) {
+      final String task = "busy-" + i;
+      futures.add(this.submit(executor, "busy", () -> order.add(task)));
+    }
+    futures.add(this.submit(executor, "quiet", () -> order.add("quiet-0")));
+
+    release.countDown();
+    for (final Future<?> future : futures) {
+      future.get(5L, TimeUnit.SECONDS);
+    }
+
+    // the quiet tenant waits for one task of the busy tenant only, not for all of them
+    Assert.assertEquals(6, order.size());
+    Assert.assertEquals(2, order.indexOf("quiet-0"));
+  }
+
+  @Test
+  public void shouldRejectTasksOfFullQueueOnly() throws Exception {
+    final TenantFairExecutor executor = this.createExecutor(1, 1, 1);
+    final CountDownLatch release = new CountDownLatch(1);
+
+    final Future<?> running = this.submit(executor, "busy", () -> await(release));
+    final Future<?> queued = this.submit(executor, "busy", () -> { });
+    try {
+      this.submit(executor, "busy", () -> { });
+      Assert.fail("Task submitted to a full queue must be rejected.");
+    } catch (final TaskRejectedException ex) {
+      // expected
+    }
+    final Future<?> otherTenant = this.submit(executor, "quiet", () -> { });
+
+    release.countDown();
+    running.get(5L, TimeUnit.SECONDS);
+    queued.get(5L, TimeUnit.SECONDS);
+    otherTenant.get(5L, TimeUnit.SECONDS);
+    Assert.assertEquals(1L, executor.getRejected());
+    Assert.assertEquals(1L, executor.getMetrics().get("busy").get("rejected").longValue());
+  }
+
+  @Test
+  public void shouldRejectTaskOnlyToItsOwnSubmitter() throws Exception {
+    final TenantFairExecutor executor = this.createExecutor(1, 1, 16);
+    final CountDownLatch release = new CountDownLatch(1);
+
+    final Future<?> running = this.submit(executor, "first", () -> await(release));
+    final Future<?> waiting = this.submit(executor, "second", () -> { });
+
+    // the waiting task is picked when the running one finished, on the worker thread
+    this.carrierRefuses.set(true);
+    release.countDown();
+    running.get(5L, TimeUnit.SECONDS);
+    awaitCancellation(waiting);
+    Assert.assertEquals(1L, executor.getMetrics().get("second").get("rejected").longValue());
+    Assert.assertEquals(0L, executor.getMetrics().get("first").get("rejected").longValue());
+
+    try {
+      this.submit(executor, "third", () -> { });
+      Assert.fail("Task which cannot be started must be rejected to its submitter.");
+    } catch (final TaskRejectedException ex) {
+      // expected
+    }
+
+    this.carrierRefuses.set(false);
+    this.submit(executor, "fourth", () -> { }).get(5L, TimeUnit.SECONDS);
+  }
+
+  @Test(expected = TaskRejectedException.class)
+  public void shouldRejectTasksAfterShutdown() {
+    final TenantFairExecutor executor = this.createExecutor(1, 1, 16);
+    executor.shutdown();
+    this.submit(executor, "late", () -> { });
+  }
+
+  private TenantFairExecutor createExecutor(final int maxConcurrency,
+                                            final int tenantMaxConcurrency,
+                                            final int tenantQueueCapacity) {
+    return new TenantFairExecutor(maxConcurrency, tenantMaxConcurrency, tenantQueueCapacity,
+        runnable -> {
+          if (this.carrierRefuses.get()) {
+            throw new RejectedExecutionException("Carrier refuses.");
+          }
+          this.threads.execute(runnable);
+        },
+        false);
+  }
+
+  private Future<?> submit(final TenantFairExecutor executor, final String tenant, final Runnable task) {
+    TenantContextHolder.setIdentifier(tenant);
+    try {
+      return executor.submit(task);
+    } finally {
+      TenantContextHolder.clear();
+    }
+  }
+
+  private static void await(final CountDownLatch latch) {
+    try {
+      Assert.assertTrue(latch.await(5L, TimeUnit.SECONDS));
+    } catch (final InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  private static void awaitCancellation(final Future<?> future) throws InterruptedException {
+    for (int i = 0; i < 500 && !future.isCancelled(); i++) {
+      Thread.sleep(10L);
+    }
+    Assert.assertTrue(future.isCancelled());
+  }
+}
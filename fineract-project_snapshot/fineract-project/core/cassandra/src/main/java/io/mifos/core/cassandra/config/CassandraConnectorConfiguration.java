@@ -18,6 +18,7 @@ package io.mifos.core.cassandra.config;
 import io.mifos.core.cassandra.core.CassandraJourneyFactory;
 import io.mifos.core.cassandra.core.CassandraSessionProvider;
 import io.mifos.core.cassandra.core.TenantAwareCassandraMapperProvider;
+import io.mifos.core.cassandra.core.TenantAwarePreparedStatementProvider;
 import io.mifos.core.cassandra.core.TenantAwareEntityTemplate;
 import io.mifos.core.cassandra.util.CassandraConnectorConstants;
 import io.mifos.core.lang.ApplicationName;
@@ -73,6 +74,12 @@ public class CassandraConnectorConfiguration {
     return new TenantAwareCassandraMapperProvider(this.env, logger, cassandraSessionProvider);
   }
 
+  @Bean
+  public TenantAwarePreparedStatementProvider preparedStatementProvider(@Qualifier(CassandraConnectorConstants.LOGGER_NAME) final Logger logger,
+                                                                        final CassandraSessionProvider cassandraSessionProvider) {
+    return new TenantAwarePreparedStatementProvider(logger, cassandraSessionProvider);
+  }
+
   @Bean
   public TenantAwareEntityTemplate tenantAwareEntityTemplate(final CassandraSessionProvider cassandraSessionProvider,
                                                              final TenantAwareCassandraMapperProvider tenantAwareCassandraMapperProvider) {
@@ -16,6 +16,7 @@
 package io.mifos.core.cassandra.core;
 
 import io.mifos.core.lang.ApplicationName;
+import io.mifos.core.lang.TenantContextHolder;
 import org.slf4j.Logger;
 
 @SuppressWarnings("unused")
@@ -31,6 +32,8 @@ public class CassandraJourneyFactory {
   }
 
   public CassandraJourney create(final CassandraSessionProvider cassandraSessionProvider) {
+    // journeys run when a tenant gets provisioned, a descriptor cached before, even a missing one, is outdated
+    cassandraSessionProvider.invalidateTenant(TenantContextHolder.checkedGetIdentifier());
     final CassandraJourney cassandraJourney = new CassandraJourney(
         this.logger, this.applicationName, cassandraSessionProvider.getTenantSession()
     );
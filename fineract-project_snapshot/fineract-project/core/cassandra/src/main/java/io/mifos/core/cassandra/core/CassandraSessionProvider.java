@@ -29,14 +29,20 @@ import io.mifos.core.cassandra.util.ContactPointUtils;
 import io.mifos.core.cassandra.util.LocalDateTimeCodec;
 import io.mifos.core.lang.ServiceException;
 import io.mifos.core.lang.TenantContextHolder;
+import io.mifos.core.lang.TenantGenerations;
 import org.slf4j.Logger;
 import org.springframework.core.env.Environment;
 import org.springframework.util.Assert;
 
 import javax.annotation.Nonnull;
 import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
 
 @SuppressWarnings("WeakerAccess")
 public class CassandraSessionProvider {
@@ -45,11 +51,17 @@ public class CassandraSessionProvider {
   private final Logger logger;
   private final ConcurrentHashMap<String, Cluster> clusterCache;
   private final ConcurrentHashMap<String, Session> sessionCache;
+  private final ConcurrentHashMap<String, TenantSession> tenantSessionCache;
+  private final TenantGenerations tenantGenerations;
+  private final List<Consumer<String>> invalidationListeners;
+  private final long tenantCacheTtl;
+  private final long tenantCacheNegativeTtl;
   private final StampedLock mapperLock = new StampedLock();
   private String adminClusterName;
   private String adminContactPoints;
   private String adminKeyspace;
-  private MappingManager adminSessionMappingManager;
+  private volatile MappingManager adminSessionMappingManager;
+  private volatile Mapper<Tenant> tenantInfoMapper;
 
   public CassandraSessionProvider(@Nonnull final Environment env, @Nonnull final Logger logger) {
     super();
@@ -59,6 +71,15 @@ public class CassandraSessionProvider {
     this.logger = logger;
     this.clusterCache = new ConcurrentHashMap<>();
     this.sessionCache = new ConcurrentHashMap<>();
+    this.tenantSessionCache = new ConcurrentHashMap<>();
+    this.tenantGenerations = new TenantGenerations();
+    this.invalidationListeners = new CopyOnWriteArrayList<>();
+    this.tenantCacheTtl = TimeUnit.SECONDS.toNanos(Long.valueOf(
+        env.getProperty(CassandraConnectorConstants.TENANT_CACHE_TTL_PROP,
+            CassandraConnectorConstants.TENANT_CACHE_TTL_PROP_DEFAULT)));
+    this.tenantCacheNegativeTtl = TimeUnit.SECONDS.toNanos(Long.valueOf(
+        env.getProperty(CassandraConnectorConstants.TENANT_CACHE_NEGATIVE_TTL_PROP,
+            CassandraConnectorConstants.TENANT_CACHE_NEGATIVE_TTL_PROP_DEFAULT)));
   }
 
   public void setAdminClusterName(@Nonnull final String adminClusterName) {
@@ -117,13 +138,54 @@ public class CassandraSessionProvider {
     Assert.notNull(identifier, "A tenant identifier must be given.");
     Assert.hasText(identifier, "A tenant identifier must be given.");
 
-    final Mapper<Tenant> tenantInfoMapper = this.getAdminSessionMappingManager().mapper(Tenant.class);
-    tenantInfoMapper.setDefaultDeleteOptions(OptionProvider.deleteConsistencyLevel(this.env));
-    tenantInfoMapper.setDefaultGetOptions(OptionProvider.readConsistencyLevel(this.env));
-    tenantInfoMapper.setDefaultSaveOptions(OptionProvider.writeConsistencyLevel(this.env));
-    final Tenant tenantInfo = tenantInfoMapper.get(identifier);
-    if (tenantInfo == null) throw ServiceException.notFound("Tenant [" + identifier + "] unknown.");
-    return this.getSession(tenantInfo.getClusterName(), tenantInfo.getContactPoints(), tenantInfo.getKeyspace());
+    final long now = System.nanoTime();
+    TenantSession tenantSession = this.tenantSessionCache.get(identifier);
+    if (tenantSession == null || tenantSession.isExpired(now)) {
+      final long generationBeforeLoad = this.tenantGenerations.current(identifier);
+      final Tenant tenantInfo = this.getTenantInfoMapper().get(identifier);
+      final TenantSession loadedTenantSession;
+      if (tenantInfo == null) {
+        loadedTenantSession = new TenantSession(null, now + this.tenantCacheNegativeTtl);
+      } else {
+        loadedTenantSession = new TenantSession(
+            this.getSession(tenantInfo.getClusterName(), tenantInfo.getContactPoints(), tenantInfo.getKeyspace()),
+            now + this.tenantCacheTtl);
+      }
+      this.tenantSessionCache.compute(identifier, (key, currentTenantSession) ->
+          this.tenantGenerations.isCurrent(identifier, generationBeforeLoad) ? loadedTenantSession : currentTenantSession);
+      tenantSession = loadedTenantSession;
+    }
+
+    if (tenantSession.session == null) throw ServiceException.notFound("Tenant [" + identifier + "] unknown.");
+    return tenantSession.session;
+  }
+
+  /**
+   * Drops the cached tenant descriptor, so the next access reads it from the admin keyspace again. Call this whenever
+   * a tenant gets provisioned, moved, or deleted, to not wait for the cache entry to expire.
+   */
+  public void invalidateTenant(@Nonnull final String identifier) {
+    Assert.notNull(identifier, "A tenant identifier must be given.");
+    this.tenantGenerations.advance(identifier);
+    this.tenantSessionCache.remove(identifier);
+    this.invalidationListeners.forEach(listener -> listener.accept(identifier));
+  }
+
+  public void invalidateTenants() {
+    final List<String> identifiers = new ArrayList<>(this.tenantSessionCache.keySet());
+    this.tenantGenerations.advanceAll();
+    this.tenantSessionCache.clear();
+    identifiers.forEach(identifier ->
+        this.invalidationListeners.forEach(listener -> listener.accept(identifier)));
+  }
+
+  /**
+   * Registers a listener getting the identifier of every tenant invalidated, so caches built on top of a tenant
+   * session can be dropped along with it.
+   */
+  public void addInvalidationListener(@Nonnull final Consumer<String> listener) {
+    Assert.notNull(listener, "A listener must be given.");
+    this.invalidationListeners.add(listener);
   }
 
   @Nonnull
@@ -186,6 +248,27 @@ public class CassandraSessionProvider {
     return this.adminSessionMappingManager;
   }
 
+  @Nonnull
+  private Mapper<Tenant> getTenantInfoMapper() {
+    if (this.tenantInfoMapper == null) {
+      final MappingManager mappingManager = this.getAdminSessionMappingManager();
+      final long lockStamp = this.mapperLock.writeLock();
+      try {
+        if (this.tenantInfoMapper == null) {
+          final Mapper<Tenant> mapper = mappingManager.mapper(Tenant.class);
+          mapper.setDefaultDeleteOptions(OptionProvider.deleteConsistencyLevel(this.env));
+          mapper.setDefaultGetOptions(OptionProvider.readConsistencyLevel(this.env));
+          mapper.setDefaultSaveOptions(OptionProvider.writeConsistencyLevel(this.env));
+          this.tenantInfoMapper = mapper;
+        }
+      } finally {
+        this.mapperLock.unlockWrite(lockStamp);
+      }
+    }
+
+    return this.tenantInfoMapper;
+  }
+
   public void touchAdminSession() {
     this.getAdminSession();
   }
@@ -194,10 +277,28 @@ public class CassandraSessionProvider {
   private void cleanUp() {
     this.logger.info("Clean up cluster connections.");
 
+    this.tenantSessionCache.clear();
+
     this.sessionCache.values().forEach(Session::close);
     this.sessionCache.clear();
 
     this.clusterCache.values().forEach(Cluster::close);
     this.clusterCache.clear();
   }
+
+  private static final class TenantSession {
+
+    private final Session session;
+    private final long expiresAt;
+
+    private TenantSession(final Session session, final long expiresAt) {
+      super();
+      this.session = session;
+      this.expiresAt = expiresAt;
+    }
+
+    private boolean isExpired(final long now) {
+      return now - this.expiresAt >= 0L;
+    }
+  }
 }
@@ -19,6 +19,7 @@ import com.datastax.driver.core.Session;
 import com.datastax.driver.mapping.Mapper;
 import com.datastax.driver.mapping.MappingManager;
 import io.mifos.core.lang.TenantContextHolder;
+import io.mifos.core.lang.TenantGenerations;
 import org.slf4j.Logger;
 import org.springframework.core.env.Environment;
 import org.springframework.util.Assert;
@@ -31,7 +32,8 @@ public class TenantAwareCassandraMapperProvider {
   private final Environment env;
   private final Logger logger;
   private final CassandraSessionProvider cassandraSessionProvider;
-  private final ConcurrentHashMap<String, MappingManager> managerCache;
+  private final ConcurrentHashMap<String, TenantMappers> mapperCache;
+  private final TenantGenerations tenantGenerations;
 
   public TenantAwareCassandraMapperProvider(@Nonnull final Environment env, @Nonnull final Logger logger,
                                             @Nonnull final CassandraSessionProvider cassandraSessionProvider) {
@@ -42,7 +44,9 @@ public class TenantAwareCassandraMapperProvider {
     this.env = env;
     this.logger = logger;
     this.cassandraSessionProvider = cassandraSessionProvider;
-    this.managerCache = new ConcurrentHashMap<>();
+    this.mapperCache = new ConcurrentHashMap<>();
+    this.tenantGenerations = new TenantGenerations();
+    this.cassandraSessionProvider.addInvalidationListener(this::invalidate);
   }
 
   @SuppressWarnings("WeakerAccess")
@@ -57,27 +61,70 @@ public class TenantAwareCassandraMapperProvider {
     }
   }
 
-  @SuppressWarnings("WeakerAccess")
+  @SuppressWarnings({"WeakerAccess", "unchecked"})
   @Nonnull
   public <T> Mapper<T> getMapper(@Nonnull final String identifier, @Nonnull final Class<T> type) {
     Assert.notNull(identifier, "A tenant identifier must be given.");
-    Assert.hasText(identifier, "A tenant identifier must be given.");
     Assert.notNull(type, "A type must be given.");
 
-    this.managerCache.computeIfAbsent(identifier, (key) -> {
-      this.logger.info("Create new mapping mapper for tenant [" + identifier + "] and type [" + type.getSimpleName() + "].");
-      final Session session = this.cassandraSessionProvider.getTenantSession(identifier);
+    TenantMappers tenantMappers = this.mapperCache.get(identifier);
+    if (tenantMappers != null) {
+      final Mapper<?> mapper = tenantMappers.mappers.get(type);
+      if (mapper != null) {
+        return (Mapper<T>) mapper;
+      }
+    }
 
-      final MappingManager mappingManager = new MappingManager(session);
+    Assert.hasText(identifier, "A tenant identifier must be given.");
+
+    if (tenantMappers == null) {
+      // the session is looked up outside of the cache, and the mappers built on it are only kept if the tenant was not
+      // invalidated meanwhile
+      final long generationBeforeLoad = this.tenantGenerations.current(identifier);
+      this.logger.info("Create new mapping manager for tenant [" + identifier + "].");
+      final Session session = this.cassandraSessionProvider.getTenantSession(identifier);
+      final TenantMappers loadedTenantMappers = new TenantMappers(new MappingManager(session));
+      tenantMappers = this.mapperCache.compute(identifier, (key, currentTenantMappers) -> {
+        if (!this.tenantGenerations.isCurrent(identifier, generationBeforeLoad)) {
+          return currentTenantMappers;
+        }
+        return currentTenantMappers != null ? currentTenantMappers : loadedTenantMappers;
+      });
+      if (tenantMappers == null) {
+        tenantMappers = loadedTenantMappers;
+      }
+    }
 
+    final MappingManager mappingManager = tenantMappers.mappingManager;
+    return (Mapper<T>) tenantMappers.mappers.computeIfAbsent(type, (key) -> {
+      this.logger.info("Create new mapper for tenant [" + identifier + "] and type [" + type.getSimpleName() + "].");
       final Mapper<T> typedMapper = mappingManager.mapper(type);
       typedMapper.setDefaultDeleteOptions(OptionProvider.deleteConsistencyLevel(this.env));
       typedMapper.setDefaultGetOptions(OptionProvider.readConsistencyLevel(this.env));
       typedMapper.setDefaultSaveOptions(OptionProvider.writeConsistencyLevel(this.env));
-
-      return mappingManager;
+      return typedMapper;
     });
+  }
+
+  /**
+   * Drops all mappers of the given tenant, e.g. after the tenant was deprovisioned or its keyspace was moved. Gets
+   * called whenever the session of the tenant is invalidated.
+   */
+  public void invalidate(@Nonnull final String identifier) {
+    Assert.notNull(identifier, "A tenant identifier must be given.");
+    this.tenantGenerations.advance(identifier);
+    this.mapperCache.remove(identifier);
+  }
+
+  private static final class TenantMappers {
 
-    return this.managerCache.get(identifier).mapper(type);
+    private final MappingManager mappingManager;
+    private final ConcurrentHashMap<Class<?>, Mapper<?>> mappers;
+
+    private TenantMappers(final MappingManager mappingManager) {
+      super();
+      this.mappingManager = mappingManager;
+      this.mappers = new ConcurrentHashMap<>();
+    }
   }
 }
@@ -15,16 +15,31 @@
  */
 package io.mifos.core.cassandra.core;
 
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.CodecRegistry;
+import com.datastax.driver.core.ProtocolVersion;
 import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Session;
 import com.datastax.driver.core.Statement;
 import com.datastax.driver.mapping.Mapper;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 import javax.annotation.Nonnull;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public class TenantAwareEntityTemplate {
 
+  private static final int MAX_BATCH_SIZE = 100;
+
   private final CassandraSessionProvider cassandraSessionProvider;
   private final TenantAwareCassandraMapperProvider tenantAwareCassandraMapperProvider;
 
@@ -41,6 +56,68 @@ public class TenantAwareEntityTemplate {
     mapper.save(entity);
   }
 
+  @SuppressWarnings("unchecked")
+  @Nonnull
+  public <T> CompletableFuture<Void> saveAsync(final T entity) {
+    final Mapper<T> mapper = this.tenantAwareCassandraMapperProvider.getMapper((Class<T>) entity.getClass());
+    return TenantAwareEntityTemplate.toCompletableFuture(mapper.saveAsync(entity));
+  }
+
+  /**
+   * Saves all given entities of one type. Entities sharing a partition are grouped into unlogged batches, so each
+   * batch can be routed directly to a replica owning that partition, and all batches are sent concurrently.
+   */
+  @SuppressWarnings("unchecked")
+  @Nonnull
+  public <T> CompletableFuture<Void> saveAll(@Nonnull final Collection<T> entities) {
+    if (entities.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    final Session session = this.cassandraSessionProvider.getTenantSession();
+    final ProtocolVersion protocolVersion =
+        session.getCluster().getConfiguration().getProtocolOptions().getProtocolVersion();
+    final CodecRegistry codecRegistry = session.getCluster().getConfiguration().getCodecRegistry();
+
+    final HashMap<ByteBuffer, List<Statement>> statementsByPartition = new HashMap<>();
+    final ArrayList<Statement> unroutedStatements = new ArrayList<>();
+    for (final T entity : entities) {
+      final Mapper<T> mapper = this.tenantAwareCassandraMapperProvider.getMapper((Class<T>) entity.getClass());
+      final Statement statement = mapper.saveQuery(entity);
+      final ByteBuffer routingKey = statement.getRoutingKey(protocolVersion, codecRegistry);
+      if (routingKey != null) {
+        statementsByPartition.computeIfAbsent(routingKey, key -> new ArrayList<>()).add(statement);
+      } else {
+        unroutedStatements.add(statement);
+      }
+    }
+
+    final ArrayList<CompletableFuture<ResultSet>> futures = new ArrayList<>();
+    statementsByPartition.values().forEach(statements -> {
+      for (int i = 0; i < statements.size(); i += MAX_BATCH_SIZE) {
+        final BatchStatement batchStatement = new BatchStatement(BatchStatement.Type.UNLOGGED);
+        batchStatement.addAll(statements.subList(i, Math.min(i + MAX_BATCH_SIZE, statements.size())));
+        futures.add(TenantAwareEntityTemplate.toCompletableFuture(session.executeAsync(batchStatement)));
+      }
+    });
+    unroutedStatements.forEach(statement ->
+        futures.add(TenantAwareEntityTemplate.toCompletableFuture(session.executeAsync(statement))));
+
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()]));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Nonnull
+  public <T> Statement saveQuery(final T entity) {
+    final Mapper<T> mapper = this.tenantAwareCassandraMapperProvider.getMapper((Class<T>) entity.getClass());
+    return mapper.saveQuery(entity);
+  }
+
+  @Nonnull
+  public ResultSetFuture executeAsync(@Nonnull final String identifier, @Nonnull final Statement statement) {
+    return this.cassandraSessionProvider.getTenantSession(identifier).executeAsync(statement);
+  }
+
   @Nonnull
   public <T> Optional<T> findById(final Class<T> type, final Object... identifier) {
     final Mapper<T> mapper = this.tenantAwareCassandraMapperProvider.getMapper(type);
@@ -48,6 +125,12 @@ public class TenantAwareEntityTemplate {
   }
 
 
+  @Nonnull
+  public <T> CompletableFuture<Optional<T>> findByIdAsync(final Class<T> type, final Object... identifier) {
+    final Mapper<T> mapper = this.tenantAwareCassandraMapperProvider.getMapper(type);
+    return TenantAwareEntityTemplate.toCompletableFuture(mapper.getAsync(identifier)).thenApply(Optional::ofNullable);
+  }
+
   @Nonnull
   public <T> List<T> fetchByKeys(final Class<T> type, final Object... keys) {
     final Mapper<T> mapper = this.tenantAwareCassandraMapperProvider.getMapper(type);
@@ -56,9 +139,43 @@ public class TenantAwareEntityTemplate {
     return mapper.map(resultSet).all();
   }
 
+  /**
+   * Mapping happens off the driver's I/O threads, since fetching further pages of a large result blocks.
+   */
+  @Nonnull
+  public <T> CompletableFuture<List<T>> fetchByKeysAsync(final Class<T> type, final Object... keys) {
+    final Mapper<T> mapper = this.tenantAwareCassandraMapperProvider.getMapper(type);
+    final Statement query = mapper.getQuery(keys);
+    return TenantAwareEntityTemplate.toCompletableFuture(this.cassandraSessionProvider.getTenantSession().executeAsync(query))
+        .thenApplyAsync(resultSet -> mapper.map(resultSet).all());
+  }
+
+  @Nonnull
+  public <T> List<T> map(final Class<T> type, final ResultSet resultSet) {
+    final Mapper<T> mapper = this.tenantAwareCassandraMapperProvider.getMapper(type);
+    return mapper.map(resultSet).all();
+  }
+
   @SuppressWarnings("unchecked")
   public <T> void delete(final T entity) {
     final Mapper<T> mapper = this.tenantAwareCassandraMapperProvider.getMapper((Class<T>) entity.getClass());
     mapper.delete(entity);
   }
+
+  @Nonnull
+  public static <V> CompletableFuture<V> toCompletableFuture(@Nonnull final ListenableFuture<V> listenableFuture) {
+    final CompletableFuture<V> completableFuture = new CompletableFuture<>();
+    Futures.addCallback(listenableFuture, new FutureCallback<V>() {
+      @Override
+      public void onSuccess(final V result) {
+        completableFuture.complete(result);
+      }
+
+      @Override
+      public void onFailure(@Nonnull final Throwable throwable) {
+        completableFuture.completeExceptionally(throwable);
+      }
+    });
+    return completableFuture;
+  }
 }
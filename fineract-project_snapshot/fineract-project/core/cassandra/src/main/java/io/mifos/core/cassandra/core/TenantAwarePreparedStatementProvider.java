@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.core.cassandra.core;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Session;
+import io.mifos.core.lang.TenantContextHolder;
+import io.mifos.core.lang.TenantGenerations;
+import org.slf4j.Logger;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Prepares every CQL statement once per tenant and hands out the cached {@link PreparedStatement} on subsequent
+ * calls. Prepared statements carry their partition key metadata, so bound statements created from them are routed
+ * token-aware. The statements of a tenant are dropped whenever its session is invalidated.
+ */
+public class TenantAwarePreparedStatementProvider {
+
+  private final Logger logger;
+  private final CassandraSessionProvider cassandraSessionProvider;
+  private final ConcurrentHashMap<String, ConcurrentHashMap<String, PreparedStatement>> statementCache;
+  private final TenantGenerations tenantGenerations;
+
+  public TenantAwarePreparedStatementProvider(@Nonnull final Logger logger,
+                                              @Nonnull final CassandraSessionProvider cassandraSessionProvider) {
+    super();
+    Assert.notNull(logger, "A logger must be given.");
+    Assert.notNull(cassandraSessionProvider, "A Cassandra session provider must be given.");
+    this.logger = logger;
+    this.cassandraSessionProvider = cassandraSessionProvider;
+    this.statementCache = new ConcurrentHashMap<>();
+    this.tenantGenerations = new TenantGenerations();
+    this.cassandraSessionProvider.addInvalidationListener(this::invalidate);
+  }
+
+  @Nonnull
+  public PreparedStatement getPreparedStatement(@Nonnull final String cql) {
+    return this.getPreparedStatement(TenantContextHolder.checkedGetIdentifier(), cql);
+  }
+
+  @Nonnull
+  public PreparedStatement getPreparedStatement(@Nonnull final String identifier, @Nonnull final String cql) {
+    Assert.hasText(identifier, "A tenant identifier must be given.");
+    Assert.hasText(cql, "A statement must be given.");
+
+    final long generationBeforeLoad = this.tenantGenerations.current(identifier);
+    final Session session = this.cassandraSessionProvider.getTenantSession(identifier);
+    final ConcurrentHashMap<String, PreparedStatement> tenantStatements =
+        this.statementCache.computeIfAbsent(identifier, key -> new ConcurrentHashMap<>());
+
+    final PreparedStatement preparedStatement = tenantStatements.get(cql);
+    if (preparedStatement != null) {
+      return preparedStatement;
+    }
+    final PreparedStatement newPreparedStatement = tenantStatements.computeIfAbsent(cql, key -> {
+      this.logger.debug("Prepare statement [{}] for keyspace [{}].", cql, session.getLoggedKeyspace());
+      return session.prepare(cql);
+    });
+    if (!this.tenantGenerations.isCurrent(identifier, generationBeforeLoad)) {
+      // prepared on a session which was invalidated meanwhile
+      this.statementCache.remove(identifier, tenantStatements);
+    }
+    return newPreparedStatement;
+  }
+
+  /**
+   * Drops all prepared statements of the given tenant, e.g. after its keyspace was moved. Gets called whenever the
+   * session of the tenant is invalidated.
+   */
+  public void invalidate(@Nonnull final String identifier) {
+    Assert.notNull(identifier, "A tenant identifier must be given.");
+    this.tenantGenerations.advance(identifier);
+    this.statementCache.remove(identifier);
+  }
+}
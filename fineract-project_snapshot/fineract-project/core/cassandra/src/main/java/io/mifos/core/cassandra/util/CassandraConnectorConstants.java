@@ -41,4 +41,9 @@ public interface CassandraConnectorConstants {
 
   String DEFAULT_REPLICATION_TYPE_DEFAULT = "Simple";
   String DEFAULT_REPLICATION_REPLICAS_DEFAULT = "1";
+
+  String TENANT_CACHE_TTL_PROP = "cassandra.tenant.cache.ttl";
+  String TENANT_CACHE_TTL_PROP_DEFAULT = "300";
+  String TENANT_CACHE_NEGATIVE_TTL_PROP = "cassandra.tenant.cache.negativeTtl";
+  String TENANT_CACHE_NEGATIVE_TTL_PROP_DEFAULT = "5";
 }
@@ -17,6 +17,8 @@ package io.mifos.core.command.config;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import io.mifos.core.command.internal.CommandMetrics;
+import io.mifos.core.command.internal.CommandMetricsEndpoint;
 import io.mifos.core.command.util.CommandConstants;
 import io.mifos.core.lang.ApplicationName;
 import io.mifos.core.lang.config.EnableApplicationName;
@@ -26,6 +28,7 @@ import org.apache.activemq.spring.ActiveMQConnectionFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
@@ -95,4 +98,14 @@ public class CommandModuleConfiguration {
     jmsTemplate.setDefaultDestination(activeMQTopic);
     return jmsTemplate;
   }
+
+  @Configuration
+  @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.AbstractEndpoint")
+  public static class CommandMetricsEndpointConfiguration {
+
+    @Bean
+    public CommandMetricsEndpoint commandMetricsEndpoint(final CommandMetrics commandMetrics) {
+      return new CommandMetricsEndpoint(commandMetrics);
+    }
+  }
 }
@@ -18,6 +18,9 @@ package io.mifos.core.command.domain;
 import io.mifos.core.command.annotation.EventEmitter;
 import io.mifos.core.lang.TenantContextHolder;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.function.Consumer;
 
@@ -25,6 +28,7 @@ public final class CommandHandlerHolder {
 
   private final Object aggregate;
   private final Method method;
+  private final MethodHandle methodHandle;
   private final EventEmitter eventEmitter;
   private final Class<?>[] exceptionTypes;
   private final Consumer<Object> logStart;
@@ -37,6 +41,7 @@ public final class CommandHandlerHolder {
     super();
     this.aggregate = aggregate;
     this.method = method;
+    this.methodHandle = CommandHandlerHolder.createMethodHandle(aggregate, method);
     this.eventEmitter = eventEmitter;
     this.exceptionTypes = exceptionTypes;
     this.logStart = logStart;
@@ -51,6 +56,15 @@ public final class CommandHandlerHolder {
     return method;
   }
 
+  /**
+   * Invokes the command handler through a method handle bound to the aggregate. Unlike {@link Method#invoke}, this
+   * neither performs access checks per call nor wraps exceptions thrown by the handler, so callers will see the
+   * handler's exception as is.
+   */
+  public Object invoke(final Object command) throws Throwable {
+    return (Object) this.methodHandle.invokeExact(command);
+  }
+
   public EventEmitter eventEmitter() {
     return eventEmitter;
   }
@@ -68,4 +82,16 @@ public final class CommandHandlerHolder {
   public void logFinish(final Object command) {
     logFinish.accept(command);
   }
+
+  private static MethodHandle createMethodHandle(final Object aggregate, final Method method) {
+    try {
+      method.setAccessible(true);
+      return MethodHandles.lookup()
+          .unreflect(method)
+          .bindTo(aggregate)
+          .asType(MethodType.methodType(Object.class, Object.class));
+    } catch (final IllegalAccessException ex) {
+      throw new IllegalStateException("Could not access command handler " + method.getName() + ".", ex);
+    }
+  }
 }
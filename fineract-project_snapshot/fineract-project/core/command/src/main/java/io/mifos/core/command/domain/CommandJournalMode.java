@@ -0,0 +1,33 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.core.command.domain;
+
+public enum CommandJournalMode {
+  /**
+   * Every command source is written synchronously before the command is handled, and again once it was processed.
+   */
+  SYNC,
+  /**
+   * Command sources are buffered per tenant and flushed periodically. Callers wait until the flush containing their
+   * entry completed, so many concurrent commands share the same round-trips.
+   */
+  GROUP_COMMIT,
+  /**
+   * Command sources are buffered per tenant and flushed periodically. Callers do not wait for the flush, so entries
+   * may be lost if the service dies before the buffer was drained.
+   */
+  FIRE_AND_FORGET
+}
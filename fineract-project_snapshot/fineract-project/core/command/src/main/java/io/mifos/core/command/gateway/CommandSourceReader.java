@@ -0,0 +1,99 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.core.command.gateway;
+
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import io.mifos.core.cassandra.core.TenantAwareEntityTemplate;
+import io.mifos.core.command.internal.CommandSourceBucketing;
+import io.mifos.core.command.repository.CommandSource;
+import io.mifos.core.command.util.CommandConstants;
+import io.mifos.core.lang.TenantContextHolder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Reads the command sources of this service for a time window, e.g. to replay or audit them. All buckets of the
+ * window are queried in parallel, with at most the configured number of queries in flight at once.
+ */
+@Service
+public class CommandSourceReader {
+
+  private final Environment environment;
+  private final TenantAwareEntityTemplate tenantAwareEntityTemplate;
+  private final CommandSourceBucketing commandSourceBucketing;
+  private final int readConcurrency;
+
+  @Autowired
+  public CommandSourceReader(final Environment environment,
+                             @SuppressWarnings("SpringJavaAutowiringInspection") final TenantAwareEntityTemplate tenantAwareEntityTemplate,
+                             final CommandSourceBucketing commandSourceBucketing) {
+    super();
+    this.environment = environment;
+    this.tenantAwareEntityTemplate = tenantAwareEntityTemplate;
+    this.commandSourceBucketing = commandSourceBucketing;
+    this.readConcurrency = Integer.valueOf(
+        environment.getProperty(
+            CommandConstants.COMMAND_SOURCE_READ_CONCURRENCY_PROP,
+            CommandConstants.COMMAND_SOURCE_READ_CONCURRENCY_DEFAULT
+        )
+    );
+  }
+
+  /**
+   * @return all command sources created between from (inclusive) and to (exclusive), ordered by creation time.
+   */
+  public List<CommandSource> fetch(final LocalDateTime from, final LocalDateTime to) {
+    final String identifier = TenantContextHolder.checkedGetIdentifier();
+    final String source = this.environment.getProperty(
+        CommandConstants.APPLICATION_NAME_PROP,
+        CommandConstants.APPLICATION_NAME_DEFAULT
+    );
+    final Date fromDate = Date.from(from.atZone(ZoneId.systemDefault()).toInstant());
+    final Date toDate = Date.from(to.atZone(ZoneId.systemDefault()).toInstant());
+
+    final List<String> buckets = this.commandSourceBucketing.buckets(from, to);
+    final ArrayList<CommandSource> commandSources = new ArrayList<>();
+    final ArrayList<ResultSetFuture> inFlight = new ArrayList<>(this.readConcurrency);
+    for (int i = 0; i < buckets.size(); i += this.readConcurrency) {
+      for (final String bucket : buckets.subList(i, Math.min(i + this.readConcurrency, buckets.size()))) {
+        final Statement query = QueryBuilder.select().all()
+            .from(CommandConstants.COMMAND_SOURCE_TABLE_NAME)
+            .where(QueryBuilder.eq("source", source))
+            .and(QueryBuilder.eq("bucket", bucket))
+            .and(QueryBuilder.gte("created_on", fromDate))
+            .and(QueryBuilder.lt("created_on", toDate));
+        inFlight.add(this.tenantAwareEntityTemplate.executeAsync(identifier, query));
+      }
+      inFlight.forEach(resultSetFuture ->
+          commandSources.addAll(
+              this.tenantAwareEntityTemplate.map(CommandSource.class, resultSetFuture.getUninterruptibly())));
+      inFlight.clear();
+    }
+
+    commandSources.sort(Comparator.comparing(CommandSource::getCreatedOn));
+    return commandSources;
+  }
+}
@@ -16,12 +16,12 @@
 package io.mifos.core.command.internal;
 
 import com.google.gson.Gson;
-import io.mifos.core.cassandra.core.TenantAwareEntityTemplate;
 import io.mifos.core.command.annotation.Aggregate;
 import io.mifos.core.command.annotation.CommandHandler;
 import io.mifos.core.command.annotation.CommandLogLevel;
 import io.mifos.core.command.annotation.EventEmitter;
 import io.mifos.core.command.domain.CommandHandlerHolder;
+import io.mifos.core.command.domain.CommandPhase;
 import io.mifos.core.command.domain.CommandProcessingException;
 import io.mifos.core.command.repository.CommandSource;
 import io.mifos.core.command.util.CommandConstants;
@@ -44,7 +44,6 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.Map;
@@ -58,7 +57,9 @@ public class CommandBus implements ApplicationContextAware {
   private final Environment environment;
   private final Logger logger;
   private final Gson gson;
-  private final TenantAwareEntityTemplate tenantAwareEntityTemplate;
+  private final CommandJournal commandJournal;
+  private final CommandSourceBucketing commandSourceBucketing;
+  private final CommandMetrics commandMetrics;
   private final JmsTemplate jmsTemplate;
 
   private final ConcurrentHashMap<Class, CommandHandlerHolder> cachedCommandHandlers = new ConcurrentHashMap<>();
@@ -68,34 +69,51 @@ public class CommandBus implements ApplicationContextAware {
   public CommandBus(final Environment environment,
                     @Qualifier(CommandConstants.LOGGER_NAME) final Logger logger,
                     @Qualifier(CommandConstants.SERIALIZER) final Gson gson,
-                    @SuppressWarnings("SpringJavaAutowiringInspection") TenantAwareEntityTemplate tenantAwareEntityTemplate,
+                    final CommandJournal commandJournal,
+                    final CommandSourceBucketing commandSourceBucketing,
+                    final CommandMetrics commandMetrics,
                     final JmsTemplate jmsTemplate) {
     super();
     this.environment = environment;
     this.logger = logger;
     this.gson = gson;
-    this.tenantAwareEntityTemplate = tenantAwareEntityTemplate;
+    this.commandJournal = commandJournal;
+    this.commandSourceBucketing = commandSourceBucketing;
+    this.commandMetrics = commandMetrics;
     this.jmsTemplate = jmsTemplate;
   }
 
   @Async
   public <C> void dispatch(final C command) {
     this.logger.debug("CommandBus::dispatch-async called.");
-    final CommandSource commandSource = this.storeCommand(command);
+    final CommandTypeMetrics commandTypeMetrics = this.commandMetrics.of(command.getClass());
+    final CommandSource commandSource = this.storeCommand(command, commandTypeMetrics);
+    long start = 0L;
     CommandHandlerHolder commandHandlerHolder = null;
+    CommandPhase phase = CommandPhase.HANDLE;
     try {
+      start = commandTypeMetrics.start();
       commandHandlerHolder = this.findCommandHandler(command);
       commandHandlerHolder.logStart(command);
 
-      final Object result = commandHandlerHolder.method().invoke(commandHandlerHolder.aggregate(), command);
+      final Object result = commandHandlerHolder.invoke(command);
+      commandTypeMetrics.success(CommandPhase.HANDLE, start);
+
+      phase = CommandPhase.UPDATE;
+      start = commandTypeMetrics.start();
       this.updateCommandSource(commandSource, null);
+      commandTypeMetrics.success(CommandPhase.UPDATE, start);
 
       commandHandlerHolder.logFinish(result);
 
       if (commandHandlerHolder.eventEmitter() != null) {
+        phase = CommandPhase.EVENT;
+        start = commandTypeMetrics.start();
         this.fireEvent(result, commandHandlerHolder.eventEmitter());
+        commandTypeMetrics.success(CommandPhase.EVENT, start);
       }
     } catch (final Throwable th) {
+      commandTypeMetrics.failure(phase, start);
       //noinspection ThrowableResultOfMethodCallIgnored
       this.handle(th, commandSource, (commandHandlerHolder != null ? commandHandlerHolder.exceptionTypes() : null));
     }
@@ -104,25 +122,38 @@ public class CommandBus implements ApplicationContextAware {
   @Async
   public <C, T> Future<T> dispatch(final C command, final Class<T> clazz) throws CommandProcessingException {
     this.logger.debug("CommandBus::dispatch-sync called.");
+    final CommandTypeMetrics commandTypeMetrics = this.commandMetrics.of(command.getClass());
     // store command
-    final CommandSource commandSource = this.storeCommand(command);
+    final CommandSource commandSource = this.storeCommand(command, commandTypeMetrics);
+    long start = 0L;
     CommandHandlerHolder commandHandlerHolder = null;
+    CommandPhase phase = CommandPhase.HANDLE;
     try {
       // find command handling method
+      start = commandTypeMetrics.start();
       commandHandlerHolder = this.findCommandHandler(command);
       commandHandlerHolder.logStart(command);
 
-      final Object result = commandHandlerHolder.method().invoke(commandHandlerHolder.aggregate(), command);
+      final Object result = commandHandlerHolder.invoke(command);
+      commandTypeMetrics.success(CommandPhase.HANDLE, start);
+
+      phase = CommandPhase.UPDATE;
+      start = commandTypeMetrics.start();
       this.updateCommandSource(commandSource, null);
+      commandTypeMetrics.success(CommandPhase.UPDATE, start);
 
       commandHandlerHolder.logFinish(result);
 
       if (commandHandlerHolder.eventEmitter() != null) {
+        phase = CommandPhase.EVENT;
+        start = commandTypeMetrics.start();
         this.fireEvent(result, commandHandlerHolder.eventEmitter());
+        commandTypeMetrics.success(CommandPhase.EVENT, start);
       }
 
       return new AsyncResult<>(clazz.cast(result));
     } catch (final Throwable th) {
+      commandTypeMetrics.failure(phase, start);
       throw this.handle(th, commandSource, (commandHandlerHolder != null ? commandHandlerHolder.exceptionTypes() : null));
     }
   }
@@ -130,7 +161,11 @@ public class CommandBus implements ApplicationContextAware {
   private <C> CommandHandlerHolder findCommandHandler(final C command) {
     this.logger.debug("CommandBus::findCommandHandler called for {}.", command.getClass().getSimpleName());
     final Class<?> commandClass = command.getClass();
-    this.cachedCommandHandlers.computeIfAbsent(commandClass, findHandler -> {
+    final CommandHandlerHolder cachedCommandHandler = this.cachedCommandHandlers.get(commandClass);
+    if (cachedCommandHandler != null) {
+      return cachedCommandHandler;
+    }
+    return this.cachedCommandHandlers.computeIfAbsent(commandClass, findHandler -> {
       final Map<String, Object> aggregates = this.applicationContext.getBeansWithAnnotation(Aggregate.class);
       for (Object aggregate : aggregates.values()) {
         final CommandHandlerHolder commandHandlerHolder = this.getCommandHandlerMethodFromClass(commandClass, aggregate);
@@ -141,7 +176,6 @@ public class CommandBus implements ApplicationContextAware {
       this.logger.info("Could not find command handler for {}.", commandClass.getSimpleName());
       throw new IllegalArgumentException("No command handler found.");
     });
-    return this.cachedCommandHandlers.get(commandClass);
   }
 
   CommandHandlerHolder getCommandHandlerMethodFromClass(final Class<?> commandClass, final Object aggregate) {
@@ -183,6 +217,18 @@ public class CommandBus implements ApplicationContextAware {
     }
   }
 
+  private <C> CommandSource storeCommand(final C command, final CommandTypeMetrics commandTypeMetrics) {
+    final long start = commandTypeMetrics.start();
+    try {
+      final CommandSource commandSource = this.storeCommand(command);
+      commandTypeMetrics.success(CommandPhase.STORE, start);
+      return commandSource;
+    } catch (final RuntimeException ex) {
+      commandTypeMetrics.failure(CommandPhase.STORE, start);
+      throw ex;
+    }
+  }
+
   private <C> CommandSource storeCommand(final C command) {
     this.logger.debug("CommandBus::storeCommand called.");
     final LocalDateTime now = LocalDateTime.now();
@@ -194,11 +240,12 @@ public class CommandBus implements ApplicationContextAware {
             CommandConstants.APPLICATION_NAME_DEFAULT
         )
     );
-    commandSource.setBucket(now.format(DateTimeFormatter.ISO_LOCAL_DATE));
+    final String serializedCommand = this.gson.toJson(command);
+    commandSource.setBucket(this.commandSourceBucketing.bucket(now, serializedCommand));
     commandSource.setCreatedOn(Date.from(now.atZone(ZoneId.systemDefault()).toInstant()));
-    commandSource.setCommand(this.gson.toJson(command));
+    commandSource.setCommand(serializedCommand);
 
-    this.tenantAwareEntityTemplate.save(commandSource);
+    this.commandJournal.write(commandSource);
 
     return commandSource;
   }
@@ -212,7 +259,7 @@ public class CommandBus implements ApplicationContextAware {
       commandSource.setProcessed(Boolean.TRUE);
     }
 
-    this.tenantAwareEntityTemplate.save(commandSource);
+    this.commandJournal.write(commandSource);
   }
 
   private <T> void fireEvent(final T eventPayload, final EventEmitter eventEmitter) {
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.core.command.internal;
+
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Statement;
+import io.mifos.core.cassandra.core.TenantAwareEntityTemplate;
+import io.mifos.core.command.domain.CommandJournalMode;
+import io.mifos.core.command.repository.CommandSource;
+import io.mifos.core.command.util.CommandConstants;
+import io.mifos.core.lang.TenantContextHolder;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persists {@link CommandSource}s either synchronously or, depending on the configured {@link CommandJournalMode},
+ * through a bounded per-tenant buffer that is flushed as a pipeline of asynchronous writes.
+ *
+ * Buffered writes carry a strictly increasing client timestamp taken when they are journaled, so the processed or
+ * failed update of a command source always supersedes its insert, no matter in which order Cassandra receives them.
+ *
+ * Once shut down, the journal writes through, and a write which raced the shutdown into a buffer flushes it itself.
+ * Waiting for a group commit is bounded by the configured write timeout.
+ */
+@Component
+public class CommandJournal {
+
+  private final Logger logger;
+  private final TenantAwareEntityTemplate tenantAwareEntityTemplate;
+  private final CommandJournalMode mode;
+  private final int capacity;
+  private final int batchSize;
+  private final long writeTimeout;
+  private final ConcurrentHashMap<String, ArrayBlockingQueue<JournalEntry>> buffers = new ConcurrentHashMap<>();
+  private final AtomicLong lastTimestamp = new AtomicLong();
+  private final ScheduledExecutorService flusher;
+  private volatile boolean closed;
+
+  @Autowired
+  public CommandJournal(final Environment environment,
+                        @Qualifier(CommandConstants.LOGGER_NAME) final Logger logger,
+                        @SuppressWarnings("SpringJavaAutowiringInspection") final TenantAwareEntityTemplate tenantAwareEntityTemplate) {
+    super();
+    this.logger = logger;
+    this.tenantAwareEntityTemplate = tenantAwareEntityTemplate;
+    this.mode = CommandJournalMode.valueOf(
+        environment.getProperty(
+            CommandConstants.COMMAND_JOURNAL_MODE_PROP,
+            CommandConstants.COMMAND_JOURNAL_MODE_DEFAULT
+        ).toUpperCase()
+    );
+    this.capacity = Integer.valueOf(
+        environment.getProperty(
+            CommandConstants.COMMAND_JOURNAL_CAPACITY_PROP,
+            CommandConstants.COMMAND_JOURNAL_CAPACITY_DEFAULT
+        )
+    );
+    this.batchSize = Integer.valueOf(
+        environment.getProperty(
+            CommandConstants.COMMAND_JOURNAL_BATCH_SIZE_PROP,
+            CommandConstants.COMMAND_JOURNAL_BATCH_SIZE_DEFAULT
+        )
+    );
+    this.writeTimeout = Long.valueOf(
+        environment.getProperty(
+            CommandConstants.COMMAND_JOURNAL_WRITE_TIMEOUT_PROP,
+            CommandConstants.COMMAND_JOURNAL_WRITE_TIMEOUT_DEFAULT
+        )
+    );
+
+    if (this.mode != CommandJournalMode.SYNC) {
+      final long flushInterval = Long.valueOf(
+          environment.getProperty(
+              CommandConstants.COMMAND_JOURNAL_FLUSH_INTERVAL_PROP,
+              CommandConstants.COMMAND_JOURNAL_FLUSH_INTERVAL_DEFAULT
+          )
+      );
+      this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "command-journal-flusher");
+        thread.setDaemon(true);
+        return thread;
+      });
+      this.flusher.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+      this.logger.info("Command journal running in mode {}, flushing every {} ms.", this.mode, flushInterval);
+    } else {
+      this.flusher = null;
+    }
+  }
+
+  public CommandJournalMode mode() {
+    return this.mode;
+  }
+
+  public void write(final CommandSource commandSource) {
+    if (this.mode == CommandJournalMode.SYNC) {
+      this.tenantAwareEntityTemplate.save(commandSource);
+      return;
+    }
+
+    final String identifier = TenantContextHolder.checkedGetIdentifier();
+    final Statement statement = this.tenantAwareEntityTemplate.saveQuery(commandSource);
+    statement.setDefaultTimestamp(this.nextTimestamp());
+
+    if (this.closed) {
+      this.tenantAwareEntityTemplate.executeAsync(identifier, statement).getUninterruptibly();
+      return;
+    }
+
+    final JournalEntry journalEntry = new JournalEntry(statement, this.mode == CommandJournalMode.GROUP_COMMIT);
+    final ArrayBlockingQueue<JournalEntry> buffer =
+        this.buffers.computeIfAbsent(identifier, key -> new ArrayBlockingQueue<>(this.capacity));
+    if (!buffer.offer(journalEntry)) {
+      this.logger.debug("Command journal buffer for tenant {} is full, writing through.", identifier);
+      this.tenantAwareEntityTemplate.executeAsync(identifier, statement).getUninterruptibly();
+      return;
+    }
+
+    if (this.closed) {
+      // the final flush of the shutdown may have passed this buffer already
+      this.flush();
+    }
+
+    if (journalEntry.completion != null) {
+      try {
+        journalEntry.completion.get(this.writeTimeout, TimeUnit.MILLISECONDS);
+      } catch (final InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for command journal flush.", ex);
+      } catch (final ExecutionException ex) {
+        throw new IllegalStateException("Could not journal command source.", ex.getCause());
+      } catch (final TimeoutException ex) {
+        throw new IllegalStateException("Timed out waiting for command journal flush.", ex);
+      }
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (this.flusher == null) {
+      return;
+    }
+
+    this.logger.info("Draining command journal.");
+    this.closed = true;
+    this.flusher.shutdown();
+    try {
+      if (!this.flusher.awaitTermination(30L, TimeUnit.SECONDS)) {
+        this.logger.warn("Command journal flusher did not terminate in time.");
+      }
+    } catch (final InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    this.flush();
+  }
+
+  private void flush() {
+    try {
+      final ArrayList<JournalEntry> journalEntries = new ArrayList<>(this.batchSize);
+      this.buffers.forEach((identifier, buffer) -> {
+        while (buffer.drainTo(journalEntries, this.batchSize) > 0) {
+          this.write(identifier, journalEntries);
+          journalEntries.clear();
+        }
+      });
+    } catch (final Throwable th) {
+      this.logger.warn("Could not flush command journal.", th);
+    }
+  }
+
+  private void write(final String identifier, final ArrayList<JournalEntry> journalEntries) {
+    final ResultSetFuture[] futures = new ResultSetFuture[journalEntries.size()];
+    for (int i = 0; i < futures.length; i++) {
+      try {
+        futures[i] = this.tenantAwareEntityTemplate.executeAsync(identifier, journalEntries.get(i).statement);
+      } catch (final RuntimeException ex) {
+        this.fail(identifier, journalEntries.get(i), ex);
+      }
+    }
+
+    for (int i = 0; i < futures.length; i++) {
+      if (futures[i] == null) {
+        continue;
+      }
+      try {
+        futures[i].getUninterruptibly();
+        if (journalEntries.get(i).completion != null) {
+          journalEntries.get(i).completion.complete(null);
+        }
+      } catch (final RuntimeException ex) {
+        this.fail(identifier, journalEntries.get(i), ex);
+      }
+    }
+  }
+
+  private void fail(final String identifier, final JournalEntry journalEntry, final RuntimeException ex) {
+    this.logger.warn("Could not journal command source for tenant {}.", identifier, ex);
+    if (journalEntry.completion != null) {
+      journalEntry.completion.completeExceptionally(ex);
+    }
+  }
+
+  private long nextTimestamp() {
+    while (true) {
+      final long last = this.lastTimestamp.get();
+      final long next = Math.max(TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis()), last + 1L);
+      if (this.lastTimestamp.compareAndSet(last, next)) {
+        return next;
+      }
+    }
+  }
+
+  private static final class JournalEntry {
+
+    private final Statement statement;
+    private final CompletableFuture<Void> completion;
+
+    private JournalEntry(final Statement statement, final boolean awaitCompletion) {
+      super();
+      this.statement = statement;
+      this.completion = awaitCompletion ? new CompletableFuture<>() : null;
+    }
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.core.command.internal;
+
+import io.mifos.core.command.util.CommandConstants;
+import io.mifos.core.lang.TenantContextHolder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects count, error, and latency figures for every phase of command processing, keyed by tenant and command
+ * type. Latencies are reported in microseconds. Collection is switched off by default, in which case
+ * {@link #of(Class)} hands out a shared no-op instance.
+ */
+@Component
+@ManagedResource(objectName = "io.mifos.core.command:name=CommandMetrics")
+public class CommandMetrics {
+
+  private static final String NO_TENANT = "none";
+
+  private final boolean enabled;
+  private final ConcurrentHashMap<String, ConcurrentHashMap<Class<?>, CommandTypeMetrics>> metrics =
+      new ConcurrentHashMap<>();
+
+  @Autowired
+  public CommandMetrics(final Environment environment) {
+    this(Boolean.valueOf(
+        environment.getProperty(
+            CommandConstants.COMMAND_METRICS_ENABLED_PROP,
+            CommandConstants.COMMAND_METRICS_ENABLED_DEFAULT
+        )
+    ));
+  }
+
+  CommandMetrics(final boolean enabled) {
+    super();
+    this.enabled = enabled;
+  }
+
+  @ManagedAttribute
+  public boolean isEnabled() {
+    return this.enabled;
+  }
+
+  @ManagedOperation
+  public String report() {
+    return this.snapshot().toString();
+  }
+
+  public Map<String, Object> snapshot() {
+    final LinkedHashMap<String, Object> snapshot = new LinkedHashMap<>();
+    this.metrics.forEach((tenant, commandTypeMetrics) -> {
+      final LinkedHashMap<String, Object> tenantSnapshot = new LinkedHashMap<>();
+      commandTypeMetrics.forEach((commandClass, typeMetrics) ->
+          tenantSnapshot.put(commandClass.getSimpleName(), typeMetrics.snapshot()));
+      snapshot.put(tenant, tenantSnapshot);
+    });
+    return snapshot;
+  }
+
+  CommandTypeMetrics of(final Class<?> commandClass) {
+    if (!this.enabled) {
+      return CommandTypeMetrics.DISABLED;
+    }
+
+    final String tenant = TenantContextHolder.identifier().orElse(NO_TENANT);
+    ConcurrentHashMap<Class<?>, CommandTypeMetrics> tenantMetrics = this.metrics.get(tenant);
+    if (tenantMetrics == null) {
+      tenantMetrics = this.metrics.computeIfAbsent(tenant, key -> new ConcurrentHashMap<>());
+    }
+    final CommandTypeMetrics typeMetrics = tenantMetrics.get(commandClass);
+    if (typeMetrics != null) {
+      return typeMetrics;
+    }
+    return tenantMetrics.computeIfAbsent(commandClass, key -> new CommandTypeMetrics(true));
+  }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.core.command.internal;
+
+import org.springframework.boot.actuate.endpoint.AbstractEndpoint;
+
+import java.util.Map;
+
+public class CommandMetricsEndpoint extends AbstractEndpoint<Map<String, Object>> {
+
+  private final CommandMetrics commandMetrics;
+
+  public CommandMetricsEndpoint(final CommandMetrics commandMetrics) {
+    super("commands");
+    this.commandMetrics = commandMetrics;
+  }
+
+  @Override
+  public Map<String, Object> invoke() {
+    return this.commandMetrics.snapshot();
+  }
+}
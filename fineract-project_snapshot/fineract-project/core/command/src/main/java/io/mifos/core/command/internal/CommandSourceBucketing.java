@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.core.command.internal;
+
+import io.mifos.core.command.domain.CommandSourceBucketStrategy;
+import io.mifos.core.command.util.CommandConstants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Determines the partition bucket a command source is written to, and which buckets have to be read for a given
+ * time window. Since the bucket is a plain text column, switching strategies does not require a schema change.
+ * Readers always include the daily buckets so rows written before a switch to {@link CommandSourceBucketStrategy#HOUR}
+ * stay visible.
+ */
+@Component
+public class CommandSourceBucketing {
+
+  private static final DateTimeFormatter HOUR_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH");
+
+  private final CommandSourceBucketStrategy strategy;
+  private final int shards;
+
+  @Autowired
+  public CommandSourceBucketing(final Environment environment) {
+    this(
+        CommandSourceBucketStrategy.valueOf(
+            environment.getProperty(
+                CommandConstants.COMMAND_SOURCE_BUCKETING_PROP,
+                CommandConstants.COMMAND_SOURCE_BUCKETING_DEFAULT
+            ).toUpperCase()
+        ),
+        Integer.valueOf(
+            environment.getProperty(
+                CommandConstants.COMMAND_SOURCE_SHARDS_PROP,
+                CommandConstants.COMMAND_SOURCE_SHARDS_DEFAULT
+            )
+        )
+    );
+  }
+
+  CommandSourceBucketing(final CommandSourceBucketStrategy strategy, final int shards) {
+    super();
+    if (shards < 1) {
+      throw new IllegalArgumentException("At least one shard must be configured.");
+    }
+    this.strategy = strategy;
+    this.shards = shards;
+  }
+
+  public String bucket(final LocalDateTime createdOn, final String command) {
+    switch (this.strategy) {
+      case HOUR:
+        return createdOn.format(HOUR_FORMATTER) + "#" + Math.floorMod(command.hashCode(), this.shards);
+      default:
+      case DAY:
+        return createdOn.format(DateTimeFormatter.ISO_LOCAL_DATE);
+    }
+  }
+
+  /**
+   * @return all buckets which may contain command sources created between from (inclusive) and to (exclusive).
+   */
+  public List<String> buckets(final LocalDateTime from, final LocalDateTime to) {
+    final ArrayList<String> buckets = new ArrayList<>();
+
+    for (LocalDateTime day = from.truncatedTo(ChronoUnit.DAYS); day.isBefore(to); day = day.plusDays(1L)) {
+      buckets.add(day.format(DateTimeFormatter.ISO_LOCAL_DATE));
+    }
+
+    if (this.strategy == CommandSourceBucketStrategy.HOUR) {
+      for (LocalDateTime hour = from.truncatedTo(ChronoUnit.HOURS); hour.isBefore(to); hour = hour.plusHours(1L)) {
+        final String prefix = hour.format(HOUR_FORMATTER) + "#";
+        for (int shard = 0; shard < this.shards; shard++) {
+          buckets.add(prefix + shard);
+        }
+      }
+    }
+
+    return buckets;
+  }
+}
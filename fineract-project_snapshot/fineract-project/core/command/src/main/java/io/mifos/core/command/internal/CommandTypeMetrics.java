@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.core.command.internal;
+
+import io.mifos.core.command.domain.CommandPhase;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency recorders of all phases for one command type of one tenant. Recording is wait-free and does
+ * not allocate; the disabled instance skips even the clock reads.
+ */
+final class CommandTypeMetrics {
+
+  static final CommandTypeMetrics DISABLED = new CommandTypeMetrics(false);
+
+  private static final CommandPhase[] PHASES = CommandPhase.values();
+
+  private final boolean enabled;
+  private final PhaseMetrics[] phaseMetrics;
+
+  CommandTypeMetrics(final boolean enabled) {
+    super();
+    this.enabled = enabled;
+    this.phaseMetrics = new PhaseMetrics[PHASES.length];
+    if (enabled) {
+      for (int i = 0; i < PHASES.length; i++) {
+        this.phaseMetrics[i] = new PhaseMetrics();
+      }
+    }
+  }
+
+  long start() {
+    return this.enabled ? System.nanoTime() : 0L;
+  }
+
+  void success(final CommandPhase phase, final long start) {
+    if (this.enabled) {
+      this.phaseMetrics[phase.ordinal()].record(System.nanoTime() - start, false);
+    }
+  }
+
+  void failure(final CommandPhase phase, final long start) {
+    if (this.enabled) {
+      this.phaseMetrics[phase.ordinal()].record(System.nanoTime() - start, true);
+    }
+  }
+
+  Map<String, Object> snapshot() {
+    final LinkedHashMap<String, Object> snapshot = new LinkedHashMap<>();
+    if (this.enabled) {
+      for (int i = 0; i < PHASES.length; i++) {
+        snapshot.put(PHASES[i].name().toLowerCase(), this.phaseMetrics[i].snapshot());
+      }
+    }
+    return snapshot;
+  }
+
+  private static final class PhaseMetrics {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final Recorder recorder = new Recorder(3);
+    private final Histogram accumulated = new Histogram(3);
+    private Histogram interval;
+
+    private void record(final long nanos, final boolean failed) {
+      this.count.increment();
+      if (failed) {
+        this.errors.increment();
+      }
+      this.recorder.recordValue(Math.max(0L, nanos));
+    }
+
+    private synchronized Map<String, Object> snapshot() {
+      this.interval = this.recorder.getIntervalHistogram(this.interval);
+      this.accumulated.add(this.interval);
+
+      final LinkedHashMap<String, Object> snapshot = new LinkedHashMap<>();
+      snapshot.put("count", this.count.sum());
+      snapshot.put("errors", this.errors.sum());
+      snapshot.put("p50", toMicros(this.accumulated.getValueAtPercentile(50.0D)));
+      snapshot.put("p99", toMicros(this.accumulated.getValueAtPercentile(99.0D)));
+      snapshot.put("p999", toMicros(this.accumulated.getValueAtPercentile(99.9D)));
+      snapshot.put("max", toMicros(this.accumulated.getMaxValue()));
+      return snapshot;
+    }
+
+    private static long toMicros(final long nanos) {
+      return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+  }
+}
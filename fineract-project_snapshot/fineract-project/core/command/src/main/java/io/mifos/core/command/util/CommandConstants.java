@@ -28,4 +28,25 @@ public interface CommandConstants {
   String ACTIVEMQ_BROKER_URL_DEFAULT = "vm://localhost?broker.persistent=false";
   String ACTIVEMQ_CONCURRENCY_PROP = "activemq.concurrency";
   String ACTIVEMQ_CONCURRENCY_DEFAULT = "3-10";
+
+  String COMMAND_JOURNAL_MODE_PROP = "command.journal.mode";
+  String COMMAND_JOURNAL_MODE_DEFAULT = "SYNC";
+  String COMMAND_JOURNAL_FLUSH_INTERVAL_PROP = "command.journal.flushInterval";
+  String COMMAND_JOURNAL_FLUSH_INTERVAL_DEFAULT = "10";
+  String COMMAND_JOURNAL_CAPACITY_PROP = "command.journal.capacity";
+  String COMMAND_JOURNAL_CAPACITY_DEFAULT = "4096";
+  String COMMAND_JOURNAL_BATCH_SIZE_PROP = "command.journal.batchSize";
+  String COMMAND_JOURNAL_BATCH_SIZE_DEFAULT = "256";
+  String COMMAND_JOURNAL_WRITE_TIMEOUT_PROP = "command.journal.writeTimeout";
+  String COMMAND_JOURNAL_WRITE_TIMEOUT_DEFAULT = "30000";
+
+  String COMMAND_SOURCE_BUCKETING_PROP = "command.source.bucketing";
+  String COMMAND_SOURCE_BUCKETING_DEFAULT = "DAY";
+  String COMMAND_SOURCE_SHARDS_PROP = "command.source.shards";
+  String COMMAND_SOURCE_SHARDS_DEFAULT = "1";
+  String COMMAND_SOURCE_READ_CONCURRENCY_PROP = "command.source.readConcurrency";
+  String COMMAND_SOURCE_READ_CONCURRENCY_DEFAULT = "8";
+
+  String COMMAND_METRICS_ENABLED_PROP = "command.metrics.enabled";
+  String COMMAND_METRICS_ENABLED_DEFAULT = "false";
 }
@@ -22,6 +22,7 @@ import io.mifos.core.command.annotation.Aggregate;
 import io.mifos.core.command.annotation.CommandHandler;
 import io.mifos.core.command.domain.CommandHandlerHolder;
 import io.mifos.core.command.domain.CommandProcessingException;
+import io.mifos.core.command.domain.CommandSourceBucketStrategy;
 import io.mifos.core.command.fixture.DomainAggregate;
 import io.mifos.core.command.fixture.DomainException;
 import io.mifos.core.command.fixture.DomainObject;
@@ -42,6 +43,7 @@ import org.springframework.jms.core.JmsTemplate;
 import org.springframework.jms.core.MessagePostProcessor;
 
 import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.Future;
 
 public class CommandBusTest {
@@ -55,6 +57,15 @@ public class CommandBusTest {
     Mockito.when(mockedEnvironment.getProperty(CommandConstants.APPLICATION_NAME_PROP,
         CommandConstants.APPLICATION_NAME_DEFAULT))
         .thenReturn(CommandConstants.APPLICATION_NAME_DEFAULT);
+    Mockito.when(mockedEnvironment.getProperty(CommandConstants.COMMAND_JOURNAL_MODE_PROP,
+        CommandConstants.COMMAND_JOURNAL_MODE_DEFAULT))
+        .thenReturn(CommandConstants.COMMAND_JOURNAL_MODE_DEFAULT);
+    Mockito.when(mockedEnvironment.getProperty(CommandConstants.COMMAND_JOURNAL_CAPACITY_PROP,
+        CommandConstants.COMMAND_JOURNAL_CAPACITY_DEFAULT))
+        .thenReturn(CommandConstants.COMMAND_JOURNAL_CAPACITY_DEFAULT);
+    Mockito.when(mockedEnvironment.getProperty(CommandConstants.COMMAND_JOURNAL_BATCH_SIZE_PROP,
+        CommandConstants.COMMAND_JOURNAL_BATCH_SIZE_DEFAULT))
+        .thenReturn(CommandConstants.COMMAND_JOURNAL_BATCH_SIZE_DEFAULT);
 
     final Logger mockedLogger = Mockito.mock(Logger.class);
 
@@ -72,11 +83,16 @@ public class CommandBusTest {
     Mockito.when(mockedApplicationContext.getBean(Mockito.eq(DomainAggregate.class)))
         .thenReturn((DomainAggregate) mockedBeans.get(DomainAggregate.class.getSimpleName()));
 
+    final CommandJournal commandJournal =
+        new CommandJournal(mockedEnvironment, mockedLogger, mockedTenantAwareEntityTemplate);
+
+    final CommandMetrics commandMetrics = new CommandMetrics(true);
     final CommandBus commandBus =
-        new CommandBus(mockedEnvironment, mockedLogger, gson, mockedTenantAwareEntityTemplate, mockedJmsTemplate);
+        new CommandBus(mockedEnvironment, mockedLogger, gson, commandJournal,
+            new CommandSourceBucketing(CommandSourceBucketStrategy.DAY, 1), commandMetrics, mockedJmsTemplate);
     commandBus.setApplicationContext(mockedApplicationContext);
 
-    return new TestHarness(commandBus, mockedTenantAwareEntityTemplate, mockedJmsTemplate);
+    return new TestHarness(commandBus, commandMetrics, mockedTenantAwareEntityTemplate, mockedJmsTemplate);
   }
 
   @Test
@@ -146,6 +162,28 @@ public class CommandBusTest {
     Mockito.verify(testHarness.mockedTenantAwareEntityTemplate, Mockito.times(2)).save(Mockito.any(CommandSource.class));
   }
 
+  @SuppressWarnings("unchecked")
+  @Test
+  public void shouldCountFailedStore() {
+    final TestHarness testHarness = createTestHarness();
+    Mockito.doThrow(new IllegalStateException("Journal not available."))
+        .when(testHarness.mockedTenantAwareEntityTemplate).save(Mockito.any(CommandSource.class));
+
+    try {
+      testHarness.commandBus.dispatch(new VoidCommand());
+      Assert.fail();
+    } catch (final IllegalStateException ex) {
+      // do nothing
+    }
+
+    final Map<String, Object> tenantSnapshot = (Map<String, Object>) testHarness.commandMetrics.snapshot().get("none");
+    final Map<String, Object> typeSnapshot = (Map<String, Object>) tenantSnapshot.get(VoidCommand.class.getSimpleName());
+    final Map<String, Object> storeSnapshot = (Map<String, Object>) typeSnapshot.get("store");
+    Assert.assertEquals(1L, storeSnapshot.get("count"));
+    Assert.assertEquals(1L, storeSnapshot.get("errors"));
+    Mockito.verify(testHarness.jmsTemplate, Mockito.times(0)).convertAndSend(Mockito.any(Object.class), Mockito.any(MessagePostProcessor.class));
+  }
+
   @Test()
   public void getCommandHandlerMethodWithoutReturnValue() {
     final TestHarness testHarness = createTestHarness();
@@ -167,13 +205,16 @@ public class CommandBusTest {
   private static class TestHarness {
 
     CommandBus commandBus;
+    CommandMetrics commandMetrics;
     TenantAwareEntityTemplate mockedTenantAwareEntityTemplate;
     JmsTemplate jmsTemplate;
 
     private TestHarness(final CommandBus commandBus,
+                        final CommandMetrics commandMetrics,
                         final TenantAwareEntityTemplate mockedTenantAwareEntityTemplate,
                         final JmsTemplate jmsTemplate) {
       this.commandBus = commandBus;
+      this.commandMetrics = commandMetrics;
       this.mockedTenantAwareEntityTemplate = mockedTenantAwareEntityTemplate;
       this.jmsTemplate = jmsTemplate;
     }
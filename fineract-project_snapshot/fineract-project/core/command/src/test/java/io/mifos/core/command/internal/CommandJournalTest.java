@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.core.command.internal;
+
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Statement;
+import io.mifos.core.cassandra.core.TenantAwareEntityTemplate;
+import io.mifos.core.command.domain.CommandJournalMode;
+import io.mifos.core.command.repository.CommandSource;
+import io.mifos.core.command.util.CommandConstants;
+import io.mifos.core.lang.TenantContextHolder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.springframework.core.env.Environment;
+
+public class CommandJournalTest {
+
+  private static final String TEST_TENANT = "journal_tenant";
+
+  public CommandJournalTest() {
+    super();
+  }
+
+  @Before
+  public void setTenant() {
+    TenantContextHolder.setIdentifier(TEST_TENANT);
+  }
+
+  @After
+  public void clearTenant() {
+    TenantContextHolder.clear();
+  }
+
+  @Test
+  public void shouldWriteThroughInSyncMode() {
+    final TenantAwareEntityTemplate mockedTemplate = Mockito.mock(TenantAwareEntityTemplate.class);
+    final CommandJournal commandJournal = createCommandJournal(CommandJournalMode.SYNC, mockedTemplate);
+
+    commandJournal.write(new CommandSource());
+
+    Mockito.verify(mockedTemplate, Mockito.times(1)).save(Mockito.any(CommandSource.class));
+    Mockito.verify(mockedTemplate, Mockito.never()).executeAsync(Mockito.anyString(), Mockito.any(Statement.class));
+  }
+
+  @Test
+  public void shouldDrainBufferOnShutdown() {
+    final TenantAwareEntityTemplate mockedTemplate = Mockito.mock(TenantAwareEntityTemplate.class);
+    Mockito.when(mockedTemplate.saveQuery(Mockito.any(CommandSource.class)))
+        .thenAnswer(invocation -> Mockito.mock(Statement.class));
+    Mockito.when(mockedTemplate.executeAsync(Mockito.eq(TEST_TENANT), Mockito.any(Statement.class)))
+        .thenAnswer(invocation -> Mockito.mock(ResultSetFuture.class));
+    final CommandJournal commandJournal = createCommandJournal(CommandJournalMode.FIRE_AND_FORGET, mockedTemplate);
+
+    commandJournal.write(new CommandSource());
+    commandJournal.write(new CommandSource());
+    commandJournal.shutdown();
+
+    Assert.assertEquals(CommandJournalMode.FIRE_AND_FORGET, commandJournal.mode());
+    Mockito.verify(mockedTemplate, Mockito.never()).save(Mockito.any(CommandSource.class));
+    Mockito.verify(mockedTemplate, Mockito.times(2)).executeAsync(Mockito.eq(TEST_TENANT), Mockito.any(Statement.class));
+  }
+
+  @Test
+  public void shouldWriteThroughAfterShutdown() {
+    final TenantAwareEntityTemplate mockedTemplate = Mockito.mock(TenantAwareEntityTemplate.class);
+    Mockito.when(mockedTemplate.saveQuery(Mockito.any(CommandSource.class)))
+        .thenAnswer(invocation -> Mockito.mock(Statement.class));
+    Mockito.when(mockedTemplate.executeAsync(Mockito.eq(TEST_TENANT), Mockito.any(Statement.class)))
+        .thenAnswer(invocation -> Mockito.mock(ResultSetFuture.class));
+    final CommandJournal commandJournal = createCommandJournal(CommandJournalMode.GROUP_COMMIT, mockedTemplate);
+
+    commandJournal.shutdown();
+    commandJournal.write(new CommandSource());
+
+    Mockito.verify(mockedTemplate, Mockito.times(1)).executeAsync(Mockito.eq(TEST_TENANT), Mockito.any(Statement.class));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void shouldTimeOutWaitingForGroupCommit() {
+    final TenantAwareEntityTemplate mockedTemplate = Mockito.mock(TenantAwareEntityTemplate.class);
+    Mockito.when(mockedTemplate.saveQuery(Mockito.any(CommandSource.class)))
+        .thenAnswer(invocation -> Mockito.mock(Statement.class));
+    final CommandJournal commandJournal =
+        createCommandJournal(CommandJournalMode.GROUP_COMMIT, mockedTemplate, "50");
+
+    try {
+      commandJournal.write(new CommandSource());
+    } finally {
+      Mockito.verify(mockedTemplate, Mockito.never()).executeAsync(Mockito.anyString(), Mockito.any(Statement.class));
+    }
+  }
+
+  private static CommandJournal createCommandJournal(final CommandJournalMode mode,
+                                                     final TenantAwareEntityTemplate tenantAwareEntityTemplate) {
+    return createCommandJournal(mode, tenantAwareEntityTemplate, CommandConstants.COMMAND_JOURNAL_WRITE_TIMEOUT_DEFAULT);
+  }
+
+  private static CommandJournal createCommandJournal(final CommandJournalMode mode,
+                                                     final TenantAwareEntityTemplate tenantAwareEntityTemplate,
+                                                     final String writeTimeout) {
+    final Environment mockedEnvironment = Mockito.mock(Environment.class);
+    Mockito.when(mockedEnvironment.getProperty(CommandConstants.COMMAND_JOURNAL_MODE_PROP,
+        CommandConstants.COMMAND_JOURNAL_MODE_DEFAULT))
+        .thenReturn(mode.name());
+    Mockito.when(mockedEnvironment.getProperty(CommandConstants.COMMAND_JOURNAL_CAPACITY_PROP,
+        CommandConstants.COMMAND_JOURNAL_CAPACITY_DEFAULT))
+        .thenReturn(CommandConstants.COMMAND_JOURNAL_CAPACITY_DEFAULT);
+    Mockito.when(mockedEnvironment.getProperty(CommandConstants.COMMAND_JOURNAL_BATCH_SIZE_PROP,
+        CommandConstants.COMMAND_JOURNAL_BATCH_SIZE_DEFAULT))
+        .thenReturn(CommandConstants.COMMAND_JOURNAL_BATCH_SIZE_DEFAULT);
+    Mockito.when(mockedEnvironment.getProperty(CommandConstants.COMMAND_JOURNAL_FLUSH_INTERVAL_PROP,
+        CommandConstants.COMMAND_JOURNAL_FLUSH_INTERVAL_DEFAULT))
+        .thenReturn("60000");
+    Mockito.when(mockedEnvironment.getProperty(CommandConstants.COMMAND_JOURNAL_WRITE_TIMEOUT_PROP,
+        CommandConstants.COMMAND_JOURNAL_WRITE_TIMEOUT_DEFAULT))
+        .thenReturn(writeTimeout);
+
+    return new CommandJournal(mockedEnvironment, Mockito.mock(Logger.class), tenantAwareEntityTemplate);
+  }
+}
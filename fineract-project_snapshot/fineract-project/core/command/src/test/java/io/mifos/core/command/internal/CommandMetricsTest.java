@@ -0,0 +1,58 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.core.command.internal;
+
+import io.mifos.core.command.domain.CommandPhase;
+import io.mifos.core.command.fixture.VoidCommand;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+
+public class CommandMetricsTest {
+
+  public CommandMetricsTest() {
+    super();
+  }
+
+  @Test
+  public void shouldHandOutNoOpMetricsWhenDisabled() {
+    final CommandMetrics commandMetrics = new CommandMetrics(false);
+
+    final CommandTypeMetrics commandTypeMetrics = commandMetrics.of(VoidCommand.class);
+    Assert.assertSame(CommandTypeMetrics.DISABLED, commandTypeMetrics);
+    Assert.assertEquals(0L, commandTypeMetrics.start());
+    commandTypeMetrics.success(CommandPhase.HANDLE, 0L);
+    Assert.assertTrue(commandMetrics.snapshot().isEmpty());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void shouldCountPerPhase() {
+    final CommandMetrics commandMetrics = new CommandMetrics(true);
+
+    final CommandTypeMetrics commandTypeMetrics = commandMetrics.of(VoidCommand.class);
+    Assert.assertSame(commandTypeMetrics, commandMetrics.of(VoidCommand.class));
+    commandTypeMetrics.success(CommandPhase.HANDLE, commandTypeMetrics.start());
+    commandTypeMetrics.failure(CommandPhase.HANDLE, commandTypeMetrics.start());
+
+    final Map<String, Object> tenantSnapshot = (Map<String, Object>) commandMetrics.snapshot().get("none");
+    final Map<String, Object> typeSnapshot = (Map<String, Object>) tenantSnapshot.get(VoidCommand.class.getSimpleName());
+    final Map<String, Object> handleSnapshot = (Map<String, Object>) typeSnapshot.get("handle");
+    Assert.assertEquals(2L, handleSnapshot.get("count"));
+    Assert.assertEquals(1L, handleSnapshot.get("errors"));
+  }
+}
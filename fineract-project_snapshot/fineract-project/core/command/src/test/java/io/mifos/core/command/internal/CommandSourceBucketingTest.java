@@ -0,0 +1,55 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.core.command.internal;
+
+import io.mifos.core.command.domain.CommandSourceBucketStrategy;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class CommandSourceBucketingTest {
+
+  public CommandSourceBucketingTest() {
+    super();
+  }
+
+  @Test
+  public void shouldBucketByDay() {
+    final CommandSourceBucketing commandSourceBucketing = new CommandSourceBucketing(CommandSourceBucketStrategy.DAY, 1);
+
+    Assert.assertEquals("2017-03-14",
+        commandSourceBucketing.bucket(LocalDateTime.of(2017, 3, 14, 9, 26), "{}"));
+    Assert.assertEquals(2,
+        commandSourceBucketing.buckets(LocalDateTime.of(2017, 3, 14, 23, 0), LocalDateTime.of(2017, 3, 15, 1, 0)).size());
+  }
+
+  @Test
+  public void shouldBucketByHourAndShard() {
+    final CommandSourceBucketing commandSourceBucketing = new CommandSourceBucketing(CommandSourceBucketStrategy.HOUR, 4);
+
+    final String bucket = commandSourceBucketing.bucket(LocalDateTime.of(2017, 3, 14, 9, 26), "{\"identifier\":\"x\"}");
+    Assert.assertTrue(bucket.startsWith("2017-03-14T09#"));
+
+    final List<String> buckets =
+        commandSourceBucketing.buckets(LocalDateTime.of(2017, 3, 14, 9, 0), LocalDateTime.of(2017, 3, 14, 11, 0));
+    // one legacy day bucket plus two hours with four shards each
+    Assert.assertEquals(9, buckets.size());
+    Assert.assertTrue(buckets.contains("2017-03-14"));
+    Assert.assertTrue(buckets.contains(bucket));
+  }
+}
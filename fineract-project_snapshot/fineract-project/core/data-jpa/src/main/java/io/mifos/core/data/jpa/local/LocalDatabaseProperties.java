@@ -44,6 +44,13 @@ public final class LocalDatabaseProperties {
   }
 
   public static class Pool {
+
+    public enum Type {
+      DBCP2,
+      HIKARI
+    }
+
+    private Type type = Type.DBCP2;
     private int minSize = 5;
     private int maxSize = 20;
     private long waitTime = 60000L;
@@ -52,6 +59,14 @@ public final class LocalDatabaseProperties {
       super();
     }
 
+    public Type getType() {
+      return this.type;
+    }
+
+    public void setType(final Type type) {
+      this.type = type;
+    }
+
     public int getMinSize() {
       return this.minSize;
     }
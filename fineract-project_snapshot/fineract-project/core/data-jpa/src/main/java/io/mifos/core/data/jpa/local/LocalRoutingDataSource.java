@@ -15,6 +15,7 @@
  */
 package io.mifos.core.data.jpa.local;
 
+import com.zaxxer.hikari.HikariDataSource;
 import io.mifos.core.data.jpa.core.MigrationHelper;
 import io.mifos.core.data.jpa.local.repository.DataSourceInstance;
 import io.mifos.core.lang.TenantContextHolder;
@@ -36,7 +37,7 @@ public class LocalRoutingDataSource extends AbstractRoutingDataSource {
   private final Logger logger;
   private final LocalDatabaseProperties localDatabaseProperties;
   private final Map<String, DataSource> cachedDataSources = new ConcurrentHashMap<>();
-  private BasicDataSource managementDataSource;
+  private DataSource managementDataSource;
 
   LocalRoutingDataSource(final Logger logger,
                          final LocalDatabaseProperties localDatabaseProperties) {
@@ -48,28 +49,51 @@ public class LocalRoutingDataSource extends AbstractRoutingDataSource {
   private DataSource getManagementDataSource() {
     if (this.managementDataSource == null) {
       this.logger.debug("Creating management data source.");
-      this.managementDataSource = new BasicDataSource();
-      this.managementDataSource.setDriverClassName(this.localDatabaseProperties.getManagement().getDriverClass());
-      this.managementDataSource.setUrl(this.localDatabaseProperties.getManagement().getUrl());
-
-      final String username = this.localDatabaseProperties.getManagement().getUsername();
-      if (username != null) {
-        this.managementDataSource.setUsername(username);
-      }
-
-      final String password = this.localDatabaseProperties.getManagement().getPassword();
-      if (password != null) {
-        this.managementDataSource.setPassword(password);
-      }
-
-      this.managementDataSource.setInitialSize(this.localDatabaseProperties.getPool().getMinSize());
-      this.managementDataSource.setMaxTotal(this.localDatabaseProperties.getPool().getMaxSize());
-      this.managementDataSource.setMaxWaitMillis(this.localDatabaseProperties.getPool().getWaitTime());
+      this.managementDataSource = this.createDataSource(
+          this.localDatabaseProperties.getManagement().getDriverClass(),
+          this.localDatabaseProperties.getManagement().getUrl(),
+          this.localDatabaseProperties.getManagement().getUsername(),
+          this.localDatabaseProperties.getManagement().getPassword());
     }
     this.logger.debug("Providing management data source.");
     return this.managementDataSource;
   }
 
+  private DataSource createDataSource(final String driverClass, final String url, final String username,
+                                      final String password) {
+    final LocalDatabaseProperties.Pool pool = this.localDatabaseProperties.getPool();
+    switch (pool.getType()) {
+      case HIKARI:
+        final HikariDataSource hikariDataSource = new HikariDataSource();
+        hikariDataSource.setDriverClassName(driverClass);
+        hikariDataSource.setJdbcUrl(url);
+        if (username != null) {
+          hikariDataSource.setUsername(username);
+        }
+        if (password != null) {
+          hikariDataSource.setPassword(password);
+        }
+        hikariDataSource.setMinimumIdle(pool.getMinSize());
+        hikariDataSource.setMaximumPoolSize(pool.getMaxSize());
+        hikariDataSource.setConnectionTimeout(pool.getWaitTime());
+        return hikariDataSource;
+      default:
+        final BasicDataSource basicDataSource = new BasicDataSource();
+        basicDataSource.setDriverClassName(driverClass);
+        basicDataSource.setUrl(url);
+        if (username != null) {
+          basicDataSource.setUsername(username);
+        }
+        if (password != null) {
+          basicDataSource.setPassword(password);
+        }
+        basicDataSource.setInitialSize(pool.getMinSize());
+        basicDataSource.setMaxTotal(pool.getMaxSize());
+        basicDataSource.setMaxWaitMillis(pool.getWaitTime());
+        return basicDataSource;
+    }
+  }
+
   @Override
   protected Object determineCurrentLookupKey() {
     return TenantContextHolder.identifier().orElse(null);
@@ -87,16 +111,8 @@ public class LocalRoutingDataSource extends AbstractRoutingDataSource {
     this.cachedDataSources.computeIfAbsent(dataSourceIdentifierAsString, s -> {
       this.logger.debug("Creating data source for '{}'.", dataSourceIdentifierAsString);
       final DataSourceInstance dataSourceInstanceDetails = this.findDataSourceInstanceDetails(s);
-      final BasicDataSource basicDataSource = new BasicDataSource();
-      basicDataSource.setDriverClassName(dataSourceInstanceDetails.getDriverClass());
-      basicDataSource.setUrl(dataSourceInstanceDetails.getJdbcUrl());
-      basicDataSource.setUsername(dataSourceInstanceDetails.getUsername());
-      basicDataSource.setPassword(dataSourceInstanceDetails.getPassword());
-
-      basicDataSource.setInitialSize(this.localDatabaseProperties.getPool().getMinSize());
-      basicDataSource.setMaxTotal(this.localDatabaseProperties.getPool().getMaxSize());
-      basicDataSource.setMaxWaitMillis(this.localDatabaseProperties.getPool().getWaitTime());
-      return basicDataSource;
+      return this.createDataSource(dataSourceInstanceDetails.getDriverClass(), dataSourceInstanceDetails.getJdbcUrl(),
+          dataSourceInstanceDetails.getUsername(), dataSourceInstanceDetails.getPassword());
     });
     this.logger.debug("Providing data source for '{}'.", dataSourceIdentifierAsString);
     return this.cachedDataSources.get(dataSourceIdentifierAsString);
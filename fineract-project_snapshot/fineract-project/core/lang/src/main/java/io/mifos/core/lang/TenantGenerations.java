@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017 The Mifos Initiative
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.core.lang;
+
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the invalidations of a cache per tenant. A value loaded while its tenant was invalidated may be outdated
+ * already, so it should be returned to its caller, but kept only if the generation read before loading it is still
+ * current afterwards.
+ */
+public final class TenantGenerations {
+
+  private final ConcurrentHashMap<String, AtomicLong> generationsByTenant = new ConcurrentHashMap<>();
+  private final AtomicLong epoch = new AtomicLong();
+
+  public TenantGenerations() {
+    super();
+  }
+
+  public long current(@Nonnull final String tenantIdentifier) {
+    Assert.notNull(tenantIdentifier, "A tenant identifier must be given.");
+    // both counters only grow, so their sum changes with every invalidation, whichever was read first
+    return this.generation(tenantIdentifier).get() + this.epoch.get();
+  }
+
+  public boolean isCurrent(@Nonnull final String tenantIdentifier, final long generation) {
+    return this.current(tenantIdentifier) == generation;
+  }
+
+  public void advance(@Nonnull final String tenantIdentifier) {
+    Assert.notNull(tenantIdentifier, "A tenant identifier must be given.");
+    this.generation(tenantIdentifier).incrementAndGet();
+  }
+
+  public void advanceAll() {
+    this.epoch.incrementAndGet();
+  }
+
+  private AtomicLong generation(final String tenantIdentifier) {
+    return this.generationsByTenant.computeIfAbsent(tenantIdentifier, key -> new AtomicLong());
+  }
+}
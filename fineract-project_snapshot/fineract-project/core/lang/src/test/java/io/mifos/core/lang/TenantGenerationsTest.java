@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017 The Mifos Initiative
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.core.lang;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TenantGenerationsTest {
+
+  public TenantGenerationsTest() {
+    super();
+  }
+
+  @Test
+  public void shouldAdvanceOnlyTheGivenTenant() {
+    final TenantGenerations tenantGenerations = new TenantGenerations();
+    final long generationOne = tenantGenerations.current("one");
+    final long generationTwo = tenantGenerations.current("two");
+
+    tenantGenerations.advance("one");
+
+    Assert.assertFalse(tenantGenerations.isCurrent("one", generationOne));
+    Assert.assertTrue(tenantGenerations.isCurrent("two", generationTwo));
+  }
+
+  @Test
+  public void shouldAdvanceAllTenants() {
+    final TenantGenerations tenantGenerations = new TenantGenerations();
+    final long generationOne = tenantGenerations.current("one");
+    final long generationTwo = tenantGenerations.current("two");
+
+    tenantGenerations.advanceAll();
+
+    Assert.assertFalse(tenantGenerations.isCurrent("one", generationOne));
+    Assert.assertFalse(tenantGenerations.isCurrent("two", generationTwo));
+    Assert.assertTrue(tenantGenerations.isCurrent("three", tenantGenerations.current("three")));
+  }
+}
@@ -16,10 +16,12 @@
 package io.mifos.core.mariadb.config;
 
 
-import com.jolbox.bonecp.BoneCPDataSource;
 import io.mifos.core.lang.ApplicationName;
 import io.mifos.core.lang.config.EnableApplicationName;
+import io.mifos.core.mariadb.domain.BoneCPDataSourceFactory;
 import io.mifos.core.mariadb.domain.FlywayFactoryBean;
+import io.mifos.core.mariadb.domain.HikariDataSourceFactory;
+import io.mifos.core.mariadb.domain.PooledDataSourceFactory;
 import io.mifos.core.mariadb.util.JdbcUrlBuilder;
 import io.mifos.core.mariadb.util.MariaDBConstants;
 import org.slf4j.Logger;
@@ -94,44 +96,57 @@ public class MariaDBJavaConfiguration {
 
   @Bean
   public MetaDataSourceWrapper metaDataSourceWrapper() {
-
-    final BoneCPDataSource boneCPDataSource = new BoneCPDataSource();
-    boneCPDataSource.setDriverClass(
-            this.env.getProperty(MariaDBConstants.MARIADB_DRIVER_CLASS_PROP, MariaDBConstants.MARIADB_DRIVER_CLASS_DEFAULT));
-    boneCPDataSource.setJdbcUrl(JdbcUrlBuilder
+    final PooledDataSourceFactory pooledDataSourceFactory = this.pooledDataSourceFactory();
+    final DataSource metaDataSource = pooledDataSourceFactory.create(
+        this.env.getProperty(MariaDBConstants.MARIADB_DRIVER_CLASS_PROP, MariaDBConstants.MARIADB_DRIVER_CLASS_DEFAULT),
+        JdbcUrlBuilder
             .create(JdbcUrlBuilder.DatabaseType.MARIADB)
             .host(this.env.getProperty(MariaDBConstants.MARIADB_HOST_PROP, MariaDBConstants.MARIADB_HOST_DEFAULT))
             .port(this.env.getProperty(MariaDBConstants.MARIADB_PORT_PROP, MariaDBConstants.MARIADB_PORT_DEFAULT))
             .instanceName(this.env.getProperty(MariaDBConstants.MARIADB_DATABASE_NAME_PROP, MariaDBConstants.MARIADB_DATABASE_NAME_DEFAULT))
-            .build());
-    boneCPDataSource.setUsername(
-            this.env.getProperty(MariaDBConstants.MARIADB_USER_PROP, MariaDBConstants.MARIADB_USER_DEFAULT));
-    boneCPDataSource.setPassword(
-            this.env.getProperty(MariaDBConstants.MARIADB_PASSWORD_PROP, MariaDBConstants.MARIADB_PASSWORD_DEFAULT));
-    boneCPDataSource.setIdleConnectionTestPeriodInMinutes(
-            Long.valueOf(this.env.getProperty(MariaDBConstants.BONECP_IDLE_CONNECTION_TEST_PROP, MariaDBConstants.BONECP_IDLE_CONNECTION_TEST_DEFAULT)));
-    boneCPDataSource.setIdleMaxAgeInMinutes(
-            Long.valueOf(this.env.getProperty(MariaDBConstants.BONECP_IDLE_MAX_AGE_PROP, MariaDBConstants.BONECP_IDLE_MAX_AGE_DEFAULT)));
-    boneCPDataSource.setMaxConnectionsPerPartition(
-            Integer.valueOf(this.env.getProperty(MariaDBConstants.BONECP_MAX_CONNECTION_PARTITION_PROP, MariaDBConstants.BONECP_MAX_CONNECTION_PARTITION_DEFAULT)));
-    boneCPDataSource.setMinConnectionsPerPartition(
-            Integer.valueOf(this.env.getProperty(MariaDBConstants.BONECP_MIN_CONNECTION_PARTITION_PROP, MariaDBConstants.BONECP_MIN_CONNECTION_PARTITION_DEFAULT)));
-    boneCPDataSource.setPartitionCount(
-            Integer.valueOf(this.env.getProperty(MariaDBConstants.BONECP_PARTITION_COUNT_PROP, MariaDBConstants.BONECP_PARTITION_COUNT_DEFAULT)));
-    boneCPDataSource.setAcquireIncrement(
-            Integer.valueOf(this.env.getProperty(MariaDBConstants.BONECP_ACQUIRE_INCREMENT_PROP, MariaDBConstants.BONECP_ACQUIRE_INCREMENT_DEFAULT)));
-    boneCPDataSource.setStatementsCacheSize(
-            Integer.valueOf(this.env.getProperty(MariaDBConstants.BONECP_STATEMENT_CACHE_PROP, MariaDBConstants.BONECP_STATEMENT_CACHE_DEFAULT)));
+            .build(),
+        this.env.getProperty(MariaDBConstants.MARIADB_USER_PROP, MariaDBConstants.MARIADB_USER_DEFAULT),
+        this.env.getProperty(MariaDBConstants.MARIADB_PASSWORD_PROP, MariaDBConstants.MARIADB_PASSWORD_DEFAULT),
+        pooledDataSourceFactory.getMaxConnections());
+    return new MetaDataSourceWrapper(metaDataSource, pooledDataSourceFactory);
+  }
 
-    final Properties driverProperties = new Properties();
-    driverProperties.setProperty("useServerPrepStmts", "false");
-    boneCPDataSource.setDriverProperties(driverProperties);
-    return new MetaDataSourceWrapper(boneCPDataSource);
+  private PooledDataSourceFactory pooledDataSourceFactory() {
+    final long idleConnectionTestPeriodInMinutes =
+        Long.valueOf(this.env.getProperty(MariaDBConstants.BONECP_IDLE_CONNECTION_TEST_PROP, MariaDBConstants.BONECP_IDLE_CONNECTION_TEST_DEFAULT));
+    final long idleMaxAgeInMinutes =
+        Long.valueOf(this.env.getProperty(MariaDBConstants.BONECP_IDLE_MAX_AGE_PROP, MariaDBConstants.BONECP_IDLE_MAX_AGE_DEFAULT));
+    final int maxConnectionsPerPartition =
+        Integer.valueOf(this.env.getProperty(MariaDBConstants.BONECP_MAX_CONNECTION_PARTITION_PROP, MariaDBConstants.BONECP_MAX_CONNECTION_PARTITION_DEFAULT));
+    final int minConnectionsPerPartition =
+        Integer.valueOf(this.env.getProperty(MariaDBConstants.BONECP_MIN_CONNECTION_PARTITION_PROP, MariaDBConstants.BONECP_MIN_CONNECTION_PARTITION_DEFAULT));
+    final int partitionCount =
+        Integer.valueOf(this.env.getProperty(MariaDBConstants.BONECP_PARTITION_COUNT_PROP, MariaDBConstants.BONECP_PARTITION_COUNT_DEFAULT));
+
+    final String poolType = this.env.getProperty(MariaDBConstants.POOL_TYPE_PROP, MariaDBConstants.POOL_TYPE_DEFAULT);
+    switch (poolType.toLowerCase()) {
+      case MariaDBConstants.POOL_TYPE_HIKARI:
+        return new HikariDataSourceFactory(idleMaxAgeInMinutes,
+            Long.valueOf(this.env.getProperty(MariaDBConstants.POOL_MAX_LIFETIME_PROP, MariaDBConstants.POOL_MAX_LIFETIME_DEFAULT)),
+            maxConnectionsPerPartition, minConnectionsPerPartition, partitionCount);
+      case MariaDBConstants.POOL_TYPE_BONECP:
+        return new BoneCPDataSourceFactory(idleConnectionTestPeriodInMinutes, idleMaxAgeInMinutes,
+            maxConnectionsPerPartition, minConnectionsPerPartition, partitionCount,
+            Integer.valueOf(this.env.getProperty(MariaDBConstants.BONECP_ACQUIRE_INCREMENT_PROP, MariaDBConstants.BONECP_ACQUIRE_INCREMENT_DEFAULT)),
+            Integer.valueOf(this.env.getProperty(MariaDBConstants.BONECP_STATEMENT_CACHE_PROP, MariaDBConstants.BONECP_STATEMENT_CACHE_DEFAULT)));
+      default:
+        throw new IllegalArgumentException("Unknown pool type '" + poolType + "'.");
+    }
   }
 
   private Properties additionalProperties() {
     final Properties properties = new Properties();
     properties.setProperty("hibernate.dialect", "org.hibernate.dialect.MySQLDialect");
+    // batching only applies to entities not using identity columns
+    properties.setProperty("hibernate.jdbc.batch_size",
+        this.env.getProperty(MariaDBConstants.JDBC_BATCH_SIZE_PROP, MariaDBConstants.JDBC_BATCH_SIZE_DEFAULT));
+    properties.setProperty("hibernate.order_inserts", "true");
+    properties.setProperty("hibernate.order_updates", "true");
     return properties;
   }
 }
@@ -16,6 +16,7 @@
 package io.mifos.core.mariadb.config;
 
 import io.mifos.core.mariadb.domain.ContextAwareRoutingDataSource;
+import io.mifos.core.mariadb.domain.TenantDataSourcePoolManager;
 import io.mifos.core.mariadb.util.JdbcUrlBuilder;
 import io.mifos.core.mariadb.util.MariaDBConstants;
 import org.slf4j.Logger;
@@ -23,6 +24,7 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
 import javax.sql.DataSource;
 import java.util.HashMap;
@@ -31,11 +33,24 @@ import java.util.HashMap;
 @Configuration
 @ConditionalOnProperty(prefix = "mariadb", name = "enabled", matchIfMissing = true)
 public class MariaDBTenantBasedJavaConfiguration {
+
+  @Bean
+  public TenantDataSourcePoolManager tenantDataSourcePoolManager(@Qualifier(MariaDBConstants.LOGGER_NAME) final Logger logger,
+                                                                 final MetaDataSourceWrapper metaDataSource,
+                                                                 final Environment env) {
+    return new TenantDataSourcePoolManager(logger, JdbcUrlBuilder.DatabaseType.MARIADB,
+        metaDataSource.getMetaDataSource(), metaDataSource.getPooledDataSourceFactory(),
+        Integer.valueOf(env.getProperty(MariaDBConstants.POOL_MAX_TOTAL_CONNECTIONS_PROP, MariaDBConstants.POOL_MAX_TOTAL_CONNECTIONS_DEFAULT)),
+        Long.valueOf(env.getProperty(MariaDBConstants.POOL_IDLE_TIMEOUT_PROP, MariaDBConstants.POOL_IDLE_TIMEOUT_DEFAULT)),
+        Boolean.valueOf(env.getProperty(MariaDBConstants.POOL_SHARE_PER_HOST_PROP, MariaDBConstants.POOL_SHARE_PER_HOST_DEFAULT)));
+  }
+
   @Bean
   public DataSource dataSource(@Qualifier(MariaDBConstants.LOGGER_NAME) final Logger logger,
-                               final MetaDataSourceWrapper metaDataSource) {
+                               final MetaDataSourceWrapper metaDataSource,
+                               final TenantDataSourcePoolManager tenantDataSourcePoolManager) {
 
-    final ContextAwareRoutingDataSource dataSource = new ContextAwareRoutingDataSource(logger, JdbcUrlBuilder.DatabaseType.MARIADB);
+    final ContextAwareRoutingDataSource dataSource = new ContextAwareRoutingDataSource(logger, tenantDataSourcePoolManager);
     dataSource.setMetaDataSource(metaDataSource.getMetaDataSource());
     final HashMap<Object, Object> targetDataSources = new HashMap<>();
     dataSource.setTargetDataSources(targetDataSources);
@@ -15,19 +15,28 @@
  */
 package io.mifos.core.mariadb.config;
 
-import com.jolbox.bonecp.BoneCPDataSource;
+import io.mifos.core.mariadb.domain.PooledDataSourceFactory;
+
+import javax.sql.DataSource;
 
 /**
  * @author Myrle Krantz
  */
 public class MetaDataSourceWrapper {
-  private final BoneCPDataSource metaDataSource;
+  private final DataSource metaDataSource;
+  private final PooledDataSourceFactory pooledDataSourceFactory;
 
-  public MetaDataSourceWrapper(final BoneCPDataSource metaDataSource) {
+  public MetaDataSourceWrapper(final DataSource metaDataSource,
+                               final PooledDataSourceFactory pooledDataSourceFactory) {
     this.metaDataSource = metaDataSource;
+    this.pooledDataSourceFactory = pooledDataSourceFactory;
   }
 
-  BoneCPDataSource getMetaDataSource() {
+  DataSource getMetaDataSource() {
     return metaDataSource;
   }
+
+  PooledDataSourceFactory getPooledDataSourceFactory() {
+    return pooledDataSourceFactory;
+  }
 }
\ No newline at end of file
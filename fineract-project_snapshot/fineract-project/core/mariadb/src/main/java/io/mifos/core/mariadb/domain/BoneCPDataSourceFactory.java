@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.core.mariadb.domain;
+
+import com.jolbox.bonecp.BoneCP;
+import com.jolbox.bonecp.BoneCPDataSource;
+
+import javax.sql.DataSource;
+import java.util.Properties;
+
+public class BoneCPDataSourceFactory implements PooledDataSourceFactory {
+
+  private final long idleConnectionTestPeriodInMinutes;
+  private final long idleMaxAgeInMinutes;
+  private final int maxConnectionsPerPartition;
+  private final int minConnectionsPerPartition;
+  private final int partitionCount;
+  private final int acquireIncrement;
+  private final int statementsCacheSize;
+
+  public BoneCPDataSourceFactory(final long idleConnectionTestPeriodInMinutes,
+                                 final long idleMaxAgeInMinutes,
+                                 final int maxConnectionsPerPartition,
+                                 final int minConnectionsPerPartition,
+                                 final int partitionCount,
+                                 final int acquireIncrement,
+                                 final int statementsCacheSize) {
+    super();
+    this.idleConnectionTestPeriodInMinutes = idleConnectionTestPeriodInMinutes;
+    this.idleMaxAgeInMinutes = idleMaxAgeInMinutes;
+    this.maxConnectionsPerPartition = maxConnectionsPerPartition;
+    this.minConnectionsPerPartition = minConnectionsPerPartition;
+    this.partitionCount = partitionCount;
+    this.acquireIncrement = acquireIncrement;
+    this.statementsCacheSize = statementsCacheSize;
+  }
+
+  @Override
+  public int getMaxConnections() {
+    return this.partitionCount * this.maxConnectionsPerPartition;
+  }
+
+  @Override
+  public DataSource create(final String driverClass, final String jdbcUrl, final String user, final String password,
+                           final int maxConnections) {
+    final int maxConnectionsPerPartition = Math.max(1, maxConnections / this.partitionCount);
+
+    final BoneCPDataSource boneCPDataSource = new BoneCPDataSource();
+    boneCPDataSource.setDriverClass(driverClass);
+    boneCPDataSource.setJdbcUrl(jdbcUrl);
+    boneCPDataSource.setUsername(user);
+    boneCPDataSource.setPassword(password);
+    boneCPDataSource.setIdleConnectionTestPeriodInMinutes(this.idleConnectionTestPeriodInMinutes);
+    boneCPDataSource.setIdleMaxAgeInMinutes(this.idleMaxAgeInMinutes);
+    boneCPDataSource.setMaxConnectionsPerPartition(maxConnectionsPerPartition);
+    boneCPDataSource.setMinConnectionsPerPartition(Math.min(this.minConnectionsPerPartition, maxConnectionsPerPartition));
+    boneCPDataSource.setPartitionCount(this.partitionCount);
+    boneCPDataSource.setAcquireIncrement(this.acquireIncrement);
+    boneCPDataSource.setStatementsCacheSize(this.statementsCacheSize);
+    boneCPDataSource.setLazyInit(true);
+
+    final Properties driverProperties = new Properties();
+    driverProperties.setProperty("useServerPrepStmts", "false");
+    boneCPDataSource.setDriverProperties(driverProperties);
+    return boneCPDataSource;
+  }
+
+  @Override
+  public int getActiveConnections(final DataSource dataSource) {
+    // not available before the pool was initialized with the first connection
+    final BoneCP pool = ((BoneCPDataSource) dataSource).getPool();
+    return pool == null ? 0 : pool.getTotalLeased();
+  }
+
+  @Override
+  public void close(final DataSource dataSource) {
+    ((BoneCPDataSource) dataSource).close();
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.core.mariadb.domain;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps the existing BoneCP pool properties onto HikariCP: the total of all partitions becomes the maximum pool size,
+ * the minimum connections of all partitions become the minimum idle connections, and the idle max age becomes the
+ * idle timeout. HikariCP validates connections on checkout, so the idle connection test period has no counterpart.
+ * The max lifetime is configured on its own; HikariCP only evicts idle connections if the idle timeout is below it.
+ */
+public class HikariDataSourceFactory implements PooledDataSourceFactory {
+
+  private final long idleMaxAgeInMinutes;
+  private final long maxLifetimeInMinutes;
+  private final int maxConnections;
+  private final int minConnections;
+
+  public HikariDataSourceFactory(final long idleMaxAgeInMinutes,
+                                 final long maxLifetimeInMinutes,
+                                 final int maxConnectionsPerPartition,
+                                 final int minConnectionsPerPartition,
+                                 final int partitionCount) {
+    super();
+    this.idleMaxAgeInMinutes = idleMaxAgeInMinutes;
+    this.maxLifetimeInMinutes = maxLifetimeInMinutes;
+    this.maxConnections = partitionCount * maxConnectionsPerPartition;
+    this.minConnections = partitionCount * minConnectionsPerPartition;
+  }
+
+  @Override
+  public int getMaxConnections() {
+    return this.maxConnections;
+  }
+
+  @Override
+  public DataSource create(final String driverClass, final String jdbcUrl, final String user, final String password,
+                           final int maxConnections) {
+    final HikariDataSource hikariDataSource = new HikariDataSource();
+    hikariDataSource.setDriverClassName(driverClass);
+    hikariDataSource.setJdbcUrl(jdbcUrl);
+    hikariDataSource.setUsername(user);
+    hikariDataSource.setPassword(password);
+    hikariDataSource.setMaximumPoolSize(Math.max(1, maxConnections));
+    hikariDataSource.setMinimumIdle(Math.min(this.minConnections, Math.max(1, maxConnections)));
+    hikariDataSource.setIdleTimeout(TimeUnit.MINUTES.toMillis(this.idleMaxAgeInMinutes));
+    hikariDataSource.setMaxLifetime(TimeUnit.MINUTES.toMillis(this.maxLifetimeInMinutes));
+    hikariDataSource.addDataSourceProperty("useServerPrepStmts", "false");
+    return hikariDataSource;
+  }
+
+  @Override
+  public int getActiveConnections(final DataSource dataSource) {
+    // not available before the pool was started with the first connection
+    final HikariPoolMXBean pool = ((HikariDataSource) dataSource).getHikariPoolMXBean();
+    return pool == null ? 0 : pool.getActiveConnections();
+  }
+
+  @Override
+  public void close(final DataSource dataSource) {
+    ((HikariDataSource) dataSource).close();
+  }
+}
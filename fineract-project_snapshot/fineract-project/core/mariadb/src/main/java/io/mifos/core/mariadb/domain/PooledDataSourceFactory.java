@@ -0,0 +1,39 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.core.mariadb.domain;
+
+import javax.sql.DataSource;
+
+/**
+ * Creates connection pools of one implementation, configured from the service's pool properties. Pools are created
+ * lazily, meaning no connection is opened before the first one is requested.
+ */
+public interface PooledDataSourceFactory {
+
+  /**
+   * @return the configured maximum number of connections of a single pool.
+   */
+  int getMaxConnections();
+
+  DataSource create(String driverClass, String jdbcUrl, String user, String password, int maxConnections);
+
+  /**
+   * @return the number of connections of a pool created by this factory currently handed out.
+   */
+  int getActiveConnections(DataSource dataSource);
+
+  void close(DataSource dataSource);
+}
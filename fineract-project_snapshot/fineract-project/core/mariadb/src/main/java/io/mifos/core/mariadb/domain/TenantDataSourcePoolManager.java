@@ -0,0 +1,380 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.core.mariadb.domain;
+
+import io.mifos.core.mariadb.util.JdbcUrlBuilder;
+import org.slf4j.Logger;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Creates and evicts the connection pools of all tenants. Pools are created lazily on first use and are limited by
+ * a connection budget shared by all tenants. If creating a pool would exceed the budget, the least recently used
+ * pools without active connections are retired first. Pools not used for the configured idle timeout are retired as
+ * well, unless connections are still handed out. Retired pools are closed once none of their connections is handed
+ * out anymore, checked after a grace period and then again periodically.
+ *
+ * The tenant information is read from the meta data source without holding the lock, so a slow lookup delays only
+ * the callers waiting for the same tenant, which share a single lookup.
+ *
+ * If pools are shared per host, all tenants using the same host, port, and user are served by a single pool, and
+ * every connection is switched to the tenant's database when it is handed out.
+ */
+@ManagedResource(objectName = "io.mifos.core.mariadb:name=TenantDataSourcePoolManager")
+public class TenantDataSourcePoolManager {
+
+  private static final long RETIRE_GRACE_PERIOD_IN_SECONDS = 60L;
+
+  private final Logger logger;
+  private final JdbcUrlBuilder.DatabaseType type;
+  private final DataSource metaDataSource;
+  private final PooledDataSourceFactory pooledDataSourceFactory;
+  private final int maxTotalConnections;
+  private final long idleTimeout;
+  private final boolean sharePerHost;
+  private final ConcurrentHashMap<String, TenantDataSource> tenantDataSources;
+  private final ConcurrentHashMap<String, CompletableFuture<TenantDataSource>> pendingDataSources;
+  private final HashMap<String, ManagedPool> pools;
+  private final ScheduledExecutorService housekeeper;
+  private int allocatedConnections;
+
+  public TenantDataSourcePoolManager(final Logger logger,
+                                     final JdbcUrlBuilder.DatabaseType type,
+                                     final DataSource metaDataSource,
+                                     final PooledDataSourceFactory pooledDataSourceFactory,
+                                     final int maxTotalConnections,
+                                     final long idleTimeoutInMinutes,
+                                     final boolean sharePerHost) {
+    super();
+    this.logger = logger;
+    this.type = type;
+    this.metaDataSource = metaDataSource;
+    this.pooledDataSourceFactory = pooledDataSourceFactory;
+    this.maxTotalConnections = maxTotalConnections;
+    this.idleTimeout = TimeUnit.MINUTES.toNanos(idleTimeoutInMinutes);
+    this.sharePerHost = sharePerHost;
+    this.tenantDataSources = new ConcurrentHashMap<>();
+    this.pendingDataSources = new ConcurrentHashMap<>();
+    this.pools = new HashMap<>();
+    this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      final Thread thread = new Thread(runnable, "tenant-pool-housekeeper");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.housekeeper.scheduleWithFixedDelay(this::retireIdlePools, 1L, 1L, TimeUnit.MINUTES);
+  }
+
+  public DataSource getDataSource(final String identifier) {
+    final TenantDataSource tenantDataSource = this.tenantDataSources.get(identifier);
+    if (tenantDataSource != null) {
+      return tenantDataSource;
+    }
+    return this.createDataSource(identifier);
+  }
+
+  @ManagedAttribute
+  public synchronized int getAllocatedConnections() {
+    return this.allocatedConnections;
+  }
+
+  @ManagedAttribute
+  public int getMaxTotalConnections() {
+    return this.maxTotalConnections;
+  }
+
+  @ManagedOperation
+  public Map<String, Map<String, Object>> getPoolMetrics() {
+    final long now = System.nanoTime();
+    final LinkedHashMap<String, Map<String, Object>> poolMetrics = new LinkedHashMap<>();
+    this.tenantDataSources.forEach((identifier, tenantDataSource) -> {
+      final long acquisitions = tenantDataSource.acquisitions.sum();
+      final LinkedHashMap<String, Object> tenantMetrics = new LinkedHashMap<>();
+      tenantMetrics.put("pool", tenantDataSource.pool.poolKey);
+      tenantMetrics.put("maxConnections", tenantDataSource.pool.connections);
+      tenantMetrics.put("acquisitions", acquisitions);
+      tenantMetrics.put("averageAcquireMicros", acquisitions == 0L ? 0L
+          : TimeUnit.NANOSECONDS.toMicros(tenantDataSource.acquireNanos.sum() / acquisitions));
+      tenantMetrics.put("idleSeconds", TimeUnit.NANOSECONDS.toSeconds(now - tenantDataSource.pool.lastAccess));
+      poolMetrics.put(identifier, tenantMetrics);
+    });
+    return poolMetrics;
+  }
+
+  @ManagedOperation
+  public synchronized void retire(final String identifier) {
+    final TenantDataSource tenantDataSource = this.tenantDataSources.get(identifier);
+    if (tenantDataSource != null) {
+      this.retire(tenantDataSource.pool);
+    }
+  }
+
+  public synchronized void close() {
+    this.housekeeper.shutdownNow();
+    this.pools.values().forEach(pool -> this.pooledDataSourceFactory.close(pool.dataSource));
+    this.pools.clear();
+    this.tenantDataSources.clear();
+    this.allocatedConnections = 0;
+  }
+
+  private TenantDataSource createDataSource(final String identifier) {
+    final CompletableFuture<TenantDataSource> pendingDataSource = new CompletableFuture<>();
+    final CompletableFuture<TenantDataSource> otherPendingDataSource =
+        this.pendingDataSources.putIfAbsent(identifier, pendingDataSource);
+    if (otherPendingDataSource != null) {
+      return join(otherPendingDataSource);
+    }
+
+    try {
+      // created by a caller whose lookup completed in between
+      final TenantDataSource existingDataSource = this.tenantDataSources.get(identifier);
+      if (existingDataSource != null) {
+        pendingDataSource.complete(existingDataSource);
+      } else {
+        final Tenant tenant = new Tenant(identifier);
+        this.readAdditionalTenantInformation(tenant);
+        pendingDataSource.complete(this.registerDataSource(identifier, tenant));
+      }
+    } catch (final RuntimeException ex) {
+      pendingDataSource.completeExceptionally(ex);
+    } finally {
+      this.pendingDataSources.remove(identifier, pendingDataSource);
+    }
+    return join(pendingDataSource);
+  }
+
+  private synchronized TenantDataSource registerDataSource(final String identifier, final Tenant tenant) {
+    final TenantDataSource existingDataSource = this.tenantDataSources.get(identifier);
+    if (existingDataSource != null) {
+      return existingDataSource;
+    }
+
+    final String poolKey = this.sharePerHost
+        ? tenant.getDriverClass() + "|" + tenant.getHost() + "|" + tenant.getPort() + "|" + tenant.getUser()
+        : identifier;
+    ManagedPool pool = this.pools.get(poolKey);
+    if (pool == null) {
+      pool = this.createPool(poolKey, tenant);
+      this.pools.put(poolKey, pool);
+    }
+
+    final TenantDataSource tenantDataSource =
+        new TenantDataSource(pool, this.sharePerHost ? tenant.getDatabaseName() : null);
+    pool.tenants.add(identifier);
+    this.tenantDataSources.put(identifier, tenantDataSource);
+    return tenantDataSource;
+  }
+
+  private ManagedPool createPool(final String poolKey, final Tenant tenant) {
+    final int requestedConnections = this.pooledDataSourceFactory.getMaxConnections();
+    while (this.allocatedConnections + requestedConnections > this.maxTotalConnections
+        && this.retireLeastRecentlyUsedPool()) {
+      // keep retiring until the budget fits
+    }
+
+    final int connections =
+        Math.min(requestedConnections, Math.max(this.maxTotalConnections - this.allocatedConnections, 1));
+    if (connections < requestedConnections) {
+      this.logger.warn("Connection budget exhausted, limiting pool {} to {} connections.", poolKey, connections);
+    }
+
+    this.logger.info("Creating new dynamic data source for {}.", poolKey);
+    final DataSource tenantDataSource = this.pooledDataSourceFactory.create(
+        tenant.getDriverClass(),
+        JdbcUrlBuilder
+            .create(this.type)
+            .host(tenant.getHost())
+            .port(tenant.getPort())
+            .instanceName(tenant.getDatabaseName())
+            .build(),
+        tenant.getUser(),
+        tenant.getPassword(),
+        connections);
+
+    this.allocatedConnections += connections;
+    return new ManagedPool(poolKey, tenantDataSource, connections);
+  }
+
+  private boolean retireLeastRecentlyUsedPool() {
+    ManagedPool leastRecentlyUsedPool = null;
+    for (final ManagedPool pool : this.pools.values()) {
+      if (this.isInUse(pool)) {
+        continue;
+      }
+      if (leastRecentlyUsedPool == null || pool.lastAccess - leastRecentlyUsedPool.lastAccess < 0L) {
+        leastRecentlyUsedPool = pool;
+      }
+    }
+
+    if (leastRecentlyUsedPool == null) {
+      return false;
+    }
+    this.retire(leastRecentlyUsedPool);
+    return true;
+  }
+
+  private synchronized void retireIdlePools() {
+    try {
+      final long now = System.nanoTime();
+      new ArrayList<>(this.pools.values()).stream()
+          .filter(pool -> now - pool.lastAccess > this.idleTimeout)
+          .filter(pool -> !this.isInUse(pool))
+          .forEach(this::retire);
+    } catch (final Throwable th) {
+      this.logger.warn("Could not retire idle pools.", th);
+    }
+  }
+
+  private void retire(final ManagedPool pool) {
+    this.logger.info("Retiring data source {}.", pool.poolKey);
+    this.pools.remove(pool.poolKey);
+    pool.tenants.forEach(this.tenantDataSources::remove);
+    this.allocatedConnections -= pool.connections;
+    this.closeWhenUnused(pool);
+  }
+
+  private void closeWhenUnused(final ManagedPool pool) {
+    this.housekeeper.schedule(() -> {
+      if (this.isInUse(pool)) {
+        this.logger.info("Data source {} still has active connections, deferring close.", pool.poolKey);
+        this.closeWhenUnused(pool);
+      } else {
+        this.pooledDataSourceFactory.close(pool.dataSource);
+      }
+    }, RETIRE_GRACE_PERIOD_IN_SECONDS, TimeUnit.SECONDS);
+  }
+
+  private boolean isInUse(final ManagedPool pool) {
+    try {
+      return this.pooledDataSourceFactory.getActiveConnections(pool.dataSource) > 0;
+    } catch (final RuntimeException ex) {
+      this.logger.warn("Could not determine active connections of data source {}.", pool.poolKey, ex);
+      return true;
+    }
+  }
+
+  private static TenantDataSource join(final CompletableFuture<TenantDataSource> dataSource) {
+    try {
+      return dataSource.join();
+    } catch (final CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw ex;
+    }
+  }
+
+  private void readAdditionalTenantInformation(final Tenant tenant) {
+    this.logger.info("Reading additional information for {}.", tenant.getIdentifier());
+    @SuppressWarnings({"SqlDialectInspection", "SqlNoDataSourceInspection"}) final String query = "SELECT driver_class, database_name, host, port, a_user, pwd FROM seshat.tenants WHERE identifier = ?";
+    try (final Connection connection = this.metaDataSource.getConnection()) {
+      try (final PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+        preparedStatement.setString(1, tenant.getIdentifier());
+        final ResultSet resultSet = preparedStatement.executeQuery();
+        if (resultSet.next()) {
+          tenant.setDriverClass(resultSet.getString("driver_class"));
+          tenant.setDatabaseName(resultSet.getString("database_name"));
+          tenant.setHost(resultSet.getString("host"));
+          tenant.setPort(resultSet.getString("port"));
+          tenant.setUser(resultSet.getString("a_user"));
+          tenant.setPassword(resultSet.getString("pwd"));
+        }
+      }
+    } catch (SQLException ex) {
+      throw new IllegalArgumentException("Could not fetch information for tenant '" + tenant.getIdentifier() + "'", ex);
+    }
+  }
+
+  private static final class ManagedPool {
+
+    private final String poolKey;
+    private final DataSource dataSource;
+    private final int connections;
+    private final HashSet<String> tenants;
+    private volatile long lastAccess;
+
+    private ManagedPool(final String poolKey, final DataSource dataSource, final int connections) {
+      super();
+      this.poolKey = poolKey;
+      this.dataSource = dataSource;
+      this.connections = connections;
+      this.tenants = new HashSet<>();
+      this.lastAccess = System.nanoTime();
+    }
+  }
+
+  private static final class TenantDataSource extends DelegatingDataSource {
+
+    private final ManagedPool pool;
+    private final String databaseName;
+    private final LongAdder acquisitions;
+    private final LongAdder acquireNanos;
+
+    private TenantDataSource(final ManagedPool pool, final String databaseName) {
+      super(pool.dataSource);
+      this.pool = pool;
+      this.databaseName = databaseName;
+      this.acquisitions = new LongAdder();
+      this.acquireNanos = new LongAdder();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+      return this.prepare(System.nanoTime(), super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+      return this.prepare(System.nanoTime(), super.getConnection(username, password));
+    }
+
+    private Connection prepare(final long start, final Connection connection) throws SQLException {
+      if (this.databaseName != null) {
+        try {
+          connection.setCatalog(this.databaseName);
+        } catch (final SQLException ex) {
+          connection.close();
+          throw ex;
+        }
+      }
+
+      final long now = System.nanoTime();
+      this.pool.lastAccess = now;
+      this.acquisitions.increment();
+      this.acquireNanos.add(now - start);
+      return connection;
+    }
+  }
+}
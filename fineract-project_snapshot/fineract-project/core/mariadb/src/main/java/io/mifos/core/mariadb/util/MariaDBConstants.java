@@ -46,4 +46,21 @@ public interface MariaDBConstants {
   String BONECP_ACQUIRE_INCREMENT_DEFAULT = "4";
   String BONECP_STATEMENT_CACHE_PROP = "bonecp.statementsCacheSize";
   String BONECP_STATEMENT_CACHE_DEFAULT = "128";
+
+  String JDBC_BATCH_SIZE_PROP = "mariadb.jdbc.batchSize";
+  String JDBC_BATCH_SIZE_DEFAULT = "50";
+
+  String POOL_TYPE_PROP = "mariadb.pool.type";
+  String POOL_TYPE_BONECP = "bonecp";
+  String POOL_TYPE_HIKARI = "hikari";
+  String POOL_TYPE_DEFAULT = POOL_TYPE_BONECP;
+
+  String POOL_MAX_TOTAL_CONNECTIONS_PROP = "mariadb.pool.maxTotalConnections";
+  String POOL_MAX_TOTAL_CONNECTIONS_DEFAULT = "512";
+  String POOL_IDLE_TIMEOUT_PROP = "mariadb.pool.idleTimeoutInMinutes";
+  String POOL_IDLE_TIMEOUT_DEFAULT = "30";
+  String POOL_MAX_LIFETIME_PROP = "mariadb.pool.maxLifetimeInMinutes";
+  String POOL_MAX_LIFETIME_DEFAULT = "30";
+  String POOL_SHARE_PER_HOST_PROP = "mariadb.pool.sharePerHost";
+  String POOL_SHARE_PER_HOST_DEFAULT = "false";
 }
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.core.mariadb.domain;
+
+import io.mifos.core.mariadb.util.JdbcUrlBuilder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TenantDataSourcePoolManagerTest {
+
+  private static final String SLOW_TENANT = "slow_tenant";
+
+  private final List<DataSource> createdDataSources = Collections.synchronizedList(new ArrayList<>());
+  private final HashMap<DataSource, Integer> activeConnections = new HashMap<>();
+  private final AtomicInteger lookups = new AtomicInteger();
+  private final CountDownLatch slowLookupStarted = new CountDownLatch(1);
+  private final CountDownLatch slowLookupReleased = new CountDownLatch(1);
+  private PooledDataSourceFactory pooledDataSourceFactory;
+  private TenantDataSourcePoolManager tenantDataSourcePoolManager;
+  private ExecutorService callers;
+
+  public TenantDataSourcePoolManagerTest() {
+    super();
+  }
+
+  @Before
+  public void createManager() throws Exception {
+    this.pooledDataSourceFactory = Mockito.mock(PooledDataSourceFactory.class);
+    Mockito.when(this.pooledDataSourceFactory.getMaxConnections()).thenReturn(10);
+    Mockito.when(this.pooledDataSourceFactory.create(Matchers.anyString(), Matchers.anyString(), Matchers.anyString(),
+        Matchers.anyString(), Matchers.anyInt())).thenAnswer(invocation -> {
+          final DataSource dataSource = Mockito.mock(DataSource.class);
+          this.createdDataSources.add(dataSource);
+          return dataSource;
+        });
+    Mockito.when(this.pooledDataSourceFactory.getActiveConnections(Matchers.any(DataSource.class)))
+        .thenAnswer(invocation -> {
+          synchronized (this.activeConnections) {
+            return this.activeConnections.getOrDefault(invocation.getArguments()[0], 0);
+          }
+        });
+
+    this.tenantDataSourcePoolManager = new TenantDataSourcePoolManager(Mockito.mock(Logger.class),
+        JdbcUrlBuilder.DatabaseType.MARIADB, this.createMetaDataSource(), this.pooledDataSourceFactory, 20, 60L, false);
+    this.callers = Executors.newCachedThreadPool();
+  }
+
+  @After
+  public void closeManager() {
+    this.slowLookupReleased.countDown();
+    this.callers.shutdownNow();
+    this.tenantDataSourcePoolManager.close();
+  }
+
+  @Test
+  public void shouldNotRetirePoolsWithActiveConnections() {
+    final DataSource busyDataSource = this.tenantDataSourcePoolManager.getDataSource("busy_tenant");
+    this.tenantDataSourcePoolManager.getDataSource("idle_tenant");
+    this.setActiveConnections(0, 1);
+
+    // the budget of 20 connections is used up, the least recently used pool is busy
+    this.tenantDataSourcePoolManager.getDataSource("new_tenant");
+
+    Assert.assertSame(busyDataSource, this.tenantDataSourcePoolManager.getDataSource("busy_tenant"));
+    Assert.assertTrue(this.tenantDataSourcePoolManager.getPoolMetrics().containsKey("busy_tenant"));
+    Assert.assertFalse(this.tenantDataSourcePoolManager.getPoolMetrics().containsKey("idle_tenant"));
+    Assert.assertEquals(20, this.tenantDataSourcePoolManager.getAllocatedConnections());
+  }
+
+  @Test
+  public void shouldLimitNewPoolIfAllPoolsAreBusy() {
+    this.tenantDataSourcePoolManager.getDataSource("busy_tenant");
+    this.tenantDataSourcePoolManager.getDataSource("other_busy_tenant");
+    this.setActiveConnections(0, 1);
+    this.setActiveConnections(1, 1);
+
+    this.tenantDataSourcePoolManager.getDataSource("new_tenant");
+
+    Assert.assertEquals(3, this.tenantDataSourcePoolManager.getPoolMetrics().size());
+    Assert.assertEquals(1, this.tenantDataSourcePoolManager.getPoolMetrics().get("new_tenant").get("maxConnections"));
+  }
+
+  @Test
+  public void shouldLookUpTenantOnceForConcurrentCallers() throws Exception {
+    final Future<DataSource> firstCaller =
+        this.callers.submit(() -> this.tenantDataSourcePoolManager.getDataSource(SLOW_TENANT));
+    Assert.assertTrue(this.slowLookupStarted.await(5L, TimeUnit.SECONDS));
+    final Future<DataSource> secondCaller =
+        this.callers.submit(() -> this.tenantDataSourcePoolManager.getDataSource(SLOW_TENANT));
+
+    this.slowLookupReleased.countDown();
+
+    Assert.assertSame(firstCaller.get(5L, TimeUnit.SECONDS), secondCaller.get(5L, TimeUnit.SECONDS));
+    Assert.assertEquals(1, this.lookups.get());
+  }
+
+  @Test
+  public void shouldNotBlockOtherTenantsDuringLookup() throws Exception {
+    final Future<DataSource> slowCaller =
+        this.callers.submit(() -> this.tenantDataSourcePoolManager.getDataSource(SLOW_TENANT));
+    Assert.assertTrue(this.slowLookupStarted.await(5L, TimeUnit.SECONDS));
+
+    final Future<DataSource> fastCaller =
+        this.callers.submit(() -> this.tenantDataSourcePoolManager.getDataSource("fast_tenant"));
+    Assert.assertNotNull(fastCaller.get(5L, TimeUnit.SECONDS));
+    Assert.assertFalse(slowCaller.isDone());
+
+    this.slowLookupReleased.countDown();
+    Assert.assertNotNull(slowCaller.get(5L, TimeUnit.SECONDS));
+  }
+
+  private void setActiveConnections(final int createdDataSource, final int connections) {
+    synchronized (this.activeConnections) {
+      this.activeConnections.put(this.createdDataSources.get(createdDataSource), connections);
+    }
+  }
+
+  private DataSource createMetaDataSource() throws Exception {
+    final DataSource metaDataSource = Mockito.mock(DataSource.class);
+    Mockito.when(metaDataSource.getConnection()).thenAnswer(connectionInvocation -> {
+      final Connection connection = Mockito.mock(Connection.class);
+      Mockito.when(connection.prepareStatement(Matchers.anyString())).thenAnswer(statementInvocation -> {
+        final AtomicReference<String> identifier = new AtomicReference<>();
+        final PreparedStatement preparedStatement = Mockito.mock(PreparedStatement.class);
+        Mockito.doAnswer(invocation -> {
+          identifier.set((String) invocation.getArguments()[1]);
+          return null;
+        }).when(preparedStatement).setString(Matchers.eq(1), Matchers.anyString());
+        Mockito.when(preparedStatement.executeQuery()).thenAnswer(queryInvocation -> {
+          this.lookups.incrementAndGet();
+          if (SLOW_TENANT.equals(identifier.get())) {
+            this.slowLookupStarted.countDown();
+            Assert.assertTrue(this.slowLookupReleased.await(5L, TimeUnit.SECONDS));
+          }
+          return this.createResultSet(identifier.get());
+        });
+        return preparedStatement;
+      });
+      return connection;
+    });
+    return metaDataSource;
+  }
+
+  private ResultSet createResultSet(final String identifier) throws Exception {
+    final ResultSet resultSet = Mockito.mock(ResultSet.class);
+    Mockito.when(resultSet.next()).thenReturn(true);
+    Mockito.when(resultSet.getString("driver_class")).thenReturn("org.mariadb.jdbc.Driver");
+    Mockito.when(resultSet.getString("database_name")).thenReturn(identifier);
+    Mockito.when(resultSet.getString("host")).thenReturn("localhost");
+    Mockito.when(resultSet.getString("port")).thenReturn("3306");
+    Mockito.when(resultSet.getString("a_user")).thenReturn("mifos");
+    Mockito.when(resultSet.getString("pwd")).thenReturn("mysql");
+    return resultSet;
+  }
+}
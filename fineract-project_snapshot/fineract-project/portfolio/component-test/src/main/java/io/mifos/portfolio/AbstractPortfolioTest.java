@@ -33,6 +33,7 @@ import io.mifos.portfolio.api.v1.events.CaseEvent;
 import io.mifos.portfolio.api.v1.events.EventConstants;
 import io.mifos.portfolio.service.config.PortfolioServiceConfiguration;
 import io.mifos.portfolio.service.internal.util.AccountingAdapter;
+import io.mifos.portfolio.service.internal.util.KnownAccountsCache;
 import io.mifos.portfolio.service.internal.util.RhythmAdapter;
 import org.junit.*;
 import org.junit.rules.RuleChain;
@@ -92,9 +93,10 @@ public class AbstractPortfolioTest {
     }
     @Bean()
     public AccountingAdapter accountingAdapter(@SuppressWarnings("SpringJavaAutowiringInspection")
-                                                   final LedgerManager ledgerManager)
+                                                   final LedgerManager ledgerManager,
+                                               final KnownAccountsCache knownAccountsCache)
     {
-      final AccountingAdapter spy = Mockito.spy(new AccountingAdapter(ledgerManager));
+      final AccountingAdapter spy = Mockito.spy(new AccountingAdapter(ledgerManager, knownAccountsCache));
       doReturn(true).when(spy).accountAssignmentRepresentsRealAccount(any());
       return spy;
     }
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.individuallending.internal.command;
+
+import java.time.LocalDate;
+
+public class AccrueInterestCommand {
+  private final LocalDate accrualDate;
+
+  public AccrueInterestCommand(final LocalDate accrualDate) {
+    this.accrualDate = accrualDate;
+  }
+
+  public LocalDate getAccrualDate() {
+    return accrualDate;
+  }
+
+  @Override
+  public String toString() {
+    return "AccrueInterestCommand{" +
+            "accrualDate=" + accrualDate +
+            '}';
+  }
+}
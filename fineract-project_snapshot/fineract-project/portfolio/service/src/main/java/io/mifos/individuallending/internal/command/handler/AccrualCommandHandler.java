@@ -0,0 +1,40 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.individuallending.internal.command.handler;
+
+import io.mifos.core.command.annotation.Aggregate;
+import io.mifos.core.command.annotation.CommandHandler;
+import io.mifos.core.command.annotation.CommandLogLevel;
+import io.mifos.individuallending.internal.command.AccrueInterestCommand;
+import io.mifos.individuallending.internal.service.InterestAccrualService;
+import org.springframework.beans.factory.annotation.Autowired;
+
+@SuppressWarnings("unused")
+@Aggregate
+public class AccrualCommandHandler {
+  private final InterestAccrualService interestAccrualService;
+
+  @Autowired
+  public AccrualCommandHandler(final InterestAccrualService interestAccrualService) {
+    this.interestAccrualService = interestAccrualService;
+  }
+
+  //Not transactional, every chunk of the run is committed as its own checkpoint.
+  @CommandHandler(logStart = CommandLogLevel.INFO, logFinish = CommandLogLevel.INFO)
+  public void process(final AccrueInterestCommand command) {
+    interestAccrualService.accrue(command.getAccrualDate());
+  }
+}
@@ -34,8 +34,9 @@ import io.mifos.portfolio.api.v1.domain.AccountAssignment;
 import io.mifos.portfolio.api.v1.domain.Case;
 import io.mifos.portfolio.api.v1.events.EventConstants;
 import io.mifos.portfolio.service.internal.mapper.CaseMapper;
-import io.mifos.portfolio.service.internal.mapper.ProductMapper;
 import io.mifos.portfolio.service.internal.repository.*;
+import io.mifos.portfolio.service.internal.service.ProductService;
+import io.mifos.portfolio.service.internal.service.ProductSnapshot;
 import io.mifos.portfolio.service.internal.util.AccountingAdapter;
 import io.mifos.portfolio.service.internal.util.ChargeInstance;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -56,19 +57,19 @@ import java.util.stream.Stream;
 @Aggregate
 public class IndividualLoanCommandHandler {
 
-  private final ProductRepository productRepository;
+  private final ProductService productService;
   private final CaseRepository caseRepository;
   private final CaseParametersRepository caseParametersRepository;
   private final AccountingAdapter accountingAdapter;
   private final IndividualLoanService individualLoanService;
 
   @Autowired
-  public IndividualLoanCommandHandler(final ProductRepository productRepository,
+  public IndividualLoanCommandHandler(final ProductService productService,
                                       final CaseRepository caseRepository,
                                       final CaseParametersRepository caseParametersRepository,
                                       final AccountingAdapter accountingAdapter,
                                       final IndividualLoanService individualLoanService) {
-    this.productRepository = productRepository;
+    this.productService = productService;
     this.caseRepository = caseRepository;
     this.caseParametersRepository = caseParametersRepository;
     this.accountingAdapter = accountingAdapter;
@@ -79,7 +80,7 @@ public class IndividualLoanCommandHandler {
   @CommandHandler(logStart = CommandLogLevel.INFO, logFinish = CommandLogLevel.INFO)
   @EventEmitter(selectorName = EventConstants.SELECTOR_NAME, selectorValue = IndividualLoanEventConstants.OPEN_INDIVIDUALLOAN_CASE)
   public IndividualLoanCommandEvent process(final OpenCommand command) {
-    final ProductEntity product = getProductOrThrow(command.getProductIdentifier());
+    final ProductSnapshot product = getProductOrThrow(command.getProductIdentifier());
     final CaseEntity customerCase = getCaseOrThrow(command.getProductIdentifier(), command.getCaseIdentifier());
     checkActionCanBeExecuted(Case.State.valueOf(customerCase.getCurrentState()), Action.OPEN);
 
@@ -90,7 +91,7 @@ public class IndividualLoanCommandHandler {
                     "Individual loan with identifier ''{0}''.''{1}'' doesn''t exist.",
                     command.getProductIdentifier(), command.getCaseIdentifier()));
 
-    final Set<ProductAccountAssignmentEntity> productAccountAssignments = product.getAccountAssignments();
+    final Set<AccountAssignment> productAccountAssignments = product.getAccountAssignments();
     final Set<CaseAccountAssignmentEntity> caseAccountAssignments = customerCase.getAccountAssignments();
 
     final List<ChargeInstance> chargesNamedViaAccountDesignators =
@@ -118,7 +119,7 @@ public class IndividualLoanCommandHandler {
   private String designatorToAccountIdentifierOrThrow(final String accountDesignator,
                                                       final List<AccountAssignment> oneTimeAccountAssignments,
                                                       final Set<CaseAccountAssignmentEntity> caseAccountAssignments,
-                                                      final Set<ProductAccountAssignmentEntity> productAccountAssignments) {
+                                                      final Set<AccountAssignment> productAccountAssignments) {
     return allAccountAssignmentsAsStream(oneTimeAccountAssignments, caseAccountAssignments, productAccountAssignments)
             .filter(x -> x.getDesignator().equals(accountDesignator))
             .findFirst()
@@ -129,11 +130,11 @@ public class IndividualLoanCommandHandler {
   private Stream<AccountAssignment> allAccountAssignmentsAsStream(
           final List<AccountAssignment> oneTimeAccountAssignments,
           final Set<CaseAccountAssignmentEntity> caseAccountAssignments,
-          final Set<ProductAccountAssignmentEntity> productAccountAssignments) {
+          final Set<AccountAssignment> productAccountAssignments) {
     return Stream.concat(Stream.concat(
             oneTimeAccountAssignments.stream(),
             caseAccountAssignments.stream().map(CaseMapper::mapAccountAssignmentEntity)),
-            productAccountAssignments.stream().map(ProductMapper::mapAccountAssignmentEntity));
+            productAccountAssignments.stream());
   }
 
   @Transactional
@@ -211,8 +212,8 @@ public class IndividualLoanCommandHandler {
             .orElseThrow(() -> ServiceException.notFound("Case not found ''{0}.{1}''.", productIdentifier, caseIdentifier));
   }
 
-  private ProductEntity getProductOrThrow(final String productIdentifier) {
-    return productRepository.findByIdentifier(productIdentifier)
+  private ProductSnapshot getProductOrThrow(final String productIdentifier) {
+    return productService.findSnapshotByIdentifier(productIdentifier)
             .orElseThrow(() -> ServiceException.notFound("Product not found ''{0}''.", productIdentifier));
   }
 
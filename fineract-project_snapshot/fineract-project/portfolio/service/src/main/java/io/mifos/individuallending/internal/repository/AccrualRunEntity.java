@@ -0,0 +1,127 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.individuallending.internal.repository;
+
+import io.mifos.core.mariadb.util.LocalDateTimeConverter;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Progress of the interest accrual for one day. The last case id is the checkpoint from which an interrupted run
+ * resumes. Only the owner of the lease may process a run, the lease is set and renewed by the repository's updates,
+ * never by saving the entity.
+ */
+@SuppressWarnings("unused")
+@Entity
+@Table(name = "bastet_il_accrual_runs")
+public class AccrualRunEntity {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "id")
+  private Long id;
+
+  @Column(name = "accrual_date")
+  @Convert(converter = LocalDateTimeConverter.class)
+  private LocalDateTime accrualDate;
+
+  @Column(name = "last_case_id")
+  private Long lastCaseId;
+
+  @Column(name = "cases_processed")
+  private Long casesProcessed;
+
+  @Column(name = "cases_failed")
+  private Long casesFailed;
+
+  @Column(name = "started_on")
+  @Convert(converter = LocalDateTimeConverter.class)
+  private LocalDateTime startedOn;
+
+  @Column(name = "finished_on")
+  @Convert(converter = LocalDateTimeConverter.class)
+  private LocalDateTime finishedOn;
+
+  @Column(name = "lease_owner", updatable = false)
+  private String leaseOwner;
+
+  public AccrualRunEntity() {
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public LocalDateTime getAccrualDate() {
+    return accrualDate;
+  }
+
+  public void setAccrualDate(LocalDateTime accrualDate) {
+    this.accrualDate = accrualDate;
+  }
+
+  public Long getLastCaseId() {
+    return lastCaseId;
+  }
+
+  public void setLastCaseId(Long lastCaseId) {
+    this.lastCaseId = lastCaseId;
+  }
+
+  public Long getCasesProcessed() {
+    return casesProcessed;
+  }
+
+  public void setCasesProcessed(Long casesProcessed) {
+    this.casesProcessed = casesProcessed;
+  }
+
+  public Long getCasesFailed() {
+    return casesFailed;
+  }
+
+  public void setCasesFailed(Long casesFailed) {
+    this.casesFailed = casesFailed;
+  }
+
+  public LocalDateTime getStartedOn() {
+    return startedOn;
+  }
+
+  public void setStartedOn(LocalDateTime startedOn) {
+    this.startedOn = startedOn;
+  }
+
+  public LocalDateTime getFinishedOn() {
+    return finishedOn;
+  }
+
+  public void setFinishedOn(LocalDateTime finishedOn) {
+    this.finishedOn = finishedOn;
+  }
+
+  public String getLeaseOwner() {
+    return leaseOwner;
+  }
+
+  public void setLeaseOwner(String leaseOwner) {
+    this.leaseOwner = leaseOwner;
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.individuallending.internal.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AccrualRunRepository extends JpaRepository<AccrualRunEntity, Long> {
+  Optional<AccrualRunEntity> findByAccrualDate(LocalDateTime accrualDate);
+
+  List<AccrualRunEntity> findByFinishedOnIsNullOrderByAccrualDateAsc();
+
+  /**
+   * Takes over the lease of an unfinished run if it has no owner, is owned already, or the lease of its owner expired.
+   * Returns 1 if the lease was taken. Lease times are those of the database, so instances need not agree on a clock.
+   */
+  @Modifying
+  @Transactional
+  @Query(value = "UPDATE bastet_il_accrual_runs SET lease_owner = :owner, " +
+          "lease_expires_on = DATE_ADD(NOW(3), INTERVAL :leaseSeconds SECOND) " +
+          "WHERE id = :id AND finished_on IS NULL " +
+          "AND (lease_owner IS NULL OR lease_owner = :owner OR lease_expires_on < NOW(3))", nativeQuery = true)
+  int claim(@Param("id") Long id, @Param("owner") String owner, @Param("leaseSeconds") int leaseSeconds);
+
+  /**
+   * Checkpoints the run and renews the lease, if the lease is still held by the given owner. Returns 1 if it was.
+   */
+  @Modifying
+  @Transactional
+  @Query(value = "UPDATE bastet_il_accrual_runs SET last_case_id = :lastCaseId, cases_processed = :casesProcessed, " +
+          "cases_failed = :casesFailed, lease_expires_on = DATE_ADD(NOW(3), INTERVAL :leaseSeconds SECOND) " +
+          "WHERE id = :id AND lease_owner = :owner", nativeQuery = true)
+  int checkpoint(@Param("id") Long id, @Param("owner") String owner, @Param("lastCaseId") Long lastCaseId,
+                 @Param("casesProcessed") Long casesProcessed, @Param("casesFailed") Long casesFailed,
+                 @Param("leaseSeconds") int leaseSeconds);
+
+  @Modifying
+  @Transactional
+  @Query(value = "UPDATE bastet_il_accrual_runs SET finished_on = UTC_TIMESTAMP(3), lease_expires_on = NULL " +
+          "WHERE id = :id AND lease_owner = :owner", nativeQuery = true)
+  int finish(@Param("id") Long id, @Param("owner") String owner);
+}
@@ -21,6 +21,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -31,5 +33,7 @@ import java.util.Optional;
 public interface CaseParametersRepository extends JpaRepository<CaseParametersEntity, Long> {
   Optional<CaseParametersEntity> findByCaseId(Long id);
 
+  List<CaseParametersEntity> findByCaseIdIn(Collection<Long> ids);
+
   Page<CaseParametersEntity> findByCustomerIdentifier(String customerIdentifier, Pageable pageable);
 }
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.individuallending.internal.service;
+
+import io.mifos.individuallending.api.v1.domain.caseinstance.CaseParameters;
+import io.mifos.portfolio.api.v1.domain.AccountAssignment;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * An active case as read for interest accrual, detached from the persistence context so that it can be handed to
+ * worker threads.
+ */
+public final class AccrualCase {
+  private final Long id;
+  private final String productIdentifier;
+  private final String identifier;
+  private final LocalDate createdOn;
+  private final CaseParameters caseParameters;
+  private final Set<AccountAssignment> accountAssignments;
+
+  AccrualCase(final Long id,
+              final String productIdentifier,
+              final String identifier,
+              final LocalDate createdOn,
+              final CaseParameters caseParameters,
+              final Set<AccountAssignment> accountAssignments) {
+    super();
+    this.id = id;
+    this.productIdentifier = productIdentifier;
+    this.identifier = identifier;
+    this.createdOn = createdOn;
+    this.caseParameters = caseParameters;
+    this.accountAssignments = Collections.unmodifiableSet(accountAssignments);
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public String getProductIdentifier() {
+    return productIdentifier;
+  }
+
+  public String getIdentifier() {
+    return identifier;
+  }
+
+  public LocalDate getCreatedOn() {
+    return createdOn;
+  }
+
+  /**
+   * Null if the case has no individual loan parameters.
+   */
+  public CaseParameters getCaseParameters() {
+    return caseParameters;
+  }
+
+  public Set<AccountAssignment> getAccountAssignments() {
+    return accountAssignments;
+  }
+}
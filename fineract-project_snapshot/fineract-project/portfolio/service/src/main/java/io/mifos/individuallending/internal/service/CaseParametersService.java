@@ -33,8 +33,11 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -65,6 +68,32 @@ public class CaseParametersService {
             .map(CaseParametersMapper::mapEntity);
   }
 
+  /**
+   * Returns the active cases with ids greater than the given one in order of their ids.
+   */
+  @Transactional(readOnly = true)
+  public List<AccrualCase> findActiveCasesAfter(final long caseId, final int size) {
+    final List<CaseEntity> cases = caseRepository.findByCurrentStateAndIdGreaterThanOrderByIdAsc(
+            Case.State.ACTIVE.name(), caseId, new PageRequest(0, size));
+    if (cases.isEmpty())
+      return Collections.emptyList();
+
+    final Map<Long, CaseParameters> caseParametersByCaseId = caseParametersRepository
+            .findByCaseIdIn(cases.stream().map(CaseEntity::getId).collect(Collectors.toList()))
+            .stream()
+            .collect(Collectors.toMap(CaseParametersEntity::getCaseId, CaseParametersMapper::mapEntity));
+
+    return cases.stream()
+            .map(x -> new AccrualCase(
+                    x.getId(),
+                    x.getProductIdentifier(),
+                    x.getIdentifier(),
+                    x.getCreatedOn().toLocalDate(),
+                    caseParametersByCaseId.get(x.getId()),
+                    x.getAccountAssignments().stream().map(CaseMapper::mapAccountAssignmentEntity).collect(Collectors.toSet())))
+            .collect(Collectors.toList());
+  }
+
   public CasePage findByCustomerIdentifier(
           final String customerIdentifier,
           final int pageIndex,
@@ -16,8 +16,8 @@
 package io.mifos.individuallending.internal.service;
 
 import io.mifos.portfolio.api.v1.domain.CostComponent;
-import io.mifos.portfolio.service.internal.service.ChargeDefinitionService;
 import io.mifos.portfolio.service.internal.service.ProductService;
+import io.mifos.portfolio.service.internal.service.ProductSnapshot;
 import io.mifos.core.lang.DateConverter;
 import io.mifos.individuallending.api.v1.domain.caseinstance.CaseParameters;
 import io.mifos.individuallending.api.v1.domain.caseinstance.ChargeName;
@@ -26,7 +26,6 @@ import io.mifos.individuallending.api.v1.domain.caseinstance.PlannedPaymentPage;
 import io.mifos.individuallending.api.v1.domain.product.AccountDesignators;
 import io.mifos.individuallending.api.v1.domain.workflow.Action;
 import io.mifos.portfolio.api.v1.domain.ChargeDefinition;
-import io.mifos.portfolio.api.v1.domain.Product;
 import io.mifos.portfolio.service.internal.util.ChargeInstance;
 import org.javamoney.calc.common.Rate;
 import org.javamoney.moneta.Money;
@@ -56,19 +55,19 @@ import static io.mifos.portfolio.api.v1.domain.ChargeDefinition.ChargeMethod.FIX
 public class IndividualLoanService {
   private static final int EXTRA_PRECISION = 4;
   private final ProductService productService;
-  private final ChargeDefinitionService chargeDefinitionService;
   private final ScheduledActionService scheduledActionService;
   private final PeriodChargeCalculator periodChargeCalculator;
+  private final ScheduleCheckpointCache scheduleCheckpointCache;
 
   @Autowired
   public IndividualLoanService(final ProductService productService,
-                               final ChargeDefinitionService chargeDefinitionService,
                                final ScheduledActionService scheduledActionService,
-                               final PeriodChargeCalculator periodChargeCalculator) {
+                               final PeriodChargeCalculator periodChargeCalculator,
+                               final ScheduleCheckpointCache scheduleCheckpointCache) {
     this.productService = productService;
-    this.chargeDefinitionService = chargeDefinitionService;
     this.scheduledActionService = scheduledActionService;
     this.periodChargeCalculator = periodChargeCalculator;
+    this.scheduleCheckpointCache = scheduleCheckpointCache;
   }
 
   public PlannedPaymentPage getPlannedPaymentsPage(
@@ -77,38 +76,53 @@ public class IndividualLoanService {
           final int pageIndex,
           final int size,
           final @Nonnull LocalDate initialDisbursalDate) {
-    final Product product = productService.findByIdentifier(productIdentifier)
+    final ProductSnapshot product = productService.findSnapshotByIdentifier(productIdentifier)
             .orElseThrow(() -> new IllegalArgumentException("Non-existent product identifier."));
     final int minorCurrencyUnitDigits = product.getMinorCurrencyUnitDigits();
 
-    final List<ScheduledAction> scheduledActions = scheduledActionService.getHypotheticalScheduledActions(initialDisbursalDate, caseParameters);
+    final List<ScheduledAction> scheduledActions = scheduledActionService.getCondensedHypotheticalScheduledActions(initialDisbursalDate, caseParameters);
 
-    final List<ScheduledCharge> scheduledCharges = getScheduledCharges(productIdentifier, minorCurrencyUnitDigits, caseParameters.getMaximumBalance(), scheduledActions);
+    final List<ScheduledCharge> scheduledCharges = getScheduledCharges(product, minorCurrencyUnitDigits, caseParameters.getMaximumBalance(), scheduledActions);
 
-    final List<PlannedPayment> plannedPaymentsElements = getPlannedPaymentsElements(caseParameters.getMaximumBalance(), minorCurrencyUnitDigits, scheduledCharges);
+    final SortedMap<Period, SortedSet<ScheduledCharge>> orderedScheduledChargesGroupedByPeriod
+            = getOrderedScheduledChargesGroupedByPeriod(scheduledCharges);
+    final int periodCount = orderedScheduledChargesGroupedByPeriod.size();
+    final int fromIndex = Math.min(size*pageIndex, periodCount);
+    final int toIndex = Math.min(size*(pageIndex+1), periodCount);
+
+    //All inputs of the schedule, the payment amount is part of its charge definition.
+    final Set<ChargeDefinition> chargeDefinitions = scheduledCharges.stream()
+            .map(ScheduledCharge::getChargeDefinition)
+            .collect(Collectors.toSet());
+    final List<Object> scheduleKey
+            = Arrays.asList(caseParameters, initialDisbursalDate, minorCurrencyUnitDigits, chargeDefinitions);
+
+    final List<PlannedPayment> elements = getPlannedPaymentsElements(
+            scheduleKey,
+            caseParameters.getMaximumBalance(),
+            minorCurrencyUnitDigits,
+            new ArrayList<>(orderedScheduledChargesGroupedByPeriod.entrySet()),
+            fromIndex,
+            toIndex);
 
     final Set<ChargeName> chargeNames = scheduledCharges.stream()
             .map(IndividualLoanService::chargeNameFromChargeDefinition)
             .collect(Collectors.toSet());
 
-    return constructPage(pageIndex, size, plannedPaymentsElements, chargeNames);
+    return constructPage(size, periodCount, elements, chargeNames);
   }
 
   private static PlannedPaymentPage constructPage(
-          final int pageIndex,
           final int size,
-          final List<PlannedPayment> plannedPaymentsElements,
+          final int totalElements,
+          final List<PlannedPayment> elements,
           final Set<ChargeName> chargeNames) {
-    final int fromIndex = size*pageIndex;
-    final int toIndex = Math.min(size*(pageIndex+1), plannedPaymentsElements.size());
-    final List<PlannedPayment> elements = plannedPaymentsElements.subList(fromIndex, toIndex);
-
     final PlannedPaymentPage ret = new PlannedPaymentPage();
     ret.setElements(elements);
     ret.setChargeNames(chargeNames);
-    ret.setTotalElements((long) plannedPaymentsElements.size());
-    final int partialPage = Math.floorMod(plannedPaymentsElements.size(), size) == 0 ? 0 : 1;
-    ret.setTotalPages(Math.floorDiv(plannedPaymentsElements.size(), size)+ partialPage);
+    ret.setTotalElements((long) totalElements);
+    final int partialPage = Math.floorMod(totalElements, size) == 0 ? 0 : 1;
+    ret.setTotalPages(Math.floorDiv(totalElements, size)+ partialPage);
 
     return ret;
   }
@@ -119,17 +133,42 @@ public class IndividualLoanService {
                                                  final Action action,
                                                  final LocalDate initialDisbursalDate,
                                                  final LocalDate forDate) {
-    final Product product = productService.findByIdentifier(productIdentifier)
+    return getCostComponents(productIdentifier, caseParameters, currentBalance, action, initialDisbursalDate, forDate)
+            .entrySet().stream()
+            .map(IndividualLoanService::mapToChargeInstance)
+            .collect(Collectors.toList());
+  }
+
+  /**
+   * Like {@link #getChargeInstances}, but only for the charges which the action accrues, and into their accrual
+   * accounts, from which the charge action later takes them.
+   */
+  public List<ChargeInstance> getAccrualChargeInstances(final String productIdentifier,
+                                                        final CaseParameters caseParameters,
+                                                        final BigDecimal currentBalance,
+                                                        final Action action,
+                                                        final LocalDate initialDisbursalDate,
+                                                        final LocalDate forDate) {
+    return getCostComponents(productIdentifier, caseParameters, currentBalance, action, initialDisbursalDate, forDate)
+            .entrySet().stream()
+            .filter(x -> action.name().equals(x.getKey().getAccrueAction()))
+            .map(x -> new ChargeInstance(x.getKey().getFromAccountDesignator(), x.getKey().getAccrualAccountDesignator(), x.getValue().getAmount()))
+            .collect(Collectors.toList());
+  }
+
+  private Map<ChargeDefinition, CostComponent> getCostComponents(final String productIdentifier,
+                                                                 final CaseParameters caseParameters,
+                                                                 final BigDecimal currentBalance,
+                                                                 final Action action,
+                                                                 final LocalDate initialDisbursalDate,
+                                                                 final LocalDate forDate) {
+    final ProductSnapshot product = productService.findSnapshotByIdentifier(productIdentifier)
             .orElseThrow(() -> new IllegalArgumentException("Non-existent product identifier."));
     final int minorCurrencyUnitDigits = product.getMinorCurrencyUnitDigits();
     final List<ScheduledAction> scheduledActions = scheduledActionService.getScheduledActions(initialDisbursalDate, caseParameters, action, forDate);
-    final List<ScheduledCharge> scheduledCharges = getScheduledCharges(productIdentifier, minorCurrencyUnitDigits, currentBalance, scheduledActions);
-
-    final CostComponentsForRepaymentPeriod costComponentsForScheduledCharges = getCostComponentsForScheduledCharges(scheduledCharges, currentBalance, minorCurrencyUnitDigits);
+    final List<ScheduledCharge> scheduledCharges = getScheduledCharges(product, minorCurrencyUnitDigits, currentBalance, scheduledActions);
 
-    return costComponentsForScheduledCharges.costComponents.entrySet().stream()
-            .map(IndividualLoanService::mapToChargeInstance)
-            .collect(Collectors.toList());
+    return getCostComponentsForScheduledCharges(scheduledCharges, currentBalance, minorCurrencyUnitDigits).costComponents;
   }
 
   private static ChargeInstance mapToChargeInstance(final Map.Entry<ChargeDefinition, CostComponent> x) {
@@ -141,15 +180,15 @@ public class IndividualLoanService {
   }
 
   private List<ScheduledCharge> getScheduledCharges(
-          final String productIdentifier,
+          final ProductSnapshot product,
           final int minorCurrencyUnitDigits,
           final BigDecimal initialBalance,
           final @Nonnull List<ScheduledAction> scheduledActions) {
     final Map<String, List<ChargeDefinition>> chargeDefinitionsMappedByChargeAction
-            = chargeDefinitionService.getChargeDefinitionsMappedByChargeAction(productIdentifier);
+            = product.getChargeDefinitionsMappedByChargeAction();
 
     final Map<String, List<ChargeDefinition>> chargeDefinitionsMappedByAccrueAction
-            = chargeDefinitionService.getChargeDefinitionsMappedByAccrueAction(productIdentifier);
+            = product.getChargeDefinitionsMappedByAccrueAction();
 
     final ChargeDefinition acceptPaymentDefinition = getPaymentChargeDefinition();
 
@@ -197,40 +236,58 @@ public class IndividualLoanService {
     }
   }
 
-  static private List<PlannedPayment> getPlannedPaymentsElements(
-          final BigDecimal initialBalance,
-          final int minorCurrencyUnitDigits,
+  static private SortedMap<Period, SortedSet<ScheduledCharge>> getOrderedScheduledChargesGroupedByPeriod(
           final List<ScheduledCharge> scheduledCharges) {
-    final Map<Period, SortedSet<ScheduledCharge>> orderedScheduledChargesGroupedByPeriod
-            = scheduledCharges.stream()
+    return scheduledCharges.stream()
             .collect(Collectors.groupingBy(x -> x.getScheduledAction().repaymentPeriod,
+                    TreeMap::new,
                     Collectors.mapping(x -> x,
                             Collector.of(
                                     () -> new TreeSet<>(new ScheduledChargeComparator()),
                                     SortedSet::add,
                                     (left, right) -> { left.addAll(right); return left; }))));
+  }
 
-    final SortedSet<Period> sortedRepaymentPeriods
-            = scheduledCharges.stream()
-            .map(x -> x.getScheduledAction().repaymentPeriod)
-            .collect(Collector.of(TreeSet::new, TreeSet::add, (left, right) -> { left.addAll(right); return left; }));
-
-    BigDecimal balance = initialBalance.setScale(minorCurrencyUnitDigits, BigDecimal.ROUND_HALF_EVEN);
-    final List<PlannedPayment> plannedPayments = new ArrayList<>();
-    for (final Period repaymentPeriod : sortedRepaymentPeriods)
+  /**
+   * Calculates the planned payments of the repayment periods from fromIndex to toIndex, carrying the remaining
+   * principal forward from the nearest checkpoint before.
+   */
+  private List<PlannedPayment> getPlannedPaymentsElements(
+          final List<Object> scheduleKey,
+          final BigDecimal initialBalance,
+          final int minorCurrencyUnitDigits,
+          final List<Map.Entry<Period, SortedSet<ScheduledCharge>>> orderedScheduledChargesByPeriod,
+          final int fromIndex,
+          final int toIndex) {
+    final Map.Entry<Integer, BigDecimal> checkpoint = scheduleCheckpointCache.floor(scheduleKey, fromIndex);
+    int periodIndex = checkpoint != null ? checkpoint.getKey() : 0;
+    BigDecimal balance = checkpoint != null
+            ? checkpoint.getValue()
+            : initialBalance.setScale(minorCurrencyUnitDigits, BigDecimal.ROUND_HALF_EVEN);
+
+    final List<PlannedPayment> plannedPayments = new ArrayList<>(toIndex - fromIndex);
+    for (; periodIndex < toIndex; periodIndex++)
     {
-      final SortedSet<ScheduledCharge> scheduledChargesInPeriod = orderedScheduledChargesGroupedByPeriod.get(repaymentPeriod);
+      if (periodIndex > 0 && periodIndex % ScheduleCheckpointCache.CHECKPOINT_INTERVAL == 0)
+        scheduleCheckpointCache.put(scheduleKey, periodIndex, balance);
+
+      final Period repaymentPeriod = orderedScheduledChargesByPeriod.get(periodIndex).getKey();
+      final SortedSet<ScheduledCharge> scheduledChargesInPeriod = orderedScheduledChargesByPeriod.get(periodIndex).getValue();
       final CostComponentsForRepaymentPeriod costComponentsForRepaymentPeriod =
               getCostComponentsForScheduledCharges(scheduledChargesInPeriod, balance, minorCurrencyUnitDigits);
+      balance = balance.add(costComponentsForRepaymentPeriod.balanceAdjustment);
+      if (periodIndex < fromIndex)
+        continue;
 
       final PlannedPayment plannedPayment = new PlannedPayment();
       plannedPayment.setCostComponents(costComponentsForRepaymentPeriod.costComponents.values().stream().collect(Collectors.toList()));
       plannedPayment.setDate(DateConverter.toIsoString(repaymentPeriod.getEndDate()));
-      balance = balance.add(costComponentsForRepaymentPeriod.balanceAdjustment);
       plannedPayment.setRemainingPrincipal(balance);
       plannedPayments.add(plannedPayment);
     }
-    if (balance.compareTo(BigDecimal.ZERO) != 0)
+
+    //The last payment takes up what is left of the principal.
+    if (toIndex == orderedScheduledChargesByPeriod.size() && !plannedPayments.isEmpty() && balance.compareTo(BigDecimal.ZERO) != 0)
     {
       final PlannedPayment lastPayment = plannedPayments.get(plannedPayments.size() - 1);
       final Optional<CostComponent> lastPaymentPayment = lastPayment.getCostComponents().stream()
@@ -273,9 +330,11 @@ public class IndividualLoanService {
                         return ret;
                       });
 
+      //The balance does not change within a repayment period, so every occurrence of an action charges the same.
       final BigDecimal chargeAmount = howToApplyScheduledChargeToBalance(scheduledCharge, 8)
               .apply(balance)
-              .setScale(minorCurrencyUnitDigits, BigDecimal.ROUND_HALF_EVEN);
+              .setScale(minorCurrencyUnitDigits, BigDecimal.ROUND_HALF_EVEN)
+              .multiply(BigDecimal.valueOf(scheduledCharge.getScheduledAction().occurrences));
       if (chargeDefinitionTouchesCustomerLoanAccount(scheduledCharge.getChargeDefinition()))
         balanceAdjustment = balanceAdjustment.add(chargeAmount);
       costComponent.setAmount(costComponent.getAmount().add(chargeAmount));
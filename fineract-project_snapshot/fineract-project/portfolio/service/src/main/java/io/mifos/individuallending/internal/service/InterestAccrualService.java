@@ -0,0 +1,308 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.individuallending.internal.service;
+
+import io.mifos.accounting.api.v1.domain.JournalEntry;
+import io.mifos.accounting.api.v1.domain.JournalEntryStatus;
+import io.mifos.core.api.util.UserContext;
+import io.mifos.core.api.util.UserContextHolder;
+import io.mifos.core.lang.TenantContextHolder;
+import io.mifos.individuallending.api.v1.domain.workflow.Action;
+import io.mifos.individuallending.internal.repository.AccrualRunEntity;
+import io.mifos.individuallending.internal.repository.AccrualRunRepository;
+import io.mifos.portfolio.api.v1.domain.AccountAssignment;
+import io.mifos.portfolio.service.ServiceConstants;
+import io.mifos.portfolio.service.internal.service.ProductService;
+import io.mifos.portfolio.service.internal.service.ProductSnapshot;
+import io.mifos.portfolio.service.internal.util.AccountingAdapter;
+import io.mifos.portfolio.service.internal.util.ChargeInstance;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static io.mifos.individuallending.api.v1.domain.product.AccountDesignators.CUSTOMER_LOAN;
+
+/**
+ * Accrues the interest of all active cases for one day. Cases are read in chunks in order of their ids, the chunk is
+ * split between a pool of workers which calculate the charges, and the journal entries of a chunk are posted to
+ * accounting as one batch. Only then the last case id of the chunk is checkpointed, so an interrupted run resumes
+ * with the first chunk not posted.
+ *
+ * A run is processed only by the owner of its lease, which is renewed with every checkpoint, so a redelivered beat or
+ * a second instance leaves a live run alone and takes over one whose owner stopped. Transaction identifiers are
+ * derived from the day and the case, and accounting reports those it has already as duplicates, which makes posting
+ * a chunk again harmless.
+ *
+ * Interest is calculated on the current balance of the case, not on its balance at the end of the accrual date. A
+ * run resumed or taken over after the accrual date, e.g. on a later beat, therefore accrues on balances which may
+ * already include later payments or disbursements.
+ */
+@Service
+@ManagedResource(objectName = "io.mifos.portfolio:name=InterestAccrualService")
+public class InterestAccrualService {
+  private static final int CHUNK_SIZE = 500;
+  private static final int WORKERS = 8;
+  private static final int LEASE_SECONDS = 15 * 60;
+
+  private final Logger logger;
+  private final AccrualRunRepository accrualRunRepository;
+  private final CaseParametersService caseParametersService;
+  private final ProductService productService;
+  private final IndividualLoanService individualLoanService;
+  private final AccountingAdapter accountingAdapter;
+  private final ExecutorService workers = Executors.newFixedThreadPool(WORKERS);
+  private final LongAdder casesProcessed = new LongAdder();
+  private final LongAdder casesFailed = new LongAdder();
+  private volatile double lastRunCasesPerSecond;
+
+  @Autowired
+  public InterestAccrualService(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
+                                final AccrualRunRepository accrualRunRepository,
+                                final CaseParametersService caseParametersService,
+                                final ProductService productService,
+                                final IndividualLoanService individualLoanService,
+                                final AccountingAdapter accountingAdapter) {
+    super();
+    this.logger = logger;
+    this.accrualRunRepository = accrualRunRepository;
+    this.caseParametersService = caseParametersService;
+    this.productService = productService;
+    this.individualLoanService = individualLoanService;
+    this.accountingAdapter = accountingAdapter;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    this.workers.shutdownNow();
+  }
+
+  /**
+   * Accrues the interest for the given day, after finishing the runs of the current tenant which were interrupted.
+   */
+  public void accrue(final LocalDate accrualDate) {
+    final String leaseOwner = UUID.randomUUID().toString();
+
+    accrualRunRepository.findByFinishedOnIsNullOrderByAccrualDateAsc().forEach(run -> {
+      if (accrualRunRepository.claim(run.getId(), leaseOwner, LEASE_SECONDS) == 1)
+        run(run, leaseOwner, true);
+      else
+        logger.info("Interest accrual for {} is in progress elsewhere.", run.getAccrualDate().toLocalDate());
+    });
+
+    if (accrualRunRepository.findByAccrualDate(accrualDate.atStartOfDay()).isPresent()) {
+      logger.info("Interest for {} has been accrued already.", accrualDate);
+      return;
+    }
+
+    final AccrualRunEntity run = new AccrualRunEntity();
+    run.setAccrualDate(accrualDate.atStartOfDay());
+    run.setLastCaseId(0L);
+    run.setCasesProcessed(0L);
+    run.setCasesFailed(0L);
+    run.setStartedOn(LocalDateTime.now(Clock.systemUTC()));
+    run.setLeaseOwner(leaseOwner);
+    final AccrualRunEntity savedRun;
+    try {
+      savedRun = accrualRunRepository.save(run);
+    }
+    catch (final DataIntegrityViolationException e) {
+      logger.info("Interest accrual for {} has been started elsewhere.", accrualDate);
+      return;
+    }
+    if (accrualRunRepository.claim(savedRun.getId(), leaseOwner, LEASE_SECONDS) == 1)
+      run(savedRun, leaseOwner, false);
+  }
+
+  private void run(final AccrualRunEntity run, final String leaseOwner, final boolean resumed) {
+    final LocalDate accrualDate = run.getAccrualDate().toLocalDate();
+    if (resumed)
+      logger.info("Resuming interest accrual for {} after case {}.", accrualDate, run.getLastCaseId());
+
+    final long startedAt = System.nanoTime();
+    long casesInRun = 0L;
+    List<AccrualCase> chunk;
+    while (!(chunk = caseParametersService.findActiveCasesAfter(run.getLastCaseId(), CHUNK_SIZE)).isEmpty()) {
+      final LongAdder failures = new LongAdder();
+      final List<JournalEntry> journalEntries = getJournalEntries(chunk, accrualDate, failures);
+
+      if (!journalEntries.isEmpty()) {
+        final List<JournalEntryStatus> statuses = accountingAdapter.bookJournalEntries(
+                "bastet" + accrualDate.format(DateTimeFormatter.BASIC_ISO_DATE) + "c" + Long.toString(chunk.get(0).getId(), 36),
+                journalEntries);
+        //Only rejections count as failures, duplicates were posted before the run was interrupted or taken over.
+        statuses.stream()
+                .filter(x -> x.getState().equals(JournalEntryStatus.State.REJECTED.name()))
+                .forEach(x -> {
+                  logger.warn("Accrued interest {} was rejected: {}", x.getTransactionIdentifier(), x.getMessage());
+                  failures.increment();
+                });
+      }
+
+      final long lastCaseId = chunk.get(chunk.size() - 1).getId();
+      final long runCasesProcessed = run.getCasesProcessed() + chunk.size();
+      final long runCasesFailed = run.getCasesFailed() + failures.sum();
+      casesProcessed.add(chunk.size());
+      casesFailed.add(failures.sum());
+      if (accrualRunRepository.checkpoint(run.getId(), leaseOwner, lastCaseId, runCasesProcessed, runCasesFailed,
+              LEASE_SECONDS) != 1) {
+        logger.warn("Interest accrual for {} was taken over after case {}, stopping.", accrualDate, lastCaseId);
+        return;
+      }
+      run.setLastCaseId(lastCaseId);
+      run.setCasesProcessed(runCasesProcessed);
+      run.setCasesFailed(runCasesFailed);
+      casesInRun += chunk.size();
+    }
+
+    if (accrualRunRepository.finish(run.getId(), leaseOwner) != 1) {
+      logger.warn("Interest accrual for {} was taken over before it was finished.", accrualDate);
+      return;
+    }
+
+    final double seconds = Math.max(System.nanoTime() - startedAt, 1L) / 1e9;
+    lastRunCasesPerSecond = casesInRun / seconds;
+    logger.info("Accrued interest for {} on {} cases in {} s, {} cases per second, {} cases failed in total.",
+            accrualDate, casesInRun, String.format("%.3f", seconds), String.format("%.1f", lastRunCasesPerSecond),
+            run.getCasesFailed());
+  }
+
+  private List<JournalEntry> getJournalEntries(final List<AccrualCase> chunk,
+                                               final LocalDate accrualDate,
+                                               final LongAdder failures) {
+    final String tenantIdentifier = TenantContextHolder.checkedGetIdentifier();
+    final Optional<UserContext> userContext = UserContextHolder.getUserContext();
+
+    final int partitionSize = (chunk.size() + WORKERS - 1) / WORKERS;
+    final List<CompletableFuture<List<JournalEntry>>> partitions = new ArrayList<>(WORKERS);
+    for (int fromIndex = 0; fromIndex < chunk.size(); fromIndex += partitionSize) {
+      final List<AccrualCase> partition = chunk.subList(fromIndex, Math.min(fromIndex + partitionSize, chunk.size()));
+      partitions.add(CompletableFuture.supplyAsync(() -> {
+        TenantContextHolder.clear();
+        TenantContextHolder.setIdentifier(tenantIdentifier);
+        UserContextHolder.clear();
+        userContext.ifPresent(UserContextHolder::setUserContext);
+        try {
+          return partition.stream()
+                  .map(x -> getJournalEntry(x, accrualDate, failures))
+                  .filter(Optional::isPresent)
+                  .map(Optional::get)
+                  .collect(Collectors.toList());
+        }
+        finally {
+          TenantContextHolder.clear();
+          UserContextHolder.clear();
+        }
+      }, workers));
+    }
+
+    return partitions.stream()
+            .map(CompletableFuture::join)
+            .flatMap(List::stream)
+            .collect(Collectors.toList());
+  }
+
+  private Optional<JournalEntry> getJournalEntry(final AccrualCase accrualCase,
+                                                 final LocalDate accrualDate,
+                                                 final LongAdder failures) {
+    try {
+      if (accrualCase.getCaseParameters() == null)
+        throw new IllegalStateException("Case has no individual loan parameters.");
+
+      final ProductSnapshot product = productService.findSnapshotByIdentifier(accrualCase.getProductIdentifier())
+              .orElseThrow(() -> new IllegalStateException("Non-existent product identifier."));
+
+      final BigDecimal currentBalance = accountingAdapter.getCurrentBalance(
+              designatorToAccountIdentifier(CUSTOMER_LOAN, accrualCase, product));
+
+      //The disbursal date is not recorded, the case creation is the earliest it can have been.
+      final List<ChargeInstance> charges = individualLoanService.getAccrualChargeInstances(
+              accrualCase.getProductIdentifier(),
+              accrualCase.getCaseParameters(),
+              currentBalance,
+              Action.APPLY_INTEREST,
+              accrualCase.getCreatedOn(),
+              accrualDate).stream()
+              .filter(x -> x.getAmount().compareTo(BigDecimal.ZERO) != 0)
+              .map(x -> new ChargeInstance(
+                      designatorToAccountIdentifier(x.getFromAccount(), accrualCase, product),
+                      designatorToAccountIdentifier(x.getToAccount(), accrualCase, product),
+                      x.getAmount()))
+              .collect(Collectors.toList());
+      if (charges.isEmpty())
+        return Optional.empty();
+
+      //Dated at the end of the accrued day, which is when the beat triggering the accrual is due.
+      return Optional.of(AccountingAdapter.getJournalEntry(
+              charges,
+              "Interest accrual for " + accrualDate,
+              accrualCase.getProductIdentifier() + "." + accrualCase.getIdentifier() + "." + Action.APPLY_INTEREST.name(),
+              Action.APPLY_INTEREST.getTransactionType(),
+              "bastet" + accrualDate.format(DateTimeFormatter.BASIC_ISO_DATE) + "i" + Long.toString(accrualCase.getId(), 36),
+              accrualDate.plusDays(1).atStartOfDay()));
+    }
+    catch (final RuntimeException e) {
+      logger.warn("Accruing interest for case {}.{} failed.", accrualCase.getProductIdentifier(), accrualCase.getIdentifier(), e);
+      failures.increment();
+      return Optional.empty();
+    }
+  }
+
+  private static String designatorToAccountIdentifier(final String accountDesignator,
+                                                      final AccrualCase accrualCase,
+                                                      final ProductSnapshot product) {
+    return Stream.concat(accrualCase.getAccountAssignments().stream(), product.getAccountAssignments().stream())
+            .filter(x -> x.getDesignator().equals(accountDesignator))
+            .findFirst()
+            .map(AccountAssignment::getAccountIdentifier)
+            .orElseThrow(() -> new IllegalStateException("A required account designator was not set '" + accountDesignator + "'."));
+  }
+
+  @ManagedAttribute
+  public long getCasesProcessed() {
+    return casesProcessed.sum();
+  }
+
+  @ManagedAttribute
+  public long getCasesFailed() {
+    return casesFailed.sum();
+  }
+
+  @ManagedAttribute
+  public double getLastRunCasesPerSecond() {
+    return lastRunCasesPerSecond;
+  }
+}
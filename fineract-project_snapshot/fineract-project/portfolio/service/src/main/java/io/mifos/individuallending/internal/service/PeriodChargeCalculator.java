@@ -18,10 +18,10 @@ package io.mifos.individuallending.internal.service;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -35,10 +35,38 @@ public class PeriodChargeCalculator {
   }
 
   Map<Period, BigDecimal> getPeriodAccrualRates(final List<ScheduledCharge> scheduledCharges, final int precision) {
+    //Charges of the same amount and cycle over the same action period share one factor, which is computed only once.
+    final Map<List<Object>, BigDecimal> factors = new HashMap<>();
     return scheduledCharges.stream()
             .filter(PeriodChargeCalculator::accruedCharge)
             .collect(Collectors.groupingBy(scheduledCharge -> scheduledCharge.getScheduledAction().repaymentPeriod,
-                    Collectors.mapping(x -> chargeAmountPerPeriod(x, precision), RateCollectors.compound(precision))));
+                    Collectors.mapping(x -> factors.computeIfAbsent(factorKey(x), key -> compoundedChargeAmountPerPeriod(x, precision)),
+                            RateCollectors.compound(precision))));
+  }
+
+  private static List<Object> factorKey(final ScheduledCharge scheduledCharge)
+  {
+    return Arrays.asList(
+            scheduledCharge.getChargeDefinition().getAmount(),
+            scheduledCharge.getChargeDefinition().getForCycleSizeUnit(),
+            scheduledCharge.getScheduledAction().actionPeriod.getDuration(),
+            scheduledCharge.getScheduledAction().occurrences);
+  }
+
+  /**
+   * Compounds the charge over all occurrences of its action. The power is capped at the precision the compounding
+   * collector carries, so its cost does not grow with the number of occurrences.
+   */
+  private static BigDecimal compoundedChargeAmountPerPeriod(final ScheduledCharge scheduledCharge, final int precision)
+  {
+    final BigDecimal chargeAmount = chargeAmountPerPeriod(scheduledCharge, precision);
+    final int occurrences = scheduledCharge.getScheduledAction().occurrences;
+    if (occurrences == 1)
+      return chargeAmount;
+
+    return BigDecimal.ONE.add(chargeAmount)
+            .pow(occurrences, RateCollectors.mathContext(precision))
+            .subtract(BigDecimal.ONE);
   }
 
   private static boolean accruedCharge(final ScheduledCharge scheduledCharge)
@@ -52,19 +80,16 @@ public class PeriodChargeCalculator {
     if (scheduledCharge.getChargeDefinition().getForCycleSizeUnit() == null)
       return scheduledCharge.getChargeDefinition().getAmount();
 
-    final BigDecimal actionPeriodDuration
-            = BigDecimal.valueOf(
-            scheduledCharge.getScheduledAction().actionPeriod
-                    .getDuration()
-                    .getSeconds());
-    final BigDecimal chargeDefinitionCycleSizeUnitDuration
-            = BigDecimal.valueOf(
-            Optional.ofNullable(scheduledCharge.getChargeDefinition().getForCycleSizeUnit())
-                    .orElse(ChronoUnit.YEARS)
-                    .getDuration()
-                    .getSeconds());
+    final long actionPeriodSeconds = scheduledCharge.getScheduledAction().actionPeriod
+            .getDuration()
+            .getSeconds();
+    final long cycleSeconds = scheduledCharge.getChargeDefinition().getForCycleSizeUnit()
+            .getDuration()
+            .getSeconds();
 
-    final BigDecimal periodsInCycle = chargeDefinitionCycleSizeUnitDuration.divide(actionPeriodDuration, precision, BigDecimal.ROUND_HALF_EVEN);
-    return scheduledCharge.getChargeDefinition().getAmount().divide(periodsInCycle, precision, BigDecimal.ROUND_HALF_EVEN);
+    //amount / (cycle / period) == amount * period / cycle, which divides once instead of twice.
+    return scheduledCharge.getChargeDefinition().getAmount()
+            .multiply(BigDecimal.valueOf(actionPeriodSeconds))
+            .divide(BigDecimal.valueOf(cycleSeconds), precision, BigDecimal.ROUND_HALF_EVEN);
   }
 }
@@ -16,15 +16,27 @@
 package io.mifos.individuallending.internal.service;
 
 import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
 import java.util.stream.Collector;
 
 /**
  * @author Myrle Krantz
  */
 final class RateCollectors {
+  /**
+   * Digits carried beyond the requested ones while compounding, so that rounding every step stays far below the
+   * last digit of the result even over thousands of steps and for rates compounding into the millions.
+   */
+  private static final int GUARD_DIGITS = 16;
 
   private RateCollectors() {}
 
+  static MathContext mathContext(final int significantDigits)
+  {
+    return new MathContext(significantDigits + GUARD_DIGITS, RoundingMode.HALF_EVEN);
+  }
+
   static Collector<BigDecimal, ?, BigDecimal> compound(int significantDigits)
   {
     return Collector.of(
@@ -46,22 +58,24 @@ final class RateCollectors {
   private static class Compound
   {
     private final int significantDigits;
+    private final MathContext mathContext;
     BigDecimal rate;
 
     Compound(final int significantDigits)
     {
       this.significantDigits = significantDigits;
+      this.mathContext = mathContext(significantDigits);
       rate = BigDecimal.ONE;
     }
 
     void accumulate(final BigDecimal newRate)
     {
-      rate = rate.multiply(BigDecimal.ONE.add(newRate));
+      rate = rate.multiply(BigDecimal.ONE.add(newRate), mathContext);
     }
 
     Compound combine(final Compound other)
     {
-      this.rate = this.rate.multiply(other.rate);
+      this.rate = this.rate.multiply(other.rate, mathContext);
       return this;
     }
 
@@ -74,24 +88,26 @@ final class RateCollectors {
   private static class GeometricMean
   {
     private final int significantDigits;
+    private final MathContext mathContext;
     BigDecimal rate;
     long rateCount;
 
     GeometricMean(int significantDigits)
     {
       this.significantDigits = significantDigits;
+      this.mathContext = mathContext(significantDigits);
       rate = BigDecimal.ONE;
     }
 
     void accumulate(final BigDecimal newRate)
     {
-      rate = rate.multiply(BigDecimal.ONE.add(newRate));
+      rate = rate.multiply(BigDecimal.ONE.add(newRate), mathContext);
       rateCount++;
     }
 
     GeometricMean combine(final GeometricMean other)
     {
-      rate = rate.multiply(other.rate);
+      rate = rate.multiply(other.rate, mathContext);
       rateCount += other.rateCount;
       return this;
     }
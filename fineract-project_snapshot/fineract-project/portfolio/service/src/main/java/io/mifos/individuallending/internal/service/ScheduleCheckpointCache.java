@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.individuallending.internal.service;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the remaining principal at the beginning of every few repayment periods of planned payment schedules,
+ * so a page of a long schedule is calculated from the nearest checkpoint instead of from the first period. A schedule
+ * is identified by all of its inputs, which makes checkpoints valid across tenants and never stale.
+ */
+@Component
+@ManagedResource(objectName = "io.mifos.portfolio:name=ScheduleCheckpointCache")
+public class ScheduleCheckpointCache {
+
+  public static final int CHECKPOINT_INTERVAL = 12;
+  private static final int MAX_SCHEDULES = 10000;
+
+  private final ConcurrentHashMap<List<Object>, NavigableMap<Integer, BigDecimal>> checkpointsBySchedule =
+          new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public ScheduleCheckpointCache() {
+    super();
+  }
+
+  /**
+   * Returns the checkpoint at or before the given period, or null if there is none.
+   */
+  public Map.Entry<Integer, BigDecimal> floor(final List<Object> scheduleKey, final int periodIndex) {
+    final NavigableMap<Integer, BigDecimal> checkpoints = this.checkpointsBySchedule.get(scheduleKey);
+    final Map.Entry<Integer, BigDecimal> checkpoint = checkpoints == null ? null : checkpoints.floorEntry(periodIndex);
+    if (checkpoint == null) {
+      this.misses.increment();
+    } else {
+      this.hits.increment();
+    }
+    return checkpoint;
+  }
+
+  public void put(final List<Object> scheduleKey, final int periodIndex, final BigDecimal remainingPrincipal) {
+    if (this.checkpointsBySchedule.size() >= MAX_SCHEDULES && !this.checkpointsBySchedule.containsKey(scheduleKey)) {
+      this.checkpointsBySchedule.clear();
+    }
+    this.checkpointsBySchedule.computeIfAbsent(scheduleKey, key -> new ConcurrentSkipListMap<>())
+            .put(periodIndex, remainingPrincipal);
+  }
+
+  @ManagedAttribute
+  public long getHits() {
+    return this.hits.sum();
+  }
+
+  @ManagedAttribute
+  public long getMisses() {
+    return this.misses.sum();
+  }
+
+  @ManagedAttribute
+  public int getSize() {
+    return this.checkpointsBySchedule.size();
+  }
+
+  @ManagedOperation
+  public void clear() {
+    this.checkpointsBySchedule.clear();
+  }
+}
@@ -22,6 +22,9 @@ import java.time.LocalDate;
 import java.util.Objects;
 
 /**
+ * An action taking place once, or on a number of consecutive days. When repeated, when and action period describe
+ * the first occurrence, every further one is a day later.
+ *
  * @author Myrle Krantz
  */
 class ScheduledAction {
@@ -29,15 +32,31 @@ class ScheduledAction {
   final LocalDate when;
   final Period actionPeriod;
   final Period repaymentPeriod;
+  final int occurrences;
 
   ScheduledAction(@Nonnull final Action action,
                   @Nonnull final LocalDate when,
                   @Nonnull final Period actionPeriod,
                   @Nonnull final Period repaymentPeriod) {
+    this(action, when, actionPeriod, repaymentPeriod, 1);
+  }
+
+  ScheduledAction(@Nonnull final Action action,
+                  @Nonnull final LocalDate when,
+                  @Nonnull final Period actionPeriod,
+                  @Nonnull final Period repaymentPeriod,
+                  final int occurrences) {
     this.action = action;
     this.when = when;
     this.actionPeriod = actionPeriod;
     this.repaymentPeriod = repaymentPeriod;
+    this.occurrences = occurrences;
+  }
+
+  ScheduledAction occurrence(final int index) {
+    return new ScheduledAction(action, when.plusDays(index),
+            new Period(actionPeriod.getBeginDate().plusDays(index), actionPeriod.getEndDate().plusDays(index)),
+            repaymentPeriod);
   }
 
   @Override
@@ -46,6 +65,7 @@ class ScheduledAction {
     if (o == null || getClass() != o.getClass()) return false;
     ScheduledAction that = (ScheduledAction) o;
     return action == that.action &&
+            occurrences == that.occurrences &&
             Objects.equals(when, that.when) &&
             Objects.equals(actionPeriod, that.actionPeriod) &&
             Objects.equals(repaymentPeriod, that.repaymentPeriod);
@@ -53,7 +73,7 @@ class ScheduledAction {
 
   @Override
   public int hashCode() {
-    return Objects.hash(action, when, actionPeriod, repaymentPeriod);
+    return Objects.hash(action, when, actionPeriod, repaymentPeriod, occurrences);
   }
 
   @Override
@@ -63,6 +83,7 @@ class ScheduledAction {
             ", when=" + when +
             ", actionPeriod=" + actionPeriod +
             ", repaymentPeriod=" + repaymentPeriod +
+            ", occurrences=" + occurrences +
             '}';
   }
 }
@@ -29,6 +29,7 @@ import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -40,6 +41,18 @@ public class ScheduledActionService {
 
   List<ScheduledAction> getHypotheticalScheduledActions(final @Nonnull LocalDate initialDisbursalDate,
                                                                 final @Nonnull CaseParameters caseParameters)
+  {
+    return getHypotheticalScheduledActionsHelper(initialDisbursalDate, caseParameters)
+            .flatMap(ScheduledActionService::occurrences)
+            .collect(Collectors.toList());
+  }
+
+  /**
+   * Returns the same actions as {@link #getHypotheticalScheduledActions}, but the daily interest applications of a
+   * repayment period as one repeated action, so the size of the schedule does not depend on the length of the periods.
+   */
+  List<ScheduledAction> getCondensedHypotheticalScheduledActions(final @Nonnull LocalDate initialDisbursalDate,
+                                                                 final @Nonnull CaseParameters caseParameters)
   {
     return getHypotheticalScheduledActionsHelper(initialDisbursalDate, caseParameters).collect(Collectors.toList());
   }
@@ -78,13 +91,32 @@ public class ScheduledActionService {
   }
 
   private Stream<ScheduledAction> generateScheduledInterestPaymentsForRepaymentPeriod(final @Nonnull Period repaymentPeriod) {
-    return getInterestDayInRepaymentPeriod(repaymentPeriod).map(x ->
-            new ScheduledAction(Action.APPLY_INTEREST, x, new Period(x.minus(1, ChronoUnit.DAYS), x), repaymentPeriod));
+    final int interestDays = (int) ChronoUnit.DAYS.between(repaymentPeriod.getBeginDate(), repaymentPeriod.getEndDate());
+    if (interestDays <= 0)
+      return Stream.empty();
+
+    final LocalDate firstInterestDay = repaymentPeriod.getBeginDate().plusDays(1);
+    return Stream.of(new ScheduledAction(Action.APPLY_INTEREST, firstInterestDay,
+            new Period(repaymentPeriod.getBeginDate(), firstInterestDay), repaymentPeriod, interestDays));
   }
 
-  private Stream<LocalDate> getInterestDayInRepaymentPeriod(final @Nonnull Period repaymentPeriod) {
-    return Stream.iterate(repaymentPeriod.getBeginDate().plusDays(1), date -> date.plusDays(1))
-            .limit(ChronoUnit.DAYS.between(repaymentPeriod.getBeginDate(), repaymentPeriod.getEndDate()));
+  private static Stream<ScheduledAction> occurrences(final @Nonnull ScheduledAction scheduledAction) {
+    if (scheduledAction.occurrences == 1)
+      return Stream.of(scheduledAction);
+
+    return IntStream.range(0, scheduledAction.occurrences).mapToObj(scheduledAction::occurrence);
+  }
+
+  private static Stream<ScheduledAction> occurrenceContainingDate(final @Nonnull ScheduledAction scheduledAction,
+                                                                  final @Nonnull LocalDate date) {
+    if (scheduledAction.occurrences == 1)
+      return scheduledAction.actionPeriod.containsDate(date) ? Stream.of(scheduledAction) : Stream.empty();
+
+    final long index = ChronoUnit.DAYS.between(scheduledAction.actionPeriod.getBeginDate(), date);
+    if (index < 0 || index >= scheduledAction.occurrences)
+      return Stream.empty();
+
+    return Stream.of(scheduledAction.occurrence((int) index));
   }
 
   private SortedSet<Period> generateRepaymentPeriods(
@@ -251,8 +283,8 @@ public class ScheduledActionService {
                                                    final Action action,
                                                    final LocalDate time) {
     return getHypotheticalScheduledActionsHelper(initialDisbursalDate, caseParameters)
-            .filter(x -> x.actionPeriod.containsDate(time))
             .filter(x -> x.action.equals(action))
+            .flatMap(x -> occurrenceContainingDate(x, time))
             .collect(Collectors.toList());
   }
 }
\ No newline at end of file
@@ -18,4 +18,7 @@ package io.mifos.portfolio.service;
 public interface ServiceConstants {
   String LOGGER_NAME = "portfolio-logger";
   String GSON_NAME = "portfolio-gson";
+
+  // beats with this identifier accrue interest for the day before the beat
+  String ACCRUAL_BEAT_IDENTIFIER = "alignment0";
 }
@@ -27,6 +27,7 @@ import io.mifos.portfolio.service.internal.repository.ChargeDefinitionEntity;
 import io.mifos.portfolio.service.internal.repository.ChargeDefinitionRepository;
 import io.mifos.portfolio.service.internal.repository.ProductEntity;
 import io.mifos.portfolio.service.internal.repository.ProductRepository;
+import io.mifos.portfolio.service.internal.service.ProductSnapshotCache;
 import io.mifos.core.command.annotation.Aggregate;
 import io.mifos.core.command.annotation.CommandHandler;
 import io.mifos.core.command.annotation.EventEmitter;
@@ -41,13 +42,16 @@ import org.springframework.transaction.annotation.Transactional;
 public class ChargeDefinitionCommandHandler {
   private final ProductRepository productRepository;
   private final ChargeDefinitionRepository chargeDefinitionRepository;
+  private final ProductSnapshotCache productSnapshotCache;
 
   @Autowired
   public ChargeDefinitionCommandHandler(
           final ProductRepository productRepository,
-          final ChargeDefinitionRepository chargeDefinitionRepository) {
+          final ChargeDefinitionRepository chargeDefinitionRepository,
+          final ProductSnapshotCache productSnapshotCache) {
     this.productRepository = productRepository;
     this.chargeDefinitionRepository = chargeDefinitionRepository;
+    this.productSnapshotCache = productSnapshotCache;
   }
 
   @SuppressWarnings("unused")
@@ -65,6 +69,7 @@ public class ChargeDefinitionCommandHandler {
     final ChargeDefinitionEntity chargeDefinitionEntity =
             ChargeDefinitionMapper.map(productEntity, chargeDefinition);
     chargeDefinitionRepository.save(chargeDefinitionEntity);
+    productSnapshotCache.invalidateAfterCommit(productIdentifier);
 
     return new ChargeDefinitionEvent(
             command.getProductIdentifier(),
@@ -88,6 +93,7 @@ public class ChargeDefinitionCommandHandler {
     chargeDefinitionEntity.setId(existingChargeDefinition.getId());
     chargeDefinitionEntity.setId(existingChargeDefinition.getId());
     chargeDefinitionRepository.save(chargeDefinitionEntity);
+    productSnapshotCache.invalidateAfterCommit(productIdentifier);
 
     return new ChargeDefinitionEvent(
             command.getProductIdentifier(),
@@ -106,6 +112,7 @@ public class ChargeDefinitionCommandHandler {
                     command.getProductIdentifier(), command.getChargeDefinitionIdentifier()));
 
     chargeDefinitionRepository.delete(toDelete);
+    productSnapshotCache.invalidateAfterCommit(command.getProductIdentifier());
 
     return new ChargeDefinitionEvent(
             command.getProductIdentifier(),
@@ -32,6 +32,7 @@ import io.mifos.portfolio.service.internal.mapper.ChargeDefinitionMapper;
 import io.mifos.portfolio.service.internal.mapper.ProductMapper;
 import io.mifos.portfolio.service.internal.pattern.PatternFactoryRegistry;
 import io.mifos.portfolio.service.internal.repository.*;
+import io.mifos.portfolio.service.internal.service.ProductSnapshotCache;
 import io.mifos.portfolio.service.internal.util.AccountingAdapter;
 import io.mifos.products.spi.PatternFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -52,6 +53,7 @@ public class ProductCommandHandler {
   private final ProductRepository productRepository;
   private final ChargeDefinitionRepository chargeDefinitionRepository;
   private final AccountingAdapter accountingAdapter;
+  private final ProductSnapshotCache productSnapshotCache;
 
   @Autowired
   public ProductCommandHandler(
@@ -59,13 +61,15 @@ public class ProductCommandHandler {
           final CaseRepository caseRepository,
           final ProductRepository productRepository,
           final ChargeDefinitionRepository chargeDefinitionRepository,
-          final AccountingAdapter accountingAdapter) {
+          final AccountingAdapter accountingAdapter,
+          final ProductSnapshotCache productSnapshotCache) {
     super();
     this.patternFactoryRegistry = patternFactoryRegistry;
     this.caseRepository = caseRepository;
     this.productRepository = productRepository;
     this.chargeDefinitionRepository = chargeDefinitionRepository;
     this.accountingAdapter = accountingAdapter;
+    this.productSnapshotCache = productSnapshotCache;
   }
 
   @Transactional
@@ -105,6 +109,7 @@ public class ProductCommandHandler {
     final ProductEntity newEntity = ProductMapper.mapOverOldEntity(instance, oldEntity);
 
     productRepository.save(newEntity);
+    productSnapshotCache.invalidateAfterCommit(instance.getIdentifier());
 
     return changeProductCommand.getInstance().getIdentifier();
   }
@@ -124,6 +129,7 @@ public class ProductCommandHandler {
       throw ServiceException.conflict("Cannot delete product with identifier ''{0}'', because there are already cases defined on it.", productIdentifier);
 
     productRepository.delete(product);
+    productSnapshotCache.invalidateAfterCommit(productIdentifier);
 
     return deleteProductCommand.getProductIdentifier();
   }
@@ -155,6 +161,7 @@ public class ProductCommandHandler {
     productEntity.setEnabled(changeEnablingOfProductCommand.getEnabled());
 
     this.productRepository.save(productEntity);
+    this.productSnapshotCache.invalidateAfterCommit(changeEnablingOfProductCommand.getProductIdentifier());
 
     return changeEnablingOfProductCommand.getProductIdentifier();
   }
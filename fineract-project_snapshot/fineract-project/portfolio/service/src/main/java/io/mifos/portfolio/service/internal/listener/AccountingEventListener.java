@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.portfolio.service.internal.listener;
+
+import com.google.gson.Gson;
+import io.mifos.accounting.api.v1.EventConstants;
+import io.mifos.core.command.util.CommandConstants;
+import io.mifos.core.lang.config.TenantHeaderFilter;
+import io.mifos.portfolio.service.internal.util.KnownAccountsCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jms.annotation.JmsListener;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+/**
+ * Forgets accounts deleted in accounting.
+ */
+@SuppressWarnings("unused")
+@Component
+public class AccountingEventListener {
+
+  private final KnownAccountsCache knownAccountsCache;
+  private final Gson gson;
+
+  @Autowired
+  public AccountingEventListener(final KnownAccountsCache knownAccountsCache,
+                                 @Qualifier(CommandConstants.SERIALIZER) final Gson gson) {
+    super();
+    this.knownAccountsCache = knownAccountsCache;
+    this.gson = gson;
+  }
+
+  @JmsListener(
+      destination = EventConstants.DESTINATION,
+      selector = EventConstants.SELECTOR_DELETE_ACCOUNT,
+      subscription = EventConstants.DESTINATION
+  )
+  public void onDeleteAccount(@Header(TenantHeaderFilter.TENANT_HEADER) final String tenant,
+                              final String payload) {
+    this.knownAccountsCache.forget(tenant, this.gson.fromJson(payload, String.class));
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.portfolio.service.internal.listener;
+
+import com.google.gson.Gson;
+import io.mifos.core.command.util.CommandConstants;
+import io.mifos.core.lang.config.TenantHeaderFilter;
+import io.mifos.portfolio.api.v1.events.ChargeDefinitionEvent;
+import io.mifos.portfolio.api.v1.events.EventConstants;
+import io.mifos.portfolio.service.internal.service.ProductSnapshotCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jms.annotation.JmsListener;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops cached product snapshots when products or their charge definitions were changed by any instance of this
+ * service.
+ */
+@SuppressWarnings("unused")
+@Component
+public class ProductSnapshotEventListener {
+
+  private static final String SELECTOR_PRODUCT_CHANGED =
+      EventConstants.SELECTOR_PUT_PRODUCT
+          + " OR " + EventConstants.SELECTOR_PUT_PRODUCT_ENABLE
+          + " OR " + EventConstants.SELECTOR_DELETE_PRODUCT;
+
+  private static final String SELECTOR_CHARGE_DEFINITION_CHANGED =
+      EventConstants.SELECTOR_POST_CHARGE_DEFINITION
+          + " OR " + EventConstants.SELECTOR_PUT_CHARGE_DEFINITION
+          + " OR " + EventConstants.SELECTOR_DELETE_PRODUCT_CHARGE_DEFINITION;
+
+  private final ProductSnapshotCache productSnapshotCache;
+  private final Gson gson;
+
+  @Autowired
+  public ProductSnapshotEventListener(final ProductSnapshotCache productSnapshotCache,
+                                      @Qualifier(CommandConstants.SERIALIZER) final Gson gson) {
+    super();
+    this.productSnapshotCache = productSnapshotCache;
+    this.gson = gson;
+  }
+
+  @JmsListener(
+      destination = EventConstants.DESTINATION,
+      selector = SELECTOR_PRODUCT_CHANGED,
+      subscription = EventConstants.DESTINATION
+  )
+  public void onProductChanged(@Header(TenantHeaderFilter.TENANT_HEADER) final String tenant,
+                               final String payload) {
+    this.productSnapshotCache.invalidate(tenant, this.gson.fromJson(payload, String.class));
+  }
+
+  @JmsListener(
+      destination = EventConstants.DESTINATION,
+      selector = SELECTOR_CHARGE_DEFINITION_CHANGED,
+      subscription = EventConstants.DESTINATION
+  )
+  public void onChargeDefinitionChanged(@Header(TenantHeaderFilter.TENANT_HEADER) final String tenant,
+                                        final String payload) {
+    this.productSnapshotCache.invalidate(tenant,
+        this.gson.fromJson(payload, ChargeDefinitionEvent.class).getProductIdentifier());
+  }
+}
@@ -23,6 +23,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -32,6 +33,7 @@ import java.util.Optional;
 public interface CaseRepository extends JpaRepository<CaseEntity, Long> {
   Optional<CaseEntity> findByProductIdentifierAndIdentifier(String productIdentifier, String identifier);
   Page<CaseEntity> findByProductIdentifierAndCurrentStateIn(String productIdentifier, Collection<String> currentStates, Pageable pageRequest);
+  List<CaseEntity> findByCurrentStateAndIdGreaterThanOrderByIdAsc(String currentState, Long id, Pageable pageRequest);
 
   //TODO: It should be possible to delete the @Query once we've updated to spring-data-release train ingalls.
   @Query("SELECT COUNT(t) > 0  FROM CaseEntity t WHERE t.productIdentifier = :productIdentifier")
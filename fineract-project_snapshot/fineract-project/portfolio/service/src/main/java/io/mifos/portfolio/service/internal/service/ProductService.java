@@ -44,15 +44,18 @@ public class ProductService {
   private final ProductRepository productRepository;
   private final ChargeDefinitionService chargeDefinitionService;
   private final AccountingAdapter accountingAdapter;
+  private final ProductSnapshotCache productSnapshotCache;
 
   @Autowired
   public ProductService(final ProductRepository productRepository,
                         final ChargeDefinitionService chargeDefinitionService,
-                        final AccountingAdapter accountingAdapter) {
+                        final AccountingAdapter accountingAdapter,
+                        final ProductSnapshotCache productSnapshotCache) {
     super();
     this.productRepository = productRepository;
     this.chargeDefinitionService = chargeDefinitionService;
     this.accountingAdapter = accountingAdapter;
+    this.productSnapshotCache = productSnapshotCache;
   }
 
   public ProductPage findEntities(final boolean includeDisabled,
@@ -104,6 +107,14 @@ public class ProductService {
     return productRepository.findByIdentifier(identifier).map(ProductMapper::map);
   }
 
+  /**
+   * Returns the product with its charge definitions as they were last committed, reading them only once per change.
+   */
+  public Optional<ProductSnapshot> findSnapshotByIdentifier(final String identifier) {
+    return productSnapshotCache.get(identifier, key -> findByIdentifier(key)
+            .map(product -> ProductSnapshot.of(product, chargeDefinitionService.findAllEntities(key))));
+  }
+
   public Optional<Boolean> findEnabledByIdentifier(final String identifier) {
     return productRepository.findByIdentifier(identifier).map(ProductEntity::getEnabled);
   }
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.portfolio.service.internal.service;
+
+import io.mifos.portfolio.api.v1.domain.AccountAssignment;
+import io.mifos.portfolio.api.v1.domain.ChargeDefinition;
+import io.mifos.portfolio.api.v1.domain.Product;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The parts of a product which loan actions read, indexed once when the product is loaded. Account assignments and
+ * charge definitions are copied on load, so the snapshot shares no instance with the product it was taken from.
+ * Collections are unmodifiable, but the elements in them are shared between all callers of a cached snapshot and are
+ * read-only.
+ */
+public final class ProductSnapshot {
+  private final String identifier;
+  private final int minorCurrencyUnitDigits;
+  private final Set<AccountAssignment> accountAssignments;
+  private final Map<String, List<ChargeDefinition>> chargeDefinitionsMappedByChargeAction;
+  private final Map<String, List<ChargeDefinition>> chargeDefinitionsMappedByAccrueAction;
+
+  public ProductSnapshot(final String identifier,
+                         final int minorCurrencyUnitDigits,
+                         final Set<AccountAssignment> accountAssignments,
+                         final Map<String, List<ChargeDefinition>> chargeDefinitionsMappedByChargeAction,
+                         final Map<String, List<ChargeDefinition>> chargeDefinitionsMappedByAccrueAction) {
+    super();
+    this.identifier = identifier;
+    this.minorCurrencyUnitDigits = minorCurrencyUnitDigits;
+    this.accountAssignments = Collections.unmodifiableSet(new HashSet<>(accountAssignments));
+    this.chargeDefinitionsMappedByChargeAction = unmodifiableCopy(chargeDefinitionsMappedByChargeAction);
+    this.chargeDefinitionsMappedByAccrueAction = unmodifiableCopy(chargeDefinitionsMappedByAccrueAction);
+  }
+
+  public static ProductSnapshot of(final Product product, final List<ChargeDefinition> chargeDefinitions) {
+    final Set<AccountAssignment> accountAssignments = product.getAccountAssignments() == null
+            ? Collections.emptySet()
+            : product.getAccountAssignments().stream().map(ProductSnapshot::copy).collect(Collectors.toSet());
+    final List<ChargeDefinition> copiedChargeDefinitions =
+            chargeDefinitions.stream().map(ProductSnapshot::copy).collect(Collectors.toList());
+    return new ProductSnapshot(
+            product.getIdentifier(),
+            product.getMinorCurrencyUnitDigits(),
+            accountAssignments,
+            groupBy(copiedChargeDefinitions.stream(), ChargeDefinition::getChargeAction),
+            groupBy(copiedChargeDefinitions.stream().filter(x -> x.getAccrueAction() != null), ChargeDefinition::getAccrueAction));
+  }
+
+  public String getIdentifier() {
+    return identifier;
+  }
+
+  public int getMinorCurrencyUnitDigits() {
+    return minorCurrencyUnitDigits;
+  }
+
+  public Set<AccountAssignment> getAccountAssignments() {
+    return accountAssignments;
+  }
+
+  public Map<String, List<ChargeDefinition>> getChargeDefinitionsMappedByChargeAction() {
+    return chargeDefinitionsMappedByChargeAction;
+  }
+
+  public Map<String, List<ChargeDefinition>> getChargeDefinitionsMappedByAccrueAction() {
+    return chargeDefinitionsMappedByAccrueAction;
+  }
+
+  private static Map<String, List<ChargeDefinition>> groupBy(
+          final Stream<ChargeDefinition> chargeDefinitions,
+          final Function<ChargeDefinition, String> action) {
+    return chargeDefinitions.collect(Collectors.groupingBy(action, Collectors.toList()));
+  }
+
+  private static AccountAssignment copy(final AccountAssignment accountAssignment) {
+    final AccountAssignment ret = new AccountAssignment();
+    ret.setDesignator(accountAssignment.getDesignator());
+    ret.setAccountIdentifier(accountAssignment.getAccountIdentifier());
+    ret.setLedgerIdentifier(accountAssignment.getLedgerIdentifier());
+    return ret;
+  }
+
+  private static ChargeDefinition copy(final ChargeDefinition chargeDefinition) {
+    final ChargeDefinition ret = new ChargeDefinition();
+    ret.setIdentifier(chargeDefinition.getIdentifier());
+    ret.setName(chargeDefinition.getName());
+    ret.setDescription(chargeDefinition.getDescription());
+    ret.setAccrueAction(chargeDefinition.getAccrueAction());
+    ret.setChargeAction(chargeDefinition.getChargeAction());
+    ret.setAmount(chargeDefinition.getAmount());
+    ret.setChargeMethod(chargeDefinition.getChargeMethod());
+    ret.setFromAccountDesignator(chargeDefinition.getFromAccountDesignator());
+    ret.setAccrualAccountDesignator(chargeDefinition.getAccrualAccountDesignator());
+    ret.setToAccountDesignator(chargeDefinition.getToAccountDesignator());
+    ret.setForCycleSizeUnit(chargeDefinition.getForCycleSizeUnit());
+    return ret;
+  }
+
+  private static Map<String, List<ChargeDefinition>> unmodifiableCopy(final Map<String, List<ChargeDefinition>> map) {
+    final Map<String, List<ChargeDefinition>> ret = new HashMap<>(map.size());
+    map.forEach((action, chargeDefinitions) ->
+            ret.put(action, Collections.unmodifiableList(new ArrayList<>(chargeDefinitions))));
+    return Collections.unmodifiableMap(ret);
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.portfolio.service.internal.service;
+
+import io.mifos.core.lang.TenantContextHolder;
+import io.mifos.core.lang.TenantGenerations;
+import io.mifos.core.mariadb.util.TransactionCallbacks;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of product snapshots per tenant. A snapshot is dropped once a transaction changing its product
+ * or one of its charge definitions committed, on other instances once the event of the change was received. Unknown
+ * products are not cached, so new products are visible at once.
+ */
+@Component
+@ManagedResource(objectName = "io.mifos.portfolio:name=ProductSnapshotCache")
+public class ProductSnapshotCache {
+
+  private static final int MAX_PRODUCTS_PER_TENANT = 10000;
+
+  private final ConcurrentHashMap<String, ConcurrentHashMap<String, ProductSnapshot>> productsByTenant =
+          new ConcurrentHashMap<>();
+  private final TenantGenerations generations = new TenantGenerations();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder invalidations = new LongAdder();
+
+  public ProductSnapshotCache() {
+    super();
+  }
+
+  public Optional<ProductSnapshot> get(final String productIdentifier,
+                                       final Function<String, Optional<ProductSnapshot>> loader) {
+    final String tenantIdentifier = TenantContextHolder.checkedGetIdentifier();
+    final ConcurrentHashMap<String, ProductSnapshot> products = this.products(tenantIdentifier);
+    final ProductSnapshot cachedProduct = products.get(productIdentifier);
+    if (cachedProduct != null) {
+      this.hits.increment();
+      return Optional.of(cachedProduct);
+    }
+
+    this.misses.increment();
+    final long generationBeforeLoad = this.generations.current(tenantIdentifier);
+    final Optional<ProductSnapshot> product = loader.apply(productIdentifier);
+    product.ifPresent(snapshot -> {
+      if (products.size() >= MAX_PRODUCTS_PER_TENANT)
+        return;
+      products.compute(productIdentifier, (key, currentProduct) ->
+              this.generations.isCurrent(tenantIdentifier, generationBeforeLoad) ? snapshot : currentProduct);
+    });
+    return product;
+  }
+
+  /**
+   * Invalidates the given product of the current tenant after the current transaction committed, or at once if there
+   * is none.
+   */
+  public void invalidateAfterCommit(final String productIdentifier) {
+    final String tenantIdentifier = TenantContextHolder.checkedGetIdentifier();
+    TransactionCallbacks.afterCommit(() -> this.invalidate(tenantIdentifier, productIdentifier));
+  }
+
+  public void invalidate(final String tenantIdentifier, final String productIdentifier) {
+    this.invalidations.increment();
+    this.generations.advance(tenantIdentifier);
+    this.products(tenantIdentifier).remove(productIdentifier);
+  }
+
+  @ManagedAttribute
+  public long getHits() {
+    return this.hits.sum();
+  }
+
+  @ManagedAttribute
+  public long getMisses() {
+    return this.misses.sum();
+  }
+
+  @ManagedAttribute
+  public long getInvalidations() {
+    return this.invalidations.sum();
+  }
+
+  @ManagedAttribute
+  public long getSize() {
+    return this.productsByTenant.values().stream().mapToLong(ConcurrentHashMap::size).sum();
+  }
+
+  @ManagedOperation
+  public void clear() {
+    this.generations.advanceAll();
+    this.productsByTenant.clear();
+  }
+
+  private ConcurrentHashMap<String, ProductSnapshot> products(final String tenantIdentifier) {
+    return this.productsByTenant.computeIfAbsent(tenantIdentifier, key -> new ConcurrentHashMap<>());
+  }
+}
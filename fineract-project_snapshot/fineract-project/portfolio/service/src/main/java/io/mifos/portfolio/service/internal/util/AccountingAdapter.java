@@ -22,6 +22,8 @@ import io.mifos.accounting.api.v1.domain.Account;
 import io.mifos.accounting.api.v1.domain.Creditor;
 import io.mifos.accounting.api.v1.domain.Debtor;
 import io.mifos.accounting.api.v1.domain.JournalEntry;
+import io.mifos.accounting.api.v1.domain.JournalEntryBatch;
+import io.mifos.accounting.api.v1.domain.JournalEntryStatus;
 import io.mifos.core.api.util.UserContextHolder;
 import io.mifos.core.lang.DateConverter;
 import io.mifos.portfolio.api.v1.domain.AccountAssignment;
@@ -50,16 +52,40 @@ public class AccountingAdapter {
   public enum IdentifierType {LEDGER, ACCOUNT}
 
   private final LedgerManager ledgerManager;
+  private final KnownAccountsCache knownAccountsCache;
 
   @Autowired
-  public AccountingAdapter(@SuppressWarnings("SpringJavaAutowiringInspection") final LedgerManager ledgerManager) {
+  public AccountingAdapter(@SuppressWarnings("SpringJavaAutowiringInspection") final LedgerManager ledgerManager,
+                           final KnownAccountsCache knownAccountsCache) {
     this.ledgerManager = ledgerManager;
+    this.knownAccountsCache = knownAccountsCache;
   }
 
   public void bookCharges(final List<ChargeInstance> costComponents,
                           final String note,
                           final String message,
                           final String transactionType) {
+    final JournalEntry journalEntry = getJournalEntry(costComponents, note, message, transactionType,
+            "bastet" + RandomStringUtils.random(26, true, true), LocalDateTime.now());
+
+    ledgerManager.createJournalEntry(journalEntry);
+  }
+
+  public List<JournalEntryStatus> bookJournalEntries(final String batchIdentifier,
+                                                     final List<JournalEntry> journalEntries) {
+    final JournalEntryBatch journalEntryBatch = new JournalEntryBatch();
+    journalEntryBatch.setIdentifier(batchIdentifier);
+    journalEntryBatch.setJournalEntries(journalEntries);
+
+    return ledgerManager.createJournalEntries(journalEntryBatch);
+  }
+
+  public static JournalEntry getJournalEntry(final List<ChargeInstance> costComponents,
+                                             final String note,
+                                             final String message,
+                                             final String transactionType,
+                                             final String transactionIdentifier,
+                                             final LocalDateTime transactionDate) {
     final Set<Creditor> creditors = costComponents.stream()
             .map(AccountingAdapter::mapToCreditor)
             .filter(Optional::isPresent)
@@ -75,13 +101,12 @@ public class AccountingAdapter {
     journalEntry.setCreditors(creditors);
     journalEntry.setDebtors(debtors);
     journalEntry.setClerk(UserContextHolder.checkedGetUser());
-    journalEntry.setTransactionDate(DateConverter.toIsoString(LocalDateTime.now()));
+    journalEntry.setTransactionDate(DateConverter.toIsoString(transactionDate));
     journalEntry.setMessage(message);
     journalEntry.setTransactionType(transactionType);
     journalEntry.setNote(note);
-    journalEntry.setTransactionIdentifier("bastet" + RandomStringUtils.random(26, true, true));
-
-    ledgerManager.createJournalEntry(journalEntry);
+    journalEntry.setTransactionIdentifier(transactionIdentifier);
+    return journalEntry;
   }
 
   private static Optional<Debtor> mapToDebtor(final ChargeInstance chargeInstance) {
@@ -149,13 +174,15 @@ public class AccountingAdapter {
 
   public boolean accountAssignmentRepresentsRealAccount(final AccountAssignment accountAssignment) {
     if (accountAssignment.getAccountIdentifier() != null) {
-      try {
-        ledgerManager.findAccount(accountAssignment.getAccountIdentifier());
-        return true;
-      }
-      catch (final AccountNotFoundException e){
-        return false;
-      }
+      return knownAccountsCache.exists(accountAssignment.getAccountIdentifier(), accountIdentifier -> {
+        try {
+          ledgerManager.findAccount(accountIdentifier);
+          return true;
+        }
+        catch (final AccountNotFoundException e){
+          return false;
+        }
+      });
     }
     else if (accountAssignment.getLedgerIdentifier() != null) {
       try {
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.portfolio.service.internal.util;
+
+import io.mifos.core.lang.TenantContextHolder;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Remembers per tenant which accounts were found in accounting, so that account assignments are not checked
+ * remotely on every action. Only existence is kept, balances are always fetched. Accounts are forgotten when
+ * accounting announces their deletion.
+ */
+@Component
+@ManagedResource(objectName = "io.mifos.portfolio:name=KnownAccountsCache")
+public class KnownAccountsCache {
+
+  private static final int MAX_ACCOUNTS_PER_TENANT = 100000;
+
+  private final ConcurrentHashMap<String, Set<String>> accountsByTenant = new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public KnownAccountsCache() {
+    super();
+  }
+
+  public boolean exists(final String accountIdentifier, final Predicate<String> remoteCheck) {
+    final Set<String> accounts = this.accounts(TenantContextHolder.checkedGetIdentifier());
+    if (accounts.contains(accountIdentifier)) {
+      this.hits.increment();
+      return true;
+    }
+
+    this.misses.increment();
+    final boolean exists = remoteCheck.test(accountIdentifier);
+    if (exists && accounts.size() < MAX_ACCOUNTS_PER_TENANT) {
+      accounts.add(accountIdentifier);
+    }
+    return exists;
+  }
+
+  public void forget(final String tenantIdentifier, final String accountIdentifier) {
+    this.accounts(tenantIdentifier).remove(accountIdentifier);
+  }
+
+  @ManagedAttribute
+  public long getHits() {
+    return this.hits.sum();
+  }
+
+  @ManagedAttribute
+  public long getMisses() {
+    return this.misses.sum();
+  }
+
+  @ManagedAttribute
+  public double getHitRatio() {
+    final long hits = this.hits.sum();
+    final long lookups = hits + this.misses.sum();
+    return lookups == 0L ? 0.0D : (double) hits / lookups;
+  }
+
+  private Set<String> accounts(final String tenantIdentifier) {
+    return this.accountsByTenant.computeIfAbsent(tenantIdentifier, key -> ConcurrentHashMap.newKeySet());
+  }
+}
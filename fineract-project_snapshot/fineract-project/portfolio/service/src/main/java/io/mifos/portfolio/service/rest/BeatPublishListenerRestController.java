@@ -18,6 +18,10 @@ package io.mifos.portfolio.service.rest;
 import io.mifos.anubis.annotation.AcceptedTokenType;
 import io.mifos.anubis.annotation.Permittable;
 import io.mifos.core.command.gateway.CommandGateway;
+import io.mifos.core.lang.DateConverter;
+import io.mifos.core.lang.ServiceException;
+import io.mifos.individuallending.internal.command.AccrueInterestCommand;
+import io.mifos.portfolio.service.ServiceConstants;
 import io.mifos.portfolio.service.internal.command.CreateBeatPublishCommand;
 import io.mifos.rhythm.spi.v1.client.BeatListener;
 import io.mifos.rhythm.spi.v1.domain.BeatPublish;
@@ -28,6 +32,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 
 /**
  * @author Myrle Krantz
@@ -55,6 +61,16 @@ public class BeatPublishListenerRestController {
   ResponseEntity<Void> publishBeat(@RequestBody @Valid final BeatPublish instance)
   {
     this.commandGateway.process(new CreateBeatPublishCommand(instance));
+    if (ServiceConstants.ACCRUAL_BEAT_IDENTIFIER.equals(instance.getIdentifier())) {
+      final LocalDateTime forTime;
+      try {
+        forTime = DateConverter.fromIsoString(instance.getForTime());
+      }
+      catch (final DateTimeParseException e) {
+        throw ServiceException.badRequest("Date {0} must use ISO format", instance.getForTime());
+      }
+      this.commandGateway.process(new AccrueInterestCommand(forTime.toLocalDate().minusDays(1)));
+    }
     return new ResponseEntity<>(HttpStatus.ACCEPTED);
   }
 }
@@ -0,0 +1,31 @@
+--
+-- Copyright 2017 The Mifos Initiative.
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+--    http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+# noinspection SqlNoDataSourceInspectionForFile
+
+CREATE INDEX bastet_cases_state_ix ON bastet_cases (current_state, id);
+
+CREATE TABLE bastet_il_accrual_runs (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  accrual_date             TIMESTAMP(3)   NOT NULL,
+  last_case_id             BIGINT         NOT NULL,
+  cases_processed          BIGINT         NOT NULL,
+  cases_failed             BIGINT         NOT NULL,
+  started_on               TIMESTAMP(3)   NOT NULL,
+  finished_on              TIMESTAMP(3)   NULL,
+  CONSTRAINT bastet_il_accrual_runs_pk PRIMARY KEY (id),
+  CONSTRAINT bastet_il_accrual_runs_uq UNIQUE (accrual_date)
+);
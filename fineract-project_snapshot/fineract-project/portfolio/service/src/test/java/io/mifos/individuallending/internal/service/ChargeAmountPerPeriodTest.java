@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.individuallending.internal.service;
+
+import io.mifos.individuallending.api.v1.domain.workflow.Action;
+import io.mifos.portfolio.api.v1.domain.ChargeDefinition;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Compares the charge amount per period with the formula used before, which rounded the number of periods in a
+ * cycle before dividing by it.
+ */
+@RunWith(Parameterized.class)
+public class ChargeAmountPerPeriodTest {
+  private static final int PRECISION = 20;
+
+  private static class TestCase {
+    private final String description;
+    private BigDecimal amount;
+    private ChronoUnit cycleSizeUnit;
+    private int periodLength;
+
+    TestCase(final String description) {
+      this.description = description;
+    }
+
+    TestCase amount(final BigDecimal newVal) {
+      amount = newVal;
+      return this;
+    }
+
+    TestCase cycleSizeUnit(final ChronoUnit newVal) {
+      cycleSizeUnit = newVal;
+      return this;
+    }
+
+    TestCase periodLength(final int newVal) {
+      periodLength = newVal;
+      return this;
+    }
+
+    @Override
+    public String toString() {
+      return "TestCase{" +
+              "description='" + description + '\'' +
+              '}';
+    }
+  }
+
+  @Parameterized.Parameters
+  public static Collection testCases() {
+    final Collection<TestCase> ret = new ArrayList<>();
+    ret.add(new TestCase("dailyInYears").amount(BigDecimal.valueOf(0.05)).cycleSizeUnit(ChronoUnit.YEARS).periodLength(1));
+    ret.add(new TestCase("weeklyInYears").amount(BigDecimal.valueOf(0.05)).cycleSizeUnit(ChronoUnit.YEARS).periodLength(7));
+    ret.add(new TestCase("elevenDaysInYears").amount(BigDecimal.valueOf(0.2)).cycleSizeUnit(ChronoUnit.YEARS).periodLength(11));
+    ret.add(new TestCase("thirtyDaysInYears").amount(BigDecimal.valueOf(0.2)).cycleSizeUnit(ChronoUnit.YEARS).periodLength(30));
+    ret.add(new TestCase("weeklyInMonths").amount(BigDecimal.valueOf(0.01)).cycleSizeUnit(ChronoUnit.MONTHS).periodLength(7));
+    ret.add(new TestCase("elevenDaysInMonths").amount(BigDecimal.valueOf(0.01)).cycleSizeUnit(ChronoUnit.MONTHS).periodLength(11));
+    ret.add(new TestCase("threeDaysInWeeks").amount(BigDecimal.valueOf(0.003)).cycleSizeUnit(ChronoUnit.WEEKS).periodLength(3));
+    return ret;
+  }
+
+  private final TestCase testCase;
+
+  public ChargeAmountPerPeriodTest(final TestCase testCase) {
+    this.testCase = testCase;
+  }
+
+  @Test
+  public void matchesFormerResultWithinRoundingTolerance()
+  {
+    final LocalDate chargeDate = LocalDate.of(2017, 3, 1);
+    final ChargeDefinition chargeDefinition = new ChargeDefinition();
+    chargeDefinition.setForCycleSizeUnit(testCase.cycleSizeUnit);
+    chargeDefinition.setAmount(testCase.amount);
+    final ScheduledAction scheduledAction = new ScheduledAction(
+            Action.APPLY_INTEREST,
+            chargeDate,
+            new Period(chargeDate, testCase.periodLength),
+            new Period(chargeDate, 30));
+
+    final BigDecimal chargeAmount = PeriodChargeCalculator.chargeAmountPerPeriod(
+            new ScheduledCharge(scheduledAction, chargeDefinition), PRECISION);
+
+    final BigDecimal periodsInCycle = BigDecimal.valueOf(testCase.cycleSizeUnit.getDuration().getSeconds())
+            .divide(BigDecimal.valueOf(ChronoUnit.DAYS.getDuration().multipliedBy(testCase.periodLength).getSeconds()),
+                    PRECISION, BigDecimal.ROUND_HALF_EVEN);
+    final BigDecimal formerChargeAmount = testCase.amount.divide(periodsInCycle, PRECISION, BigDecimal.ROUND_HALF_EVEN);
+
+    final BigDecimal tolerance = BigDecimal.ONE.movePointLeft(PRECISION - 1);
+    Assert.assertTrue(chargeAmount + " differs from " + formerChargeAmount,
+            chargeAmount.subtract(formerChargeAmount).abs().compareTo(tolerance) <= 0);
+  }
+}
@@ -91,13 +91,25 @@ class Fixture {
           final int chargeDateDelta,
           final int periodBeginDelta,
           final int periodLength)
+  {
+    return scheduledInterestCharge(amount, initialDate, chargeDateDelta, 1, periodBeginDelta, periodLength);
+  }
+
+  static ScheduledCharge scheduledInterestCharge(
+          final double amount,
+          final LocalDate initialDate,
+          final int chargeDateDelta,
+          final int occurrences,
+          final int periodBeginDelta,
+          final int periodLength)
   {
     final LocalDate chargeDate = initialDate.plusDays(chargeDateDelta);
     final ScheduledAction scheduledAction = new ScheduledAction(
             Action.APPLY_INTEREST,
             chargeDate,
             new Period(chargeDate, 1),
-            getPeriod(initialDate, periodBeginDelta, periodLength));
+            getPeriod(initialDate, periodBeginDelta, periodLength),
+            occurrences);
     final ChargeDefinition chargeDefinition = new ChargeDefinition();
     chargeDefinition.setChargeMethod(ChargeDefinition.ChargeMethod.PROPORTIONAL);
     chargeDefinition.setForCycleSizeUnit(ChronoUnit.YEARS);
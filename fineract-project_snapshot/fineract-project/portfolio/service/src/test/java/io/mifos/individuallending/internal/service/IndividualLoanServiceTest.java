@@ -24,8 +24,8 @@ import io.mifos.individuallending.api.v1.domain.product.AccountDesignators;
 import io.mifos.individuallending.api.v1.domain.product.ChargeIdentifiers;
 import io.mifos.individuallending.api.v1.domain.workflow.Action;
 import io.mifos.portfolio.api.v1.domain.*;
-import io.mifos.portfolio.service.internal.service.ChargeDefinitionService;
 import io.mifos.portfolio.service.internal.service.ProductService;
+import io.mifos.portfolio.service.internal.service.ProductSnapshot;
 import io.mifos.portfolio.service.internal.util.ChargeInstance;
 import org.junit.Assert;
 import org.junit.Test;
@@ -159,7 +159,7 @@ public class IndividualLoanServiceTest {
 
   private final TestCase testCase;
   private final IndividualLoanService testSubject;
-  private final Product product;
+  private final ProductSnapshot product;
 
 
   private static TestCase simpleCase()
@@ -267,13 +267,14 @@ public class IndividualLoanServiceTest {
     this.testCase = testCase;
 
     final ProductService productServiceMock = Mockito.mock(ProductService.class);
-    final ChargeDefinitionService chargeDefinitionServiceMock = Mockito.mock(ChargeDefinitionService.class);
-    product = new Product();
-    product.setMinorCurrencyUnitDigits(testCase.minorCurrencyUnitDigits);
-    Mockito.doReturn(Optional.of(product)).when(productServiceMock).findByIdentifier(testCase.productIdentifier);
-    Mockito.doReturn(testCase.chargeDefinitionsMappedByAction).when(chargeDefinitionServiceMock).getChargeDefinitionsMappedByChargeAction(testCase.productIdentifier);
-
-    testSubject = new IndividualLoanService(productServiceMock, chargeDefinitionServiceMock, new ScheduledActionService(), new PeriodChargeCalculator());
+    product = new ProductSnapshot(testCase.productIdentifier,
+            testCase.minorCurrencyUnitDigits,
+            Collections.emptySet(),
+            testCase.chargeDefinitionsMappedByAction,
+            Collections.emptyMap());
+    Mockito.doReturn(Optional.of(product)).when(productServiceMock).findSnapshotByIdentifier(testCase.productIdentifier);
+
+    testSubject = new IndividualLoanService(productServiceMock, new ScheduledActionService(), new PeriodChargeCalculator(), new ScheduleCheckpointCache());
   }
 
   @Test
@@ -333,6 +334,29 @@ public class IndividualLoanServiceTest {
     Assert.assertEquals(testCase.expectedChargeIdentifiers, resultChargeIdentifiers);
   }
 
+  @Test
+  public void getPlannedPaymentsFromCheckpoints() throws Exception {
+    final PlannedPaymentPage wholeSchedule = testSubject.getPlannedPaymentsPage(testCase.productIdentifier,
+            testCase.caseParameters,
+            0,
+            Integer.MAX_VALUE / 2,
+            testCase.initialDisbursementDate);
+
+    //Later pages first, so that earlier pages are calculated from the checkpoints left behind.
+    final int pageSize = 7;
+    final int pageCount = (int) Math.ceil(wholeSchedule.getTotalElements() / (double) pageSize);
+    final List<List<PlannedPayment>> pages = new ArrayList<>(Collections.nCopies(pageCount, null));
+    for (int pageIndex = pageCount - 1; pageIndex >= 0; pageIndex--) {
+      final PlannedPaymentPage page = testSubject.getPlannedPaymentsPage(testCase.productIdentifier,
+              testCase.caseParameters, pageIndex, pageSize, testCase.initialDisbursementDate);
+      Assert.assertEquals(wholeSchedule.getTotalElements(), page.getTotalElements());
+      pages.set(pageIndex, page.getElements());
+    }
+
+    Assert.assertEquals(wholeSchedule.getElements(),
+            pages.stream().flatMap(Collection::stream).collect(Collectors.toList()));
+  }
+
   @Test
   public void createChargeInstances() {
     testCase.chargeInstancesForActions.entrySet().forEach(entry ->
@@ -346,6 +370,22 @@ public class IndividualLoanServiceTest {
                             testCase.initialDisbursementDate, entry.getKey().getLocalDate())));
   }
 
+  @Test
+  public void chargeInstancesOfAccrueActionGoToChargeAccountsUnlessAccrued() {
+    final LocalDate forDate = testCase.initialDisbursementDate.plusDays(1);
+    final List<ChargeInstance> chargeInstances = testSubject.getChargeInstances(testCase.productIdentifier,
+            testCase.caseParameters, testCase.caseParameters.getMaximumBalance(), Action.APPLY_INTEREST,
+            testCase.initialDisbursementDate, forDate);
+    final List<ChargeInstance> accrualChargeInstances = testSubject.getAccrualChargeInstances(testCase.productIdentifier,
+            testCase.caseParameters, testCase.caseParameters.getMaximumBalance(), Action.APPLY_INTEREST,
+            testCase.initialDisbursementDate, forDate);
+
+    Assert.assertFalse(chargeInstances.isEmpty());
+    chargeInstances.forEach(x -> Assert.assertEquals(AccountDesignators.INTEREST_INCOME, x.getToAccount()));
+    Assert.assertEquals(chargeInstances.size(), accrualChargeInstances.size());
+    accrualChargeInstances.forEach(x -> Assert.assertEquals(AccountDesignators.INTEREST_ACCRUAL, x.getToAccount()));
+  }
+
   private double percentDifference(final BigDecimal maxPayment, final BigDecimal minPayment) {
     final BigDecimal difference = maxPayment.subtract(minPayment);
     final BigDecimal percentDifference = difference.divide(maxPayment, 4, BigDecimal.ROUND_UP);
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.individuallending.internal.service;
+
+import io.mifos.accounting.api.v1.domain.JournalEntry;
+import io.mifos.accounting.api.v1.domain.JournalEntryStatus;
+import io.mifos.core.api.util.UserContextHolder;
+import io.mifos.core.lang.TenantContextHolder;
+import io.mifos.individuallending.api.v1.domain.caseinstance.CaseParameters;
+import io.mifos.individuallending.api.v1.domain.workflow.Action;
+import io.mifos.individuallending.internal.repository.AccrualRunEntity;
+import io.mifos.individuallending.internal.repository.AccrualRunRepository;
+import io.mifos.portfolio.api.v1.domain.AccountAssignment;
+import io.mifos.portfolio.service.internal.service.ProductService;
+import io.mifos.portfolio.service.internal.service.ProductSnapshot;
+import io.mifos.portfolio.service.internal.util.AccountingAdapter;
+import io.mifos.portfolio.service.internal.util.ChargeInstance;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static io.mifos.individuallending.api.v1.domain.product.AccountDesignators.CUSTOMER_LOAN;
+import static io.mifos.individuallending.api.v1.domain.product.AccountDesignators.INTEREST_ACCRUAL;
+
+public class InterestAccrualServiceTest {
+  private static final String PRODUCT_IDENTIFIER = "product";
+  private static final LocalDate ACCRUAL_DATE = LocalDate.of(2017, 4, 12);
+
+  private final AccrualRunRepository accrualRunRepositoryMock = Mockito.mock(AccrualRunRepository.class);
+  private final CaseParametersService caseParametersServiceMock = Mockito.mock(CaseParametersService.class);
+  private final ProductService productServiceMock = Mockito.mock(ProductService.class);
+  private final IndividualLoanService individualLoanServiceMock = Mockito.mock(IndividualLoanService.class);
+  private final AccountingAdapter accountingAdapterMock = Mockito.mock(AccountingAdapter.class);
+  private InterestAccrualService testSubject;
+
+  @Before
+  public void prepare() {
+    TenantContextHolder.setIdentifier("tenant");
+    UserContextHolder.setAccessToken("clerk", "token");
+
+    final ProductSnapshot product = new ProductSnapshot(PRODUCT_IDENTIFIER, 2,
+            Collections.singleton(new AccountAssignment(INTEREST_ACCRUAL, "accrualAccount")),
+            Collections.emptyMap(), Collections.emptyMap());
+    Mockito.doReturn(Optional.of(product)).when(productServiceMock).findSnapshotByIdentifier(PRODUCT_IDENTIFIER);
+    Mockito.doReturn(Collections.emptyList()).when(accrualRunRepositoryMock).findByFinishedOnIsNullOrderByAccrualDateAsc();
+    Mockito.doReturn(Optional.empty()).when(accrualRunRepositoryMock).findByAccrualDate(ACCRUAL_DATE.atStartOfDay());
+    Mockito.doAnswer(invocation -> {
+      final AccrualRunEntity run = (AccrualRunEntity) invocation.getArguments()[0];
+      run.setId(1L);
+      return run;
+    }).when(accrualRunRepositoryMock).save(Matchers.any(AccrualRunEntity.class));
+    Mockito.doReturn(1).when(accrualRunRepositoryMock).claim(Matchers.anyLong(), Matchers.anyString(), Matchers.anyInt());
+    Mockito.doReturn(1).when(accrualRunRepositoryMock).checkpoint(Matchers.anyLong(), Matchers.anyString(),
+            Matchers.anyLong(), Matchers.anyLong(), Matchers.anyLong(), Matchers.anyInt());
+    Mockito.doReturn(1).when(accrualRunRepositoryMock).finish(Matchers.anyLong(), Matchers.anyString());
+    Mockito.doReturn(BigDecimal.valueOf(1000)).when(accountingAdapterMock).getCurrentBalance("loanAccount1");
+    Mockito.doReturn(BigDecimal.valueOf(2000)).when(accountingAdapterMock).getCurrentBalance("loanAccount2");
+
+    testSubject = new InterestAccrualService(Mockito.mock(Logger.class), accrualRunRepositoryMock,
+            caseParametersServiceMock, productServiceMock, individualLoanServiceMock, accountingAdapterMock);
+  }
+
+  @After
+  public void cleanup() {
+    testSubject.shutdown();
+    TenantContextHolder.clear();
+    UserContextHolder.clear();
+  }
+
+  @Test
+  public void accrueBooksChunksAndCheckpoints() {
+    final AccrualCase firstCase = accrualCase(7L, "loanAccount1", BigDecimal.valueOf(1000), "0.14");
+    final AccrualCase secondCase = accrualCase(9L, "loanAccount2", BigDecimal.valueOf(2000), "0.27");
+    Mockito.doReturn(Arrays.asList(firstCase, secondCase)).when(caseParametersServiceMock).findActiveCasesAfter(0L, 500);
+    Mockito.doReturn(Collections.emptyList()).when(caseParametersServiceMock).findActiveCasesAfter(9L, 500);
+    Mockito.doReturn(Collections.singletonList(new JournalEntryStatus("x", JournalEntryStatus.State.ACCEPTED, null)))
+            .when(accountingAdapterMock).bookJournalEntries(Matchers.anyString(), Matchers.anyListOf(JournalEntry.class));
+
+    testSubject.accrue(ACCRUAL_DATE);
+
+    @SuppressWarnings("unchecked")
+    final ArgumentCaptor<List<JournalEntry>> journalEntries = ArgumentCaptor.forClass((Class) List.class);
+    Mockito.verify(accountingAdapterMock).bookJournalEntries(Matchers.eq("bastet20170412c7"), journalEntries.capture());
+    Assert.assertEquals(2, journalEntries.getValue().size());
+    final JournalEntry first = journalEntries.getValue().get(0);
+    Assert.assertEquals("bastet20170412i7", first.getTransactionIdentifier());
+    Assert.assertEquals("2017-04-13T00:00:00Z", first.getTransactionDate());
+    Assert.assertEquals("loanAccount1", first.getDebtors().iterator().next().getAccountNumber());
+    Assert.assertEquals("accrualAccount", first.getCreditors().iterator().next().getAccountNumber());
+    Assert.assertEquals("0.14", first.getCreditors().iterator().next().getAmount());
+    Assert.assertEquals("bastet20170412i9", journalEntries.getValue().get(1).getTransactionIdentifier());
+
+    final ArgumentCaptor<AccrualRunEntity> runs = ArgumentCaptor.forClass(AccrualRunEntity.class);
+    Mockito.verify(accrualRunRepositoryMock).save(runs.capture());
+    final String leaseOwner = runs.getValue().getLeaseOwner();
+    Assert.assertNotNull(leaseOwner);
+    Mockito.verify(accrualRunRepositoryMock).claim(1L, leaseOwner, 900);
+    Mockito.verify(accrualRunRepositoryMock).checkpoint(1L, leaseOwner, 9L, 2L, 0L, 900);
+    Mockito.verify(accrualRunRepositoryMock).finish(1L, leaseOwner);
+    Assert.assertEquals(2L, testSubject.getCasesProcessed());
+  }
+
+  @Test
+  public void resumedRunCountsFailuresButNotDuplicates() {
+    final AccrualRunEntity interruptedRun = interruptedRun(2L);
+    Mockito.doReturn(Collections.singletonList(interruptedRun)).when(accrualRunRepositoryMock).findByFinishedOnIsNullOrderByAccrualDateAsc();
+    Mockito.doReturn(Optional.of(interruptedRun)).when(accrualRunRepositoryMock).findByAccrualDate(ACCRUAL_DATE.atStartOfDay());
+
+    final AccrualCase bookedCase = accrualCase(7L, "loanAccount1", BigDecimal.valueOf(1000), "0.14");
+    final AccrualCase caseWithoutParameters = new AccrualCase(8L, PRODUCT_IDENTIFIER, "case8", ACCRUAL_DATE,
+            null, Collections.emptySet());
+    Mockito.doReturn(Arrays.asList(bookedCase, caseWithoutParameters)).when(caseParametersServiceMock).findActiveCasesAfter(3L, 500);
+    Mockito.doReturn(Collections.emptyList()).when(caseParametersServiceMock).findActiveCasesAfter(8L, 500);
+    Mockito.doReturn(Collections.singletonList(new JournalEntryStatus("bastet20170411i7", JournalEntryStatus.State.DUPLICATE, null)))
+            .when(accountingAdapterMock).bookJournalEntries(Matchers.anyString(), Matchers.anyListOf(JournalEntry.class));
+
+    testSubject.accrue(ACCRUAL_DATE);
+
+    Mockito.verify(accountingAdapterMock).bookJournalEntries(Matchers.eq("bastet20170411c7"), Matchers.anyListOf(JournalEntry.class));
+    Mockito.verify(accrualRunRepositoryMock).checkpoint(Matchers.eq(2L), Matchers.anyString(),
+            Matchers.eq(8L), Matchers.eq(5L), Matchers.eq(1L), Matchers.eq(900));
+    Mockito.verify(accrualRunRepositoryMock).finish(Matchers.eq(2L), Matchers.anyString());
+    Mockito.verify(accrualRunRepositoryMock, Mockito.never()).save(Matchers.any(AccrualRunEntity.class));
+  }
+
+  @Test
+  public void runLeasedElsewhereIsSkipped() {
+    final AccrualRunEntity runningRun = interruptedRun(2L);
+    Mockito.doReturn(Collections.singletonList(runningRun)).when(accrualRunRepositoryMock).findByFinishedOnIsNullOrderByAccrualDateAsc();
+    Mockito.doReturn(Optional.of(runningRun)).when(accrualRunRepositoryMock).findByAccrualDate(ACCRUAL_DATE.atStartOfDay());
+    Mockito.doReturn(0).when(accrualRunRepositoryMock).claim(Matchers.eq(2L), Matchers.anyString(), Matchers.anyInt());
+
+    testSubject.accrue(ACCRUAL_DATE);
+
+    Mockito.verifyZeroInteractions(caseParametersServiceMock, accountingAdapterMock);
+    Mockito.verify(accrualRunRepositoryMock, Mockito.never()).finish(Matchers.anyLong(), Matchers.anyString());
+  }
+
+  @Test
+  public void runStopsWhenLeaseIsLost() {
+    final AccrualCase firstCase = accrualCase(7L, "loanAccount1", BigDecimal.valueOf(1000), "0.14");
+    Mockito.doReturn(Collections.singletonList(firstCase)).when(caseParametersServiceMock).findActiveCasesAfter(0L, 500);
+    Mockito.doReturn(Collections.emptyList())
+            .when(accountingAdapterMock).bookJournalEntries(Matchers.anyString(), Matchers.anyListOf(JournalEntry.class));
+    Mockito.doReturn(0).when(accrualRunRepositoryMock).checkpoint(Matchers.anyLong(), Matchers.anyString(),
+            Matchers.anyLong(), Matchers.anyLong(), Matchers.anyLong(), Matchers.anyInt());
+
+    testSubject.accrue(ACCRUAL_DATE);
+
+    Mockito.verify(caseParametersServiceMock, Mockito.never()).findActiveCasesAfter(7L, 500);
+    Mockito.verify(accrualRunRepositoryMock, Mockito.never()).finish(Matchers.anyLong(), Matchers.anyString());
+  }
+
+  private AccrualRunEntity interruptedRun(final Long id) {
+    final AccrualRunEntity run = new AccrualRunEntity();
+    run.setId(id);
+    run.setAccrualDate(ACCRUAL_DATE.minusDays(1).atStartOfDay());
+    run.setLastCaseId(3L);
+    run.setCasesProcessed(3L);
+    run.setCasesFailed(0L);
+    return run;
+  }
+
+  private AccrualCase accrualCase(final Long id,
+                                  final String customerLoanAccount,
+                                  final BigDecimal balance,
+                                  final String interest) {
+    final CaseParameters caseParameters = new CaseParameters();
+    final LocalDate createdOn = ACCRUAL_DATE.minusMonths(1);
+    Mockito.doReturn(Collections.singletonList(new ChargeInstance(CUSTOMER_LOAN, INTEREST_ACCRUAL, new BigDecimal(interest))))
+            .when(individualLoanServiceMock).getAccrualChargeInstances(
+                    Matchers.eq(PRODUCT_IDENTIFIER), Matchers.same(caseParameters), Matchers.eq(balance),
+                    Matchers.eq(Action.APPLY_INTEREST), Matchers.eq(createdOn), Matchers.any(LocalDate.class));
+    return new AccrualCase(id, PRODUCT_IDENTIFIER, "case" + id, createdOn, caseParameters,
+            Collections.singleton(new AccountAssignment(CUSTOMER_LOAN, customerLoanAccount)));
+  }
+}
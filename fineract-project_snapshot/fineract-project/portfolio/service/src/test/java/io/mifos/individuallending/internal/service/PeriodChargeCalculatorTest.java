@@ -72,7 +72,9 @@ public class PeriodChargeCalculatorTest {
     final Collection<TestCase> ret = new ArrayList<>();
     ret.add(simpleCase());
     ret.add(bitOfCompoundingCase());
+    ret.add(repeatedCompoundingCase());
     ret.add(zeroInterestPerPeriod());
+    ret.add(longCompoundingCase());
     return ret;
   }
 
@@ -119,6 +121,26 @@ public class PeriodChargeCalculatorTest {
             .expectedPeriodRates(expectedPeriodRates);
   }
 
+  private static TestCase repeatedCompoundingCase()
+  {
+    final LocalDate initialDate = LocalDate.now();
+    final List<ScheduledCharge> scheduledCharges = new ArrayList<>();
+    scheduledCharges.add(scheduledInterestCharge(0.01, initialDate, 0, 3, 0, 3));
+    scheduledCharges.add(scheduledInterestCharge(0.01, initialDate, 3, 2, 2, 2));
+
+    final BigDecimal dailyInterestRate = BigDecimal.valueOf(0.01)
+            .divide(BigDecimal.valueOf(365.2425), 20, BigDecimal.ROUND_HALF_EVEN);
+
+    final Map<Period, BigDecimal> expectedPeriodRates = new HashMap<>();
+    expectedPeriodRates.put(getPeriod(initialDate, 0, 3), createCompoundedInterestRate(dailyInterestRate, 3, 20));
+    expectedPeriodRates.put(getPeriod(initialDate, 2, 2), createCompoundedInterestRate(dailyInterestRate, 2, 20));
+
+    return new TestCase("repeatedCompoundingCase")
+            .scheduledCharges(scheduledCharges)
+            .precision(20)
+            .expectedPeriodRates(expectedPeriodRates);
+  }
+
   private static TestCase zeroInterestPerPeriod()
   {
     final LocalDate initialDate = LocalDate.now();
@@ -139,6 +161,28 @@ public class PeriodChargeCalculatorTest {
             .expectedPeriodRates(expectedPeriodRates);
   }
 
+  private static TestCase longCompoundingCase()
+  {
+    final LocalDate initialDate = LocalDate.now();
+    final List<ScheduledCharge> scheduledCharges = new ArrayList<>();
+    final Map<Period, BigDecimal> expectedPeriodRates = new HashMap<>();
+    final BigDecimal dailyInterestRate = BigDecimal.valueOf(0.05)
+            .divide(BigDecimal.valueOf(365.2425), 24, BigDecimal.ROUND_HALF_EVEN);
+    //The expected rates are compounded without any bound on precision.
+    final BigDecimal expectedPeriodRate = BigDecimal.ONE.add(dailyInterestRate).pow(30)
+            .subtract(BigDecimal.ONE)
+            .setScale(24, BigDecimal.ROUND_HALF_EVEN);
+    for (int i = 0; i < 12; i++) {
+      scheduledCharges.add(scheduledInterestCharge(0.05, initialDate, i * 30, 30, i * 30, 30));
+      expectedPeriodRates.put(getPeriod(initialDate, i * 30, 30), expectedPeriodRate);
+    }
+
+    return new TestCase("longCompoundingCase")
+            .scheduledCharges(scheduledCharges)
+            .precision(24)
+            .expectedPeriodRates(expectedPeriodRates);
+  }
+
   private static BigDecimal createCompoundedInterestRate(BigDecimal interestRate, int periodCount, int precision)
   {
     return Stream.generate(() -> interestRate).limit(periodCount).collect(RateCollectors.compound(precision));
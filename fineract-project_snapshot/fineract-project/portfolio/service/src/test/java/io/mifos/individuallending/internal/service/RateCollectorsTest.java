@@ -125,6 +125,16 @@ public class RateCollectorsTest {
     Assert.assertEquals(testCase.expectedCompound, testCase.values.stream().collect(RateCollectors.compound(testCase.significantDigits)));
   }
 
+  @Test
+  public void compoundMatchesUnboundedProduct()
+  {
+    final BigDecimal unboundedProduct = testCase.values.stream()
+            .map(BigDecimal.ONE::add)
+            .reduce(BigDecimal.ONE, BigDecimal::multiply);
+    Assert.assertEquals(unboundedProduct.subtract(BigDecimal.ONE).setScale(testCase.significantDigits, BigDecimal.ROUND_HALF_EVEN),
+            testCase.values.stream().collect(RateCollectors.compound(testCase.significantDigits)));
+  }
+
   @Test
   public void compoundAndGeometricMeanCompatible()
   {
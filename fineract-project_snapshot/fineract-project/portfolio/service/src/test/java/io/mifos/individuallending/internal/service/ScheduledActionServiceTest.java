@@ -28,6 +28,7 @@ import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static io.mifos.individuallending.internal.service.Fixture.*;
 
@@ -380,6 +381,22 @@ public class ScheduledActionServiceTest {
     Assert.assertTrue(maximumOneInterestPerDay(result));
   }
 
+  @Test
+  public void getCondensedScheduledActions() throws Exception {
+    final ScheduledActionService testSubject = new ScheduledActionService();
+    final List<ScheduledAction> result = testSubject.getCondensedHypotheticalScheduledActions(testCase.initialDisbursementDate, testCase.caseParameters);
+
+    final List<ScheduledAction> expandedResult = result.stream()
+            .flatMap(x -> IntStream.range(0, x.occurrences).mapToObj(x::occurrence))
+            .collect(Collectors.toList());
+    Assert.assertEquals(testSubject.getHypotheticalScheduledActions(testCase.initialDisbursementDate, testCase.caseParameters), expandedResult);
+    Assert.assertEquals(testCase.expectedInterestCount, result.stream()
+            .filter(x -> x.action == Action.APPLY_INTEREST)
+            .mapToLong(x -> x.occurrences)
+            .sum());
+    Assert.assertTrue(countActionsByType(result, Action.APPLY_INTEREST) <= testCase.expectedPaymentCount);
+  }
+
   private long countActionsByType(final List<ScheduledAction> scheduledActions, final Action actionToCount) {
     return scheduledActions.stream().filter(x -> x.action == actionToCount)
             .collect(Collectors.counting());
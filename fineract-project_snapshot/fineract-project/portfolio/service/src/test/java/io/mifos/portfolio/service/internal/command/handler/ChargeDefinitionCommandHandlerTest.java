@@ -16,7 +16,9 @@
 package io.mifos.portfolio.service.internal.command.handler;
 
 import io.mifos.portfolio.service.internal.command.DeleteProductChargeDefinitionCommand;
+import io.mifos.portfolio.service.internal.repository.ChargeDefinitionEntity;
 import io.mifos.portfolio.service.internal.repository.ChargeDefinitionRepository;
+import io.mifos.portfolio.service.internal.service.ProductSnapshotCache;
 import io.mifos.core.lang.ServiceException;
 import org.junit.Assert;
 import org.junit.Test;
@@ -37,7 +39,7 @@ public class ChargeDefinitionCommandHandlerTest {
             .when(chargeDefinitionRepositoryMock)
             .findByProductIdAndChargeDefinitionIdentifier(productIdentifier, chargeDefinitionIdentifier);
 
-    final ChargeDefinitionCommandHandler testSubject = new ChargeDefinitionCommandHandler(null, chargeDefinitionRepositoryMock);
+    final ChargeDefinitionCommandHandler testSubject = new ChargeDefinitionCommandHandler(null, chargeDefinitionRepositoryMock, new ProductSnapshotCache());
 
     try {
       testSubject.process(new DeleteProductChargeDefinitionCommand(productIdentifier, chargeDefinitionIdentifier));
@@ -49,4 +51,22 @@ public class ChargeDefinitionCommandHandlerTest {
       Assert.assertTrue(e.getMessage().contains(chargeDefinitionIdentifier));
     }
   }
-}
\ No newline at end of file
+
+  @Test
+  public void processDeleteInvalidatesProductSnapshot() throws Exception {
+    final String productIdentifier = "bibbledybobbeldy";
+    final String chargeDefinitionIdentifier = "booboo";
+    final ChargeDefinitionEntity toDelete = new ChargeDefinitionEntity();
+    final ChargeDefinitionRepository chargeDefinitionRepositoryMock = Mockito.mock(ChargeDefinitionRepository.class);
+    Mockito.doReturn(Optional.of(toDelete))
+            .when(chargeDefinitionRepositoryMock)
+            .findByProductIdAndChargeDefinitionIdentifier(productIdentifier, chargeDefinitionIdentifier);
+    final ProductSnapshotCache productSnapshotCacheMock = Mockito.mock(ProductSnapshotCache.class);
+
+    final ChargeDefinitionCommandHandler testSubject = new ChargeDefinitionCommandHandler(null, chargeDefinitionRepositoryMock, productSnapshotCacheMock);
+    testSubject.process(new DeleteProductChargeDefinitionCommand(productIdentifier, chargeDefinitionIdentifier));
+
+    Mockito.verify(chargeDefinitionRepositoryMock).delete(toDelete);
+    Mockito.verify(productSnapshotCacheMock).invalidateAfterCommit(productIdentifier);
+  }
+}
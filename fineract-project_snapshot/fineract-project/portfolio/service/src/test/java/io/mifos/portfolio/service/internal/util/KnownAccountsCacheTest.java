@@ -0,0 +1,70 @@
+/*
+ * Copyright 2017 The Mifos Initiative.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mifos.portfolio.service.internal.util;
+
+import io.mifos.core.lang.TenantContextHolder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class KnownAccountsCacheTest {
+
+  private static final String TENANT = "tenant";
+
+  @Before
+  public void prepare() {
+    TenantContextHolder.setIdentifier(TENANT);
+  }
+
+  @After
+  public void cleanup() {
+    TenantContextHolder.clear();
+  }
+
+  @Test
+  public void shouldCheckExistingAccountOnlyOnce() {
+    final KnownAccountsCache testSubject = new KnownAccountsCache();
+    final AtomicInteger remoteChecks = new AtomicInteger();
+
+    Assert.assertTrue(testSubject.exists("7010", identifier -> remoteChecks.incrementAndGet() > 0));
+    Assert.assertTrue(testSubject.exists("7010", identifier -> remoteChecks.incrementAndGet() > 0));
+
+    Assert.assertEquals(1, remoteChecks.get());
+    Assert.assertEquals(1L, testSubject.getHits());
+    Assert.assertEquals(1L, testSubject.getMisses());
+  }
+
+  @Test
+  public void shouldNotRememberMissingAccount() {
+    final KnownAccountsCache testSubject = new KnownAccountsCache();
+
+    Assert.assertFalse(testSubject.exists("7010", identifier -> false));
+    Assert.assertTrue(testSubject.exists("7010", identifier -> true));
+  }
+
+  @Test
+  public void shouldCheckForgottenAccountAgain() {
+    final KnownAccountsCache testSubject = new KnownAccountsCache();
+    Assert.assertTrue(testSubject.exists("7010", identifier -> true));
+
+    testSubject.forget(TENANT, "7010");
+
+    Assert.assertFalse(testSubject.exists("7010", identifier -> false));
+  }
+}
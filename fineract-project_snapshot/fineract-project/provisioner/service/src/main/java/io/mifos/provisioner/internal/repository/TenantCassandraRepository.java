@@ -94,6 +94,7 @@ public class TenantCassandraRepository {
       session.close();
 
       tenantEntityMapper.delete(identifier);
+      this.cassandraSessionProvider.invalidateTenant(identifier);
     }
   }
 
@@ -127,6 +128,7 @@ public class TenantCassandraRepository {
     session.close();
 
     tenantEntityMapper.save(tenant);
+    this.cassandraSessionProvider.invalidateTenant(tenant.getIdentifier());
   }
 
   private Cluster getCluster(final @Nonnull TenantEntity tenantEntity) {